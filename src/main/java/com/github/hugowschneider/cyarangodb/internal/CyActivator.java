@@ -13,7 +13,14 @@ import org.cytoscape.application.CyApplicationManager;
 import org.cytoscape.application.swing.CySwingApplication;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.events.AboutToRemoveEdgesListener;
+import org.cytoscape.model.events.AboutToRemoveNodesListener;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedListener;
+import org.cytoscape.model.events.NetworkAddedListener;
 import org.cytoscape.service.util.AbstractCyActivator;
+import org.cytoscape.session.events.SessionAboutToBeLoadedListener;
+import org.cytoscape.session.events.SessionAboutToBeSavedListener;
+import org.cytoscape.session.events.SessionLoadedListener;
 import org.cytoscape.task.EdgeViewTaskFactory;
 import org.cytoscape.task.NetworkViewTaskFactory;
 import org.cytoscape.task.NodeViewTaskFactory;
@@ -36,7 +43,10 @@ import com.github.hugowschneider.cyarangodb.internal.ui.ManageConnectionsAction;
 import com.github.hugowschneider.cyarangodb.internal.ui.task.EdgeDetailContextMenuFactory;
 import com.github.hugowschneider.cyarangodb.internal.ui.task.ExpandNetworkContextMenuFactory;
 import com.github.hugowschneider.cyarangodb.internal.ui.task.ExpandNodeContextMenuFactory;
+import com.github.hugowschneider.cyarangodb.internal.ui.task.LiveSyncContextMenuFactory;
 import com.github.hugowschneider.cyarangodb.internal.ui.task.NodeDetailContextMenuFactory;
+import com.github.hugowschneider.cyarangodb.internal.ui.task.ReplayNetworkContextMenuFactory;
+import com.github.hugowschneider.cyarangodb.internal.ui.task.UpdateNetworkContextMenuFactory;
 
 /**
  * The activator for the CyArangoDB application.
@@ -48,6 +58,16 @@ public class CyActivator extends AbstractCyActivator {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(CyActivator.class);
 
+	/**
+	 * The connection manager of the application.
+	 */
+	private ConnectionManager connectionManager;
+
+	/**
+	 * The network manager of the application.
+	 */
+	private NetworkManager networkManager;
+
 	/**
 	 * Creates a new CyActivator.
 	 */
@@ -87,13 +107,26 @@ public class CyActivator extends AbstractCyActivator {
 				VisualMappingFunctionFactory.class,
 				"(mapping.type=passthrough)");
 
-		ConnectionManager connectionManager = new ConnectionManager();
+		connectionManager = new ConnectionManager();
 		ArangoNetworkStyle arangoNetworkStyle = new ArangoNetworkStyle(visualMappingManager, visualStyleFactory,
 				mappingFunctionFactoryDiscrete, mappingFunctionPassthorugh);
 
-		NetworkManager networkManager = new NetworkManager(cyNetworkFactory, cyNetworkManager, cyNetworkViewFactory,
+		networkManager = new NetworkManager(cyNetworkFactory, cyNetworkManager, cyNetworkViewFactory,
 				cyNetworkViewManager, cyApplicationManager, cyLayoutAlgorithmManager, taskManager, arangoNetworkStyle);
 
+		// Release the adapters of destroyed networks and closed sessions
+		registerService(context, networkManager, NetworkAboutToBeDestroyedListener.class, new Properties());
+		registerService(context, networkManager, SessionAboutToBeLoadedListener.class, new Properties());
+		// Give copies of imported networks their own adapter
+		registerService(context, networkManager, NetworkAddedListener.class, new Properties());
+		// Rebuild the adapters of restored networks
+		registerService(context, networkManager, SessionLoadedListener.class, new Properties());
+		// Save the metadata of expansions with the session
+		registerService(context, networkManager, SessionAboutToBeSavedListener.class, new Properties());
+		// Keep the adapters in sync with the nodes and edges users delete
+		registerService(context, networkManager, AboutToRemoveNodesListener.class, new Properties());
+		registerService(context, networkManager, AboutToRemoveEdgesListener.class, new Properties());
+
 		// Manu actions
 
 		JFrame cytoscapeMain = cySwingApplication.getJFrame();
@@ -132,8 +165,74 @@ public class CyActivator extends AbstractCyActivator {
 			registerService(context, factory, NetworkViewTaskFactory.class, props);
 		}
 
+		{
+			ReplayNetworkContextMenuFactory factory = new ReplayNetworkContextMenuFactory(networkManager,
+					connectionManager,
+					cytoscapeMain, true);
+
+			Properties props = new Properties();
+			props.setProperty("preferredTaskManager", "menu");
+			props.setProperty(PREFERRED_MENU, NODE_APPS_MENU);
+			props.setProperty(MENU_GRAVITY, "1.1");
+			props.setProperty(TITLE, "Refresh Network from ArangoDB");
+			registerService(context, factory, NetworkViewTaskFactory.class, props);
+		}
+
+		{
+			ReplayNetworkContextMenuFactory factory = new ReplayNetworkContextMenuFactory(networkManager,
+					connectionManager,
+					cytoscapeMain, false);
+
+			Properties props = new Properties();
+			props.setProperty("preferredTaskManager", "menu");
+			props.setProperty(PREFERRED_MENU, NODE_APPS_MENU);
+			props.setProperty(MENU_GRAVITY, "1.2");
+			props.setProperty(TITLE, "Rebuild Network from ArangoDB");
+			registerService(context, factory, NetworkViewTaskFactory.class, props);
+		}
+
+		{
+			UpdateNetworkContextMenuFactory factory = new UpdateNetworkContextMenuFactory(networkManager,
+					connectionManager,
+					cytoscapeMain);
+
+			Properties props = new Properties();
+			props.setProperty("preferredTaskManager", "menu");
+			props.setProperty(PREFERRED_MENU, NODE_APPS_MENU);
+			props.setProperty(MENU_GRAVITY, "1.3");
+			props.setProperty(TITLE, "Update Changed Documents from ArangoDB");
+			registerService(context, factory, NetworkViewTaskFactory.class, props);
+		}
+
+		{
+			LiveSyncContextMenuFactory factory = new LiveSyncContextMenuFactory(networkManager,
+					connectionManager,
+					cytoscapeMain, true);
+
+			Properties props = new Properties();
+			props.setProperty("preferredTaskManager", "menu");
+			props.setProperty(PREFERRED_MENU, NODE_APPS_MENU);
+			props.setProperty(MENU_GRAVITY, "1.4");
+			props.setProperty(TITLE, "Follow Changes in ArangoDB");
+			registerService(context, factory, NetworkViewTaskFactory.class, props);
+		}
+
+		{
+			LiveSyncContextMenuFactory factory = new LiveSyncContextMenuFactory(networkManager,
+					connectionManager,
+					cytoscapeMain, false);
+
+			Properties props = new Properties();
+			props.setProperty("preferredTaskManager", "menu");
+			props.setProperty(PREFERRED_MENU, NODE_APPS_MENU);
+			props.setProperty(MENU_GRAVITY, "1.5");
+			props.setProperty(TITLE, "Stop Following Changes in ArangoDB");
+			registerService(context, factory, NetworkViewTaskFactory.class, props);
+		}
+
 		{
 			EdgeDetailContextMenuFactory factory = new EdgeDetailContextMenuFactory(
+					networkManager,
 					connectionManager,
 					cytoscapeMain);
 
@@ -147,6 +246,7 @@ public class CyActivator extends AbstractCyActivator {
 
 		{
 			NodeDetailContextMenuFactory factory = new NodeDetailContextMenuFactory(
+					networkManager,
 					connectionManager,
 					cytoscapeMain);
 
@@ -160,4 +260,21 @@ public class CyActivator extends AbstractCyActivator {
 		LOGGER.debug("CyArangoDB Application started.");
 
 	}
+
+	/**
+	 * Stops the CyArangoDB application, stopping the live syncs of networks and
+	 * writing pending configuration changes.
+	 *
+	 * @param context the bundle context
+	 */
+	@Override
+	public void stop(BundleContext context) {
+		super.stop(context);
+		if (networkManager != null) {
+			networkManager.close();
+		}
+		if (connectionManager != null) {
+			connectionManager.close();
+		}
+	}
 }
\ No newline at end of file
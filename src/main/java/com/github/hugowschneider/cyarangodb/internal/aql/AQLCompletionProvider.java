@@ -2,16 +2,15 @@ package com.github.hugowschneider.cyarangodb.internal.aql;
 
 import java.awt.Point;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 import javax.swing.text.Element;
@@ -19,17 +18,16 @@ import javax.swing.text.JTextComponent;
 import javax.swing.text.Segment;
 
 import org.fife.ui.autocomplete.AbstractCompletionProvider;
+import org.fife.ui.autocomplete.AutoCompletion;
 import org.fife.ui.autocomplete.BasicCompletion;
 import org.fife.ui.autocomplete.Completion;
 import org.fife.ui.autocomplete.ParameterizedCompletion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.arangodb.ArangoCursor;
 import com.arangodb.ArangoDatabase;
-import com.arangodb.entity.CollectionEntity;
-import com.arangodb.entity.CollectionType;
-import com.arangodb.model.CollectionsReadOptions;
+import com.github.hugowschneider.cyarangodb.internal.connection.IdCompletionSettings;
+import com.github.hugowschneider.cyarangodb.internal.connection.SchemaCatalog;
 
 /**
  * AQLCompletionProvider is a class that provides auto-completion suggestions
@@ -48,11 +46,21 @@ import com.arangodb.model.CollectionsReadOptions;
  * to provide auto-completion suggestions while typing AQL queries.
  * It can be initialized with an ArangoDatabase instance and can be updated with
  * a new ArangoDatabase instance to reflect changes in the database.
+ * Dialogs pass the shared {@link SchemaCatalog} of the connection along, so
+ * that collection and graph names come from the catalog instead of the
+ * database.
  *
  * The class provides context-aware completions based on the previous word
  * entered by the user.
  * It filters the completions based on the current word and the previous word,
- * and returns a list of completions sorted alphabetically.
+ * and returns a list of completions sorted alphabetically. The previous word
+ * and the declared variables come from an {@link AqlContextModel} kept
+ * up to date with the document.
+ * Node ids are looked up in the database, either right away or, once
+ * asynchronous lookups are enabled, debounced on a background thread by a
+ * {@link NodeIdLookup}. Their results are kept in a {@link NodeIdCache}, which
+ * also answers longer prefixes without another lookup and is shared by all
+ * dialogs of a connection.
  *
  * AQLCompletionProvider also inherits the basic completion functionality from
  * the AbstractCompletionProvider class.
@@ -72,23 +80,20 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 	/**
 	 * AQL keywords that can appear before collections in an AQL query.
 	 */
-	private static final String[] AQL_KEYWORDS_BEFORE_COLLECTIONS = {
-			"IN"
-	};
+	private static final Set<String> AQL_KEYWORDS_BEFORE_COLLECTIONS = Set.of(
+			"IN");
 
 	/**
 	 * AQL keywords that can appear before nodes in an AQL query.
 	 */
-	private static final String[] AQL_KEYWORDS_BEFORE_NODES = {
-			"ANY", "INBOUND", "OUTBOUND", "ALL_SHORTEST_PATHS", "K_PATHS", "K_SHORTEST_PATHS", "SHORTEST_PATH"
-	};
+	private static final Set<String> AQL_KEYWORDS_BEFORE_NODES = Set.of(
+			"ANY", "INBOUND", "OUTBOUND", "ALL_SHORTEST_PATHS", "K_PATHS", "K_SHORTEST_PATHS", "SHORTEST_PATH");
 
 	/**
 	 * AQL keywords that can appear before graphs in an AQL query.
 	 */
-	private static final String[] AQL_KEYWORDS_BEFORE_GRAPHS = {
-			"GRAPH"
-	};
+	private static final Set<String> AQL_KEYWORDS_BEFORE_GRAPHS = Set.of(
+			"GRAPH");
 
 	/**
 	 * AQL keywords used in AQL queries.
@@ -145,25 +150,83 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 	private Segment seg;
 
 	/**
-	 * List of document collection names.
+	 * Prefix index of the document collection names.
+	 */
+	private PrefixIndex docCollectionNames = PrefixIndex.EMPTY;
+
+	/**
+	 * Prefix index of the edge collection names.
 	 */
-	private List<String> docCollectionNames;
+	private PrefixIndex edgeCollectionNames = PrefixIndex.EMPTY;
 
 	/**
-	 * List of edge collection names.
+	 * Prefix index of the graph names.
 	 */
-	private List<String> edgeCollectionNames;
+	private PrefixIndex graphNames = PrefixIndex.EMPTY;
 
 	/**
-	 * List of graph names.
+	 * The schema the name indexes were built from.
 	 */
-	private List<String> graphNames;
+	private SchemaCatalog.Snapshot appliedSchema;
 
 	/**
 	 * The previous word entered by the user.
 	 */
 	private String previousWord;
 
+	/**
+	 * The AQL clause context before the entered text.
+	 */
+	private AqlContextModel.Context context = AqlContextModel.Context.START;
+
+	/**
+	 * The schema catalog providing the collection and graph names, null if they
+	 * are loaded from the database directly.
+	 */
+	private SchemaCatalog schemaCatalog;
+
+	/**
+	 * Applies the schema whenever the schema catalog is refreshed.
+	 */
+	private final SchemaCatalog.Listener schemaListener = (catalog, snapshot) -> SwingUtilities.invokeLater(() -> {
+		if (catalog == schemaCatalog) {
+			applySchema(snapshot);
+		}
+	});
+
+	/**
+	 * The settings selecting how node ids are looked up.
+	 */
+	private IdCompletionSettings idCompletion = new IdCompletionSettings();
+
+	/**
+	 * The asynchronous node id lookup, null if node ids are looked up on the
+	 * calling thread.
+	 */
+	private NodeIdLookup nodeIdLookup;
+
+	/**
+	 * The node ids found so far by collection and prefix.
+	 */
+	private NodeIdCache nodeIdCache = new NodeIdCache(true);
+
+	/**
+	 * The auto-completion refreshed when asynchronous node id lookups finish,
+	 * null if lookups are synchronous.
+	 */
+	private AutoCompletion autoCompletion;
+
+	/**
+	 * The text component completions were last requested for.
+	 */
+	private JTextComponent textComponent;
+
+	/**
+	 * The entered text a node id lookup was last requested for, null once the
+	 * completions were refreshed with its result.
+	 */
+	private String pendingWord;
+
 	/**
 	 * AQLCompletionProvider is responsible for providing code completion
 	 * suggestions for AQL (ArangoDB Query Language).
@@ -186,33 +249,34 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 	 * Updates the completions based on the collections and graphs in the database.
 	 */
 	private void updateDatabaseCompletions() {
-		docCollectionNames = new ArrayList<>();
-		edgeCollectionNames = new ArrayList<>();
-		graphNames = new ArrayList<>();
+		applySchema(SchemaCatalog.Snapshot.EMPTY);
 		if (this.database == null) {
 			return;
 		}
 		try {
-			Collection<CollectionEntity> collections = this.database
-					.getCollections(new CollectionsReadOptions().excludeSystem(true));
-			for (CollectionEntity collection : collections) {
-				if (collection.getType() == CollectionType.DOCUMENT) {
-					docCollectionNames.add(collection.getName());
-				} else if (collection.getType() == CollectionType.EDGES) {
-					edgeCollectionNames.add(collection.getName());
-				}
-			}
-			this.database.getGraphs().forEach(graph -> graphNames.add(graph.getName()));
-
-			Collections.sort(docCollectionNames);
-			Collections.sort(edgeCollectionNames);
-			Collections.sort(graphNames);
+			applySchema(SchemaCatalog.load(this.database));
 		} catch (Exception e) {
 			LOGGER.debug("Error while updating database completions", e);
 		}
 
 	}
 
+	/**
+	 * Updates the completions with the collections and graphs of a schema. The
+	 * name indexes are only rebuilt when the schema changed.
+	 *
+	 * @param snapshot the schema
+	 */
+	private void applySchema(SchemaCatalog.Snapshot snapshot) {
+		if (snapshot == appliedSchema) {
+			return;
+		}
+		appliedSchema = snapshot;
+		docCollectionNames = new PrefixIndex(snapshot.getDocumentCollections());
+		edgeCollectionNames = new PrefixIndex(snapshot.getEdgeCollections());
+		graphNames = new PrefixIndex(snapshot.getGraphNames());
+	}
+
 	/**
 	 * Returns the ArangoDatabase instance used for querying the database.
 	 *
@@ -223,13 +287,64 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 	}
 
 	/**
-	 * Sets the ArangoDatabase instance used for querying the database.
+	 * Sets the ArangoDatabase instance used for querying the database. Node ids
+	 * are cached by the provider alone, so a cache shared with other dialogs is
+	 * left untouched.
 	 *
 	 * @param database the ArangoDatabase instance
 	 */
 	public void setDatabase(ArangoDatabase database) {
+		setSchemaCatalog(null);
 		this.database = database;
+		nodeIdCache = new NodeIdCache(
+				idCompletion.getEffectiveMode() == IdCompletionSettings.Mode.KEY_RANGE);
 		updateDatabaseCompletions();
+		updateNodeIdLookup();
+	}
+
+	/**
+	 * Sets the ArangoDatabase instance used for querying the database together
+	 * with the shared schema catalog and node id cache of its connection. The
+	 * collection and graph names are taken from the catalog, so the database is
+	 * not contacted, and are updated whenever the catalog is refreshed. Node
+	 * ids found by other dialogs of the connection are completed right away.
+	 *
+	 * @param database    the ArangoDatabase instance
+	 * @param catalog     the schema catalog of the connection
+	 * @param nodeIdCache the node id cache of the connection
+	 */
+	public void setDatabase(ArangoDatabase database, SchemaCatalog catalog, NodeIdCache nodeIdCache) {
+		setSchemaCatalog(catalog);
+		this.database = database;
+		this.nodeIdCache = nodeIdCache;
+		applySchema(catalog.getSnapshot());
+		updateNodeIdLookup();
+	}
+
+	/**
+	 * Replaces the schema catalog the completions listen to.
+	 *
+	 * @param catalog the schema catalog, null to stop listening
+	 */
+	private void setSchemaCatalog(SchemaCatalog catalog) {
+		if (schemaCatalog != null) {
+			schemaCatalog.removeListener(schemaListener);
+		}
+		schemaCatalog = catalog;
+		if (catalog != null) {
+			catalog.addListener(schemaListener);
+		}
+	}
+
+	/**
+	 * Sets the settings selecting how node ids are looked up. The node id
+	 * cache matching the settings is chosen when the database is set.
+	 *
+	 * @param idCompletion the id completion settings
+	 */
+	public void setIdCompletion(IdCompletionSettings idCompletion) {
+		this.idCompletion = idCompletion == null ? new IdCompletionSettings() : idCompletion;
+		updateNodeIdLookup();
 	}
 
 	/**
@@ -247,6 +362,10 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 	/**
 	 * Returns the text that has already been entered in the text component.
 	 * This method is used to determine the context for providing completions.
+	 * The entered word is read from the current line, while the previous word
+	 * and the clause context come from the {@link AqlContextModel} of the
+	 * document, which only re-tokenizes the lines edited since it was last
+	 * asked.
 	 *
 	 * @param comp the text component
 	 * @return the text that has already been entered
@@ -277,40 +396,8 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 
 		len = segEnd - start;
 
-		int prevWordEnd = start - 1;
-		Segment previousSegment = seg;
-		int prevWordStart = prevWordEnd;
-		int previousIndex = index;
-
-		while (previousIndex >= 0 && (prevWordStart < previousSegment.offset ||
-				!isValidChar(previousSegment.array[prevWordStart]))) {
-			if (prevWordEnd > 0) {
-				Element prevElem = root.getElement(previousIndex);
-				int prevElemStart = prevElem.getStartOffset();
-				int prevSegmentEnd = prevElem.getEndOffset() - 1;
-				try {
-					doc.getText(prevElemStart, prevSegmentEnd - prevElemStart, previousSegment);
-				} catch (BadLocationException ble) {
-					ble.printStackTrace();
-					return EMPTY_STRING;
-				}
-				while (prevWordEnd >= 0 && !isValidChar(previousSegment.array[prevWordEnd])) {
-					prevWordEnd--;
-				}
-
-				prevWordStart = prevWordEnd - 1;
-				while (prevWordStart >= previousSegment.offset && isValidChar(previousSegment.array[prevWordStart])) {
-					prevWordStart--;
-				}
-			}
-			previousIndex--;
-
-		}
-		prevWordStart++;
-
-		int prevWordLen = prevWordEnd - prevWordStart + 1;
-
-		previousWord = prevWordLen <= 0 ? EMPTY_STRING : new String(previousSegment.array, prevWordStart, prevWordLen);
+		context = AqlContextModel.forDocument(doc).getContext(dot - len);
+		previousWord = context.getPreviousWord();
 
 		return len == 0 ? EMPTY_STRING : new String(seg.array, start, len);
 
@@ -347,7 +434,8 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 	 * Returns the completions that are context-aware based on the current word and
 	 * the previous word.
 	 * This method is used to provide completions that are relevant to the context
-	 * in which they are used.
+	 * in which they are used. Outside of collection, node and graph positions,
+	 * the variables declared before the entered text are completed.
 	 *
 	 * @param currentWord  the current word being entered
 	 * @param previousWord the previous word entered by the user
@@ -356,26 +444,18 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 	private List<Completion> getContexAwareeCompletions(String currentWord, String previousWord) {
 		List<String> arangoCompletions = new ArrayList<>();
 		final List<Completion> completions;
-		if (Arrays.asList(AQL_KEYWORDS_BEFORE_COLLECTIONS).contains(previousWord)) {
+		if (previousWord == null) {
+			completions = Collections.emptyList();
+		} else if (AQL_KEYWORDS_BEFORE_COLLECTIONS.contains(previousWord)) {
 			arangoCompletions.addAll(filterList(docCollectionNames, currentWord).collect(Collectors.toList()));
 			arangoCompletions.addAll(filterList(edgeCollectionNames, currentWord).collect(Collectors.toList()));
 			completions = arangoCompletions.stream().sorted().map((str) -> new BasicCompletion(this, str))
 					.collect(Collectors.toList());
-		} else if (Arrays.asList(AQL_KEYWORDS_BEFORE_NODES).contains(previousWord)) {
+		} else if (AQL_KEYWORDS_BEFORE_NODES.contains(previousWord)) {
 			if ((currentWord.startsWith("'") || currentWord.startsWith("\"")) && currentWord.contains("/")) {
 				String collectionName = currentWord.substring(1, currentWord.indexOf("/"));
 				String substr = currentWord.substring(currentWord.indexOf("/") + 1);
-				StringBuilder query = new StringBuilder("FOR n IN ")
-						.append(collectionName.replaceAll("[^a-zA-Z0-9_]", ""))
-						.append(" ");
-				Map<String, Object> bindVars = new HashMap<>();
-
-				if (substr.length() > 0) {
-					query.append("FILTER LOWER(n._id) LIKE @substr ").toString();
-					bindVars.put("substr", String.format("%1$s/%2$s%%", collectionName, substr));
-				}
-				query.append("SORT n._id ASC LIMIT 20 RETURN n._id");
-				ArangoCursor<String> ids = database.query(query.toString(), String.class, bindVars, null);
+				List<String> ids = lookupNodeIds(currentWord, collectionName, substr);
 				completions = ids.stream().map((s) -> new BasicCompletion(this, String.format(
 						currentWord.startsWith("'") ? "'%1$s'"
 								: (currentWord.startsWith("\"") ? "\"%1$s\"" : "'%1$s'"),
@@ -392,18 +472,111 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 								str)))
 						.collect(Collectors.toList());
 			}
-		} else if (Arrays.asList(AQL_KEYWORDS_BEFORE_GRAPHS).contains(previousWord)) {
+		} else if (AQL_KEYWORDS_BEFORE_GRAPHS.contains(previousWord)) {
 			completions = filterList(graphNames, currentWord).sorted()
 					.map((str) -> new BasicCompletion(this, str))
 					.collect(Collectors.toList());
 		} else {
-			completions = Collections.emptyList();
+			String prefix = currentWord.toLowerCase(Locale.ROOT);
+			completions = context.getVariables().stream()
+					.filter((str) -> str.toLowerCase(Locale.ROOT).startsWith(prefix))
+					.map((str) -> new BasicCompletion(this, str))
+					.collect(Collectors.toList());
 		}
 
 		return completions;
 
 	}
 
+	/**
+	 * Looks up the node ids completing the entered text. Cached node ids are
+	 * returned if the cache can answer the prefix. Without asynchronous lookups
+	 * the database is queried right away. Otherwise the result of a finished
+	 * lookup is returned if there is one for the entered text, and a lookup is
+	 * requested if not, refreshing the completions once it finishes.
+	 *
+	 * @param currentWord    the entered text
+	 * @param collectionName the collection name
+	 * @param prefix         the id prefix, without the collection name
+	 * @return the node ids, empty if they are still being looked up
+	 */
+	private List<String> lookupNodeIds(String currentWord, String collectionName, String prefix) {
+		if (database == null) {
+			return Collections.emptyList();
+		}
+		List<String> ids = nodeIdCache.get(collectionName, prefix);
+		if (ids != null) {
+			if (nodeIdLookup != null) {
+				nodeIdLookup.cancel();
+			}
+			return ids;
+		}
+		if (nodeIdLookup == null) {
+			ids = NodeIdLookup.findIds(database, idCompletion, collectionName, prefix);
+			nodeIdCache.put(collectionName, prefix, ids);
+			return ids;
+		}
+		ids = nodeIdLookup.getResult(collectionName, prefix);
+		if (ids == null) {
+			pendingWord = currentWord;
+			nodeIdLookup.request(collectionName, prefix);
+			return Collections.emptyList();
+		}
+		return ids;
+	}
+
+	/**
+	 * Enables asynchronous node id lookups. Node ids are then looked up away
+	 * from the event dispatch thread, debounced while the user types, and the
+	 * completion popup is refreshed once they arrive.
+	 *
+	 * @param autoCompletion the auto-completion showing the completions of this
+	 *                       provider
+	 */
+	public void enableAsynchronousLookups(AutoCompletion autoCompletion) {
+		this.autoCompletion = autoCompletion;
+		updateNodeIdLookup();
+	}
+
+	/**
+	 * Replaces the node id lookup for the current database.
+	 */
+	private void updateNodeIdLookup() {
+		if (nodeIdLookup != null) {
+			nodeIdLookup.close();
+			nodeIdLookup = null;
+		}
+		if (autoCompletion != null && database != null) {
+			nodeIdLookup = new NodeIdLookup(database, idCompletion, NodeIdLookup.DEFAULT_DEBOUNCE_MILLIS,
+					(collection, prefix, ids) -> {
+						nodeIdCache.put(collection, prefix, ids);
+						refreshCompletions();
+					});
+		}
+	}
+
+	/**
+	 * Shows the completions again if the text entered when a node id lookup was
+	 * requested did not change since.
+	 */
+	private void refreshCompletions() {
+		if (textComponent != null && pendingWord != null
+				&& pendingWord.equals(getAlreadyEnteredText(textComponent))) {
+			pendingWord = null;
+			autoCompletion.doCompletion();
+		}
+	}
+
+	/**
+	 * Cancels pending node id lookups, releases their threads and stops
+	 * listening to the schema catalog.
+	 */
+	public void close() {
+		setSchemaCatalog(null);
+		autoCompletion = null;
+		updateNodeIdLookup();
+	}
+
 	/**
 	 * Returns the completions for the specified text component.
 	 * This method is used to provide completions based on the text entered by the
@@ -415,6 +588,7 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 	@Override
 	public List<Completion> getCompletions(JTextComponent arg0) {
 
+		textComponent = arg0;
 		String text = getAlreadyEnteredText(arg0);
 		List<Completion> completions = new ArrayList<>();
 		completions.addAll(getContexAwareeCompletions(text, getPreviousWord()));
@@ -423,16 +597,17 @@ public class AQLCompletionProvider extends AbstractCompletionProvider {
 	}
 
 	/**
-	 * Filters the specified list based on the specified text.
-	 * This method is used to filter a list of strings based on a specified text.
+	 * Filters the specified names based on the specified text.
+	 * This method is used to find the names starting with a specified text,
+	 * ignoring case, through their prefix index.
 	 *
-	 * @param list the list of strings to filter
-	 * @param text the text to filter by
-	 * @return a stream of strings that match the specified text
+	 * @param index the prefix index of the names to filter
+	 * @param text  the text to filter by
+	 * @return a stream of names that match the specified text
 	 */
-	protected Stream<String> filterList(List<String> list, String text) {
+	protected Stream<String> filterList(PrefixIndex index, String text) {
 
-		return list.stream().filter((str) -> str.toLowerCase().startsWith(text.toLowerCase()));
+		return index.find(text).stream();
 	}
 
 	/**
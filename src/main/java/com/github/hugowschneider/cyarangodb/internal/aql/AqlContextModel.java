@@ -0,0 +1,340 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Segment;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.Token;
+
+import com.github.hugowschneider.cyarangodb.internal.flex.AqlTokenMaker;
+
+/**
+ * An incremental model of the AQL clause context of a document, built from the
+ * tokens {@link AqlTokenMaker} produces for each line. The model keeps the
+ * context at the end of every line and only re-tokenizes the lines from the
+ * first edited one onwards, so that the context at a position costs the
+ * tokens of its own line once the lines before it are known. The last
+ * computed context is cached for the revision of the document it was computed
+ * at.
+ */
+public class AqlContextModel implements DocumentListener {
+
+    /**
+     * The AQL clause context at a position of a query.
+     */
+    public static final class Context {
+
+        /**
+         * The context at the start of a query.
+         */
+        static final Context START = new Context("", null, Collections.emptySet(), Token.NULL, -1);
+
+        /**
+         * The last word before the position.
+         */
+        private final String previousWord;
+        /**
+         * The last AQL keyword before the position, upper case.
+         */
+        private final String clause;
+        /**
+         * The variables declared before the position, in declaration order.
+         */
+        private final Set<String> variables;
+        /**
+         * The type of the last token, carrying multi-line comments over to the
+         * next line.
+         */
+        private final int lastTokenType;
+        /**
+         * The end offset of the previous word if it is a string literal, -1
+         * otherwise.
+         */
+        private final int stringEnd;
+
+        /**
+         * Constructs a new Context.
+         *
+         * @param previousWord  the last word before the position
+         * @param clause        the last AQL keyword before the position
+         * @param variables     the variables declared before the position
+         * @param lastTokenType the type of the last token
+         * @param stringEnd     the end offset of the previous word if it is a
+         *                      string literal, -1 otherwise
+         */
+        private Context(String previousWord, String clause, Set<String> variables, int lastTokenType,
+                int stringEnd) {
+            this.previousWord = previousWord;
+            this.clause = clause;
+            this.variables = variables;
+            this.lastTokenType = lastTokenType;
+            this.stringEnd = stringEnd;
+        }
+
+        /**
+         * Gets the last word before the position, as it was typed. Whitespace,
+         * comments, separators and operators are skipped, and the parts of a
+         * string literal form a single word.
+         *
+         * @return the previous word, empty at the start of the query
+         */
+        public String getPreviousWord() {
+            return previousWord;
+        }
+
+        /**
+         * Gets the last AQL keyword before the position, such as FOR, IN,
+         * FILTER, GRAPH or RETURN.
+         *
+         * @return the upper case keyword, or null if there is none
+         */
+        public String getClause() {
+            return clause;
+        }
+
+        /**
+         * Gets the variables declared by FOR, LET and COLLECT before the
+         * position.
+         *
+         * @return the variable names, in declaration order
+         */
+        public Set<String> getVariables() {
+            return variables;
+        }
+
+        /**
+         * Advances the context over a token.
+         *
+         * @param type   the token type
+         * @param lexeme the token text
+         * @param offset the token offset in the document
+         * @return the context after the token
+         */
+        Context next(int type, String lexeme, int offset) {
+            switch (type) {
+                case Token.NULL:
+                case Token.WHITESPACE:
+                case Token.COMMENT_EOL:
+                case Token.SEPARATOR:
+                case Token.OPERATOR:
+                case Token.ERROR_CHAR:
+                case Token.COMMENT_MULTILINE:
+                    return new Context(previousWord, clause, variables, type, -1);
+                case Token.LITERAL_STRING_DOUBLE_QUOTE:
+                case Token.ERROR_STRING_DOUBLE:
+                    String word = stringEnd == offset ? previousWord + lexeme : lexeme;
+                    return new Context(word, clause, variables, type, offset + lexeme.length());
+                case Token.RESERVED_WORD:
+                    return new Context(lexeme, lexeme.toUpperCase(Locale.ROOT), variables, type, -1);
+                case Token.VARIABLE:
+                    Set<String> declared = new LinkedHashSet<>(variables);
+                    declared.add(lexeme.replace("`", ""));
+                    return new Context(lexeme, clause, Collections.unmodifiableSet(declared), type, -1);
+                default:
+                    return new Context(lexeme, clause, variables, type, -1);
+            }
+        }
+    }
+
+    /**
+     * The key under which the model of a document is stored as a document
+     * property.
+     */
+    private static final Object PROPERTY = AqlContextModel.class;
+
+    /**
+     * The document the model is built from.
+     */
+    private final Document document;
+
+    /**
+     * The token maker used when the document does not tokenize itself.
+     */
+    private final AqlTokenMaker tokenMaker = new AqlTokenMaker();
+
+    /**
+     * The segment lines are read into.
+     */
+    private final Segment segment = new Segment();
+
+    /**
+     * The contexts at the end of the lines before the first edited line, by
+     * line index.
+     */
+    private final List<Context> lineContexts = new ArrayList<>();
+
+    /**
+     * The number of edits made to the document since the model was created.
+     */
+    private long revision;
+
+    /**
+     * The revision the cached context was computed at, -1 if none was.
+     */
+    private long cachedRevision = -1;
+
+    /**
+     * The offset the cached context was computed at.
+     */
+    private int cachedOffset;
+
+    /**
+     * The last computed context.
+     */
+    private Context cachedContext;
+
+    /**
+     * Constructs a new AqlContextModel.
+     *
+     * @param document the document to build the model from
+     */
+    AqlContextModel(Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Gets the model of a document, creating it and attaching it to the
+     * document the first time.
+     *
+     * @param document the document
+     * @return the model of the document
+     */
+    public static AqlContextModel forDocument(Document document) {
+        Object model = document.getProperty(PROPERTY);
+        if (model instanceof AqlContextModel) {
+            return (AqlContextModel) model;
+        }
+        AqlContextModel created = new AqlContextModel(document);
+        document.putProperty(PROPERTY, created);
+        document.addDocumentListener(created);
+        return created;
+    }
+
+    /**
+     * Gets the number of edits made to the document since the model was
+     * created.
+     *
+     * @return the document revision
+     */
+    public synchronized long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Gets the clause context at a position of the document. Only the tokens
+     * starting before the position are taken into account.
+     *
+     * @param offset the position in the document
+     * @return the context at the position
+     */
+    public synchronized Context getContext(int offset) {
+        if (cachedRevision == revision && cachedOffset == offset) {
+            return cachedContext;
+        }
+        Element root = document.getDefaultRootElement();
+        int line = root.getElementIndex(offset);
+        while (lineContexts.size() < line) {
+            int index = lineContexts.size();
+            Context start = index == 0 ? Context.START : lineContexts.get(index - 1);
+            lineContexts.add(scan(root, index, start, Integer.MAX_VALUE));
+        }
+        Context start = line == 0 ? Context.START : lineContexts.get(line - 1);
+        cachedContext = scan(root, line, start, offset);
+        cachedRevision = revision;
+        cachedOffset = offset;
+        return cachedContext;
+    }
+
+    /**
+     * Advances a context over the tokens of a line starting before a position.
+     *
+     * @param root  the root element of the document
+     * @param line  the line index
+     * @param start the context at the start of the line
+     * @param end   the position, tokens starting at or after it are ignored
+     * @return the context after the tokens
+     */
+    private Context scan(Element root, int line, Context start, int end) {
+        Context context = start;
+        for (Token token = tokenize(root, line, start); token != null; token = token.getNextToken()) {
+            if (token.getType() == Token.NULL) {
+                break;
+            }
+            int offset = token.getOffset();
+            if (offset >= end) {
+                break;
+            }
+            String lexeme = token.getLexeme();
+            if (offset + lexeme.length() > end) {
+                lexeme = lexeme.substring(0, end - offset);
+            }
+            context = context.next(token.getType(), lexeme, offset);
+        }
+        return context;
+    }
+
+    /**
+     * Gets the tokens of a line, from the document itself if it is tokenized
+     * by its syntax style.
+     *
+     * @param root  the root element of the document
+     * @param line  the line index
+     * @param start the context at the start of the line
+     * @return the first token of the line, null if it cannot be read
+     */
+    private Token tokenize(Element root, int line, Context start) {
+        if (document instanceof RSyntaxDocument) {
+            return ((RSyntaxDocument) document).getTokenListForLine(line);
+        }
+        Element element = root.getElement(line);
+        int lineStart = element.getStartOffset();
+        int lineEnd = Math.min(element.getEndOffset() - 1, document.getLength());
+        try {
+            document.getText(lineStart, lineEnd - lineStart, segment);
+        } catch (BadLocationException e) {
+            return null;
+        }
+        int initialTokenType = start.lastTokenType == Token.COMMENT_MULTILINE ? Token.COMMENT_MULTILINE
+                : Token.NULL;
+        return tokenMaker.getTokenList(segment, initialTokenType, lineStart);
+    }
+
+    /**
+     * Discards the contexts of the lines from an edited position onwards.
+     *
+     * @param offset the edited position
+     */
+    private synchronized void invalidate(int offset) {
+        revision++;
+        int line = document.getDefaultRootElement().getElementIndex(offset);
+        while (lineContexts.size() > line) {
+            lineContexts.remove(lineContexts.size() - 1);
+        }
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        invalidate(e.getOffset());
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        invalidate(e.getOffset());
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // Attribute changes do not change the tokens.
+    }
+}
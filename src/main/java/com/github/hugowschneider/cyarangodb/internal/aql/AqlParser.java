@@ -0,0 +1,480 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
+import org.fife.ui.rsyntaxtextarea.parser.AbstractParser;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParseResult;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParserNotice;
+import org.fife.ui.rsyntaxtextarea.parser.ParseResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.ArangoDBException;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.entity.AqlParseEntity;
+
+/**
+ * Validates the query of a text area while it is typed, showing syntax errors
+ * as parser notices. The text area asks for a parse once typing paused for
+ * the parser delay; the query is then sent to the parse endpoint of the
+ * database on a background thread, and the text area is asked to parse again
+ * once the answer arrived. Answers are cached by the hash of the query, so
+ * that going back to a query already seen does not contact the server, and
+ * also tell the bind parameters and collections of valid queries.
+ */
+public class AqlParser extends AbstractParser {
+
+    /**
+     * The logger for the AqlParser class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AqlParser.class);
+
+    /**
+     * The default delay in milliseconds between the last keystroke and the
+     * validation.
+     */
+    public static final int DEFAULT_DELAY_MILLIS = 750;
+
+    /**
+     * The maximum number of parse results kept.
+     */
+    static final int MAX_CACHED_RESULTS = 200;
+
+    /**
+     * Matches the position of a syntax error in an error message of the
+     * server.
+     */
+    private static final Pattern POSITION = Pattern.compile("at position (\\d+):(\\d+)");
+
+    /**
+     * The result of parsing a query on the server.
+     */
+    public static final class Result {
+        /**
+         * The error message, null if the query is valid.
+         */
+        private final String error;
+        /**
+         * The line of the error, starting at 1, 0 if unknown.
+         */
+        private final int line;
+        /**
+         * The column of the error, starting at 1, 0 if unknown.
+         */
+        private final int column;
+        /**
+         * The names of the bind parameters of the query.
+         */
+        private final List<String> bindVars;
+        /**
+         * The names of the collections used by the query.
+         */
+        private final List<String> collections;
+
+        /**
+         * Constructs a new Result.
+         *
+         * @param error       the error message, null if the query is valid
+         * @param bindVars    the names of the bind parameters of the query
+         * @param collections the names of the collections used by the query
+         */
+        private Result(String error, List<String> bindVars, List<String> collections) {
+            this.error = error;
+            this.bindVars = bindVars;
+            this.collections = collections;
+            Matcher matcher = error == null ? null : POSITION.matcher(error);
+            if (matcher != null && matcher.find()) {
+                line = Integer.parseInt(matcher.group(1));
+                column = Integer.parseInt(matcher.group(2));
+            } else {
+                line = 0;
+                column = 0;
+            }
+        }
+
+        /**
+         * Creates the result of a valid query.
+         *
+         * @param bindVars    the names of the bind parameters of the query
+         * @param collections the names of the collections used by the query
+         * @return the result
+         */
+        public static Result valid(Collection<String> bindVars, Collection<String> collections) {
+            return new Result(null, copy(bindVars), copy(collections));
+        }
+
+        /**
+         * Creates the result of an invalid query.
+         *
+         * @param error the error message of the server
+         * @return the result
+         */
+        public static Result invalid(String error) {
+            return new Result(error == null ? "Invalid query" : error, Collections.emptyList(),
+                    Collections.emptyList());
+        }
+
+        /**
+         * Checks whether the query is valid.
+         *
+         * @return true if the query has no syntax errors
+         */
+        public boolean isValid() {
+            return error == null;
+        }
+
+        /**
+         * Gets the error message.
+         *
+         * @return the error message, or null if the query is valid
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Gets the line of the error.
+         *
+         * @return the line starting at 1, or 0 if unknown
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * Gets the column of the error.
+         *
+         * @return the column starting at 1, or 0 if unknown
+         */
+        public int getColumn() {
+            return column;
+        }
+
+        /**
+         * Gets the names of the bind parameters of the query.
+         *
+         * @return the bind parameter names
+         */
+        public List<String> getBindVars() {
+            return bindVars;
+        }
+
+        /**
+         * Gets the names of the collections used by the query.
+         *
+         * @return the collection names
+         */
+        public List<String> getCollections() {
+            return collections;
+        }
+
+        /**
+         * Copies names into an unmodifiable list.
+         *
+         * @param names the names, may be null
+         * @return the list of names
+         */
+        private static List<String> copy(Collection<String> names) {
+            return names == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(names));
+        }
+    }
+
+    /**
+     * The function parsing a query on the server, null to use the database.
+     */
+    private final Function<String, Result> validator;
+
+    /**
+     * The thread sending queries to the server.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The parse results by query hash, least recently used first.
+     */
+    private final Map<String, Result> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+            return size() > MAX_CACHED_RESULTS;
+        }
+    };
+
+    /**
+     * The database the queries are parsed on, null if none is selected.
+     */
+    private volatile ArangoDatabase database;
+
+    /**
+     * Asks the text area to parse again once a result arrived.
+     */
+    private Runnable reparse = () -> {
+    };
+
+    /**
+     * The running validation, null if there is none.
+     */
+    private Future<?> pending;
+
+    /**
+     * The hash of the query being validated.
+     */
+    private String pendingHash;
+
+    /**
+     * Constructs a new AqlParser validating queries on the selected database.
+     */
+    public AqlParser() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new AqlParser using the given function to validate queries.
+     *
+     * @param validator the function parsing a query on the server, null to use
+     *                  the selected database
+     */
+    AqlParser(Function<String, Result> validator) {
+        this.validator = validator;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "cyarangodb-aql-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds this parser to a text area, which then asks it to parse its query
+     * once typing paused for {@link #DEFAULT_DELAY_MILLIS}.
+     *
+     * @param textArea the text area
+     */
+    public void install(RSyntaxTextArea textArea) {
+        setReparse(() -> textArea.forceReparsing(this));
+        textArea.setParserDelay(DEFAULT_DELAY_MILLIS);
+        textArea.addParser(this);
+    }
+
+    /**
+     * Sets what to do when a validation finished.
+     *
+     * @param reparse called on the event dispatch thread when a validation
+     *                finished
+     */
+    synchronized void setReparse(Runnable reparse) {
+        this.reparse = reparse;
+    }
+
+    /**
+     * Sets the database queries are parsed on. Results already cached are
+     * kept, since parsing does not depend on the content of the database.
+     *
+     * @param database the database, null to stop validating
+     */
+    public void setDatabase(ArangoDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Gets the cached parse result of a query.
+     *
+     * @param query the query
+     * @return the parse result, or null if the query was not parsed yet
+     */
+    public synchronized Result getCachedResult(String query) {
+        return cache.get(hash(query));
+    }
+
+    /**
+     * Stops validating and releases the validation thread.
+     */
+    public synchronized void close() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ParseResult parse(RSyntaxDocument doc, String style) {
+        DefaultParseResult result = new DefaultParseResult(this);
+        String query;
+        try {
+            query = doc.getText(0, doc.getLength());
+        } catch (BadLocationException e) {
+            result.setError(e);
+            return result;
+        }
+        if (query.isBlank() || (validator == null && database == null)) {
+            return result;
+        }
+        String hash = hash(query);
+        Result parsed;
+        synchronized (this) {
+            parsed = cache.get(hash);
+            if (parsed == null) {
+                request(query, hash);
+                return result;
+            }
+        }
+        if (!parsed.isValid()) {
+            int offset = errorOffset(query, parsed);
+            DefaultParserNotice notice = new DefaultParserNotice(this, parsed.getError(),
+                    Math.max(0, parsed.getLine() - 1), offset, errorLength(query, offset));
+            result.addNotice(notice);
+        }
+        return result;
+    }
+
+    /**
+     * Starts validating a query in the background, replacing the validation of
+     * a previous query.
+     *
+     * @param query the query
+     * @param hash  the hash of the query
+     */
+    private void request(String query, String hash) {
+        if (hash.equals(pendingHash) && pending != null && !pending.isDone()) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        pendingHash = hash;
+        try {
+            pending = executor.submit(() -> validate(query, hash));
+        } catch (RejectedExecutionException e) {
+            pending = null;
+        }
+    }
+
+    /**
+     * Validates a query, caches the result and asks the text area to parse
+     * again.
+     *
+     * @param query the query
+     * @param hash  the hash of the query
+     */
+    private void validate(String query, String hash) {
+        Result parsed;
+        try {
+            parsed = validator != null ? validator.apply(query) : parse(database, query);
+        } catch (Exception e) {
+            LOGGER.debug("Could not validate query", e);
+            return;
+        }
+        Runnable callback;
+        synchronized (this) {
+            cache.put(hash, parsed);
+            if (!hash.equals(pendingHash)) {
+                return;
+            }
+            pending = null;
+            pendingHash = null;
+            callback = reparse;
+        }
+        SwingUtilities.invokeLater(callback);
+    }
+
+    /**
+     * Parses a query on the server.
+     *
+     * @param database the database
+     * @param query    the query
+     * @return the parse result
+     * @throws ArangoDBException if the server could not be reached or failed
+     *                           for another reason than an invalid query
+     */
+    public static Result parse(ArangoDatabase database, String query) {
+        try {
+            AqlParseEntity entity = database.parseQuery(query);
+            return Result.valid(entity.getBindVars(), entity.getCollections());
+        } catch (ArangoDBException e) {
+            Integer responseCode = e.getResponseCode();
+            if (responseCode != null && responseCode == 400) {
+                return Result.invalid(e.getErrorMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the offset of the error of an invalid query.
+     *
+     * @param query  the query
+     * @param parsed the parse result
+     * @return the offset of the error, or -1 if its position is unknown
+     */
+    static int errorOffset(String query, Result parsed) {
+        if (parsed.getLine() <= 0) {
+            return -1;
+        }
+        int offset = 0;
+        for (int line = 1; line < parsed.getLine(); line++) {
+            int next = query.indexOf('\n', offset);
+            if (next < 0) {
+                return -1;
+            }
+            offset = next + 1;
+        }
+        return Math.min(offset + Math.max(0, parsed.getColumn() - 1), query.length());
+    }
+
+    /**
+     * Gets the length of the text to mark at an error: the word starting at
+     * its offset, or a single character.
+     *
+     * @param query  the query
+     * @param offset the offset of the error, -1 if unknown
+     * @return the length to mark
+     */
+    static int errorLength(String query, int offset) {
+        if (offset < 0) {
+            return -1;
+        }
+        int end = offset;
+        while (end < query.length() && !Character.isWhitespace(query.charAt(end))) {
+            end++;
+        }
+        return Math.max(1, end - offset);
+    }
+
+    /**
+     * Hashes a query.
+     *
+     * @param query the query
+     * @return the hexadecimal SHA-256 hash of the query
+     */
+    static String hash(String query) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for wrapping AQL queries in subqueries. AQL only accepts a
+ * {@code WITH} clause at the start of a top-level query, so a leading
+ * {@code WITH} clause is kept outside of the subquery.
+ */
+public class AqlSubquery {
+    /**
+     * Matches a query starting with a {@code WITH} clause.
+     */
+    private static final Pattern WITH_CLAUSE = Pattern.compile(
+            "^\\s*(WITH\\s+[^\\s,]+(?:\\s*,\\s*[^\\s,]+)*)\\s+(.*)$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /**
+     * Constructs a new AqlSubquery.
+     */
+    private AqlSubquery() {
+    }
+
+    /**
+     * Places a query in a template as a subquery, moving a leading
+     * {@code WITH} clause in front of the template.
+     *
+     * @param query    the query to wrap
+     * @param template the template, with the query as its first format
+     *                 argument
+     * @return the wrapped query
+     */
+    public static String wrap(String query, String template) {
+        Matcher matcher = WITH_CLAUSE.matcher(query);
+        if (matcher.matches()) {
+            return matcher.group(1) + "\n" + String.format(template, matcher.group(2));
+        }
+        return String.format(template, query);
+    }
+}
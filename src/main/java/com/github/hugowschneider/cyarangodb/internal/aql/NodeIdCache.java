@@ -0,0 +1,227 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the node ids found for id prefixes by collection. A longer prefix is
+ * answered locally by filtering the result of a shorter one, as long as that
+ * result was not cut off by the lookup limit, so that typing an id usually
+ * needs a single lookup. Entries expire after a time to live, and the least
+ * recently used entries are evicted once the cache holds too many ids.
+ */
+public class NodeIdCache {
+
+    /**
+     * The default time in milliseconds a result is kept.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 60_000;
+
+    /**
+     * The default maximum number of node ids kept over all results.
+     */
+    public static final int DEFAULT_MAX_IDS = 10_000;
+
+    /**
+     * A cached lookup result.
+     */
+    private static class Entry {
+        /**
+         * The node ids found.
+         */
+        private final List<String> ids;
+        /**
+         * The time in milliseconds after which the result expires.
+         */
+        private final long expiresAt;
+
+        /**
+         * Constructs a new Entry.
+         *
+         * @param ids       the node ids found
+         * @param expiresAt the time in milliseconds after which the result
+         *                  expires
+         */
+        Entry(List<String> ids, long expiresAt) {
+            this.ids = ids;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Whether ids are matched against prefixes case-sensitively, like the
+     * lookup does.
+     */
+    private final boolean caseSensitive;
+
+    /**
+     * The time in milliseconds a result is kept.
+     */
+    private final long ttlMillis;
+
+    /**
+     * The maximum number of node ids kept over all results.
+     */
+    private final int maxIds;
+
+    /**
+     * The clock giving the current time in milliseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The results by collection name and prefix, least recently used first.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The number of node ids kept over all results.
+     */
+    private int size;
+
+    /**
+     * Constructs a new NodeIdCache with the default time to live and size.
+     *
+     * @param caseSensitive whether ids are matched against prefixes
+     *                      case-sensitively
+     */
+    public NodeIdCache(boolean caseSensitive) {
+        this(caseSensitive, DEFAULT_TTL_MILLIS, DEFAULT_MAX_IDS, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs a new NodeIdCache.
+     *
+     * @param caseSensitive whether ids are matched against prefixes
+     *                      case-sensitively
+     * @param ttlMillis     the time in milliseconds a result is kept
+     * @param maxIds        the maximum number of node ids kept over all results
+     * @param clock         the clock giving the current time in milliseconds
+     */
+    NodeIdCache(boolean caseSensitive, long ttlMillis, int maxIds, LongSupplier clock) {
+        this.caseSensitive = caseSensitive;
+        this.ttlMillis = ttlMillis;
+        this.maxIds = maxIds;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the node ids of a collection starting with a prefix, either cached
+     * for the prefix itself or filtered from the complete result of a shorter
+     * prefix.
+     *
+     * @param collection the collection name
+     * @param prefix     the id prefix, without the collection name
+     * @return the node ids, or null if they have to be looked up
+     */
+    public synchronized List<String> get(String collection, String prefix) {
+        long now = clock.getAsLong();
+        for (int length = prefix.length(); length >= 0; length--) {
+            String key = key(collection, prefix.substring(0, length));
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.expiresAt <= now) {
+                remove(key);
+                continue;
+            }
+            if (length == prefix.length()) {
+                return entry.ids;
+            }
+            if (entry.ids.size() < NodeIdLookup.MAX_RESULTS) {
+                String start = normalize(collection + "/" + prefix);
+                return entry.ids.stream().filter(id -> normalize(id).startsWith(start))
+                        .collect(Collectors.toList());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Caches the node ids found for a prefix.
+     *
+     * @param collection the collection name
+     * @param prefix     the id prefix, without the collection name
+     * @param ids        the node ids found
+     */
+    public synchronized void put(String collection, String prefix, List<String> ids) {
+        String key = key(collection, prefix);
+        remove(key);
+        if (ids.size() > maxIds) {
+            return;
+        }
+        entries.put(key, new Entry(List.copyOf(ids), clock.getAsLong() + ttlMillis));
+        size += ids.size();
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxIds && iterator.hasNext()) {
+            size -= iterator.next().getValue().ids.size();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the number of node ids kept over all results.
+     *
+     * @return the number of cached node ids
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether ids are matched against prefixes case-sensitively.
+     *
+     * @return true if prefixes are matched case-sensitively
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    /**
+     * Removes a cached result.
+     *
+     * @param key the key of the result
+     */
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.ids.size();
+        }
+    }
+
+    /**
+     * Normalizes an id for prefix matching.
+     *
+     * @param id the id
+     * @return the id, lower-cased unless ids are matched case-sensitively
+     */
+    private String normalize(String id) {
+        return caseSensitive ? id : id.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the key of a result. Collection names cannot contain a slash, so the
+     * key is unambiguous.
+     *
+     * @param collection the collection name
+     * @param prefix     the id prefix, without the collection name
+     * @return the key
+     */
+    private static String key(String collection, String prefix) {
+        return collection + "/" + prefix;
+    }
+}
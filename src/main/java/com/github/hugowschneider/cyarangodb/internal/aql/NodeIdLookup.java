@@ -0,0 +1,324 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import javax.swing.SwingUtilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.ArangoCursor;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.model.AqlQueryOptions;
+import com.github.hugowschneider.cyarangodb.internal.connection.IdCompletionSettings;
+
+/**
+ * Looks up node ids for auto-completion away from the Swing event dispatch
+ * thread. Requests are debounced, so that only the last of a burst of
+ * keystrokes reaches the database, and every new request cancels the lookups
+ * still pending or running for older ones. Results are delivered to a listener
+ * on the event dispatch thread and kept until the next request.
+ */
+public class NodeIdLookup {
+
+    /**
+     * Receives the results of node id lookups.
+     */
+    public interface Listener {
+        /**
+         * Called on the event dispatch thread when a lookup finished and no newer
+         * lookup was requested in the meantime.
+         *
+         * @param collection the collection name
+         * @param prefix     the id prefix, without the collection name
+         * @param ids        the node ids found
+         */
+        void lookupFinished(String collection, String prefix, List<String> ids);
+    }
+
+    /**
+     * The logger for the NodeIdLookup class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NodeIdLookup.class);
+
+    /**
+     * The default delay in milliseconds between the last request and the
+     * lookup.
+     */
+    public static final int DEFAULT_DEBOUNCE_MILLIS = 250;
+
+    /**
+     * The maximum number of node ids returned by a lookup.
+     */
+    public static final int MAX_RESULTS = 20;
+
+    /**
+     * The maximum runtime in seconds of a lookup query on the server.
+     */
+    static final double MAX_RUNTIME_SECONDS = 5;
+
+    /**
+     * The function looking up node ids by collection name and id prefix.
+     */
+    private final BiFunction<String, String, List<String>> finder;
+
+    /**
+     * The delay in milliseconds between the last request and the lookup.
+     */
+    private final int debounceMillis;
+
+    /**
+     * The listener receiving the results.
+     */
+    private final Listener listener;
+
+    /**
+     * The executor running the lookups.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * The number of requests made so far, used to recognize stale lookups.
+     */
+    private long generation;
+
+    /**
+     * The pending or running lookup, null if there is none.
+     */
+    private Future<?> pending;
+
+    /**
+     * The collection name of the last finished lookup.
+     */
+    private String resultCollection;
+
+    /**
+     * The id prefix of the last finished lookup.
+     */
+    private String resultPrefix;
+
+    /**
+     * The node ids found by the last finished lookup.
+     */
+    private List<String> result;
+
+    /**
+     * Constructs a new NodeIdLookup querying a database.
+     *
+     * @param database       the database to query
+     * @param settings       the id completion settings selecting the lookup
+     *                       query
+     * @param debounceMillis the delay in milliseconds between the last request
+     *                       and the lookup
+     * @param listener       the listener receiving the results
+     */
+    public NodeIdLookup(ArangoDatabase database, IdCompletionSettings settings, int debounceMillis,
+            Listener listener) {
+        this((collection, prefix) -> findIds(database, settings, collection, prefix), debounceMillis, listener);
+    }
+
+    /**
+     * Constructs a new NodeIdLookup using the given function to look up node
+     * ids.
+     *
+     * @param finder         the function looking up node ids by collection name
+     *                       and id prefix
+     * @param debounceMillis the delay in milliseconds between the last request
+     *                       and the lookup
+     * @param listener       the listener receiving the results
+     */
+    NodeIdLookup(BiFunction<String, String, List<String>> finder, int debounceMillis, Listener listener) {
+        this.finder = finder;
+        this.debounceMillis = debounceMillis;
+        this.listener = listener;
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread thread = new Thread(r, "cyarangodb-node-id-lookup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.executor = scheduler;
+    }
+
+    /**
+     * Gets the result of the last finished lookup if it was made for the given
+     * collection and prefix.
+     *
+     * @param collection the collection name
+     * @param prefix     the id prefix, without the collection name
+     * @return the node ids, or null if no lookup for them finished yet
+     */
+    public synchronized List<String> getResult(String collection, String prefix) {
+        if (result != null && collection.equals(resultCollection) && prefix.equals(resultPrefix)) {
+            return result;
+        }
+        return null;
+    }
+
+    /**
+     * Requests a lookup. Lookups requested before and not finished yet are
+     * cancelled, and the lookup starts once no other request was made for the
+     * debounce delay.
+     *
+     * @param collection the collection name
+     * @param prefix     the id prefix, without the collection name
+     */
+    public synchronized void request(String collection, String prefix) {
+        cancel();
+        long requested = generation;
+        pending = executor.schedule(() -> lookup(requested, collection, prefix), debounceMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the pending or running lookup. The result of a running lookup is
+     * discarded.
+     */
+    public synchronized void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * Cancels all lookups and stops the lookup threads.
+     */
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a lookup and delivers its result unless a newer lookup was requested
+     * in the meantime.
+     *
+     * @param requested  the generation of the request
+     * @param collection the collection name
+     * @param prefix     the id prefix, without the collection name
+     */
+    private void lookup(long requested, String collection, String prefix) {
+        if (isStale(requested)) {
+            return;
+        }
+        List<String> ids;
+        try {
+            ids = finder.apply(collection, prefix);
+        } catch (Exception e) {
+            LOGGER.debug("Error while looking up node ids", e);
+            return;
+        }
+        synchronized (this) {
+            if (generation != requested) {
+                return;
+            }
+            resultCollection = collection;
+            resultPrefix = prefix;
+            result = ids;
+            pending = null;
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (!isStale(requested)) {
+                listener.lookupFinished(collection, prefix, ids);
+            }
+        });
+    }
+
+    /**
+     * Checks whether a newer lookup was requested.
+     *
+     * @param requested the generation of the request
+     * @return true if a newer lookup was requested
+     */
+    private synchronized boolean isStale(long requested) {
+        return generation != requested;
+    }
+
+    /**
+     * Looks up the node ids of a collection starting with a prefix.
+     *
+     * @param database   the database to query
+     * @param settings   the id completion settings selecting the lookup query
+     * @param collection the collection name
+     * @param prefix     the id prefix, without the collection name
+     * @return the first matching node ids in key order
+     */
+    public static List<String> findIds(ArangoDatabase database, IdCompletionSettings settings, String collection,
+            String prefix) {
+        Map<String, Object> bindVars = new HashMap<>();
+        String query = buildQuery(settings, collection, prefix, bindVars);
+        List<String> ids = new ArrayList<>();
+        try (ArangoCursor<String> cursor = database.query(query, String.class, bindVars,
+                new AqlQueryOptions().maxRuntime(MAX_RUNTIME_SECONDS))) {
+            cursor.forEachRemaining(ids::add);
+        }
+        return ids;
+    }
+
+    /**
+     * Builds the query looking up the node ids of a collection starting with a
+     * prefix. The lookup is a range on the primary index of {@code _key} unless
+     * the settings select a case-insensitive lookup through an ArangoSearch view
+     * or a persistent index on a lower-cased key attribute.
+     *
+     * @param settings   the id completion settings
+     * @param collection the collection name
+     * @param prefix     the id prefix, without the collection name
+     * @param bindVars   the map the bind variables of the query are added to
+     * @return the query
+     */
+    static String buildQuery(IdCompletionSettings settings, String collection, String prefix,
+            Map<String, Object> bindVars) {
+        IdCompletionSettings.Mode mode = settings == null ? IdCompletionSettings.Mode.KEY_RANGE
+                : settings.getEffectiveMode();
+        String limit = " LIMIT " + MAX_RESULTS + " RETURN n._id";
+        if (prefix.isEmpty()) {
+            bindVars.put("@collection", collection);
+            return "FOR n IN @@collection SORT n._key ASC" + limit;
+        }
+        switch (mode) {
+            case SEARCH_VIEW:
+                bindVars.put("@view", settings.getView());
+                bindVars.put("collections", Collections.singletonList(collection));
+                bindVars.put("prefix", prefix.toLowerCase(Locale.ROOT));
+                bindVars.put("analyzer", settings.getAnalyzer());
+                return "FOR n IN @@view SEARCH ANALYZER(STARTS_WITH(n._key, @prefix), @analyzer)"
+                        + " OPTIONS { collections: @collections } SORT n._key ASC" + limit;
+            case PERSISTENT_INDEX:
+                String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+                bindVars.put("@collection", collection);
+                bindVars.put("attribute", settings.getAttribute());
+                bindVars.put("from", lowerPrefix);
+                bindVars.put("to", upperBound(lowerPrefix));
+                return "FOR n IN @@collection FILTER n.@attribute >= @from AND n.@attribute < @to"
+                        + " SORT n.@attribute ASC" + limit;
+            default:
+                bindVars.put("@collection", collection);
+                bindVars.put("from", prefix);
+                bindVars.put("to", upperBound(prefix));
+                return "FOR n IN @@collection FILTER n._key >= @from AND n._key < @to SORT n._key ASC" + limit;
+        }
+    }
+
+    /**
+     * Gets the smallest string greater than all strings starting with a prefix.
+     *
+     * @param prefix the prefix, not empty
+     * @return the exclusive upper bound of the strings starting with the prefix
+     */
+    static String upperBound(String prefix) {
+        char last = prefix.charAt(prefix.length() - 1);
+        return prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable index of names answering case-insensitive prefix lookups. The
+ * names are kept in an array sorted by their lower-cased form, so that a
+ * lookup is a binary search for the first match followed by a scan over the
+ * matches only.
+ */
+public final class PrefixIndex {
+
+    /**
+     * An index without any names.
+     */
+    public static final PrefixIndex EMPTY = new PrefixIndex(Collections.emptyList());
+
+    /**
+     * The lower-cased names, sorted.
+     */
+    private final String[] keys;
+
+    /**
+     * The names, in the order of their lower-cased form.
+     */
+    private final String[] names;
+
+    /**
+     * Constructs a new PrefixIndex.
+     *
+     * @param names the names to index
+     */
+    public PrefixIndex(Collection<String> names) {
+        String[][] entries = new String[names.size()][];
+        int i = 0;
+        for (String name : names) {
+            entries[i++] = new String[] { fold(name), name };
+        }
+        Arrays.sort(entries, Comparator.<String[], String>comparing(entry -> entry[0])
+                .thenComparing(entry -> entry[1]));
+        keys = new String[entries.length];
+        this.names = new String[entries.length];
+        for (i = 0; i < entries.length; i++) {
+            keys[i] = entries[i][0];
+            this.names[i] = entries[i][1];
+        }
+    }
+
+    /**
+     * Finds the names starting with a prefix, ignoring case.
+     *
+     * @param prefix the prefix
+     * @return the matching names, in the order of their lower-cased form
+     */
+    public List<String> find(String prefix) {
+        String key = fold(prefix);
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            while (index > 0 && keys[index - 1].equals(key)) {
+                index--;
+            }
+        }
+        List<String> matches = new ArrayList<>();
+        while (index < keys.length && keys[index].startsWith(key)) {
+            matches.add(names[index++]);
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the number of indexed names.
+     *
+     * @return the number of names
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Folds the case of a name.
+     *
+     * @param name the name
+     * @return the lower-cased name
+     */
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -3,6 +3,7 @@ package com.github.hugowschneider.cyarangodb.internal.connection;
 import java.util.ArrayList;
 import java.util.List;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * Represents the details required to establish a connection to a database.
@@ -13,8 +14,16 @@ public class ConnectionDetails {
     private String user;
     private String password;
     private String database;
+    /**
+     * Query history of configuration files written before the history was moved
+     * to the {@link QueryHistoryStore}. It is only read to migrate it.
+     */
     private List<QueryHistory> history;
     private String name;
+    private QueryGuardrails guardrails;
+    private ImportBudget importBudget;
+    private Integer historyLimit;
+    private IdCompletionSettings idCompletion;
 
     /**
      * Constructs a new ConnectionDetails instance.
@@ -33,7 +42,6 @@ public class ConnectionDetails {
         this.user = user;
         this.password = password;
         this.database = database;
-        this.history = new ArrayList<>();
     }
 
     /**
@@ -91,30 +99,103 @@ public class ConnectionDetails {
     }
 
     /**
-     * Gets the query history.
+     * Gets the guardrails checked before executing queries on this connection.
      *
-     * @return the history
+     * @return the guardrails, with default thresholds if none were configured
      */
-    public List<QueryHistory> getHistory() {
-        if (history == null) {
-            history = new ArrayList<>();
+    public QueryGuardrails getGuardrails() {
+        if (guardrails == null) {
+            guardrails = new QueryGuardrails();
         }
-        return history;
+        return guardrails;
     }
 
     /**
-     * Adds a query to the history.
+     * Sets the guardrails checked before executing queries on this connection.
      *
-     * @param query the query to add
-     * @return the time the query was executed
+     * @param guardrails the guardrails
      */
-    public LocalDateTime addQueryToHistory(String query) {
-        if (history == null) {
-            history = new ArrayList<>();
+    public void setGuardrails(QueryGuardrails guardrails) {
+        this.guardrails = guardrails;
+    }
+
+    /**
+     * Gets the budget limiting the result of queries on this connection.
+     *
+     * @return the import budget, without limits if none were configured
+     */
+    public ImportBudget getImportBudget() {
+        if (importBudget == null) {
+            importBudget = new ImportBudget();
         }
-        LocalDateTime now = LocalDateTime.now();
-        history.add(new QueryHistory(query, now));
-        return now;
+        return importBudget;
+    }
+
+    /**
+     * Sets the budget limiting the result of queries on this connection.
+     *
+     * @param importBudget the import budget
+     */
+    public void setImportBudget(ImportBudget importBudget) {
+        this.importBudget = importBudget;
+    }
+
+    /**
+     * Gets the settings of the node id auto-completion of this connection.
+     *
+     * @return the id completion settings, using primary index range lookups if
+     *         none were configured
+     */
+    public IdCompletionSettings getIdCompletion() {
+        if (idCompletion == null) {
+            idCompletion = new IdCompletionSettings();
+        }
+        return idCompletion;
+    }
+
+    /**
+     * Sets the settings of the node id auto-completion of this connection.
+     *
+     * @param idCompletion the id completion settings
+     */
+    public void setIdCompletion(IdCompletionSettings idCompletion) {
+        this.idCompletion = idCompletion;
+    }
+
+    /**
+     * Gets the maximum number of distinct queries kept in the history of this
+     * connection.
+     *
+     * @return the history limit, 0 if the history is unbounded
+     */
+    public int getHistoryLimit() {
+        if (historyLimit == null) {
+            historyLimit = QueryHistoryStore.DEFAULT_HISTORY_LIMIT;
+        }
+        return historyLimit;
+    }
+
+    /**
+     * Sets the maximum number of distinct queries kept in the history of this
+     * connection. The least recently run queries are removed once the limit is
+     * exceeded.
+     *
+     * @param historyLimit the history limit, 0 for an unbounded history
+     */
+    public void setHistoryLimit(int historyLimit) {
+        this.historyLimit = historyLimit;
+    }
+
+    /**
+     * Removes and returns the query history read from configuration files
+     * written before the history was moved to the {@link QueryHistoryStore}.
+     *
+     * @return the legacy history, empty if there is none
+     */
+    List<QueryHistory> takeLegacyHistory() {
+        List<QueryHistory> legacy = history == null ? new ArrayList<>() : history;
+        history = null;
+        return legacy;
     }
 
     /**
@@ -132,16 +213,18 @@ public class ConnectionDetails {
         }
         ConnectionDetails other = (ConnectionDetails) obj;
         return this.host.equals(other.host) && this.port == other.port && this.user.equals(other.user)
-                && this.password.equals(other.password) && this.database.equals(other.database)
-                && this.history.equals(other.history);
+                && this.password.equals(other.password) && this.database.equals(other.database);
     }
 
     /**
      * Represents a history of executed queries.
      */
     public static class QueryHistory {
+        private String id;
         private String query;
         private LocalDateTime executedAt;
+        private QueryStatistics statistics;
+        private int runCount;
 
         /**
          * Constructs a new QueryHistory instance.
@@ -150,8 +233,40 @@ public class ConnectionDetails {
          * @param executedAt the time the query was executed
          */
         public QueryHistory(String query, LocalDateTime executedAt) {
+            this(query, executedAt, null);
+        }
+
+        /**
+         * Constructs a new QueryHistory instance with execution statistics.
+         *
+         * @param query      the executed query
+         * @param executedAt the time the query was executed
+         * @param statistics the execution statistics, may be null
+         */
+        public QueryHistory(String query, LocalDateTime executedAt, QueryStatistics statistics) {
+            this.id = UUID.randomUUID().toString();
             this.query = query;
             this.executedAt = executedAt;
+            this.statistics = statistics;
+            this.runCount = 1;
+        }
+
+        /**
+         * Gets the id identifying this entry in the history store.
+         *
+         * @return the id
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Sets the id identifying this entry in the history store.
+         *
+         * @param id the id
+         */
+        void setId(String id) {
+            this.id = id;
         }
 
         /**
@@ -164,7 +279,7 @@ public class ConnectionDetails {
         }
 
         /**
-         * Gets the time the query was executed.
+         * Gets the time the query was last executed.
          *
          * @return the executedAt
          */
@@ -172,6 +287,64 @@ public class ConnectionDetails {
             return executedAt;
         }
 
+        /**
+         * Gets the number of times the query was run.
+         *
+         * @return the run count
+         */
+        public int getRunCount() {
+            // Entries written before runs were counted have no run count
+            return Math.max(1, runCount);
+        }
+
+        /**
+         * Creates the entry recording another run of this query. The new entry
+         * keeps the id of this entry, so that it replaces it in the history
+         * store.
+         *
+         * @param executedAt the time the query was run again
+         * @param statistics the execution statistics of the new run, may be null
+         * @return the updated entry
+         */
+        QueryHistory rerun(LocalDateTime executedAt, QueryStatistics statistics) {
+            QueryHistory entry = new QueryHistory(query, executedAt, statistics);
+            entry.id = id;
+            entry.runCount = getRunCount() + 1;
+            return entry;
+        }
+
+        /**
+         * Folds another entry of the same query into this entry, adding up the
+         * run counts and keeping the latest run time.
+         *
+         * @param other the entry to fold into this entry
+         */
+        void absorb(QueryHistory other) {
+            runCount = getRunCount() + other.getRunCount();
+            if (other.executedAt.isAfter(executedAt)) {
+                executedAt = other.executedAt;
+                statistics = other.statistics;
+            }
+        }
+
+        /**
+         * Gets the execution statistics of the last run of the query.
+         *
+         * @return the statistics, or null if none were captured
+         */
+        public QueryStatistics getStatistics() {
+            return statistics;
+        }
+
+        /**
+         * Sets the execution statistics of the last run of the query.
+         *
+         * @param statistics the statistics
+         */
+        public void setStatistics(QueryStatistics statistics) {
+            this.statistics = statistics;
+        }
+
         /**
          * Checks if this QueryHistory instance is equal to another object.
          *
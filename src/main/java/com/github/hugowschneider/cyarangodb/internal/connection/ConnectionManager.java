@@ -3,24 +3,42 @@ package com.github.hugowschneider.cyarangodb.internal.connection;
 
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 
+import com.arangodb.ArangoCursor;
 import com.arangodb.ArangoDB;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.Protocol;
+import com.arangodb.entity.AqlExecutionExplainEntity;
+import com.arangodb.model.AqlQueryExplainOptions;
+import com.arangodb.model.AqlQueryOptions;
 import com.arangodb.util.RawJson;
+import com.github.hugowschneider.cyarangodb.internal.aql.NodeIdCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapter;
@@ -33,7 +51,11 @@ import com.google.gson.stream.JsonWriter;
  * ArangoDB.
  * It provides methods to add, remove, and retrieve connections, as well as
  * execute queries and manage query history.
- * The connections are stored in a JSON file for persistence.
+ * The connections are stored in a JSON file for persistence, while the query
+ * history is kept in an append-only journal managed by a
+ * {@link QueryHistoryStore}. The JSON file is written by a background writer
+ * that coalesces bursts of changes and atomically replaces the file, so that
+ * callers never block on disk I/O.
  *
  * Usage:
  * 1. Create an instance of ConnectionManager by calling the constructor with
@@ -45,15 +67,20 @@ import com.google.gson.stream.JsonWriter;
  * 6. Use the addQueryToHistory method to add a query to the history of a
  * connection.
  * 7. Use the getQueryHistory method to retrieve the query history of a
- * connection.
+ * connection, ordered by last run or by number of runs.
  * 8. Use the validate method to check if a connection is valid.
- * 9. Use the execute method to execute a query on a connection.
+ * 9. Use the execute method to execute a query on a connection, or the
+ * executeQueries method to execute several queries concurrently.
  * 10. Use the runHistory method to execute a query from the query history of a
  * connection.
  * 11. Use the deleteQueryHistory method to delete a query from the query
  * history of a connection.
  * 12. Use the getArangoDatabase method to get the ArangoDatabase object for a
  * connection.
+ * 13. Use the getSchemaCatalog method to get the schema of the database of a
+ * connection, loaded and refreshed in the background.
+ * 14. Use the flush method to wait for pending writes and the close method to
+ * release the background threads.
  *
  * The ConnectionManager class uses the Gson library for JSON serialization and
  * deserialization.
@@ -102,7 +129,7 @@ public class ConnectionManager {
     /**
      * The map of connection names to connection details.
      */
-    private Map<String, ConnectionDetails> connections;
+    private volatile Map<String, ConnectionDetails> connections;
     /**
      * The file path of the JSON file used to store the connections.
      */
@@ -113,6 +140,49 @@ public class ConnectionManager {
      */
     private final Gson gson;
 
+    /**
+     * The store holding the query history of all connections.
+     */
+    private final QueryHistoryStore historyStore;
+
+    /**
+     * The single thread writing the connections file in the background.
+     */
+    private final ExecutorService writer;
+
+    /**
+     * Whether a write of the connections file is queued and not yet started.
+     */
+    private final AtomicBoolean savePending;
+
+    /**
+     * The schema catalogs of the connections by connection uuid, created when
+     * first needed.
+     */
+    private final Map<String, SchemaCatalog> schemaCatalogs;
+
+    /**
+     * The node ids found by completions, by connection uuid, shared by all
+     * dialogs of a connection.
+     */
+    private final Map<String, NodeIdCache> nodeIdCaches;
+
+    /**
+     * The threads loading the schema catalogs in the background.
+     */
+    private final ExecutorService schemaLoader;
+
+    /**
+     * The threads executing queries concurrently.
+     */
+    private final ExecutorService queryRunner;
+
+    /**
+     * The maximum number of queries executed at the same time by
+     * {@link #executeQueries(String, List)}.
+     */
+    public static final int MAX_PARALLEL_QUERIES = 4;
+
     /**
      * The name of the JSON file used to store the connections.
      */
@@ -141,12 +211,32 @@ public class ConnectionManager {
             configFolder.mkdirs();
         }
 
-        connections = new HashMap<>();
+        connections = new ConcurrentHashMap<>();
+        savePending = new AtomicBoolean();
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "cyarangodb-config-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        schemaCatalogs = new ConcurrentHashMap<>();
+        nodeIdCaches = new ConcurrentHashMap<>();
+        schemaLoader = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "cyarangodb-schema-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        queryRunner = Executors.newFixedThreadPool(MAX_PARALLEL_QUERIES, r -> {
+            Thread thread = new Thread(r, "cyarangodb-query-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         gson = new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                 .create();
 
+        historyStore = new QueryHistoryStore(configFolderPath, gson);
+
         loadConnections();
 
     }
@@ -181,6 +271,9 @@ public class ConnectionManager {
      */
     public void removeConnection(String uuid) {
         connections.remove(uuid);
+        schemaCatalogs.remove(uuid);
+        nodeIdCaches.remove(uuid);
+        historyStore.clear(uuid);
         saveConnections();
     }
 
@@ -211,26 +304,122 @@ public class ConnectionManager {
      * @return the date and time the query was added to the history
      */
     public LocalDateTime addQueryToHistory(String uuid, String query) {
-        LocalDateTime dateTime = this.getConnection(uuid).addQueryToHistory(query);
-        this.saveConnections();
-        return dateTime;
+        return addQueryToHistory(uuid, query, null);
+    }
+
+    /**
+     * Adds a query to the history of a connection together with its execution
+     * statistics.
+     *
+     * @param uuid       the connection uuid
+     * @param query      the query to add to the history
+     * @param statistics the execution statistics of the query, may be null
+     * @return the date and time the query was added to the history
+     */
+    public LocalDateTime addQueryToHistory(String uuid, String query, QueryStatistics statistics) {
+        return recordQuery(uuid, query, statistics).getExecutedAt();
+    }
+
+    /**
+     * Records a query in the history of a connection. Runs of a query already
+     * in the history are folded into its entry, and the least recently run
+     * queries are removed once the history limit of the connection is exceeded.
+     *
+     * @param uuid       the connection uuid
+     * @param query      the query to add to the history
+     * @param statistics the execution statistics of the query, may be null
+     * @return the history entry recording the run
+     */
+    private ConnectionDetails.QueryHistory recordQuery(String uuid, String query, QueryStatistics statistics) {
+        ConnectionDetails connection = this.getConnection(uuid);
+        int limit = connection == null ? QueryHistoryStore.DEFAULT_HISTORY_LIMIT : connection.getHistoryLimit();
+        return historyStore.record(uuid, query, LocalDateTime.now(), statistics, limit);
+    }
 
+    /**
+     * Persists changes made to a history entry of a connection, such as
+     * statistics measured after the query was recorded.
+     *
+     * @param uuid  the connection uuid
+     * @param entry the changed history entry
+     */
+    public void updateQueryHistory(String uuid, ConnectionDetails.QueryHistory entry) {
+        historyStore.put(uuid, entry);
     }
 
     /**
      * Gets the query history of a connection.
      *
      * @param uuid the connection uuid
-     * @return a list of query history items
+     * @return a list of query history items, most recent first
      */
     public List<ConnectionDetails.QueryHistory> getQueryHistory(String uuid) {
+        return getQueryHistory(uuid, QueryHistoryStore.Order.RECENT);
+    }
+
+    /**
+     * Gets the query history of a connection in the given order.
+     *
+     * @param uuid  the connection uuid
+     * @param order the order of the history items
+     * @return a list of query history items
+     */
+    public List<ConnectionDetails.QueryHistory> getQueryHistory(String uuid, QueryHistoryStore.Order order) {
+        ConnectionDetails connection = this.getConnection(uuid);
+        if (connection == null) {
+            return Collections.emptyList();
+        } else {
+            return historyStore.getHistory(uuid, order);
+        }
+
+    }
+
+    /**
+     * Gets a page of the query history of a connection in the given order.
+     *
+     * @param uuid   the connection uuid
+     * @param order  the order of the history items
+     * @param offset the index of the first item of the page
+     * @param limit  the maximum number of items of the page
+     * @return a list of query history items
+     */
+    public List<ConnectionDetails.QueryHistory> getQueryHistory(String uuid, QueryHistoryStore.Order order,
+            int offset, int limit) {
+        ConnectionDetails connection = this.getConnection(uuid);
+        if (connection == null) {
+            return Collections.emptyList();
+        } else {
+            return historyStore.getHistory(uuid, order, offset, limit);
+        }
+    }
+
+    /**
+     * Searches the query history of a connection for queries containing the
+     * identifiers, collection names and string literals of a search text.
+     *
+     * @param uuid  the connection uuid
+     * @param text  the search text
+     * @param order the order of the history items
+     * @return the matching query history items
+     */
+    public List<ConnectionDetails.QueryHistory> searchQueryHistory(String uuid, String text,
+            QueryHistoryStore.Order order) {
         ConnectionDetails connection = this.getConnection(uuid);
         if (connection == null) {
             return Collections.emptyList();
         } else {
-            return this.getConnection(uuid).getHistory();
+            return historyStore.search(uuid, text, order);
         }
+    }
 
+    /**
+     * Gets the number of items in the query history of a connection.
+     *
+     * @param uuid the connection uuid
+     * @return the number of query history items
+     */
+    public int getQueryHistorySize(String uuid) {
+        return this.getConnection(uuid) == null ? 0 : historyStore.getHistorySize(uuid);
     }
 
     /**
@@ -275,13 +464,39 @@ public class ConnectionManager {
      *
      * @param uuid  the connection uuid
      *
+     * @param index the index of the query in the history, most recent first
+     * @return the query result, whose statistics are also stored in the history
+     *         entry
+     */
+    public QueryResult runHistory(String uuid, int index) {
+        return runHistory(uuid, index, QueryHistoryStore.Order.RECENT);
+    }
+
+    /**
+     * Runs a query from the query history of a connection. The run is counted in
+     * the history entry of the query, which becomes the most recent one.
+     *
+     * @param uuid  the connection uuid
      * @param index the index of the query in the history
-     * @return a list of RawJson documents
+     * @param order the order of the history the index refers to
+     * @return the query result, whose statistics are also stored in the history
+     *         entry
      */
-    public List<RawJson> runHistory(String uuid, int index) {
-        List<ConnectionDetails.QueryHistory> history = getConnection(uuid).getHistory();
-        return execute(uuid, history.get(index).getQuery(), false);
+    public QueryResult runHistory(String uuid, int index, QueryHistoryStore.Order order) {
+        return runHistory(uuid, getQueryHistory(uuid, order, index, 1).get(0));
+    }
 
+    /**
+     * Runs a query from the query history of a connection. The run is counted in
+     * the history entry of the query, which becomes the most recent one.
+     *
+     * @param uuid  the connection uuid
+     * @param entry the history entry
+     * @return the query result, whose statistics are also stored in the history
+     *         entry
+     */
+    public QueryResult runHistory(String uuid, ConnectionDetails.QueryHistory entry) {
+        return executeQuery(uuid, entry.getQuery(), true);
     }
 
     /**
@@ -289,15 +504,34 @@ public class ConnectionManager {
      *
      * @param uuid  the connection uuid
      *
-     * @param index the index of the query in the history
+     * @param index the index of the query in the history, most recent first
      */
     public void deleteQueryHistory(String uuid, int index) {
-        // Implementation for deleting the query history by index
-        List<ConnectionDetails.QueryHistory> history = getConnection(uuid).getHistory();
-        if (index >= 0 && index < history.size()) {
-            history.remove(index);
+        deleteQueryHistory(uuid, index, QueryHistoryStore.Order.RECENT);
+    }
+
+    /**
+     * Deletes a query from the query history of a connection.
+     *
+     * @param uuid  the connection uuid
+     * @param index the index of the query in the history
+     * @param order the order of the history the index refers to
+     */
+    public void deleteQueryHistory(String uuid, int index, QueryHistoryStore.Order order) {
+        List<ConnectionDetails.QueryHistory> history = getQueryHistory(uuid, order, index, 1);
+        if (!history.isEmpty()) {
+            deleteQueryHistory(uuid, history.get(0));
         }
-        saveConnections();
+    }
+
+    /**
+     * Deletes a query from the query history of a connection.
+     *
+     * @param uuid  the connection uuid
+     * @param entry the history entry
+     */
+    public void deleteQueryHistory(String uuid, ConnectionDetails.QueryHistory entry) {
+        historyStore.delete(uuid, entry.getId());
     }
 
     /**
@@ -321,16 +555,179 @@ public class ConnectionManager {
      * @return a list of RawJson documents
      */
     public List<RawJson> execute(String uuid, String query, boolean includeInHistory) {
+        return executeQuery(uuid, query, includeInHistory).getDocuments();
+    }
+
+    /**
+     * Executes a query on a connection and captures its execution statistics.
+     * The query cursor is streamed and consumed only while the result stays
+     * within the import budget of the connection, the result is truncated
+     * otherwise.
+     *
+     * @param uuid             the connection uuid
+     * @param query            the query to execute
+     * @param includeInHistory whether to include the query and its statistics in
+     *                         the history
+     * @return the query result
+     */
+    public QueryResult executeQuery(String uuid, String query, boolean includeInHistory) {
+        return executeQuery(uuid, query, query, Map.of(), includeInHistory);
+    }
+
+    /**
+     * Executes a rewritten form of a query with bind variables on a connection
+     * and captures its execution statistics. The history records the original
+     * query, so that running it again from the history does not depend on the
+     * bind variables.
+     *
+     * @param uuid             the connection uuid
+     * @param query            the query entered by the user
+     * @param rewrittenQuery   the query to execute
+     * @param bindVars         the bind variables of the rewritten query
+     * @param includeInHistory whether to include the original query and the
+     *                         statistics in the history
+     * @return the query result
+     */
+    public QueryResult executeQuery(String uuid, String query, String rewrittenQuery, Map<String, Object> bindVars,
+            boolean includeInHistory) {
         this.validate(uuid);
         ArangoDatabase database = getArangoDatabase(getConnection(uuid));
         validate(database);
 
-        List<RawJson> docs = database.query(query, RawJson.class).asListRemaining();
+        QueryResult result = runQuery(database, getConnection(uuid).getImportBudget(), rewrittenQuery, bindVars);
         if (includeInHistory) {
-            this.addQueryToHistory(uuid, query);
+            result.setHistoryEntry(recordQuery(uuid, query, result.getStatistics()));
+        }
+        return result;
+    }
+
+    /**
+     * Executes several queries on a connection concurrently, sharing a single
+     * client, without recording them in the history. At most
+     * {@link #MAX_PARALLEL_QUERIES} queries run at the same time, and each
+     * result is truncated on its own according to the import budget of the
+     * connection.
+     *
+     * @param uuid    the connection uuid
+     * @param queries the queries to execute
+     * @return the results of the queries, in the order of the queries
+     * @throws com.arangodb.ArangoDBException if any of the queries fails
+     */
+    public List<QueryResult> executeQueries(String uuid, List<String> queries) {
+        List<Map<String, Object>> bindVars = new ArrayList<>();
+        queries.forEach(query -> bindVars.add(Map.of()));
+        return executeConcurrently(uuid, queries, bindVars);
+    }
+
+    /**
+     * Executes a parameterized query once for each set of bind variables on a
+     * connection concurrently, sharing a single client, without recording it
+     * in the history. At most {@link #MAX_PARALLEL_QUERIES} executions run at
+     * the same time, and each result is truncated on its own according to the
+     * import budget of the connection.
+     *
+     * @param uuid     the connection uuid
+     * @param query    the query to execute
+     * @param bindVars the bind variables of each execution
+     * @return the results of the executions, in the order of the bind variables
+     * @throws com.arangodb.ArangoDBException if any of the executions fails
+     */
+    public List<QueryResult> executeQueries(String uuid, String query, List<Map<String, Object>> bindVars) {
+        List<String> queries = new ArrayList<>();
+        bindVars.forEach(vars -> queries.add(query));
+        return executeConcurrently(uuid, queries, bindVars);
+    }
+
+    /**
+     * Executes queries with their bind variables on a connection concurrently.
+     *
+     * @param uuid     the connection uuid
+     * @param queries  the queries to execute
+     * @param bindVars the bind variables of each query
+     * @return the results of the queries, in the order of the queries
+     */
+    private List<QueryResult> executeConcurrently(String uuid, List<String> queries,
+            List<Map<String, Object>> bindVars) {
+        this.validate(uuid);
+        ArangoDatabase database = getArangoDatabase(getConnection(uuid));
+        validate(database);
+
+        ImportBudget budget = getConnection(uuid).getImportBudget();
+        List<Future<QueryResult>> futures = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            String query = queries.get(i);
+            Map<String, Object> vars = bindVars.get(i);
+            futures.add(queryRunner.submit(() -> runQuery(database, budget, query, vars)));
+        }
+        List<QueryResult> results = new ArrayList<>();
+        try {
+            for (Future<QueryResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while executing queries", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
         }
-        return docs;
+        return results;
+    }
 
+    /**
+     * Executes a query, streaming its cursor and consuming it only while the
+     * result stays within an import budget.
+     *
+     * @param database the database to execute the query on
+     * @param budget   the import budget the result is truncated to
+     * @param query    the query to execute
+     * @param bindVars the bind variables of the query
+     * @return the query result
+     */
+    private QueryResult runQuery(ArangoDatabase database, ImportBudget budget, String query,
+            Map<String, Object> bindVars) {
+        long start = System.nanoTime();
+        ArangoCursor<RawJson> cursor = database.query(query, RawJson.class, bindVars,
+                new AqlQueryOptions().stream(true));
+        List<RawJson> docs = new ArrayList<>();
+        long bytes = 0;
+        String truncation = null;
+        while (cursor.hasNext()) {
+            truncation = budget.check(docs.size(), bytes);
+            if (truncation != null) {
+                LOGGER.warn("Query result truncated because {}", truncation);
+                closeCursor(cursor);
+                break;
+            }
+            RawJson doc = cursor.next();
+            docs.add(doc);
+            bytes += QueryStatistics.byteSize(doc);
+        }
+        long decodeTime = (System.nanoTime() - start) / 1_000_000;
+
+        QueryStatistics statistics = QueryStatistics.of(cursor.getStats(), docs, decodeTime);
+        return new QueryResult(docs, statistics, truncation);
+    }
+
+    /**
+     * Explains a query on a connection without executing it.
+     *
+     * @param uuid  the connection uuid
+     * @param query the query to explain
+     * @return the optimizer estimates of the query
+     */
+    public QueryEstimate explain(String uuid, String query) {
+        ArangoDatabase database = getArangoDatabase(getConnection(uuid));
+        AqlExecutionExplainEntity.ExecutionPlan plan = database
+                .explainQuery(query, Collections.emptyMap(), new AqlQueryExplainOptions()).getPlan();
+        Integer estimatedNrItems = plan.getEstimatedNrItems();
+        Double estimatedCost = plan.getEstimatedCost();
+        return new QueryEstimate(estimatedNrItems == null ? 0 : estimatedNrItems,
+                estimatedCost == null ? 0 : estimatedCost);
     }
 
     /**
@@ -351,32 +748,158 @@ public class ConnectionManager {
      */
     public void updateConnectionDetails(String uuid, ConnectionDetails connectionDetails) {
         connections.put(uuid, connectionDetails);
+        schemaCatalogs.remove(uuid);
+        nodeIdCaches.remove(uuid);
         saveConnections();
     }
 
     /**
-     * Saves connections to a file.
+     * Gets the schema catalog of a connection, shared by all its users. The
+     * catalog loads in the background, so getting it never contacts the server.
+     *
+     * @param uuid the connection uuid
+     * @return the schema catalog
+     */
+    public SchemaCatalog getSchemaCatalog(String uuid) {
+        return schemaCatalogs.computeIfAbsent(uuid,
+                id -> new SchemaCatalog(getArangoDatabase(getConnection(id)), schemaLoader));
+    }
+
+    /**
+     * Gets the node id cache of a connection, shared by the completions of all
+     * its dialogs, so that reopening a dialog does not start with an empty
+     * cache. The cache is replaced when the id completion settings of the
+     * connection change how prefixes are matched.
+     *
+     * @param uuid the connection uuid
+     * @return the node id cache
+     */
+    public NodeIdCache getNodeIdCache(String uuid) {
+        boolean caseSensitive = getConnection(uuid).getIdCompletion()
+                .getEffectiveMode() == IdCompletionSettings.Mode.KEY_RANGE;
+        return nodeIdCaches.compute(uuid, (id, cache) -> cache != null && cache.isCaseSensitive() == caseSensitive
+                ? cache
+                : new NodeIdCache(caseSensitive));
+    }
+
+    /**
+     * Saves connections to a file. The write happens on a background thread and
+     * is coalesced with other saves requested before it starts.
      */
     public void saveConnections() {
-        try (Writer writer = new FileWriter(filePath)) {
-            gson.toJson(connections, writer);
+        if (savePending.compareAndSet(false, true)) {
+            writer.execute(this::writeConnections);
+        }
+    }
+
+    /**
+     * Waits until all saves requested so far are written to disk.
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> {
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes pending changes and stops the background writer, schema loaders
+     * and query runners.
+     */
+    public void close() {
+        flush();
+        writer.shutdown();
+        schemaLoader.shutdownNow();
+        queryRunner.shutdownNow();
+    }
+
+    /**
+     * Writes the current connections to a temporary file and atomically
+     * replaces the connections file with it.
+     */
+    private void writeConnections() {
+        savePending.set(false);
+        Path target = Paths.get(filePath);
+        Path temp = target.resolveSibling(ARANGODB_CONNECTION_JSON + ".tmp");
+        try {
+            try (Writer fileWriter = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(connections, fileWriter);
+            }
+            replaceFile(temp, target);
         } catch (IOException e) {
             LOGGER.error(e.getMessage(), e);
         }
     }
 
+    /**
+     * Replaces a file with another one, atomically if the file system supports
+     * it.
+     *
+     * @param source the file replacing the target
+     * @param target the file to replace
+     * @throws IOException if an I/O error occurs
+     */
+    static void replaceFile(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      * Loads connections from a file.
      */
     private void loadConnections() {
         try (Reader reader = new FileReader(filePath)) {
-            connections = gson.fromJson(reader, new TypeToken<Map<String, ConnectionDetails>>() {
-            }.getType());
-            if (connections == null) {
-                connections = new HashMap<>();
-            }
+            Map<String, ConnectionDetails> loaded = gson.fromJson(reader,
+                    new TypeToken<Map<String, ConnectionDetails>>() {
+                    }.getType());
+            connections = loaded == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(loaded);
         } catch (IOException e) {
-            connections = new HashMap<>();
+            connections = new ConcurrentHashMap<>();
+        }
+        migrateLegacyHistory();
+    }
+
+    /**
+     * Moves the query history stored in the connection file by earlier versions
+     * into the history store. Legacy entries get ids derived from their content,
+     * so that an interrupted migration does not duplicate them.
+     */
+    private void migrateLegacyHistory() {
+        boolean migrated = false;
+        for (Map.Entry<String, ConnectionDetails> connection : connections.entrySet()) {
+            List<ConnectionDetails.QueryHistory> legacy = connection.getValue().takeLegacyHistory();
+            if (legacy.isEmpty()) {
+                continue;
+            }
+            for (ConnectionDetails.QueryHistory entry : legacy) {
+                String key = connection.getKey() + entry.getExecutedAt() + entry.getQuery();
+                entry.setId(UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString());
+            }
+            historyStore.putAll(connection.getKey(), legacy);
+            migrated = true;
+        }
+        if (migrated) {
+            saveConnections();
+        }
+    }
+
+    /**
+     * Closes a cursor that was not fully consumed, releasing it on the server.
+     *
+     * @param cursor the cursor to close
+     */
+    private void closeCursor(ArangoCursor<?> cursor) {
+        try {
+            cursor.close();
+        } catch (Exception e) {
+            LOGGER.warn("Could not close query cursor", e);
         }
     }
 
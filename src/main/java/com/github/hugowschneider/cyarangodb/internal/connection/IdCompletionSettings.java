@@ -0,0 +1,136 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+/**
+ * Settings of the node id auto-completion of a connection. They select how id
+ * prefixes are looked up, so that the lookup can be served by an index instead
+ * of scanning the collection.
+ */
+public class IdCompletionSettings {
+
+    /**
+     * How node ids matching a prefix are looked up.
+     */
+    public enum Mode {
+        /**
+         * Case-sensitive range lookup on the primary index of {@code _key}.
+         */
+        KEY_RANGE,
+        /**
+         * Case-insensitive prefix search on {@code _key} through an ArangoSearch
+         * view indexing it with a lower-casing analyzer.
+         */
+        SEARCH_VIEW,
+        /**
+         * Case-insensitive range lookup on a lower-cased copy of {@code _key}
+         * covered by a persistent index.
+         */
+        PERSISTENT_INDEX
+    }
+
+    /**
+     * The lookup mode.
+     */
+    private Mode mode;
+    /**
+     * The name of the ArangoSearch view, used in {@link Mode#SEARCH_VIEW}.
+     */
+    private String view;
+    /**
+     * The analyzer the view indexes {@code _key} with, used in
+     * {@link Mode#SEARCH_VIEW}.
+     */
+    private String analyzer;
+    /**
+     * The attribute holding the lower-cased key, used in
+     * {@link Mode#PERSISTENT_INDEX}.
+     */
+    private String attribute;
+
+    /**
+     * Constructs IdCompletionSettings using primary index range lookups.
+     */
+    public IdCompletionSettings() {
+        this(Mode.KEY_RANGE, null, null, null);
+    }
+
+    /**
+     * Constructs IdCompletionSettings.
+     *
+     * @param mode      the lookup mode
+     * @param view      the name of the ArangoSearch view, used in
+     *                  {@link Mode#SEARCH_VIEW}
+     * @param analyzer  the analyzer the view indexes {@code _key} with, used in
+     *                  {@link Mode#SEARCH_VIEW}
+     * @param attribute the attribute holding the lower-cased key, used in
+     *                  {@link Mode#PERSISTENT_INDEX}
+     */
+    public IdCompletionSettings(Mode mode, String view, String analyzer, String attribute) {
+        this.mode = mode;
+        this.view = view;
+        this.analyzer = analyzer;
+        this.attribute = attribute;
+    }
+
+    /**
+     * Gets the lookup mode that can actually be used. Modes whose view,
+     * analyzer or attribute is not configured fall back to
+     * {@link Mode#KEY_RANGE}.
+     *
+     * @return the effective lookup mode
+     */
+    public Mode getEffectiveMode() {
+        if (mode == Mode.SEARCH_VIEW && !isBlank(view) && !isBlank(analyzer)) {
+            return Mode.SEARCH_VIEW;
+        }
+        if (mode == Mode.PERSISTENT_INDEX && !isBlank(attribute)) {
+            return Mode.PERSISTENT_INDEX;
+        }
+        return Mode.KEY_RANGE;
+    }
+
+    /**
+     * Gets the lookup mode.
+     *
+     * @return the lookup mode
+     */
+    public Mode getMode() {
+        return mode == null ? Mode.KEY_RANGE : mode;
+    }
+
+    /**
+     * Gets the name of the ArangoSearch view.
+     *
+     * @return the view name, or null if none is configured
+     */
+    public String getView() {
+        return view;
+    }
+
+    /**
+     * Gets the analyzer the view indexes {@code _key} with.
+     *
+     * @return the analyzer name, or null if none is configured
+     */
+    public String getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * Gets the attribute holding the lower-cased key.
+     *
+     * @return the attribute name, or null if none is configured
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Checks whether a setting is missing.
+     *
+     * @param value the setting
+     * @return true if the setting is null or blank
+     */
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
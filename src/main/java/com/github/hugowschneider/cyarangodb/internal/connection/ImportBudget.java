@@ -0,0 +1,136 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+/**
+ * Upper bounds on the result of a single query. The query cursor is consumed
+ * only while the result stays within the budget, the remaining documents are
+ * discarded and the result is marked as truncated. Connections have no budget
+ * until users opt in, so imports are never truncated unexpectedly.
+ */
+public class ImportBudget {
+
+    /**
+     * The suggested maximum number of documents.
+     */
+    public static final long SUGGESTED_MAX_DOCUMENTS = 100_000;
+    /**
+     * The suggested maximum number of megabytes received.
+     */
+    public static final long SUGGESTED_MAX_MEGABYTES = 256;
+    /**
+     * The suggested maximum share of the JVM heap, in percent, the result is
+     * estimated to take.
+     */
+    public static final int SUGGESTED_MAX_HEAP_PERCENT = 50;
+    /**
+     * Rough number of heap bytes needed per received byte, accounting for the
+     * raw documents, their parsed form and the table rows created from them.
+     */
+    static final int HEAP_BYTES_PER_RECEIVED_BYTE = 6;
+
+    /**
+     * The maximum number of documents, 0 to disable.
+     */
+    private long maxDocuments;
+    /**
+     * The maximum number of megabytes received, 0 to disable.
+     */
+    private long maxMegabytes;
+    /**
+     * The maximum share of the JVM heap in percent, 0 to disable.
+     */
+    private int maxHeapPercent;
+
+    /**
+     * Constructs an ImportBudget without limits.
+     */
+    public ImportBudget() {
+        this(0, 0, 0);
+    }
+
+    /**
+     * Creates an ImportBudget with the suggested limits, which users can opt
+     * in to for a connection.
+     *
+     * @return the suggested budget
+     */
+    public static ImportBudget suggested() {
+        return new ImportBudget(SUGGESTED_MAX_DOCUMENTS, SUGGESTED_MAX_MEGABYTES, SUGGESTED_MAX_HEAP_PERCENT);
+    }
+
+    /**
+     * Constructs an ImportBudget with the given limits.
+     *
+     * @param maxDocuments   the maximum number of documents, 0 to disable
+     * @param maxMegabytes   the maximum number of megabytes received, 0 to
+     *                       disable
+     * @param maxHeapPercent the maximum share of the JVM heap in percent the
+     *                       result is estimated to take, 0 to disable
+     */
+    public ImportBudget(long maxDocuments, long maxMegabytes, int maxHeapPercent) {
+        this.maxDocuments = maxDocuments;
+        this.maxMegabytes = maxMegabytes;
+        this.maxHeapPercent = maxHeapPercent;
+    }
+
+    /**
+     * Gets the maximum number of documents.
+     *
+     * @return the maximum number of documents, 0 if disabled
+     */
+    public long getMaxDocuments() {
+        return maxDocuments;
+    }
+
+    /**
+     * Gets the maximum number of megabytes received.
+     *
+     * @return the maximum number of megabytes, 0 if disabled
+     */
+    public long getMaxMegabytes() {
+        return maxMegabytes;
+    }
+
+    /**
+     * Gets the maximum share of the JVM heap the result is estimated to take.
+     *
+     * @return the maximum share in percent, 0 if disabled
+     */
+    public int getMaxHeapPercent() {
+        return maxHeapPercent;
+    }
+
+    /**
+     * Checks whether a result of the given size exhausted the budget.
+     *
+     * @param documents the number of documents received so far
+     * @param bytes     the number of bytes received so far
+     * @return the reason the budget is exhausted, or null if more documents may
+     *         be received
+     */
+    public String check(long documents, long bytes) {
+        return check(documents, bytes, Runtime.getRuntime().maxMemory());
+    }
+
+    /**
+     * Checks whether a result of the given size exhausted the budget.
+     *
+     * @param documents the number of documents received so far
+     * @param bytes     the number of bytes received so far
+     * @param maxHeap   the maximum heap size in bytes
+     * @return the reason the budget is exhausted, or null if more documents may
+     *         be received
+     */
+    String check(long documents, long bytes, long maxHeap) {
+        if (maxDocuments > 0 && documents >= maxDocuments) {
+            return String.format("the limit of %1$d documents was reached", maxDocuments);
+        }
+        if (maxMegabytes > 0 && bytes >= maxMegabytes * 1024 * 1024) {
+            return String.format("the limit of %1$d MB received was reached", maxMegabytes);
+        }
+        if (maxHeapPercent > 0 && bytes * HEAP_BYTES_PER_RECEIVED_BYTE >= maxHeap / 100 * maxHeapPercent) {
+            return String.format("the result is estimated to take more than %1$d%% of the available memory",
+                    maxHeapPercent);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+/**
+ * The optimizer estimates of a query, as returned by the AQL explain API.
+ */
+public class QueryEstimate {
+    /**
+     * The estimated number of items returned by the query.
+     */
+    private final long estimatedNrItems;
+    /**
+     * The estimated cost of the query.
+     */
+    private final double estimatedCost;
+
+    /**
+     * Constructs a new QueryEstimate.
+     *
+     * @param estimatedNrItems the estimated number of items returned by the query
+     * @param estimatedCost    the estimated cost of the query
+     */
+    public QueryEstimate(long estimatedNrItems, double estimatedCost) {
+        this.estimatedNrItems = estimatedNrItems;
+        this.estimatedCost = estimatedCost;
+    }
+
+    /**
+     * Gets the estimated number of items returned by the query.
+     *
+     * @return the estimated number of items
+     */
+    public long getEstimatedNrItems() {
+        return estimatedNrItems;
+    }
+
+    /**
+     * Gets the estimated cost of the query.
+     *
+     * @return the estimated cost
+     */
+    public double getEstimatedCost() {
+        return estimatedCost;
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import com.github.hugowschneider.cyarangodb.internal.aql.AqlSubquery;
+
+/**
+ * Thresholds checked against the explain estimates of a query before it is
+ * executed, so that accidental full collection scans or traversals are caught
+ * before they reach the database and Cytoscape.
+ */
+public class QueryGuardrails {
+
+    /**
+     * The outcome of checking a query estimate against the guardrails.
+     */
+    public enum Verdict {
+        /**
+         * The query is within the thresholds.
+         */
+        ACCEPT,
+        /**
+         * The query is above the warning threshold.
+         */
+        WARN,
+        /**
+         * The query is above the refusal threshold.
+         */
+        REFUSE
+    }
+
+    /**
+     * The default number of estimated items above which a warning is shown.
+     */
+    public static final long DEFAULT_WARN_ESTIMATED_ITEMS = 100_000;
+    /**
+     * The default number of estimated items above which a query is refused.
+     */
+    public static final long DEFAULT_MAX_ESTIMATED_ITEMS = 1_000_000;
+    /**
+     * The default number of documents returned by a preview.
+     */
+    public static final int DEFAULT_PREVIEW_LIMIT = 1_000;
+
+    /**
+     * Whether queries are explained before being executed.
+     */
+    private boolean explainBeforeRun;
+    /**
+     * The number of estimated items above which a warning is shown, 0 to
+     * disable.
+     */
+    private long warnEstimatedItems;
+    /**
+     * The number of estimated items above which a query is refused, 0 to
+     * disable.
+     */
+    private long maxEstimatedItems;
+    /**
+     * The estimated cost above which a query is refused, 0 to disable.
+     */
+    private double maxEstimatedCost;
+    /**
+     * The number of documents returned by a preview.
+     */
+    private int previewLimit;
+
+    /**
+     * Constructs QueryGuardrails with the default thresholds. Explaining
+     * queries before running them costs an extra round trip, so it is off
+     * until enabled for a connection.
+     */
+    public QueryGuardrails() {
+        this(false, DEFAULT_WARN_ESTIMATED_ITEMS, DEFAULT_MAX_ESTIMATED_ITEMS, 0, DEFAULT_PREVIEW_LIMIT);
+    }
+
+    /**
+     * Constructs QueryGuardrails with the given thresholds.
+     *
+     * @param explainBeforeRun   whether queries are explained before being
+     *                           executed
+     * @param warnEstimatedItems the number of estimated items above which a
+     *                           warning is shown, 0 to disable
+     * @param maxEstimatedItems  the number of estimated items above which a query
+     *                           is refused, 0 to disable
+     * @param maxEstimatedCost   the estimated cost above which a query is refused,
+     *                           0 to disable
+     * @param previewLimit       the number of documents returned by a preview
+     */
+    public QueryGuardrails(boolean explainBeforeRun, long warnEstimatedItems, long maxEstimatedItems,
+            double maxEstimatedCost, int previewLimit) {
+        this.explainBeforeRun = explainBeforeRun;
+        this.warnEstimatedItems = warnEstimatedItems;
+        this.maxEstimatedItems = maxEstimatedItems;
+        this.maxEstimatedCost = maxEstimatedCost;
+        this.previewLimit = previewLimit;
+    }
+
+    /**
+     * Checks whether queries are explained before being executed.
+     *
+     * @return true if queries are explained before being executed
+     */
+    public boolean isExplainBeforeRun() {
+        return explainBeforeRun;
+    }
+
+    /**
+     * Gets the number of estimated items above which a warning is shown.
+     *
+     * @return the warning threshold, 0 if disabled
+     */
+    public long getWarnEstimatedItems() {
+        return warnEstimatedItems;
+    }
+
+    /**
+     * Gets the number of estimated items above which a query is refused.
+     *
+     * @return the refusal threshold, 0 if disabled
+     */
+    public long getMaxEstimatedItems() {
+        return maxEstimatedItems;
+    }
+
+    /**
+     * Gets the estimated cost above which a query is refused.
+     *
+     * @return the cost threshold, 0 if disabled
+     */
+    public double getMaxEstimatedCost() {
+        return maxEstimatedCost;
+    }
+
+    /**
+     * Gets the number of documents returned by a preview.
+     *
+     * @return the preview limit
+     */
+    public int getPreviewLimit() {
+        return previewLimit;
+    }
+
+    /**
+     * Checks a query estimate against the thresholds.
+     *
+     * @param estimate the query estimate
+     * @return the verdict for the query
+     */
+    public Verdict evaluate(QueryEstimate estimate) {
+        if ((maxEstimatedItems > 0 && estimate.getEstimatedNrItems() > maxEstimatedItems)
+                || (maxEstimatedCost > 0 && estimate.getEstimatedCost() > maxEstimatedCost)) {
+            return Verdict.REFUSE;
+        }
+        if (warnEstimatedItems > 0 && estimate.getEstimatedNrItems() > warnEstimatedItems) {
+            return Verdict.WARN;
+        }
+        return Verdict.ACCEPT;
+    }
+
+    /**
+     * Wraps a query in a subquery returning at most the preview limit of
+     * documents. A leading {@code WITH} clause is kept in front of the
+     * subquery.
+     *
+     * @param query the query to wrap
+     * @return the wrapped query
+     */
+    public String toPreviewQuery(String query) {
+        return AqlSubquery.wrap(query, "FOR preview IN (\n%1$s\n) LIMIT " + previewLimit + " RETURN preview");
+    }
+}
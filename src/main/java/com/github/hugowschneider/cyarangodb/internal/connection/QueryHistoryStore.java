@@ -0,0 +1,660 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Stores the query history of all connections in an append-only journal. Every
+ * change is appended as a single record instead of rewriting the whole
+ * history, and the journal is compacted in the background once it holds
+ * mostly obsolete records. The journal is only read the first time the history
+ * is accessed.
+ * <p>
+ * Runs of the same query are folded into a single entry counting the runs, and
+ * the number of entries per connection can be bounded. The entries of each
+ * connection are kept both by last run and by run count, so that the history
+ * never needs to be sorted when it is displayed, and in a token index used to
+ * search the history.
+ */
+public class QueryHistoryStore {
+
+    /**
+     * The order in which the history of a connection is returned.
+     */
+    public enum Order {
+        /**
+         * Most recently run queries first.
+         */
+        RECENT,
+        /**
+         * Most frequently run queries first, ties broken by the last run.
+         */
+        FREQUENT
+    }
+
+    /**
+     * A single journal record.
+     */
+    static class Record {
+        /**
+         * Record adding or replacing an entry.
+         */
+        static final String PUT = "put";
+        /**
+         * Record deleting an entry.
+         */
+        static final String DELETE = "delete";
+        /**
+         * Record deleting all entries of a connection.
+         */
+        static final String CLEAR = "clear";
+
+        private String op;
+        private String connectionId;
+        private String entryId;
+        private ConnectionDetails.QueryHistory entry;
+
+        /**
+         * Constructs a new Record.
+         *
+         * @param op           the operation
+         * @param connectionId the connection uuid
+         * @param entryId      the id of the affected entry, null for clear records
+         * @param entry        the entry, only set for put records
+         */
+        Record(String op, String connectionId, String entryId, ConnectionDetails.QueryHistory entry) {
+            this.op = op;
+            this.connectionId = connectionId;
+            this.entryId = entryId;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * The history entries of a single connection.
+     */
+    private static class ConnectionHistory {
+        /**
+         * The entries by id, least recently run first.
+         */
+        private final LinkedHashMap<String, ConnectionDetails.QueryHistory> byId = new LinkedHashMap<>();
+        /**
+         * The entry ids by query.
+         */
+        private final Map<String, String> idsByQuery = new HashMap<>();
+        /**
+         * The entries, most frequently run first.
+         */
+        private final TreeSet<ConnectionDetails.QueryHistory> byFrequency = new TreeSet<>(FREQUENCY_ORDER);
+        /**
+         * The entries most recently run first, null until requested after a
+         * change.
+         */
+        private List<ConnectionDetails.QueryHistory> recentView;
+        /**
+         * The entries most frequently run first, null until requested after a
+         * change.
+         */
+        private List<ConnectionDetails.QueryHistory> frequentView;
+        /**
+         * The token index over the queries of the entries.
+         */
+        private final QueryTokenIndex tokenIndex = new QueryTokenIndex();
+
+        /**
+         * Gets the entries in the given order. The ordered list is built once
+         * after each change and shared by all reads until the next change.
+         *
+         * @param order the order of the entries
+         * @return the entries, must not be modified
+         */
+        List<ConnectionDetails.QueryHistory> view(Order order) {
+            if (order == Order.FREQUENT) {
+                if (frequentView == null) {
+                    frequentView = new ArrayList<>(byFrequency);
+                }
+                return frequentView;
+            }
+            if (recentView == null) {
+                recentView = new ArrayList<>(byId.values());
+                Collections.reverse(recentView);
+            }
+            return recentView;
+        }
+
+        /**
+         * Finds the entry of a query.
+         *
+         * @param query the query
+         * @return the entry, or null if the query is not in the history
+         */
+        ConnectionDetails.QueryHistory find(String query) {
+            String id = idsByQuery.get(queryKey(query));
+            return id == null ? null : byId.get(id);
+        }
+
+        /**
+         * Adds or replaces an entry. An entry whose run time changed moves to
+         * the most recent position, and a different entry of the same query is
+         * folded into it.
+         *
+         * @param entry the entry
+         * @return the change in the number of entries
+         */
+        int put(ConnectionDetails.QueryHistory entry) {
+            recentView = null;
+            frequentView = null;
+            int added = 1;
+            String key = queryKey(entry.getQuery());
+            String otherId = idsByQuery.get(key);
+            if (otherId != null && !otherId.equals(entry.getId())) {
+                entry.absorb(remove(otherId));
+                added--;
+            }
+            ConnectionDetails.QueryHistory previous = byId.get(entry.getId());
+            if (previous != null) {
+                added--;
+                byFrequency.remove(previous);
+                idsByQuery.remove(queryKey(previous.getQuery()), entry.getId());
+                if (!previous.getExecutedAt().equals(entry.getExecutedAt())) {
+                    byId.remove(entry.getId());
+                }
+            }
+            byId.put(entry.getId(), entry);
+            idsByQuery.put(key, entry.getId());
+            byFrequency.add(entry);
+            if (previous == null || !previous.getQuery().equals(entry.getQuery())) {
+                tokenIndex.add(entry.getId(), entry.getQuery());
+            }
+            return added;
+        }
+
+        /**
+         * Removes an entry.
+         *
+         * @param id the id of the entry
+         * @return the removed entry, or null if there is no entry with this id
+         */
+        ConnectionDetails.QueryHistory remove(String id) {
+            ConnectionDetails.QueryHistory entry = byId.remove(id);
+            if (entry != null) {
+                recentView = null;
+                frequentView = null;
+                byFrequency.remove(entry);
+                idsByQuery.remove(queryKey(entry.getQuery()), id);
+                tokenIndex.remove(id);
+            }
+            return entry;
+        }
+
+        /**
+         * Gets the least recently run entry.
+         *
+         * @return the least recently run entry
+         */
+        ConnectionDetails.QueryHistory leastRecent() {
+            return byId.values().iterator().next();
+        }
+
+        /**
+         * Gets the number of entries.
+         *
+         * @return the number of entries
+         */
+        int size() {
+            return byId.size();
+        }
+    }
+
+    /**
+     * Orders entries by descending run count, then by descending run time.
+     */
+    private static final Comparator<ConnectionDetails.QueryHistory> FREQUENCY_ORDER = Comparator
+            .comparingInt(ConnectionDetails.QueryHistory::getRunCount).reversed()
+            .thenComparing(ConnectionDetails.QueryHistory::getExecutedAt, Comparator.reverseOrder())
+            .thenComparing(ConnectionDetails.QueryHistory::getId);
+
+    /**
+     * The logger for the QueryHistoryStore class.
+     */
+    private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(QueryHistoryStore.class);
+
+    /**
+     * The name of the journal file.
+     */
+    public static final String HISTORY_JOURNAL = "arangodb-history.jsonl";
+
+    /**
+     * The minimum number of journal records before a compaction is considered.
+     */
+    static final int COMPACTION_MIN_RECORDS = 1000;
+
+    /**
+     * The default maximum number of distinct queries kept per connection.
+     */
+    public static final int DEFAULT_HISTORY_LIMIT = 500;
+
+    /**
+     * The path of the journal file.
+     */
+    private final Path journalPath;
+
+    /**
+     * The Gson object used to serialize journal records.
+     */
+    private final Gson gson;
+
+    /**
+     * The executor compacting the journal in the background.
+     */
+    private final ExecutorService compactor;
+
+    /**
+     * The history entries by connection uuid. Null until the journal is loaded.
+     */
+    private Map<String, ConnectionHistory> entries;
+
+    /**
+     * The number of records in the journal file.
+     */
+    private int journalRecords;
+
+    /**
+     * The number of live entries over all connections.
+     */
+    private int liveEntries;
+
+    /**
+     * The records appended while a compaction is running, null otherwise.
+     */
+    private List<String> compactionTail;
+
+    /**
+     * Whether a compaction is scheduled or running.
+     */
+    private boolean compactionScheduled;
+
+    /**
+     * Constructs a new QueryHistoryStore.
+     *
+     * @param configFolderPath the configuration folder path
+     * @param gson             the Gson object used to serialize journal records
+     */
+    public QueryHistoryStore(String configFolderPath, Gson gson) {
+        this.journalPath = Paths.get(configFolderPath, HISTORY_JOURNAL);
+        this.gson = gson;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "cyarangodb-history-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the path of the journal file.
+     *
+     * @return the journal path
+     */
+    public Path getJournalPath() {
+        return journalPath;
+    }
+
+    /**
+     * Gets the query history of a connection.
+     *
+     * @param connectionId the connection uuid
+     * @return the history entries, most recent first
+     */
+    public List<ConnectionDetails.QueryHistory> getHistory(String connectionId) {
+        return getHistory(connectionId, Order.RECENT);
+    }
+
+    /**
+     * Gets the query history of a connection in the given order.
+     *
+     * @param connectionId the connection uuid
+     * @param order        the order of the entries
+     * @return the history entries
+     */
+    public synchronized List<ConnectionDetails.QueryHistory> getHistory(String connectionId, Order order) {
+        ensureLoaded();
+        ConnectionHistory history = entries.get(connectionId);
+        return history == null ? new ArrayList<>() : new ArrayList<>(history.view(order));
+    }
+
+    /**
+     * Gets a page of the query history of a connection in the given order.
+     *
+     * @param connectionId the connection uuid
+     * @param order        the order of the entries
+     * @param offset       the index of the first entry of the page
+     * @param limit        the maximum number of entries of the page
+     * @return the history entries of the page, empty if the offset is beyond
+     *         the end of the history
+     */
+    public synchronized List<ConnectionDetails.QueryHistory> getHistory(String connectionId, Order order, int offset,
+            int limit) {
+        ensureLoaded();
+        ConnectionHistory history = entries.get(connectionId);
+        if (history == null || offset < 0 || offset >= history.size()) {
+            return new ArrayList<>();
+        }
+        List<ConnectionDetails.QueryHistory> view = history.view(order);
+        return new ArrayList<>(view.subList(offset, Math.min(view.size(), offset + limit)));
+    }
+
+    /**
+     * Searches the query history of a connection. An entry matches if, for
+     * every identifier, collection name or string literal of the search text,
+     * its query contains one starting with it, ignoring case.
+     *
+     * @param connectionId the connection uuid
+     * @param text         the search text
+     * @param order        the order of the entries
+     * @return the matching history entries, or all entries if the search text
+     *         has nothing to search for
+     */
+    public synchronized List<ConnectionDetails.QueryHistory> search(String connectionId, String text, Order order) {
+        ensureLoaded();
+        ConnectionHistory history = entries.get(connectionId);
+        if (history == null) {
+            return new ArrayList<>();
+        }
+        Set<String> ids = history.tokenIndex.search(text);
+        if (ids == null) {
+            return new ArrayList<>(history.view(order));
+        }
+        List<ConnectionDetails.QueryHistory> matches = new ArrayList<>(ids.size());
+        for (ConnectionDetails.QueryHistory entry : history.view(order)) {
+            if (ids.contains(entry.getId())) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the number of entries in the query history of a connection.
+     *
+     * @param connectionId the connection uuid
+     * @return the number of entries
+     */
+    public synchronized int getHistorySize(String connectionId) {
+        ensureLoaded();
+        ConnectionHistory history = entries.get(connectionId);
+        return history == null ? 0 : history.size();
+    }
+
+    /**
+     * Records a run of a query. A query already in the history is folded into
+     * its existing entry, which keeps its id and counts the run. If the history
+     * then holds more than the given limit of entries, the least recently run
+     * entries are removed.
+     *
+     * @param connectionId the connection uuid
+     * @param query        the query
+     * @param executedAt   the time the query was run
+     * @param statistics   the execution statistics, may be null
+     * @param limit        the maximum number of entries of the connection, 0
+     *                     for no limit
+     * @return the entry recording the run
+     */
+    public synchronized ConnectionDetails.QueryHistory record(String connectionId, String query,
+            LocalDateTime executedAt, QueryStatistics statistics, int limit) {
+        ensureLoaded();
+        ConnectionHistory history = entries.get(connectionId);
+        ConnectionDetails.QueryHistory existing = history == null ? null : history.find(query);
+        ConnectionDetails.QueryHistory entry = existing == null
+                ? new ConnectionDetails.QueryHistory(query, executedAt, statistics)
+                : existing.rerun(executedAt, statistics);
+
+        List<String> lines = new ArrayList<>();
+        apply(new Record(Record.PUT, connectionId, entry.getId(), entry), lines);
+        history = entries.get(connectionId);
+        while (limit > 0 && history.size() > limit) {
+            apply(new Record(Record.DELETE, connectionId, history.leastRecent().getId(), null), lines);
+        }
+        append(lines);
+        return entry;
+    }
+
+    /**
+     * Adds or replaces a history entry of a connection.
+     *
+     * @param connectionId the connection uuid
+     * @param entry        the history entry
+     */
+    public synchronized void put(String connectionId, ConnectionDetails.QueryHistory entry) {
+        putAll(connectionId, Collections.singletonList(entry));
+    }
+
+    /**
+     * Adds or replaces several history entries of a connection with a single
+     * journal write.
+     *
+     * @param connectionId   the connection uuid
+     * @param historyEntries the history entries, oldest first
+     */
+    public synchronized void putAll(String connectionId, List<ConnectionDetails.QueryHistory> historyEntries) {
+        ensureLoaded();
+        List<String> lines = new ArrayList<>();
+        for (ConnectionDetails.QueryHistory entry : historyEntries) {
+            apply(new Record(Record.PUT, connectionId, entry.getId(), entry), lines);
+        }
+        append(lines);
+    }
+
+    /**
+     * Deletes a history entry of a connection.
+     *
+     * @param connectionId the connection uuid
+     * @param entryId      the id of the entry
+     */
+    public synchronized void delete(String connectionId, String entryId) {
+        ensureLoaded();
+        List<String> lines = new ArrayList<>();
+        apply(new Record(Record.DELETE, connectionId, entryId, null), lines);
+        append(lines);
+    }
+
+    /**
+     * Deletes all history entries of a connection.
+     *
+     * @param connectionId the connection uuid
+     */
+    public synchronized void clear(String connectionId) {
+        ensureLoaded();
+        if (entries.containsKey(connectionId)) {
+            List<String> lines = new ArrayList<>();
+            apply(new Record(Record.CLEAR, connectionId, null, null), lines);
+            append(lines);
+        }
+    }
+
+    /**
+     * Loads the journal if it has not been loaded yet.
+     */
+    private void ensureLoaded() {
+        if (entries != null) {
+            return;
+        }
+        entries = new HashMap<>();
+        liveEntries = 0;
+        journalRecords = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                journalRecords++;
+                try {
+                    apply(gson.fromJson(line, Record.class));
+                } catch (JsonParseException e) {
+                    LOGGER.warn("Skipping unreadable query history record", e);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // No history was recorded yet
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Serializes a record and applies it to the in-memory entries. The record
+     * is serialized first, as applying it may fold other entries into it.
+     *
+     * @param record the record to apply
+     * @param lines  the journal lines to add the serialized record to
+     */
+    private void apply(Record record, List<String> lines) {
+        lines.add(gson.toJson(record));
+        apply(record);
+    }
+
+    /**
+     * Applies a record to the in-memory entries.
+     *
+     * @param record the record to apply
+     */
+    private void apply(Record record) {
+        if (record == null || record.op == null || record.connectionId == null) {
+            return;
+        }
+        switch (record.op) {
+            case Record.PUT:
+                if (record.entry != null && record.entry.getId() != null && record.entry.getQuery() != null
+                        && record.entry.getExecutedAt() != null) {
+                    liveEntries += entries.computeIfAbsent(record.connectionId, k -> new ConnectionHistory())
+                            .put(record.entry);
+                }
+                break;
+            case Record.DELETE:
+                ConnectionHistory history = entries.get(record.connectionId);
+                if (history != null && history.remove(record.entryId) != null) {
+                    liveEntries--;
+                }
+                break;
+            case Record.CLEAR:
+                ConnectionHistory removed = entries.remove(record.connectionId);
+                if (removed != null) {
+                    liveEntries -= removed.size();
+                }
+                break;
+            default:
+                LOGGER.warn("Skipping query history record with unknown operation {}", record.op);
+        }
+    }
+
+    /**
+     * Appends serialized records to the journal and schedules a compaction if
+     * the journal holds mostly obsolete records.
+     *
+     * @param lines the serialized records to append
+     */
+    private void append(List<String> lines) {
+        try {
+            writeLines(journalPath, lines, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOGGER.error(e.getMessage(), e);
+            return;
+        }
+        journalRecords += lines.size();
+        if (compactionTail != null) {
+            compactionTail.addAll(lines);
+        }
+        if (!compactionScheduled && journalRecords > COMPACTION_MIN_RECORDS && journalRecords > 2 * liveEntries) {
+            compactionScheduled = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Rewrites the journal with a single record per live entry. The snapshot is
+     * written without holding the lock, records appended in the meantime are
+     * copied over before the new journal atomically replaces the old one.
+     */
+    void compact() {
+        List<String> snapshot = new ArrayList<>();
+        synchronized (this) {
+            ensureLoaded();
+            for (Map.Entry<String, ConnectionHistory> connection : entries.entrySet()) {
+                for (ConnectionDetails.QueryHistory entry : connection.getValue().byId.values()) {
+                    snapshot.add(gson.toJson(new Record(Record.PUT, connection.getKey(), entry.getId(), entry)));
+                }
+            }
+            compactionTail = new ArrayList<>();
+        }
+
+        Path tempPath = journalPath.resolveSibling(HISTORY_JOURNAL + ".tmp");
+        try {
+            writeLines(tempPath, snapshot, StandardOpenOption.TRUNCATE_EXISTING);
+            synchronized (this) {
+                writeLines(tempPath, compactionTail, StandardOpenOption.APPEND);
+                ConnectionManager.replaceFile(tempPath, journalPath);
+                journalRecords = snapshot.size() + compactionTail.size();
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not compact the query history journal", e);
+        } finally {
+            synchronized (this) {
+                compactionTail = null;
+                compactionScheduled = false;
+            }
+        }
+    }
+
+    /**
+     * Gets the key under which runs of a query are folded together.
+     *
+     * @param query the query
+     * @return the key of the query
+     */
+    private static String queryKey(String query) {
+        return query.strip();
+    }
+
+    /**
+     * Writes lines to a file.
+     *
+     * @param path   the file path
+     * @param lines  the lines to write
+     * @param option the option controlling whether the file is truncated or
+     *               appended to
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeLines(Path path, List<String> lines, StandardOpenOption option) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, option)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import java.util.List;
+
+import com.arangodb.util.RawJson;
+
+/**
+ * The result of a query execution together with its execution statistics.
+ */
+public class QueryResult {
+    /**
+     * The documents returned by the query.
+     */
+    private final List<RawJson> documents;
+    /**
+     * The execution statistics of the query.
+     */
+    private final QueryStatistics statistics;
+    /**
+     * The reason the result was truncated, null if it is complete.
+     */
+    private final String truncation;
+    /**
+     * The history entry the query was recorded in, null if it was not recorded.
+     */
+    private ConnectionDetails.QueryHistory historyEntry;
+
+    /**
+     * Constructs a new QueryResult.
+     *
+     * @param documents  the documents returned by the query
+     * @param statistics the execution statistics of the query
+     */
+    public QueryResult(List<RawJson> documents, QueryStatistics statistics) {
+        this(documents, statistics, null);
+    }
+
+    /**
+     * Constructs a new QueryResult.
+     *
+     * @param documents  the documents returned by the query
+     * @param statistics the execution statistics of the query
+     * @param truncation the reason the result was truncated, null if it is
+     *                   complete
+     */
+    public QueryResult(List<RawJson> documents, QueryStatistics statistics, String truncation) {
+        this.documents = documents;
+        this.statistics = statistics;
+        this.truncation = truncation;
+    }
+
+    /**
+     * Gets the documents returned by the query.
+     *
+     * @return the list of RawJson documents
+     */
+    public List<RawJson> getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Gets the execution statistics of the query.
+     *
+     * @return the query statistics
+     */
+    public QueryStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gets the reason the result was truncated.
+     *
+     * @return the truncation reason, or null if the result is complete
+     */
+    public String getTruncation() {
+        return truncation;
+    }
+
+    /**
+     * Gets the history entry the query was recorded in.
+     *
+     * @return the history entry, or null if the query was not recorded
+     */
+    public ConnectionDetails.QueryHistory getHistoryEntry() {
+        return historyEntry;
+    }
+
+    /**
+     * Sets the history entry the query was recorded in.
+     *
+     * @param historyEntry the history entry
+     */
+    void setHistoryEntry(ConnectionDetails.QueryHistory historyEntry) {
+        this.historyEntry = historyEntry;
+    }
+
+    /**
+     * Checks whether the result was truncated by the import budget.
+     *
+     * @return true if the result was truncated
+     */
+    public boolean isTruncated() {
+        return truncation != null;
+    }
+}
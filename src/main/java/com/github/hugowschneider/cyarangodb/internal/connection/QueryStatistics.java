@@ -0,0 +1,278 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import java.util.List;
+
+import com.arangodb.entity.CursorStats;
+import com.arangodb.util.RawJson;
+
+/**
+ * Execution statistics of a single query run. The server side figures are
+ * taken from the cursor's extra statistics while the client side timings are
+ * measured by the plugin while decoding the result, building the network and
+ * applying the layout.
+ */
+public class QueryStatistics {
+    /**
+     * The server side execution time in seconds.
+     */
+    private Double executionTime;
+    /**
+     * The number of documents scanned without an index.
+     */
+    private Long scannedFull;
+    /**
+     * The number of documents scanned using an index.
+     */
+    private Long scannedIndex;
+    /**
+     * The number of cluster internal HTTP requests.
+     */
+    private Long httpRequests;
+    /**
+     * The peak memory usage of the query in bytes.
+     */
+    private Long peakMemoryUsage;
+    /**
+     * The number of documents returned by the query.
+     */
+    private long resultCount;
+    /**
+     * The size of the received documents in bytes, encoded as UTF-8.
+     */
+    private long bytesReceived;
+    /**
+     * The time in milliseconds spent fetching and decoding the result.
+     */
+    private Long decodeTime;
+    /**
+     * The time in milliseconds spent building the network.
+     */
+    private Long buildTime;
+    /**
+     * The time in milliseconds spent applying the layout.
+     */
+    private Long layoutTime;
+    /**
+     * Called once the layout time is set, since the layout is applied
+     * asynchronously after the statistics have been stored. Not serialized.
+     */
+    private transient Runnable layoutTimeListener;
+
+    /**
+     * Constructs an empty QueryStatistics instance.
+     */
+    public QueryStatistics() {
+    }
+
+    /**
+     * Creates the statistics of a query from its cursor statistics and result.
+     *
+     * @param stats      the cursor statistics, may be null
+     * @param docs       the documents returned by the query
+     * @param decodeTime the time in milliseconds spent fetching and decoding the
+     *                   result
+     * @return the query statistics
+     */
+    public static QueryStatistics of(CursorStats stats, List<RawJson> docs, long decodeTime) {
+        QueryStatistics statistics = new QueryStatistics();
+        if (stats != null) {
+            statistics.executionTime = stats.getExecutionTime();
+            statistics.scannedFull = stats.getScannedFull();
+            statistics.scannedIndex = stats.getScannedIndex();
+            statistics.httpRequests = stats.getHttpRequests();
+            statistics.peakMemoryUsage = stats.getPeakMemoryUsage();
+        }
+        long bytes = 0;
+        for (RawJson doc : docs) {
+            bytes += byteSize(doc);
+        }
+        statistics.resultCount = docs.size();
+        statistics.bytesReceived = bytes;
+        statistics.decodeTime = decodeTime;
+        return statistics;
+    }
+
+    /**
+     * Gets the size of a document encoded as UTF-8, as received from the
+     * server, without encoding it.
+     *
+     * @param doc the document
+     * @return the size in bytes
+     */
+    public static long byteSize(RawJson doc) {
+        String json = doc.get();
+        long bytes = 0;
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < json.length()
+                    && Character.isLowSurrogate(json.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the server side execution time.
+     *
+     * @return the execution time in seconds, or null if not reported
+     */
+    public Double getExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * Gets the number of documents scanned without an index.
+     *
+     * @return the number of fully scanned documents, or null if not reported
+     */
+    public Long getScannedFull() {
+        return scannedFull;
+    }
+
+    /**
+     * Gets the number of documents scanned using an index.
+     *
+     * @return the number of index scanned documents, or null if not reported
+     */
+    public Long getScannedIndex() {
+        return scannedIndex;
+    }
+
+    /**
+     * Gets the number of cluster internal HTTP requests.
+     *
+     * @return the number of HTTP requests, or null if not reported
+     */
+    public Long getHttpRequests() {
+        return httpRequests;
+    }
+
+    /**
+     * Gets the peak memory usage of the query.
+     *
+     * @return the peak memory usage in bytes, or null if not reported
+     */
+    public Long getPeakMemoryUsage() {
+        return peakMemoryUsage;
+    }
+
+    /**
+     * Gets the number of documents returned by the query.
+     *
+     * @return the result count
+     */
+    public long getResultCount() {
+        return resultCount;
+    }
+
+    /**
+     * Gets the size of the received documents.
+     *
+     * @return the size in bytes
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Gets the time spent fetching and decoding the result.
+     *
+     * @return the decode time in milliseconds, or null if not measured
+     */
+    public Long getDecodeTime() {
+        return decodeTime;
+    }
+
+    /**
+     * Gets the time spent building the network.
+     *
+     * @return the build time in milliseconds, or null if not measured
+     */
+    public Long getBuildTime() {
+        return buildTime;
+    }
+
+    /**
+     * Sets the time spent building the network.
+     *
+     * @param buildTime the build time in milliseconds
+     */
+    public void setBuildTime(Long buildTime) {
+        this.buildTime = buildTime;
+    }
+
+    /**
+     * Gets the time spent applying the layout.
+     *
+     * @return the layout time in milliseconds, or null if not measured
+     */
+    public Long getLayoutTime() {
+        return layoutTime;
+    }
+
+    /**
+     * Sets the time spent applying the layout.
+     *
+     * @param layoutTime the layout time in milliseconds
+     */
+    public void setLayoutTime(Long layoutTime) {
+        Runnable listener;
+        synchronized (this) {
+            this.layoutTime = layoutTime;
+            listener = layoutTimeListener;
+        }
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Sets the listener called once the layout time is set, typically to
+     * persist the history entry holding these statistics. The listener is
+     * called right away if the layout time has already been set.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public void setLayoutTimeListener(Runnable listener) {
+        boolean measured;
+        synchronized (this) {
+            this.layoutTimeListener = listener;
+            measured = layoutTime != null;
+        }
+        if (listener != null && measured) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Gets the server side execution time in milliseconds.
+     *
+     * @return the execution time in milliseconds, or null if not reported
+     */
+    public Long getServerTimeMillis() {
+        return executionTime == null ? null : Math.round(executionTime * 1000);
+    }
+
+    /**
+     * Gets the sum of all measured client side timings.
+     *
+     * @return the client time in milliseconds
+     */
+    public long getClientTimeMillis() {
+        long total = 0;
+        for (Long time : new Long[] { decodeTime, buildTime, layoutTime }) {
+            if (time != null) {
+                total += time;
+            }
+        }
+        return total;
+    }
+}
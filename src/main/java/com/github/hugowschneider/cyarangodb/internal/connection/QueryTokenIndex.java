@@ -0,0 +1,161 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index from the tokens of AQL queries to the ids of the history
+ * entries containing them. Tokens are the identifiers of a query, which
+ * include keywords, variables, attributes and collection names, as well as
+ * the content of its string literals and quoted names together with the words
+ * inside them. The index is updated entry by entry as the history changes.
+ */
+class QueryTokenIndex {
+
+    /**
+     * Matches double quoted, single quoted, backtick and forward tick quoted
+     * literals, and identifiers.
+     */
+    private static final Pattern TOKEN = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"|'((?:[^'\\\\]|\\\\.)*)'"
+            + "|`([^`]*)`|\u00b4([^\u00b4]*)\u00b4|([A-Za-z_][A-Za-z0-9_]*)");
+
+    /**
+     * Matches the words inside a literal.
+     */
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}_]+");
+
+    /**
+     * The ids of the entries containing a token, by token.
+     */
+    private final TreeMap<String, Set<String>> postings = new TreeMap<>();
+
+    /**
+     * The tokens of an entry, by entry id.
+     */
+    private final Map<String, Set<String>> tokensById = new HashMap<>();
+
+    /**
+     * Adds the tokens of an entry, replacing those it was added with before.
+     *
+     * @param id    the id of the entry
+     * @param query the query of the entry
+     */
+    void add(String id, String query) {
+        remove(id);
+        Set<String> tokens = tokenize(query);
+        tokensById.put(id, tokens);
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Removes the tokens of an entry.
+     *
+     * @param id the id of the entry
+     */
+    void remove(String id) {
+        Set<String> tokens = tokensById.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Set<String> ids = postings.get(token);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Finds the entries matching a search text. An entry matches if, for every
+     * token of the search text, it contains a token starting with it.
+     *
+     * @param text the search text
+     * @return the ids of the matching entries, or null if the search text has
+     *         no tokens
+     */
+    Set<String> search(String text) {
+        Set<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        Set<String> result = null;
+        for (String term : terms) {
+            Set<String> ids = new HashSet<>();
+            for (Set<String> matches : postings.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                ids.addAll(matches);
+            }
+            if (result == null) {
+                result = ids;
+            } else {
+                result.retainAll(ids);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of distinct tokens in the index.
+     *
+     * @return the number of tokens
+     */
+    int size() {
+        return postings.size();
+    }
+
+    /**
+     * Splits a query into lower case tokens.
+     *
+     * @param query the query
+     * @return the tokens of the query
+     */
+    static Set<String> tokenize(String query) {
+        Set<String> tokens = new LinkedHashSet<>();
+        Matcher matcher = TOKEN.matcher(query);
+        while (matcher.find()) {
+            String identifier = matcher.group(5);
+            if (identifier != null) {
+                tokens.add(identifier.toLowerCase(Locale.ROOT));
+                continue;
+            }
+            String literal = firstNonNull(matcher.group(1), matcher.group(2), matcher.group(3), matcher.group(4))
+                    .toLowerCase(Locale.ROOT);
+            if (literal.isBlank()) {
+                continue;
+            }
+            tokens.add(literal);
+            Matcher words = WORD.matcher(literal);
+            while (words.find()) {
+                tokens.add(words.group());
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Gets the first of the given values that is not null.
+     *
+     * @param values the values
+     * @return the first value that is not null
+     */
+    private static String firstNonNull(String... values) {
+        for (String value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,392 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.ArangoDatabase;
+import com.arangodb.entity.CollectionEntity;
+import com.arangodb.entity.CollectionType;
+import com.arangodb.entity.EdgeDefinition;
+import com.arangodb.entity.GraphEntity;
+import com.arangodb.model.CollectionsReadOptions;
+
+/**
+ * The schema of the database of a connection: its collections and graphs with
+ * their edge definitions. The catalog is shared by everything that needs the
+ * schema of the connection and is loaded in the background: reading it never
+ * waits for the server, but returns the last loaded schema and starts a
+ * refresh if that schema is older than the time to live. After a failed
+ * refresh the next one is only started once a retry delay has passed, which
+ * doubles with every further failure up to the time to live. Listeners are
+ * notified on the loading thread with the loaded schema, and once for every
+ * streak of failed refreshes.
+ */
+public class SchemaCatalog {
+
+    /**
+     * The default time in milliseconds after which the schema is refreshed.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 5 * 60_000;
+
+    /**
+     * The default time in milliseconds after which a failed refresh is first
+     * retried.
+     */
+    public static final long DEFAULT_RETRY_MILLIS = 10_000;
+
+    /**
+     * The logger for the SchemaCatalog class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaCatalog.class);
+
+    /**
+     * Receives notifications about refreshes of the catalog.
+     */
+    public interface Listener {
+        /**
+         * Called on the loading thread when a refresh loaded the schema.
+         *
+         * @param catalog  the refreshed catalog
+         * @param snapshot the loaded schema
+         */
+        void catalogRefreshed(SchemaCatalog catalog, Snapshot snapshot);
+
+        /**
+         * Called on the loading thread when a refresh failed after the previous
+         * one succeeded, or when the first refresh failed. Further failures are
+         * not reported until a refresh succeeds again.
+         *
+         * @param catalog the catalog that failed to refresh
+         * @param error   the error of the refresh
+         */
+        default void catalogFailed(SchemaCatalog catalog, Exception error) {
+        }
+    }
+
+    /**
+     * An immutable view of the schema at the time it was loaded.
+     */
+    public static class Snapshot {
+        /**
+         * A snapshot without any schema, used until the schema is loaded.
+         */
+        public static final Snapshot EMPTY = new Snapshot(Collections.emptyList(), Collections.emptyList(),
+                Collections.emptyMap());
+
+        /**
+         * The names of the document collections, sorted.
+         */
+        private final List<String> documentCollections;
+        /**
+         * The names of the edge collections, sorted.
+         */
+        private final List<String> edgeCollections;
+        /**
+         * The edge definitions by graph name, sorted by graph name.
+         */
+        private final Map<String, List<EdgeDefinition>> graphs;
+
+        /**
+         * Constructs a new Snapshot.
+         *
+         * @param documentCollections the names of the document collections
+         * @param edgeCollections     the names of the edge collections
+         * @param graphs              the edge definitions by graph name
+         */
+        public Snapshot(List<String> documentCollections, List<String> edgeCollections,
+                Map<String, List<EdgeDefinition>> graphs) {
+            List<String> documents = new ArrayList<>(documentCollections);
+            Collections.sort(documents);
+            List<String> edges = new ArrayList<>(edgeCollections);
+            Collections.sort(edges);
+            this.documentCollections = Collections.unmodifiableList(documents);
+            this.edgeCollections = Collections.unmodifiableList(edges);
+            this.graphs = Collections.unmodifiableMap(new TreeMap<>(graphs));
+        }
+
+        /**
+         * Gets the names of the document collections.
+         *
+         * @return the sorted document collection names
+         */
+        public List<String> getDocumentCollections() {
+            return documentCollections;
+        }
+
+        /**
+         * Gets the names of the edge collections.
+         *
+         * @return the sorted edge collection names
+         */
+        public List<String> getEdgeCollections() {
+            return edgeCollections;
+        }
+
+        /**
+         * Gets the names of the graphs.
+         *
+         * @return the sorted graph names
+         */
+        public List<String> getGraphNames() {
+            return new ArrayList<>(graphs.keySet());
+        }
+
+        /**
+         * Gets the edge definitions of a graph.
+         *
+         * @param graph the graph name
+         * @return the edge definitions, empty if the graph is unknown
+         */
+        public List<EdgeDefinition> getEdgeDefinitions(String graph) {
+            return graphs.getOrDefault(graph, Collections.emptyList());
+        }
+
+        /**
+         * Checks whether a collection exists.
+         *
+         * @param collection the collection name
+         * @return true if the collection is a document or edge collection
+         */
+        public boolean hasCollection(String collection) {
+            return documentCollections.contains(collection) || edgeCollections.contains(collection);
+        }
+    }
+
+    /**
+     * The function loading the schema from the server.
+     */
+    private final Supplier<Snapshot> loader;
+
+    /**
+     * The executor running the refreshes.
+     */
+    private final Executor executor;
+
+    /**
+     * The time in milliseconds after which the schema is refreshed.
+     */
+    private final long ttlMillis;
+
+    /**
+     * The time in milliseconds after which a failed refresh is first retried.
+     */
+    private final long retryMillis;
+
+    /**
+     * The clock giving the current time in milliseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The listeners notified about refreshes.
+     */
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The last loaded schema.
+     */
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * The error of the last refresh, null if it succeeded.
+     */
+    private volatile Exception error;
+
+    /**
+     * The time in milliseconds the last refresh finished, 0 if none did.
+     */
+    private long refreshedAt;
+
+    /**
+     * The time in milliseconds from which reading the schema starts a refresh.
+     */
+    private long nextRefreshAt;
+
+    /**
+     * The number of refreshes that failed since the last successful one.
+     */
+    private int failures;
+
+    /**
+     * Whether a refresh is scheduled or running.
+     */
+    private boolean refreshing;
+
+    /**
+     * Constructs a new SchemaCatalog loading the schema of a database.
+     *
+     * @param database the database
+     * @param executor the executor running the refreshes
+     */
+    public SchemaCatalog(ArangoDatabase database, Executor executor) {
+        this(() -> load(database), executor, DEFAULT_TTL_MILLIS, DEFAULT_RETRY_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs a new SchemaCatalog.
+     *
+     * @param loader    the function loading the schema from the server
+     * @param executor  the executor running the refreshes
+     * @param ttlMillis   the time in milliseconds after which the schema is
+     *                    refreshed
+     * @param retryMillis the time in milliseconds after which a failed refresh
+     *                    is first retried
+     * @param clock       the clock giving the current time in milliseconds
+     */
+    SchemaCatalog(Supplier<Snapshot> loader, Executor executor, long ttlMillis, long retryMillis,
+            LongSupplier clock) {
+        this.loader = loader;
+        this.executor = executor;
+        this.ttlMillis = ttlMillis;
+        this.retryMillis = retryMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the last loaded schema without waiting for the server. A refresh is
+     * started if the schema was never loaded, is older than the time to live,
+     * or failed to load and the retry delay has passed.
+     *
+     * @return the last loaded schema, empty if none was loaded yet
+     */
+    public Snapshot getSnapshot() {
+        synchronized (this) {
+            if (clock.getAsLong() >= nextRefreshAt) {
+                refresh();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets the error of the last refresh.
+     *
+     * @return the error, or null if the last refresh succeeded or none finished
+     *         yet
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * Checks whether a refresh finished, successfully or not.
+     *
+     * @return true if the schema was loaded or failed to load at least once
+     */
+    public synchronized boolean isLoaded() {
+        return refreshedAt != 0;
+    }
+
+    /**
+     * Starts a refresh in the background unless one is already scheduled or
+     * running.
+     */
+    public synchronized void refresh() {
+        if (refreshing) {
+            return;
+        }
+        refreshing = true;
+        try {
+            executor.execute(this::reload);
+        } catch (RejectedExecutionException e) {
+            refreshing = false;
+            LOGGER.debug("Schema refresh rejected", e);
+        }
+    }
+
+    /**
+     * Adds a listener notified about refreshes.
+     *
+     * @param listener the listener
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener the listener
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Loads the schema and notifies the listeners. If loading fails, the
+     * previously loaded schema is kept and the next refresh is delayed.
+     */
+    private void reload() {
+        Snapshot loaded = null;
+        Exception failure = null;
+        try {
+            loaded = loader.get();
+        } catch (Exception e) {
+            LOGGER.debug("Error while loading the database schema", e);
+            failure = e;
+        }
+        boolean firstFailure;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            refreshedAt = Math.max(1, now);
+            refreshing = false;
+            if (failure == null) {
+                snapshot = loaded;
+                failures = 0;
+                nextRefreshAt = now + ttlMillis;
+            } else {
+                failures++;
+                nextRefreshAt = now + Math.min(ttlMillis, retryMillis << Math.min(failures - 1, 16));
+            }
+            error = failure;
+            firstFailure = failures == 1;
+        }
+        for (Listener listener : listeners) {
+            if (failure == null) {
+                listener.catalogRefreshed(this, loaded);
+            } else if (firstFailure) {
+                listener.catalogFailed(this, failure);
+            }
+        }
+    }
+
+    /**
+     * Loads the schema of a database.
+     *
+     * @param database the database
+     * @return the schema
+     */
+    public static Snapshot load(ArangoDatabase database) {
+        List<String> documentCollections = new ArrayList<>();
+        List<String> edgeCollections = new ArrayList<>();
+        Collection<CollectionEntity> collections = database
+                .getCollections(new CollectionsReadOptions().excludeSystem(true));
+        for (CollectionEntity collection : collections) {
+            if (collection.getType() == CollectionType.DOCUMENT) {
+                documentCollections.add(collection.getName());
+            } else if (collection.getType() == CollectionType.EDGES) {
+                edgeCollections.add(collection.getName());
+            }
+        }
+        Map<String, List<EdgeDefinition>> graphs = new HashMap<>();
+        for (GraphEntity graph : database.getGraphs()) {
+            Collection<EdgeDefinition> definitions = graph.getEdgeDefinitions();
+            graphs.put(graph.getName(),
+                    definitions == null ? Collections.emptyList() : new ArrayList<>(definitions));
+        }
+        return new Snapshot(documentCollections, edgeCollections, graphs);
+    }
+}
@@ -1,21 +1,27 @@
 package com.github.hugowschneider.cyarangodb.internal.network;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyIdentifiable;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
 
+import com.arangodb.ArangoCursor;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.entity.BaseDocument;
 import com.arangodb.entity.BaseEdgeDocument;
+import com.arangodb.model.AqlQueryOptions;
 import com.arangodb.util.RawJson;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -23,12 +29,34 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata.NetworkExpansionMetadata;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
 /**
  * Adapts ArangoDB data to Cytoscape networks.
+ * <p>
+ * The adapter is used from the event dispatch thread, the task and query
+ * threads of expansions and updates, and the thread of a
+ * {@link LiveNetworkSync}. All methods reading or changing the network and the
+ * node and edge indices are synchronized on the adapter, so each of them
+ * applies its changes as a whole.
  */
 public class ArangoNetworkAdapter {
+    /**
+     * The number of ids sent to the database in a single refresh query.
+     */
+    public static final int REFRESH_CHUNK_SIZE = 1000;
+
+    /**
+     * The query returning the current revision of the documents of a chunk of
+     * ids that still exist.
+     */
+    static final String REVISIONS_QUERY = "FOR id IN @ids LET doc = DOCUMENT(id) FILTER doc != null "
+            + "RETURN { _id: doc._id, _rev: doc._rev }";
+
+    /**
+     * The query returning the documents of a chunk of ids that still exist.
+     */
+    static final String DOCUMENTS_QUERY = "FOR id IN @ids LET doc = DOCUMENT(id) FILTER doc != null RETURN doc";
+
     /**
      * Represents a path consisting of edges and nodes.
      */
@@ -90,15 +118,25 @@ public class ArangoNetworkAdapter {
      */
     private Map<String, CyNode> nodes;
 
+    /**
+     * Map of node IDs by the SUIDs of their Cytoscape nodes.
+     */
+    private Map<Long, String> nodeIds;
+
     /**
      * ObjectMapper for JSON processing.
      */
     private ObjectMapper mapper;
 
     /**
-     * List of edge IDs.
+     * Map of Cytoscape edges by their IDs.
+     */
+    private Map<String, CyEdge> edges;
+
+    /**
+     * Map of edge IDs by the SUIDs of their Cytoscape edges.
      */
-    private List<String> edges;
+    private Map<Long, String> edgeIds;
 
     /**
      * The Cytoscape network.
@@ -110,6 +148,18 @@ public class ArangoNetworkAdapter {
      */
     private Gson gson;
 
+    /**
+     * The metadata of the network, updated in memory on every expansion and
+     * written to the network table by {@link #flushMetadata()}.
+     */
+    private ArangoNetworkMetadata metadata;
+
+    /**
+     * Whether the metadata changed since it was last written to the network
+     * table.
+     */
+    private boolean metadataChanged;
+
     /**
      * Constructs a new ArangoNetworkAdapter.
      *
@@ -120,10 +170,421 @@ public class ArangoNetworkAdapter {
         this.mapper = new ObjectMapper();
         this.loadedNodes = new HashMap<>();
         this.nodes = new HashMap<>();
-        this.edges = new ArrayList<>();
+        this.nodeIds = new HashMap<>();
+        this.edges = new HashMap<>();
+        this.edgeIds = new HashMap<>();
         this.networkFactory = networkFactory;
         this.database = database;
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.gson = new Gson();
+    }
+
+    /**
+     * Constructs an ArangoNetworkAdapter for a network restored from a session.
+     * The database is set when the network is first expanded.
+     *
+     * @param networkFactory the factory for creating Cytoscape networks
+     */
+    public ArangoNetworkAdapter(CyNetworkFactory networkFactory) {
+        this(null, networkFactory);
+    }
+
+    /**
+     * Gets the ArangoDB database documents are retrieved from.
+     *
+     * @return the database, or null if it has not been set yet
+     */
+    public ArangoDatabase getDatabase() {
+        return database;
+    }
+
+    /**
+     * Sets the ArangoDB database documents are retrieved from.
+     *
+     * @param database the database
+     */
+    public void setDatabase(ArangoDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Gets the Cytoscape network of the adapter.
+     *
+     * @return the network, or null if none was imported or restored yet or the
+     *         adapter was cleared
+     */
+    public synchronized CyNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Attaches the adapter to a network restored from a session, rebuilding the
+     * node and edge indices from the ID columns of the node and edge tables.
+     * Documents are not loaded, they are only retrieved when an expansion
+     * reaches a node that is not part of the network.
+     *
+     * @param network the restored network
+     */
+    public synchronized void restore(CyNetwork network) {
+        restore(network, deserialArangoNetworkMetadata(network.getDefaultNetworkTable().getRow(network.getSUID())
+                .get(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, String.class)));
+        this.metadataChanged = false;
+    }
+
+    /**
+     * Attaches the adapter to a network with the given metadata instead of the
+     * metadata in its network table, such as a copy of a network whose recent
+     * expansions were not written to the table yet. The metadata is written to
+     * the network table on the next {@link #flushMetadata()}.
+     *
+     * @param network  the network
+     * @param metadata the metadata of the network
+     */
+    public synchronized void restore(CyNetwork network, ArangoNetworkMetadata metadata) {
+        this.network = network;
+        this.metadata = metadata;
+        this.metadataChanged = true;
+        for (CyRow row : network.getDefaultNodeTable().getAllRows()) {
+            String id = row.get(Constants.NodeColumns.ID, String.class);
+            CyNode node = id == null ? null : network.getNode(row.get(CyIdentifiable.SUID, Long.class));
+            if (node != null) {
+                nodes.put(id, node);
+                nodeIds.put(node.getSUID(), id);
+            }
+        }
+        for (CyRow row : network.getDefaultEdgeTable().getAllRows()) {
+            String id = row.get(Constants.EdgeColumns.ID, String.class);
+            CyEdge edge = id == null ? null : network.getEdge(row.get(CyIdentifiable.SUID, Long.class));
+            if (edge != null) {
+                edges.put(id, edge);
+                edgeIds.put(edge.getSUID(), id);
+            }
+        }
+    }
+
+    /**
+     * Releases the documents, nodes and edge ids cached by the adapter and
+     * detaches it from its network. The adapter must not be used afterwards.
+     */
+    public synchronized void clear() {
+        this.loadedNodes.clear();
+        this.nodes.clear();
+        this.nodeIds.clear();
+        this.edges.clear();
+        this.edgeIds.clear();
+        this.network = null;
+        this.metadata = null;
+        this.metadataChanged = false;
+    }
+
+    /**
+     * Forgets nodes removed from the network, together with their documents and
+     * adjacent edges, so that a later expansion adds them again.
+     *
+     * @param removed the Cytoscape nodes about to be removed
+     */
+    public synchronized void removeNodes(Collection<CyNode> removed) {
+        for (CyNode node : removed) {
+            String id = nodeIds.remove(node.getSUID());
+            if (id == null) {
+                continue;
+            }
+            nodes.remove(id);
+            loadedNodes.remove(id);
+            if (network != null && network.containsNode(node)) {
+                removeEdges(network.getAdjacentEdgeList(node, CyEdge.Type.ANY));
+            }
+        }
+    }
+
+    /**
+     * Forgets edges removed from the network, so that a later expansion adds
+     * them again.
+     *
+     * @param removed the Cytoscape edges about to be removed
+     */
+    public synchronized void removeEdges(Collection<CyEdge> removed) {
+        for (CyEdge edge : removed) {
+            String id = edgeIds.remove(edge.getSUID());
+            if (id != null) {
+                edges.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a node is part of the network.
+     *
+     * @param id the ID of the node
+     * @return true if the network has a Cytoscape node for the ID
+     */
+    public synchronized boolean containsNode(String id) {
+        return nodes.containsKey(id);
+    }
+
+    /**
+     * Gets the ids of the nodes of the network.
+     *
+     * @return a copy of the node ids
+     */
+    public synchronized List<String> getNodeIds() {
+        return new ArrayList<>(nodes.keySet());
+    }
+
+    /**
+     * Gets the ids of the edges of the network.
+     *
+     * @return a copy of the edge ids
+     */
+    public synchronized List<String> getEdgeIds() {
+        return new ArrayList<>(edges.keySet());
+    }
+
+    /**
+     * Checks whether an edge is part of the network.
+     *
+     * @param id the ID of the edge
+     * @return true if the network has a Cytoscape edge for the ID
+     */
+    public synchronized boolean containsEdge(String id) {
+        return edges.containsKey(id);
+    }
+
+    /**
+     * Refreshes the nodes and edges of the network whose documents changed in
+     * the database. The revisions of all documents are retrieved in chunks of
+     * {@link #REFRESH_CHUNK_SIZE} ids, and only the documents whose revision
+     * differs from the revision column are retrieved and written to their
+     * rows. Elements whose documents no longer exist are either removed from
+     * the network or flagged in the missing column.
+     *
+     * @param removeMissing true to remove the elements whose documents no
+     *                      longer exist, false to flag them
+     * @return the number of elements checked, updated and missing
+     */
+    public synchronized NetworkRefreshResult refresh(boolean removeMissing) {
+        List<String> ids = new ArrayList<>(nodes.keySet());
+        ids.addAll(edges.keySet());
+        Map<String, String> revisions = new HashMap<>();
+        for (RawJson json : queryChunks(REVISIONS_QUERY, ids)) {
+            try {
+                JsonNode node = mapper.readTree(json.get());
+                revisions.put(node.get("_id").asText(), node.get("_rev").asText());
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to parse document", e);
+            }
+        }
+
+        CyTable nodeTable = network.getDefaultNodeTable();
+        CyTable edgeTable = network.getDefaultEdgeTable();
+        List<String> changed = new ArrayList<>();
+        List<CyNode> missingNodes = new ArrayList<>();
+        List<CyEdge> missingEdges = new ArrayList<>();
+        for (Map.Entry<String, CyNode> entry : nodes.entrySet()) {
+            CyRow row = nodeTable.getRow(entry.getValue().getSUID());
+            String revision = revisions.get(entry.getKey());
+            if (revision == null) {
+                missingNodes.add(entry.getValue());
+            } else if (!revision.equals(row.get(Constants.NodeColumns.REVISION, String.class))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (Map.Entry<String, CyEdge> entry : edges.entrySet()) {
+            CyRow row = edgeTable.getRow(entry.getValue().getSUID());
+            String revision = revisions.get(entry.getKey());
+            if (revision == null) {
+                missingEdges.add(entry.getValue());
+            } else if (!revision.equals(row.get(Constants.EdgeColumns.REVISION, String.class))) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        for (RawJson json : queryChunks(DOCUMENTS_QUERY, changed)) {
+            updateDocument(json.get());
+        }
+
+        if (removeMissing) {
+            removeEdges(missingEdges);
+            network.removeEdges(missingEdges);
+            removeNodes(missingNodes);
+            network.removeNodes(missingNodes);
+        } else {
+            updateMissing(nodeTable, Constants.NodeColumns.MISSING, nodes.values(), new HashSet<>(missingNodes));
+            updateMissing(edgeTable, Constants.EdgeColumns.MISSING, edges.values(), new HashSet<>(missingEdges));
+        }
+        return new NetworkRefreshResult(ids.size(), changed.size(), missingNodes.size() + missingEdges.size());
+    }
+
+    /**
+     * Applies changes read from the write-ahead log of the database to the
+     * network. Updated documents are written to the rows of their nodes and
+     * edges, removed documents are removed from the network, and, if
+     * requested, new edges adjacent to a node of the network are added along
+     * with their other endpoint. Changes to other documents are ignored.
+     *
+     * @param changes     the changes, at most one per document
+     * @param addNewEdges true to add new edges adjacent to the network
+     * @return the number of changes applied
+     */
+    public synchronized int applyChanges(Collection<WalTailClient.Change> changes, boolean addNewEdges) {
+        List<CyNode> removedNodes = new ArrayList<>();
+        List<CyEdge> removedEdges = new ArrayList<>();
+        List<RawJson> newEdges = new ArrayList<>();
+        int applied = 0;
+        for (WalTailClient.Change change : changes) {
+            String id = change.getId();
+            if (change.isRemoved()) {
+                if (edges.containsKey(id)) {
+                    removedEdges.add(edges.get(id));
+                } else if (nodes.containsKey(id)) {
+                    removedNodes.add(nodes.get(id));
+                }
+            } else if (edges.containsKey(id) || nodes.containsKey(id)) {
+                updateDocument(change.getDocument());
+                applied++;
+            } else if (addNewEdges && change.isEdge()
+                    && (nodes.containsKey(change.getFrom()) || nodes.containsKey(change.getTo()))) {
+                newEdges.add(RawJson.of(change.getDocument()));
+            }
+        }
+
+        removeEdges(removedEdges);
+        network.removeEdges(removedEdges);
+        removeNodes(removedNodes);
+        network.removeNodes(removedNodes);
+        if (!newEdges.isEmpty()) {
+            mergeEdges(newEdges);
+        }
+        return applied + removedNodes.size() + removedEdges.size() + newEdges.size();
+    }
+
+    /**
+     * Writes a document that changed in the database to the row of its node or
+     * edge, and replaces the document kept for a node. Documents of elements
+     * not in the network are ignored.
+     *
+     * @param document the JSON of the document, including its {@code _id}
+     */
+    synchronized void updateDocument(String document) {
+        try {
+            JsonNode tree = mapper.readTree(document);
+            String id = tree.get("_id").asText();
+            String collection = id.split("/")[0];
+            if (edges.containsKey(id)) {
+                BaseEdgeDocument edge = mapper.treeToValue(tree, BaseEdgeDocument.class);
+                addEdgeAttributes(edge, collection, network.getDefaultEdgeTable().getRow(edges.get(id).getSUID()));
+            } else if (nodes.containsKey(id)) {
+                BaseDocument node = mapper.treeToValue(tree, BaseDocument.class);
+                if (loadedNodes.containsKey(id)) {
+                    loadedNodes.put(id, node);
+                }
+                addNodeAttributes(node, collection, network.getDefaultNodeTable().getRow(nodes.get(id).getSUID()));
+            }
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse document", e);
+        }
+    }
+
+    /**
+     * Executes a query binding chunks of {@link #REFRESH_CHUNK_SIZE} ids to its
+     * {@code ids} bind variable.
+     *
+     * @param query the query to execute
+     * @param ids   the ids to bind
+     * @return the documents returned for all chunks
+     */
+    private List<RawJson> queryChunks(String query, List<String> ids) {
+        List<RawJson> docs = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += REFRESH_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(start, Math.min(start + REFRESH_CHUNK_SIZE, ids.size()));
+            try (ArangoCursor<RawJson> cursor = database.query(query, RawJson.class, Map.of("ids", chunk),
+                    new AqlQueryOptions().stream(true))) {
+                cursor.forEachRemaining(docs::add);
+            }
+        }
+        return docs;
+    }
+
+    /**
+     * Flags the missing elements of a table and clears the flag of the
+     * elements flagged by an earlier refresh that exist again. The missing
+     * column is only created once an element is missing.
+     *
+     * @param table    the node or edge table
+     * @param column   the missing column
+     * @param elements all elements of the table known to the adapter
+     * @param missing  the elements whose documents no longer exist
+     */
+    private void updateMissing(CyTable table, String column, Collection<? extends CyIdentifiable> elements,
+            Set<? extends CyIdentifiable> missing) {
+        if (table.getColumn(column) == null) {
+            if (missing.isEmpty()) {
+                return;
+            }
+            table.createColumn(column, Boolean.class, false);
+        }
+        for (CyIdentifiable element : elements) {
+            CyRow row = table.getRow(element.getSUID());
+            boolean isMissing = missing.contains(element);
+            if (isMissing || Boolean.TRUE.equals(row.get(column, Boolean.class))) {
+                row.set(column, isMissing);
+            }
+        }
+    }
+
+    /**
+     * Gets the metadata of the network, including the expansions not yet
+     * written to the network table.
+     *
+     * @return the metadata, or null if no network has been imported or
+     *         restored
+     */
+    public synchronized ArangoNetworkMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Writes the metadata to the network table if it changed since it was last
+     * written. Expansions only update the metadata in memory, so this must be
+     * called before the network table is saved.
+     */
+    public synchronized void flushMetadata() {
+        if (!metadataChanged || network == null) {
+            return;
+        }
+        network.getDefaultNetworkTable().getRow(network.getSUID())
+                .set(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, gson.toJson(metadata));
+        metadataChanged = false;
+    }
+
+    /**
+     * Records a node expansion in the metadata of the network.
+     *
+     * @param expansion the metadata of the expansion
+     */
+    private synchronized void recordExpansion(ArangoNetworkMetadata.NodeExpansionMetadata expansion) {
+        metadata.addNodeExpansion(expansion);
+        metadataChanged = true;
+    }
+
+    /**
+     * Records several node expansions in the metadata of the network, such as
+     * the expansions of the nodes merged by a single batch of queries.
+     *
+     * @param expansions the metadata of the expansions
+     */
+    public synchronized void recordExpansions(Collection<ArangoNetworkMetadata.NodeExpansionMetadata> expansions) {
+        expansions.forEach(metadata::addNodeExpansion);
+        metadataChanged = true;
+    }
+
+    /**
+     * Records a network expansion in the metadata of the network.
+     *
+     * @param expansion the metadata of the expansion
+     */
+    private synchronized void recordExpansion(NetworkExpansionMetadata expansion) {
+        metadata.addNetworkExpansion(expansion);
+        metadataChanged = true;
     }
 
     /**
@@ -143,7 +604,7 @@ public class ArangoNetworkAdapter {
      * @param id the ID of the node
      * @return the BaseDocument representing the node
      */
-    public BaseDocument getOrRetriveNode(String id) {
+    public synchronized BaseDocument getOrRetriveNode(String id) {
         if (this.loadedNodes.get(id) != null) {
             return this.loadedNodes.get(id);
         } else {
@@ -164,7 +625,7 @@ public class ArangoNetworkAdapter {
      * @param network the Cytoscape network
      * @return the Cytoscape node
      */
-    public CyNode getOrCreateCyNode(String id, CyNetwork network) {
+    public synchronized CyNode getOrCreateCyNode(String id, CyNetwork network) {
         if (nodes.get(id) != null) {
             return nodes.get(id);
         } else {
@@ -174,27 +635,39 @@ public class ArangoNetworkAdapter {
             String collection = id.split("/")[0];
 
             nodes.put(id, node);
+            nodeIds.put(node.getSUID(), id);
 
             CyTable table = network.getDefaultNodeTable();
             CyRow row = table.getRow(node.getSUID());
-            row.set(Constants.NodeColumns.ID, doc.getId());
-            row.set(Constants.NodeColumns.COLLECTION, collection);
-            row.set(Constants.NodeColumns.KEY, doc.getKey());
-            row.set(Constants.NodeColumns.REVISION, doc.getRevision());
-            row.set(Constants.NodeColumns.NAME, String.format("%1$s (%2$s)", getName(doc), collection));
-            row.set(Constants.NodeColumns.COLOR, ArangoNetworkStyle.computeColorIndex(collection));
-            try {
-                row.set(Constants.NodeColumns.DATA,
-                        mapper.writerWithDefaultPrettyPrinter().writeValueAsString(doc));
-            } catch (JsonProcessingException e) {
-                row.set(Constants.NodeColumns.DATA,
-                        String.format("Error reading node Data: %1$s", e.getMessage()));
-            }
+            addNodeAttributes(doc, collection, row);
 
             return node;
         }
     }
 
+    /**
+     * Adds attributes to a Cytoscape node.
+     *
+     * @param doc        the BaseDocument representing the node
+     * @param collection the collection name
+     * @param row        the Cytoscape row to add attributes to
+     */
+    private void addNodeAttributes(BaseDocument doc, String collection, CyRow row) {
+        row.set(Constants.NodeColumns.ID, doc.getId());
+        row.set(Constants.NodeColumns.COLLECTION, collection);
+        row.set(Constants.NodeColumns.KEY, doc.getKey());
+        row.set(Constants.NodeColumns.REVISION, doc.getRevision());
+        row.set(Constants.NodeColumns.NAME, String.format("%1$s (%2$s)", getName(doc), collection));
+        row.set(Constants.NodeColumns.COLOR, ArangoNetworkStyle.computeColorIndex(collection));
+        try {
+            row.set(Constants.NodeColumns.DATA,
+                    mapper.writerWithDefaultPrettyPrinter().writeValueAsString(doc));
+        } catch (JsonProcessingException e) {
+            row.set(Constants.NodeColumns.DATA,
+                    String.format("Error reading node Data: %1$s", e.getMessage()));
+        }
+    }
+
     /**
      * Import a list of RawJson documents representing edges to a Cytoscape network.
      *
@@ -202,7 +675,7 @@ public class ArangoNetworkAdapter {
      * @param metadata the metadata of the network
      * @return the Cytoscape network
      */
-    public CyNetwork importEdges(List<RawJson> docs, ArangoNetworkMetadata metadata) {
+    public synchronized CyNetwork importEdges(List<RawJson> docs, ArangoNetworkMetadata metadata) {
         List<BaseEdgeDocument> edges = jsonToEdges(docs);
         return importNetwork(edges, metadata);
     }
@@ -214,7 +687,7 @@ public class ArangoNetworkAdapter {
      * @param metadata the metadata of the network
      * @return the Cytoscape network
      */
-    public CyNetwork importPaths(List<RawJson> docs, ArangoNetworkMetadata metadata) {
+    public synchronized CyNetwork importPaths(List<RawJson> docs, ArangoNetworkMetadata metadata) {
         Path path = jsonToPath(docs);
         path.getNodes().forEach((vertex) -> {
             loadedNodes.put(vertex.getId(), vertex);
@@ -229,7 +702,8 @@ public class ArangoNetworkAdapter {
      * @param metadata the metadata of the network
      * @return the list of new Cytoscape nodes
      */
-    public List<CyNode> expandNodeWithPath(List<RawJson> docs, ArangoNetworkMetadata.NodeExpansionMetadata metadata) {
+    public synchronized List<CyNode> expandNodeWithPath(List<RawJson> docs,
+            ArangoNetworkMetadata.NodeExpansionMetadata metadata) {
         Path path = jsonToPath(docs);
         path.getNodes().forEach((vertex) -> {
             if (!loadedNodes.containsKey(vertex.getId())) {
@@ -246,7 +720,8 @@ public class ArangoNetworkAdapter {
      * @param metadata the metadata of the network
      * @return the list of new Cytoscape nodes
      */
-    public List<CyNode> expandNodeWithEdges(List<RawJson> docs, ArangoNetworkMetadata.NodeExpansionMetadata metadata) {
+    public synchronized List<CyNode> expandNodeWithEdges(List<RawJson> docs,
+            ArangoNetworkMetadata.NodeExpansionMetadata metadata) {
         List<BaseEdgeDocument> edges = jsonToEdges(docs);
         return expandNode(edges, metadata);
     }
@@ -355,18 +830,18 @@ public class ArangoNetworkAdapter {
 
         CyRow networkRow = cyNetworkTable.getRow(network.getSUID());
         networkRow.set(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, gson.toJson(metadata));
+        this.metadata = metadata;
+        this.metadataChanged = false;
 
         this.loadedNodes.values().forEach((doc) -> {
             getOrCreateCyNode(doc.getId(), network);
         });
 
         edges.forEach((edge) -> {
-            if (this.edges.contains(edge.getId())) {
+            if (this.edges.containsKey(edge.getId())) {
                 return;
             }
 
-            this.edges.add(edge.getId());
-
             BaseDocument to = getOrRetriveNode(edge.getTo());
             BaseDocument from = getOrRetriveNode(edge.getFrom());
 
@@ -374,6 +849,8 @@ public class ArangoNetworkAdapter {
             CyNode fromNode = getOrCreateCyNode(from.getId(), network);
 
             CyEdge cyEdge = network.addEdge(toNode, fromNode, true);
+            this.edges.put(edge.getId(), cyEdge);
+            this.edgeIds.put(cyEdge.getSUID(), edge.getId());
             String collection = edge.getId().split("/")[0];
             CyRow row = cyEdgeTable.getRow(cyEdge.getSUID());
             addEdgeAttributes(edge, collection, row);
@@ -417,20 +894,17 @@ public class ArangoNetworkAdapter {
 
         CyTable cyEdgeTable = network.getDefaultEdgeTable();
         edges.forEach((edge) -> {
-            if (this.edges.contains(edge.getId())) {
+            if (this.edges.containsKey(edge.getId())) {
                 return;
             }
 
-            this.edges.add(edge.getId());
-
-            BaseDocument to = getOrRetriveNode(edge.getTo());
-            BaseDocument from = getOrRetriveNode(edge.getFrom());
-
-            boolean addTo = nodes.get(to.getId()) == null;
-            boolean addFrom = nodes.get(from.getId()) == null;
+            boolean addTo = nodes.get(edge.getTo()) == null;
+            boolean addFrom = nodes.get(edge.getFrom()) == null;
 
-            CyNode toNode = getOrCreateCyNode(to.getId(), network);
-            CyNode fromNode = getOrCreateCyNode(from.getId(), network);
+            CyNode toNode = addTo ? getOrCreateCyNode(getOrRetriveNode(edge.getTo()).getId(), network)
+                    : nodes.get(edge.getTo());
+            CyNode fromNode = addFrom ? getOrCreateCyNode(getOrRetriveNode(edge.getFrom()).getId(), network)
+                    : nodes.get(edge.getFrom());
             if (addTo) {
                 newNodes.add(toNode);
             }
@@ -439,6 +913,8 @@ public class ArangoNetworkAdapter {
             }
 
             CyEdge cyEdge = network.addEdge(toNode, fromNode, true);
+            this.edges.put(edge.getId(), cyEdge);
+            this.edgeIds.put(cyEdge.getSUID(), edge.getId());
             String collection = edge.getId().split("/")[0];
             CyRow row = cyEdgeTable.getRow(cyEdge.getSUID());
             addEdgeAttributes(edge, collection, row);
@@ -457,15 +933,7 @@ public class ArangoNetworkAdapter {
     private List<CyNode> expandNode(List<BaseEdgeDocument> edges,
             ArangoNetworkMetadata.NodeExpansionMetadata metadata) {
         List<CyNode> newNodes = expandNetwork(edges);
-        CyRow row = network.getDefaultNetworkTable().getRow(network.getSUID());
-
-        ArangoNetworkMetadata networkMetadata = deserialArangoNetworkMetadata(
-                row.get(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, String.class));
-
-        networkMetadata.addNodeExpansion(metadata);
-
-        row.set(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, gson.toJson(networkMetadata));
-
+        recordExpansion(metadata);
         return newNodes;
     }
 
@@ -476,7 +944,7 @@ public class ArangoNetworkAdapter {
      * @param metadata the metadata of the network
      * @return the list of new Cytoscape nodes
      */
-    public List<CyNode> expandNetworkEdges(List<RawJson> docs, NetworkExpansionMetadata metadata) {
+    public synchronized List<CyNode> expandNetworkEdges(List<RawJson> docs, NetworkExpansionMetadata metadata) {
         List<BaseEdgeDocument> edges = jsonToEdges(docs);
         return expandNetwork(edges, metadata);
     }
@@ -491,16 +959,36 @@ public class ArangoNetworkAdapter {
     private List<CyNode> expandNetwork(List<BaseEdgeDocument> edges,
             NetworkExpansionMetadata metadata) {
         List<CyNode> newNodes = expandNetwork(edges);
-        CyRow row = network.getDefaultNetworkTable().getRow(network.getSUID());
-
-        ArangoNetworkMetadata networkMetadata = deserialArangoNetworkMetadata(
-                row.get(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, String.class));
-
-        networkMetadata.addNetworkExpansion(metadata);
+        recordExpansion(metadata);
+        return newNodes;
+    }
 
-        row.set(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, gson.toJson(networkMetadata));
+    /**
+     * Merges a list of edges into the network without recording an expansion
+     * in its metadata. Edges and nodes already in the network are skipped.
+     *
+     * @param docs the list of RawJson documents representing edges
+     * @return the list of new Cytoscape nodes
+     */
+    public synchronized List<CyNode> mergeEdges(List<RawJson> docs) {
+        return expandNetwork(jsonToEdges(docs));
+    }
 
-        return newNodes;
+    /**
+     * Merges a list of paths into the network without recording an expansion
+     * in its metadata. Edges and nodes already in the network are skipped.
+     *
+     * @param docs the list of RawJson documents representing paths
+     * @return the list of new Cytoscape nodes
+     */
+    public synchronized List<CyNode> mergePaths(List<RawJson> docs) {
+        Path path = jsonToPath(docs);
+        path.getNodes().forEach((vertex) -> {
+            if (!loadedNodes.containsKey(vertex.getId())) {
+                loadedNodes.put(vertex.getId(), vertex);
+            }
+        });
+        return expandNetwork(path.getEdges());
     }
 
     /**
@@ -510,7 +998,7 @@ public class ArangoNetworkAdapter {
      * @param metadata the metadata of the network
      * @return the list of new Cytoscape nodes
      */
-    public List<CyNode> expandNetworkPaths(List<RawJson> docs, NetworkExpansionMetadata metadata) {
+    public synchronized List<CyNode> expandNetworkPaths(List<RawJson> docs, NetworkExpansionMetadata metadata) {
         Path path = jsonToPath(docs);
         path.getNodes().forEach((vertex) -> {
             if (!loadedNodes.containsKey(vertex.getId())) {
@@ -17,6 +17,7 @@ public class ArangoNetworkMetadata {
         private String nodeId;
         private String query;
         private String connectionId;
+        private String truncation;
 
         /**
          * Constructor.
@@ -57,6 +58,24 @@ public class ArangoNetworkMetadata {
         public String getConnectionId() {
             return connectionId;
         }
+
+        /**
+         * Get the reason the result of the query was truncated.
+         * 
+         * @return Truncation reason, or null if the result was complete.
+         */
+        public String getTruncation() {
+            return truncation;
+        }
+
+        /**
+         * Set the reason the result of the query was truncated.
+         * 
+         * @param truncation Truncation reason, or null if the result was complete.
+         */
+        public void setTruncation(String truncation) {
+            this.truncation = truncation;
+        }
     }
 
     /**
@@ -66,6 +85,7 @@ public class ArangoNetworkMetadata {
     public static class NetworkExpansionMetadata {
         private String query;
         private String connectionId;
+        private String truncation;
 
         /**
          * Constructor.
@@ -95,6 +115,24 @@ public class ArangoNetworkMetadata {
         public String getConnectionId() {
             return connectionId;
         }
+
+        /**
+         * Get the reason the result of the query was truncated.
+         * 
+         * @return Truncation reason, or null if the result was complete.
+         */
+        public String getTruncation() {
+            return truncation;
+        }
+
+        /**
+         * Set the reason the result of the query was truncated.
+         * 
+         * @param truncation Truncation reason, or null if the result was complete.
+         */
+        public void setTruncation(String truncation) {
+            this.truncation = truncation;
+        }
     }
 
     /**
@@ -106,6 +144,10 @@ public class ArangoNetworkMetadata {
      * Connection id used to generate the network.
      */
     private String connectionId;
+    /**
+     * Reason the result of the query was truncated, null if it was complete.
+     */
+    private String truncation;
     /**
      * List of node expansions.
      */
@@ -147,6 +189,24 @@ public class ArangoNetworkMetadata {
         return connectionId;
     }
 
+    /**
+     * Get the reason the result of the query was truncated.
+     * 
+     * @return Truncation reason, or null if the result was complete.
+     */
+    public String getTruncation() {
+        return truncation;
+    }
+
+    /**
+     * Set the reason the result of the query was truncated.
+     * 
+     * @param truncation Truncation reason, or null if the result was complete.
+     */
+    public void setTruncation(String truncation) {
+        this.truncation = truncation;
+    }
+
     /**
      * Get the list of node expansions.
      * 
@@ -183,4 +243,18 @@ public class ArangoNetworkMetadata {
         networkExpansions.add(metadata);
     }
 
+    /**
+     * Copy the metadata, so that expansions added to the copy are not added to
+     * this metadata.
+     * 
+     * @return Copy of the metadata.
+     */
+    public ArangoNetworkMetadata copy() {
+        ArangoNetworkMetadata copy = new ArangoNetworkMetadata(query, connectionId);
+        copy.setTruncation(truncation);
+        copy.nodeExpansions.addAll(nodeExpansions);
+        copy.networkExpansions.addAll(networkExpansions);
+        return copy;
+    }
+
 }
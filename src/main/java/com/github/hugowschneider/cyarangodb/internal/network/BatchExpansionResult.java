@@ -0,0 +1,69 @@
+package com.github.hugowschneider.cyarangodb.internal.network;
+
+import java.util.List;
+
+import org.cytoscape.model.CyNode;
+
+/**
+ * Represents the result of expanding several nodes with a single parameterized
+ * query, including the new nodes and the number of chunks the selected nodes
+ * were split into.
+ */
+public class BatchExpansionResult {
+    /**
+     * The nodes added to the network.
+     */
+    private List<CyNode> newNodes;
+
+    /**
+     * The number of chunks the expanded nodes were split into.
+     */
+    private int chunkCount;
+
+    /**
+     * The number of chunks whose result was truncated.
+     */
+    private int truncatedCount;
+
+    /**
+     * Constructs a new BatchExpansionResult.
+     *
+     * @param newNodes       the nodes added to the network
+     * @param chunkCount     the number of chunks the expanded nodes were split
+     *                       into
+     * @param truncatedCount the number of chunks whose result was truncated
+     */
+    public BatchExpansionResult(List<CyNode> newNodes, int chunkCount, int truncatedCount) {
+        this.newNodes = newNodes;
+        this.chunkCount = chunkCount;
+        this.truncatedCount = truncatedCount;
+    }
+
+    /**
+     * Gets the nodes added to the network.
+     *
+     * @return the new nodes
+     */
+    public List<CyNode> getNewNodes() {
+        return newNodes;
+    }
+
+    /**
+     * Gets the number of chunks the expanded nodes were split into.
+     *
+     * @return the number of chunks
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Gets the number of chunks whose result was truncated by the import
+     * budget of the connection.
+     *
+     * @return the number of truncated chunks
+     */
+    public int getTruncatedCount() {
+        return truncatedCount;
+    }
+}
@@ -54,6 +54,11 @@ public class Constants {
          */
         public static final String KEY = "Key";
 
+        /**
+         * Whether the edge no longer exists in the database.
+         */
+        public static final String MISSING = "Missing";
+
         /**
          * A class that holds constant values for edge columns.
          */
@@ -128,6 +133,11 @@ public class Constants {
          */
         public static final String NAME = "name";
 
+        /**
+         * Whether the node no longer exists in the database.
+         */
+        public static final String MISSING = "Missing";
+
         /**
          * A class that holds constant values for node columns.
          */
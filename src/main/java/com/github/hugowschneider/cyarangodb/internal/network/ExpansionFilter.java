@@ -0,0 +1,86 @@
+package com.github.hugowschneider.cyarangodb.internal.network;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.github.hugowschneider.cyarangodb.internal.aql.AqlSubquery;
+
+/**
+ * Rewrites an expansion query so that the database only returns the nodes and
+ * edges that are not already part of a network.
+ * <p>
+ * The query is wrapped in a subquery and its results are filtered against the
+ * ids of the network, bound as the {@value #KNOWN_NODES} and
+ * {@value #KNOWN_EDGES} bind variables. Edges already in the network are
+ * dropped, and paths keep only their new edges and new vertices, along with
+ * their start vertex. Paths without new edges are dropped entirely. The
+ * filter runs on the server, so elements already in the network are neither
+ * serialized nor transferred. A leading {@code WITH} clause, which is only
+ * allowed at the start of a query, is kept outside of the subquery.
+ */
+public class ExpansionFilter {
+    /**
+     * The bind variable holding the ids of the nodes of the network.
+     */
+    public static final String KNOWN_NODES = "cyarangodbKnownNodes";
+
+    /**
+     * The bind variable holding the ids of the edges of the network.
+     */
+    public static final String KNOWN_EDGES = "cyarangodbKnownEdges";
+
+    /**
+     * The query wrapping an expansion query. The expansion query is placed on
+     * its own lines, so that a trailing comment does not hide the closing
+     * parenthesis.
+     */
+    static final String QUERY_TEMPLATE = "FOR doc IN (\n%1$s\n)\n"
+            + "LET isPath = IS_ARRAY(doc.edges) AND IS_ARRAY(doc.vertices)\n"
+            + "LET newEdges = isPath ? doc.edges[* FILTER CURRENT._id NOT IN @" + KNOWN_EDGES + "] : []\n"
+            + "FILTER isPath ? LENGTH(newEdges) > 0 : doc._id NOT IN @" + KNOWN_EDGES + "\n"
+            + "RETURN isPath ? MERGE(doc, { edges: newEdges, vertices: APPEND([FIRST(doc.vertices)], "
+            + "doc.vertices[* FILTER CURRENT._id NOT IN @" + KNOWN_NODES + "], true) }) : doc";
+
+    /**
+     * The ids of the nodes of the network.
+     */
+    private final List<String> nodeIds;
+
+    /**
+     * The ids of the edges of the network.
+     */
+    private final List<String> edgeIds;
+
+    /**
+     * Constructs a new ExpansionFilter.
+     *
+     * @param nodeIds the ids of the nodes of the network
+     * @param edgeIds the ids of the edges of the network
+     */
+    public ExpansionFilter(Collection<String> nodeIds, Collection<String> edgeIds) {
+        this.nodeIds = new ArrayList<>(nodeIds);
+        this.edgeIds = new ArrayList<>(edgeIds);
+    }
+
+    /**
+     * Wraps an expansion query so that it only returns elements not already
+     * in the network.
+     *
+     * @param query the expansion query, returning either edges or paths
+     * @return the wrapped query, which needs the bind variables of the filter
+     */
+    public String wrap(String query) {
+        return AqlSubquery.wrap(query, QUERY_TEMPLATE);
+    }
+
+    /**
+     * Gets the bind variables of the wrapped query.
+     *
+     * @return the ids of the nodes and edges of the network by bind variable
+     */
+    public Map<String, Object> getBindVars() {
+        return Map.of(KNOWN_NODES, nodeIds, KNOWN_EDGES, edgeIds);
+    }
+}
@@ -0,0 +1,265 @@
+package com.github.hugowschneider.cyarangodb.internal.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a network in sync with its database by following the write-ahead log.
+ * <p>
+ * The log is polled in the background from the tick it had when the sync
+ * started. Changes to documents of the network, and with
+ * {@code addNewEdges} new edges adjacent to it, are collected and coalesced
+ * per document, and applied to the network in a single batch once no new
+ * change arrived for the debounce interval or the batch is full. If the log
+ * no longer holds the tick the sync continues from, the network is refreshed
+ * by revision instead.
+ */
+public class LiveNetworkSync {
+    /**
+     * The logger for the LiveNetworkSync class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiveNetworkSync.class);
+
+    /**
+     * The interval between two polls of the log, in milliseconds.
+     */
+    public static final long POLL_INTERVAL_MILLIS = 1000;
+
+    /**
+     * The time without new changes after which pending changes are applied, in
+     * milliseconds.
+     */
+    public static final long DEBOUNCE_MILLIS = 500;
+
+    /**
+     * The number of pending changes that are applied without waiting for the
+     * debounce interval.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * The time to wait for a poll in progress when the sync is closed, in
+     * milliseconds.
+     */
+    public static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * The adapter of the network.
+     */
+    private final ArangoNetworkAdapter adapter;
+
+    /**
+     * The client reading the log.
+     */
+    private final WalTailClient client;
+
+    /**
+     * Whether new edges adjacent to the network are added.
+     */
+    private final boolean addNewEdges;
+
+    /**
+     * The time without new changes after which pending changes are applied.
+     */
+    private final long debounceMillis;
+
+    /**
+     * The clock giving the current time in milliseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The pending changes by document id, in the order they were first seen.
+     */
+    private final Map<String, WalTailClient.Change> pending = new LinkedHashMap<>();
+
+    /**
+     * The tick after which the log is read.
+     */
+    private long tick;
+
+    /**
+     * The last tick scanned by the server.
+     */
+    private long lastScanned;
+
+    /**
+     * The time the last pending change was read.
+     */
+    private long lastChangeAt;
+
+    /**
+     * The executor polling the log, null until the sync is started.
+     */
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * Constructs a new LiveNetworkSync.
+     *
+     * @param adapter     the adapter of the network
+     * @param client      the client reading the log of the database of the
+     *                    network
+     * @param addNewEdges true to add new edges adjacent to the network
+     */
+    public LiveNetworkSync(ArangoNetworkAdapter adapter, WalTailClient client, boolean addNewEdges) {
+        this(adapter, client, addNewEdges, DEBOUNCE_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs a new LiveNetworkSync with a custom debounce interval and
+     * clock.
+     *
+     * @param adapter        the adapter of the network
+     * @param client         the client reading the log of the database of the
+     *                       network
+     * @param addNewEdges    true to add new edges adjacent to the network
+     * @param debounceMillis the time without new changes after which pending
+     *                       changes are applied
+     * @param clock          the clock giving the current time in milliseconds
+     */
+    LiveNetworkSync(ArangoNetworkAdapter adapter, WalTailClient client, boolean addNewEdges, long debounceMillis,
+            LongSupplier clock) {
+        this.adapter = adapter;
+        this.client = client;
+        this.addNewEdges = addNewEdges;
+        this.debounceMillis = debounceMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts following the log from its current tick, polling it in the
+     * background.
+     *
+     * @throws IOException if the log cannot be read
+     */
+    public synchronized void start() throws IOException {
+        initialize();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cyarangodb-live-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (Exception e) {
+                LOGGER.warn("Failed to read the write-ahead log: {}", e.getMessage());
+            }
+        }, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads the current tick of the log and the collections of the database.
+     *
+     * @throws IOException if the log cannot be read
+     */
+    synchronized void initialize() throws IOException {
+        tick = client.getLastTick();
+        lastScanned = 0;
+        client.loadCollectionNames();
+    }
+
+    /**
+     * Reads the log up to its end and applies the pending changes if the
+     * debounce interval passed or the batch is full.
+     *
+     * @return the number of changes applied to the network
+     * @throws IOException if the log cannot be read
+     */
+    synchronized int poll() throws IOException {
+        WalTailClient.Batch batch;
+        do {
+            batch = client.tail(tick, lastScanned);
+            if (!batch.isFromPresent()) {
+                LOGGER.warn("The write-ahead log no longer holds tick {}, refreshing the network", tick);
+                pending.clear();
+                adapter.refresh(true);
+                tick = client.getLastTick();
+                lastScanned = 0;
+                return 0;
+            }
+            for (WalTailClient.Change change : batch.getChanges()) {
+                if (isRelevant(change)) {
+                    pending.put(change.getId(), change);
+                    lastChangeAt = clock.getAsLong();
+                }
+            }
+            if (batch.getLastIncluded() > 0) {
+                tick = batch.getLastIncluded();
+            }
+            lastScanned = batch.getLastScanned();
+        } while (batch.isCheckMore() && pending.size() < MAX_BATCH_SIZE);
+
+        if (pending.isEmpty()
+                || (pending.size() < MAX_BATCH_SIZE && clock.getAsLong() - lastChangeAt < debounceMillis)) {
+            return 0;
+        }
+        int applied = adapter.applyChanges(new ArrayList<>(pending.values()), addNewEdges);
+        pending.clear();
+        return applied;
+    }
+
+    /**
+     * Checks whether a change may affect the network: it concerns one of its
+     * nodes or edges, or is an edge that may be adjacent to it.
+     *
+     * @param change the change
+     * @return true if the change is kept until the next batch
+     */
+    private boolean isRelevant(WalTailClient.Change change) {
+        String id = change.getId();
+        if (adapter.containsNode(id) || adapter.containsEdge(id) || pending.containsKey(id)) {
+            return true;
+        }
+        return addNewEdges && change.isEdge()
+                && (adapter.containsNode(change.getFrom()) || adapter.containsNode(change.getTo()));
+    }
+
+    /**
+     * Gets the number of changes waiting for the debounce interval.
+     *
+     * @return the number of pending changes
+     */
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Checks whether the sync is polling the log.
+     *
+     * @return true if the sync was started and not closed
+     */
+    public boolean isRunning() {
+        ScheduledExecutorService current = executor;
+        return current != null && !current.isShutdown();
+    }
+
+    /**
+     * Stops following the log, interrupting a poll in progress and waiting for
+     * it to finish, so that the adapter is no longer changed once this
+     * returns. Pending changes are discarded.
+     */
+    public void close() {
+        ScheduledExecutorService current = executor;
+        if (current == null) {
+            return;
+        }
+        current.shutdownNow();
+        try {
+            if (!current.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("The live sync did not stop within {} ms", CLOSE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
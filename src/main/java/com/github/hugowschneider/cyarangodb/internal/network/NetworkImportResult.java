@@ -14,6 +14,11 @@ public class NetworkImportResult {
      */
     private int edgeCount;
 
+    /**
+     * The number of queries whose result was truncated.
+     */
+    private int truncatedCount;
+
     /**
      * Constructs a new NetworkImportResult.
      *
@@ -21,8 +26,20 @@ public class NetworkImportResult {
      * @param edgeCount the number of edges imported
      */
     public NetworkImportResult(int nodeCount, int edgeCount) {
+        this(nodeCount, edgeCount, 0);
+    }
+
+    /**
+     * Constructs a new NetworkImportResult of several queries.
+     *
+     * @param nodeCount      the number of nodes imported
+     * @param edgeCount      the number of edges imported
+     * @param truncatedCount the number of queries whose result was truncated
+     */
+    public NetworkImportResult(int nodeCount, int edgeCount, int truncatedCount) {
         this.nodeCount = nodeCount;
         this.edgeCount = edgeCount;
+        this.truncatedCount = truncatedCount;
     }
 
     /**
@@ -42,4 +59,14 @@ public class NetworkImportResult {
     public int getEdgeCount() {
         return edgeCount;
     }
+
+    /**
+     * Gets the number of queries whose result was truncated by the import
+     * budget of the connection.
+     *
+     * @return the number of truncated queries
+     */
+    public int getTruncatedCount() {
+        return truncatedCount;
+    }
 }
\ No newline at end of file
@@ -1,10 +1,15 @@
 package com.github.hugowschneider.cyarangodb.internal.network;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.cytoscape.application.CyApplicationManager;
@@ -12,23 +17,79 @@ import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
 import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.events.AboutToRemoveEdgesEvent;
+import org.cytoscape.model.events.AboutToRemoveEdgesListener;
+import org.cytoscape.model.events.AboutToRemoveNodesEvent;
+import org.cytoscape.model.events.AboutToRemoveNodesListener;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedEvent;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedListener;
+import org.cytoscape.model.events.NetworkAddedEvent;
+import org.cytoscape.model.events.NetworkAddedListener;
+import org.cytoscape.session.events.SessionAboutToBeLoadedEvent;
+import org.cytoscape.session.events.SessionAboutToBeLoadedListener;
+import org.cytoscape.session.events.SessionAboutToBeSavedEvent;
+import org.cytoscape.session.events.SessionAboutToBeSavedListener;
+import org.cytoscape.session.events.SessionLoadedEvent;
+import org.cytoscape.session.events.SessionLoadedListener;
 import org.cytoscape.view.layout.CyLayoutAlgorithm;
 import org.cytoscape.view.layout.CyLayoutAlgorithmManager;
 import org.cytoscape.view.model.CyNetworkView;
 import org.cytoscape.view.model.CyNetworkViewFactory;
 import org.cytoscape.view.model.CyNetworkViewManager;
 import org.cytoscape.view.model.View;
+import org.cytoscape.work.FinishStatus;
+import org.cytoscape.work.ObservableTask;
 import org.cytoscape.work.TaskIterator;
 import org.cytoscape.work.TaskManager;
+import org.cytoscape.work.TaskObserver;
 
+import com.arangodb.ArangoDBException;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.util.RawJson;
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionDetails;
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryResult;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryStatistics;
+import com.google.gson.Gson;
 
 /**
  * Manages the creation, import, and expansion of networks in Cytoscape using
  * data from ArangoDB.
+ * <p>
+ * The manager keeps one {@link ArangoNetworkAdapter} per imported network,
+ * keeps it in sync with the nodes and edges users delete from the network, and
+ * releases it, along with the documents it caches, when the network is
+ * destroyed or the session is closed. Networks restored from a session get
+ * their adapter rebuilt from their tables, so they can be expanded without
+ * importing them again. Copies of an imported network, which share its UUID,
+ * are given a UUID and an adapter of their own when they are added. The metadata of expansions is kept in memory by the
+ * adapters and written to the network tables when the session is saved.
+ * Networks can also follow the write-ahead log of their database with a
+ * {@link LiveNetworkSync}, which is stopped along with the adapter.
  */
-public class NetworkManager {
+public class NetworkManager implements NetworkAboutToBeDestroyedListener, NetworkAddedListener,
+        SessionAboutToBeLoadedListener, SessionLoadedListener, SessionAboutToBeSavedListener, AboutToRemoveNodesListener,
+        AboutToRemoveEdgesListener {
+    /**
+     * The bind variable holding the ids of the nodes expanded by a batch
+     * expansion query.
+     */
+    public static final String NODE_IDS = "nodeIds";
+
+    /**
+     * The maximum number of nodes bound to a single execution of a batch
+     * expansion query.
+     */
+    public static final int NODE_BATCH_SIZE = 50;
+
+    /**
+     * Matches the references to the {@value #NODE_IDS} bind variable, leaving
+     * out collection bind variables.
+     */
+    private static final Pattern NODE_IDS_PARAMETER = Pattern.compile("(?<!@)@" + NODE_IDS + "\\b");
+
     /**
      * Factory for creating Cytoscape networks.
      */
@@ -64,6 +125,11 @@ public class NetworkManager {
      */
     private Map<String, ArangoNetworkAdapter> networks;
 
+    /**
+     * Map of network UUIDs to the live syncs following their database.
+     */
+    private Map<String, LiveNetworkSync> liveSyncs;
+
     /**
      * Task manager for executing tasks in Cytoscape.
      */
@@ -103,7 +169,8 @@ public class NetworkManager {
         this.layoutAlgorithmManager = layoutAlgorithmManager;
         this.taskManager = taskManager;
         this.arangoNetworkStyle = arangoNetworkStyle;
-        this.networks = new HashMap<>();
+        this.networks = new ConcurrentHashMap<>();
+        this.liveSyncs = new ConcurrentHashMap<>();
     }
 
     /**
@@ -122,8 +189,10 @@ public class NetworkManager {
      *
      * @param network     the network to create or update the view for
      * @param networkView the existing network view, or null to create a new one
+     * @param statistics  the statistics to record the layout time in, may be
+     *                    null
      */
-    private void handleNetworkView(CyNetwork network, CyNetworkView networkView) {
+    private void handleNetworkView(CyNetwork network, CyNetworkView networkView, QueryStatistics statistics) {
         CyNetworkView view;
         if (networkView != null) {
             view = networkView;
@@ -134,7 +203,7 @@ public class NetworkManager {
             applicationManager.setCurrentNetwork(network);
         }
         arangoNetworkStyle.applyStyles(networkViewManager);
-        applyLayout(view, view.getNodeViews().stream().collect(Collectors.toSet()));
+        applyLayout(view, view.getNodeViews().stream().collect(Collectors.toSet()), statistics);
     }
 
     /**
@@ -145,10 +214,240 @@ public class NetworkManager {
      */
     private void addNetwork(CyNetwork network, ArangoNetworkAdapter adapter) {
         String uuid = UUID.randomUUID().toString();
+        if (network.getDefaultNetworkTable().getColumn(Constants.NetworkColumns.ID) == null) {
+            network.getDefaultNetworkTable().createColumn(Constants.NetworkColumns.ID, String.class, true);
+        }
         network.getDefaultNetworkTable().getRow(network.getSUID()).set(Constants.NetworkColumns.ID, uuid);
         networks.put(uuid, adapter);
     }
 
+    /**
+     * Gets the adapter of a network imported by this manager.
+     *
+     * @param network the network
+     * @return the adapter of the network, or null if the network was not
+     *         imported by this manager or has been destroyed
+     */
+    ArangoNetworkAdapter getAdapter(CyNetwork network) {
+        String id = getNetworkId(network);
+        ArangoNetworkAdapter adapter = id == null ? null : networks.get(id);
+        return adapter == null || adapter.getNetwork() != network ? null : adapter;
+    }
+
+    /**
+     * Checks whether a network was imported from ArangoDB and can be expanded
+     * or replayed.
+     *
+     * @param network the network
+     * @return true if the manager has an adapter for the network
+     */
+    public boolean isImported(CyNetwork network) {
+        return getAdapter(network) != null;
+    }
+
+    /**
+     * Creates a filter that rewrites expansion queries so that they only
+     * return the nodes and edges not already in a network.
+     *
+     * @param network the network to expand
+     * @return the filter, or null if the network was not imported from
+     *         ArangoDB
+     */
+    public ExpansionFilter createExpansionFilter(CyNetwork network) {
+        ArangoNetworkAdapter adapter = getAdapter(network);
+        return adapter == null ? null : new ExpansionFilter(adapter.getNodeIds(), adapter.getEdgeIds());
+    }
+
+    /**
+     * Writes a document read again from the database to the row of its node or
+     * edge in a network, through the adapter of the network so that the
+     * documents it keeps for the nodes stay consistent with the rows.
+     *
+     * @param network  the network containing the node or edge
+     * @param document the JSON of the document, including its {@code _id}
+     * @return false if the network was not imported from ArangoDB
+     */
+    public boolean updateDocument(CyNetwork network, String document) {
+        ArangoNetworkAdapter adapter = getAdapter(network);
+        if (adapter == null) {
+            return false;
+        }
+        adapter.updateDocument(document);
+        return true;
+    }
+
+    /**
+     * Gets the UUID assigned to a network when it was imported.
+     *
+     * @param network the network
+     * @return the UUID of the network, or null if it has none
+     */
+    private String getNetworkId(CyNetwork network) {
+        if (network == null || network.getDefaultNetworkTable().getColumn(Constants.NetworkColumns.ID) == null) {
+            return null;
+        }
+        CyRow row = network.getDefaultNetworkTable().getRow(network.getSUID());
+        return row.get(Constants.NetworkColumns.ID, String.class);
+    }
+
+    /**
+     * Releases the adapter of a network that is about to be destroyed. Copies
+     * that still share the UUID of the network they were made from do not
+     * release its adapter.
+     *
+     * @param event the event carrying the network
+     */
+    @Override
+    public void handleEvent(NetworkAboutToBeDestroyedEvent event) {
+        if (getAdapter(event.getNetwork()) == null) {
+            return;
+        }
+        releaseNetwork(getNetworkId(event.getNetwork()));
+    }
+
+    /**
+     * Gives copies of an imported network, which carry its UUID and metadata
+     * in their network table, a UUID and an adapter of their own. Expansions
+     * are only written to the network table when the session is saved, so the
+     * adapter of the copy starts from a copy of the metadata of the original
+     * adapter instead of the table.
+     *
+     * @param event the event carrying the added network
+     */
+    @Override
+    public void handleEvent(NetworkAddedEvent event) {
+        CyNetwork network = event.getNetwork();
+        String id = getNetworkId(network);
+        ArangoNetworkAdapter adapter = id == null ? null : networks.get(id);
+        if (adapter != null && adapter.getNetwork() != network) {
+            ArangoNetworkMetadata metadata = adapter.getMetadata();
+            restoreNetwork(network, metadata == null ? null : metadata.copy());
+        }
+    }
+
+    /**
+     * Releases the adapters of all networks when the current session is
+     * closed, either to load another session or to start a new one.
+     *
+     * @param event the event announcing the session change
+     */
+    @Override
+    public void handleEvent(SessionAboutToBeLoadedEvent event) {
+        for (String id : List.copyOf(networks.keySet())) {
+            releaseNetwork(id);
+        }
+    }
+
+    /**
+     * Stops the live sync of a network and releases its adapter.
+     *
+     * @param id the UUID of the network
+     */
+    private void releaseNetwork(String id) {
+        LiveNetworkSync sync = liveSyncs.remove(id);
+        if (sync != null) {
+            sync.close();
+        }
+        ArangoNetworkAdapter adapter = networks.remove(id);
+        if (adapter != null) {
+            adapter.clear();
+        }
+    }
+
+    /**
+     * Writes the metadata of all networks to their network tables before the
+     * session is saved.
+     *
+     * @param event the event announcing the session save
+     */
+    @Override
+    public void handleEvent(SessionAboutToBeSavedEvent event) {
+        networks.values().forEach(ArangoNetworkAdapter::flushMetadata);
+    }
+
+    /**
+     * Rebuilds the adapters of the networks imported from ArangoDB that are
+     * part of a loaded session.
+     *
+     * @param event the event carrying the loaded session
+     */
+    @Override
+    public void handleEvent(SessionLoadedEvent event) {
+        if (event.getLoadedSession() == null || event.getLoadedSession().getNetworks() == null) {
+            return;
+        }
+        for (CyNetwork network : event.getLoadedSession().getNetworks()) {
+            restoreNetwork(network);
+        }
+    }
+
+    /**
+     * Rebuilds the adapter of a network restored from a session from its node
+     * and edge tables, without querying the database. Networks that were not
+     * imported from ArangoDB are ignored, and networks sharing the UUID of
+     * another one, such as copies, are assigned a new UUID.
+     *
+     * @param network the restored network
+     */
+    void restoreNetwork(CyNetwork network) {
+        restoreNetwork(network, null);
+    }
+
+    /**
+     * Rebuilds the adapter of a network from its node and edge tables, taking
+     * its metadata from the network table unless it is given.
+     *
+     * @param network  the network
+     * @param metadata the metadata of the network, or null to read it from the
+     *                 network table
+     */
+    private void restoreNetwork(CyNetwork network, ArangoNetworkMetadata metadata) {
+        CyTable table = network.getDefaultNetworkTable();
+        if (table.getColumn(Constants.NetworkColumns.ARANGO_NETWORK_METADATA) == null) {
+            return;
+        }
+        CyRow row = table.getRow(network.getSUID());
+        if (row.get(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, String.class) == null) {
+            return;
+        }
+        ArangoNetworkAdapter adapter = new ArangoNetworkAdapter(networkFactory);
+        if (metadata == null) {
+            adapter.restore(network);
+        } else {
+            adapter.restore(network, metadata);
+        }
+        String id = getNetworkId(network);
+        if (id == null || networks.putIfAbsent(id, adapter) != null) {
+            addNetwork(network, adapter);
+        }
+    }
+
+    /**
+     * Removes the nodes about to be deleted from a network from its adapter.
+     *
+     * @param event the event carrying the network and the nodes
+     */
+    @Override
+    public void handleEvent(AboutToRemoveNodesEvent event) {
+        ArangoNetworkAdapter adapter = getAdapter(event.getSource());
+        if (adapter != null) {
+            adapter.removeNodes(event.getNodes());
+        }
+    }
+
+    /**
+     * Removes the edges about to be deleted from a network from its adapter.
+     *
+     * @param event the event carrying the network and the edges
+     */
+    @Override
+    public void handleEvent(AboutToRemoveEdgesEvent event) {
+        ArangoNetworkAdapter adapter = getAdapter(event.getSource());
+        if (adapter != null) {
+            adapter.removeEdges(event.getEdges());
+        }
+    }
+
     /**
      * Imports a network from a list of documents.
      *
@@ -161,6 +460,25 @@ public class NetworkManager {
      */
     public NetworkImportResult importNetwork(List<RawJson> docs, ArangoDatabase database, String networkName,
             ArangoNetworkMetadata metadata) throws ImportNetworkException {
+        return importNetwork(docs, database, networkName, metadata, null);
+    }
+
+    /**
+     * Imports a network from a list of documents, recording the time spent
+     * building the network and applying the layout.
+     *
+     * @param docs        the list of RawJson documents
+     * @param database    the ArangoDatabase instance
+     * @param networkName the name of the network
+     * @param metadata    the metadata of the network
+     * @param statistics  the statistics of the query that produced the
+     *                    documents, may be null
+     * @return the result of the network import
+     * @throws ImportNetworkException if the import fails
+     */
+    public NetworkImportResult importNetwork(List<RawJson> docs, ArangoDatabase database, String networkName,
+            ArangoNetworkMetadata metadata, QueryStatistics statistics) throws ImportNetworkException {
+        long start = System.nanoTime();
         QueryResultValidator validator = new QueryResultValidator(docs);
         if (!validator.isEdgeList() && !validator.isPathList()) {
             throw new ImportNetworkException(
@@ -178,7 +496,8 @@ public class NetworkManager {
         network.getDefaultNetworkTable().getRow(network.getSUID()).set(Constants.NetworkColumns.NAME, networkName);
         networkManager.addNetwork(network);
         addNetwork(network, adapter);
-        handleNetworkView(network, null);
+        recordBuildTime(statistics, start);
+        handleNetworkView(network, null, statistics);
 
         return new NetworkImportResult(network.getNodeCount(), network.getEdgeCount());
     }
@@ -197,20 +516,70 @@ public class NetworkManager {
     public List<CyNode> expandNetwork(List<RawJson> docs, CyNetworkView networkView, View<CyNode> fromNodeView,
             ArangoDatabase database, ArangoNetworkMetadata.NodeExpansionMetadata metadata)
             throws ImportNetworkException {
+        return expandNetwork(docs, networkView, fromNodeView, database, metadata, null);
+    }
+
+    /**
+     * Expands a network by adding nodes and edges from a list of documents,
+     * recording the time spent building the network and applying the layout.
+     *
+     * @param docs         the list of RawJson documents
+     * @param networkView  the view of the network to expand
+     * @param fromNodeView the view of the node to expand from
+     * @param database     the ArangoDatabase instance
+     * @param metadata     the metadata of the network
+     * @param statistics   the statistics of the query that produced the
+     *                     documents, may be null
+     * @return the list of new nodes
+     * @throws ImportNetworkException if the expansion fails
+     */
+    public List<CyNode> expandNetwork(List<RawJson> docs, CyNetworkView networkView, View<CyNode> fromNodeView,
+            ArangoDatabase database, ArangoNetworkMetadata.NodeExpansionMetadata metadata,
+            QueryStatistics statistics) throws ImportNetworkException {
+        return expandNetwork(docs, networkView, fromNodeView, database, metadata, statistics, false);
+    }
+
+    /**
+     * Expands a network by adding nodes and edges from a list of documents,
+     * recording the time spent building the network and applying the layout.
+     * The documents of a query rewritten with an {@link ExpansionFilter} may
+     * leave out the edges to the node that are already in the network, so they
+     * are not required to contain one.
+     *
+     * @param docs         the list of RawJson documents
+     * @param networkView  the view of the network to expand
+     * @param fromNodeView the view of the node to expand from
+     * @param database     the ArangoDatabase instance
+     * @param metadata     the metadata of the network
+     * @param statistics   the statistics of the query that produced the
+     *                     documents, may be null
+     * @param filtered     true if the query was rewritten with an
+     *                     {@link ExpansionFilter}
+     * @return the list of new nodes
+     * @throws ImportNetworkException if the expansion fails
+     */
+    public List<CyNode> expandNetwork(List<RawJson> docs, CyNetworkView networkView, View<CyNode> fromNodeView,
+            ArangoDatabase database, ArangoNetworkMetadata.NodeExpansionMetadata metadata,
+            QueryStatistics statistics, boolean filtered) throws ImportNetworkException {
+        long start = System.nanoTime();
         QueryResultValidator validator = new QueryResultValidator(docs);
         if (!validator.isEdgeList() && !validator.isPathList()) {
             throw new ImportNetworkException(
                     "The result of the query must be either a list of edges or a list of paths.");
         }
 
-        if (!validator.isNodeEdgePresent(metadata.getNodeId())) {
+        if (!filtered && !validator.isNodeEdgePresent(metadata.getNodeId())) {
             throw new ImportNetworkException(String.format(
                     "The result does not contain an edge to the selected node '%1$s'.", metadata.getNodeId()));
         }
         CyNetwork network = networkView.getModel();
-        ArangoNetworkAdapter adapter = this.networks
-                .get(network.getDefaultNetworkTable().getRow(network.getSUID()).get(Constants.NetworkColumns.ID,
-                        String.class));
+        ArangoNetworkAdapter adapter = getAdapter(network);
+        if (adapter == null) {
+            throw new ImportNetworkException("The network was not imported from ArangoDB.");
+        }
+        if (adapter.getDatabase() == null) {
+            adapter.setDatabase(database);
+        }
         List<CyNode> newNodes;
         if (validator.isPathList()) {
             newNodes = adapter.expandNodeWithPath(docs, metadata);
@@ -218,7 +587,8 @@ public class NetworkManager {
             newNodes = adapter.expandNodeWithEdges(docs, metadata);
         }
         networkView.updateView();
-        handleNetworkView(network, networkView);
+        recordBuildTime(statistics, start);
+        handleNetworkView(network, networkView, statistics);
 
         return newNodes;
     }
@@ -228,14 +598,42 @@ public class NetworkManager {
      *
      * @param networkView the network view to apply the layout to
      * @param nodes       the set of nodes to layout
+     * @param statistics  the statistics to record the layout time in once the
+     *                    layout finishes, may be null
      */
-    private void applyLayout(CyNetworkView networkView, Set<View<CyNode>> nodes) {
+    private void applyLayout(CyNetworkView networkView, Set<View<CyNode>> nodes, QueryStatistics statistics) {
         CyLayoutAlgorithm layoutAlgorithm = this.layoutAlgorithmManager.getDefaultLayout();
         TaskIterator taskIterator = layoutAlgorithm.createTaskIterator(networkView,
                 layoutAlgorithm.getDefaultLayoutContext(),
                 nodes,
                 null);
-        taskManager.execute(taskIterator);
+        if (statistics == null) {
+            taskManager.execute(taskIterator);
+            return;
+        }
+        long start = System.nanoTime();
+        taskManager.execute(taskIterator, new TaskObserver() {
+            @Override
+            public void taskFinished(ObservableTask task) {
+            }
+
+            @Override
+            public void allFinished(FinishStatus finishStatus) {
+                statistics.setLayoutTime((System.nanoTime() - start) / 1_000_000);
+            }
+        });
+    }
+
+    /**
+     * Records the time elapsed since the given start as the build time.
+     *
+     * @param statistics the statistics to record the build time in, may be null
+     * @param start      the start time as returned by {@link System#nanoTime()}
+     */
+    private void recordBuildTime(QueryStatistics statistics, long start) {
+        if (statistics != null) {
+            statistics.setBuildTime((System.nanoTime() - start) / 1_000_000);
+        }
     }
 
     /**
@@ -250,7 +648,26 @@ public class NetworkManager {
      */
     public List<CyNode> expandNetwork(List<RawJson> docs, CyNetworkView networkView, ArangoDatabase database,
             ArangoNetworkMetadata.NetworkExpansionMetadata metadata) throws ImportNetworkException {
+        return expandNetwork(docs, networkView, database, metadata, null);
+    }
 
+    /**
+     * Expands a network by adding nodes and edges from a list of documents,
+     * recording the time spent building the network and applying the layout.
+     *
+     * @param docs        the list of RawJson documents
+     * @param networkView the view of the network to expand
+     * @param database    the ArangoDatabase instance
+     * @param metadata    the metadata of the network
+     * @param statistics  the statistics of the query that produced the
+     *                    documents, may be null
+     * @return the list of new nodes
+     * @throws ImportNetworkException if the expansion fails
+     */
+    public List<CyNode> expandNetwork(List<RawJson> docs, CyNetworkView networkView, ArangoDatabase database,
+            ArangoNetworkMetadata.NetworkExpansionMetadata metadata, QueryStatistics statistics)
+            throws ImportNetworkException {
+        long start = System.nanoTime();
         QueryResultValidator validator = new QueryResultValidator(docs);
         if (!validator.isEdgeList() && !validator.isPathList()) {
             throw new ImportNetworkException(
@@ -258,9 +675,13 @@ public class NetworkManager {
         }
 
         CyNetwork network = networkView.getModel();
-        ArangoNetworkAdapter adapter = this.networks
-                .get(network.getDefaultNetworkTable().getRow(network.getSUID()).get(Constants.NetworkColumns.ID,
-                        String.class));
+        ArangoNetworkAdapter adapter = getAdapter(network);
+        if (adapter == null) {
+            throw new ImportNetworkException("The network was not imported from ArangoDB.");
+        }
+        if (adapter.getDatabase() == null) {
+            adapter.setDatabase(database);
+        }
         List<CyNode> newNodes;
         if (validator.isEdgeList()) {
             newNodes = adapter.expandNetworkEdges(docs, metadata);
@@ -269,8 +690,428 @@ public class NetworkManager {
         }
 
         networkView.updateView();
-        handleNetworkView(network, networkView);
+        recordBuildTime(statistics, start);
+        handleNetworkView(network, networkView, statistics);
 
         return newNodes;
     }
-}
\ No newline at end of file
+
+    /**
+     * Expands several nodes of a network with a single parameterized query,
+     * instead of one query per node. The ids of the nodes are bound to the
+     * {@value #NODE_IDS} bind variable in chunks of at most
+     * {@value #NODE_BATCH_SIZE} nodes, and the chunks are executed
+     * concurrently. The results of all chunks are merged into the network,
+     * and one expansion is recorded per node connected by the results, with
+     * the query bound to the id of that node alone so that it can be replayed
+     * on its own. Nodes the query found nothing for are not recorded.
+     *
+     * @param networkView       the view of the network to expand
+     * @param nodeIds           the ids of the nodes to expand
+     * @param query             the query, which must reference the
+     *                          {@value #NODE_IDS} bind variable
+     * @param connectionId      the connection to execute the query on
+     * @param connectionManager the connection manager executing the query
+     * @param filter            the filter leaving out the elements already in
+     *                          the network, may be null
+     * @return the new nodes, along with the number of chunks executed and
+     *         truncated
+     * @throws ImportNetworkException if the network was not imported from
+     *                                ArangoDB, the query does not reference the
+     *                                node ids, fails or returns neither edges
+     *                                nor paths
+     */
+    public BatchExpansionResult expandNodes(CyNetworkView networkView, List<String> nodeIds, String query,
+            String connectionId, ConnectionManager connectionManager, ExpansionFilter filter)
+            throws ImportNetworkException {
+        return expandNodes(networkView, nodeIds, query, query, connectionId, connectionManager, filter);
+    }
+
+    /**
+     * Expands several nodes of a network with a rewritten form of a
+     * parameterized query, such as a preview limited by the guardrails of the
+     * connection. The rewritten query is executed and recorded in the
+     * expansions of the nodes, while the history records the query entered by
+     * the user.
+     *
+     * @param networkView       the view of the network to expand
+     * @param nodeIds           the ids of the nodes to expand
+     * @param query             the query entered by the user
+     * @param rewrittenQuery    the query to execute, which must reference the
+     *                          {@value #NODE_IDS} bind variable
+     * @param connectionId      the connection to execute the query on
+     * @param connectionManager the connection manager executing the query
+     * @param filter            the filter leaving out the elements already in
+     *                          the network, may be null
+     * @return the new nodes, along with the number of chunks executed and
+     *         truncated
+     * @throws ImportNetworkException if the network was not imported from
+     *                                ArangoDB, the query does not reference the
+     *                                node ids, fails or returns neither edges
+     *                                nor paths
+     */
+    public BatchExpansionResult expandNodes(CyNetworkView networkView, List<String> nodeIds, String query,
+            String rewrittenQuery, String connectionId, ConnectionManager connectionManager, ExpansionFilter filter)
+            throws ImportNetworkException {
+        CyNetwork network = networkView.getModel();
+        ArangoNetworkAdapter adapter = getAdapter(network);
+        if (adapter == null) {
+            throw new ImportNetworkException("The network was not imported from ArangoDB.");
+        }
+        if (!NODE_IDS_PARAMETER.matcher(rewrittenQuery).find()) {
+            throw new ImportNetworkException(String.format(
+                    "The query must read the ids of the selected nodes from the @%1$s bind variable.", NODE_IDS));
+        }
+        if (connectionManager.getConnection(connectionId) == null) {
+            throw new ImportNetworkException(
+                    String.format("The connection '%1$s' no longer exists.", connectionId));
+        }
+
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < nodeIds.size(); i += NODE_BATCH_SIZE) {
+            chunks.add(nodeIds.subList(i, Math.min(i + NODE_BATCH_SIZE, nodeIds.size())));
+        }
+        List<Map<String, Object>> bindVars = new ArrayList<>();
+        for (List<String> chunk : chunks) {
+            Map<String, Object> vars = new LinkedHashMap<>();
+            if (filter != null) {
+                vars.putAll(filter.getBindVars());
+            }
+            vars.put(NODE_IDS, chunk);
+            bindVars.add(vars);
+        }
+        List<QueryResult> results;
+        try {
+            results = connectionManager.executeQueries(connectionId,
+                    filter == null ? rewrittenQuery : filter.wrap(rewrittenQuery), bindVars);
+        } catch (ArangoDBException e) {
+            throw new ImportNetworkException(String.format("Failed to execute a query: %1$s", e.getMessage()));
+        }
+        if (results.stream().allMatch(result -> result.getDocuments().isEmpty())) {
+            throw new ImportNetworkException(filter == null ? "No results found for query"
+                    : "The query found no nodes or edges that are not already in the network");
+        }
+
+        List<QueryResultValidator> validators = new ArrayList<>();
+        for (QueryResult result : results) {
+            QueryResultValidator validator = new QueryResultValidator(result.getDocuments());
+            if (!result.getDocuments().isEmpty() && !validator.isEdgeList() && !validator.isPathList()) {
+                throw new ImportNetworkException(
+                        "The result of the query must be either a list of edges or a list of paths.");
+            }
+            validators.add(validator);
+        }
+
+        if (adapter.getDatabase() == null) {
+            adapter.setDatabase(connectionManager.getArangoDatabase(connectionId));
+        }
+        List<CyNode> newNodes = new ArrayList<>();
+        List<ArangoNetworkMetadata.NodeExpansionMetadata> expansions = new ArrayList<>();
+        int truncatedCount = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            QueryResult result = results.get(i);
+            if (!result.getDocuments().isEmpty()) {
+                newNodes.addAll(validators.get(i).isEdgeList() ? adapter.mergeEdges(result.getDocuments())
+                        : adapter.mergePaths(result.getDocuments()));
+            }
+            if (result.isTruncated()) {
+                truncatedCount++;
+            }
+            if (result.getDocuments().isEmpty()) {
+                continue;
+            }
+            Set<String> expandedIds = validators.get(i).getNodeEdgeIds();
+            for (String nodeId : chunks.get(i)) {
+                if (!expandedIds.contains(nodeId)) {
+                    continue;
+                }
+                ArangoNetworkMetadata.NodeExpansionMetadata expansion = new ArangoNetworkMetadata.NodeExpansionMetadata(
+                        nodeId, bindNodeIds(rewrittenQuery, List.of(nodeId)), connectionId);
+                expansion.setTruncation(result.getTruncation());
+                expansions.add(expansion);
+            }
+        }
+        adapter.recordExpansions(expansions);
+        connectionManager.addQueryToHistory(connectionId, query);
+
+        networkView.updateView();
+        handleNetworkView(network, networkView, null);
+        return new BatchExpansionResult(newNodes, chunks.size(), truncatedCount);
+    }
+
+    /**
+     * Replaces the references to the {@value #NODE_IDS} bind variable of a
+     * query with a literal array of node ids, so that the query can run, or be
+     * explained, without bind variables.
+     *
+     * @param query   the query referencing the bind variable
+     * @param nodeIds the node ids to inline
+     * @return the query with the node ids inlined
+     */
+    public static String bindNodeIds(String query, List<String> nodeIds) {
+        return NODE_IDS_PARAMETER.matcher(query).replaceAll(Matcher.quoteReplacement(new Gson().toJson(nodeIds)));
+    }
+
+    /**
+     * Replays the import and expansion history of a network against the
+     * current data of the database. The queries recorded in the metadata of
+     * the network are executed concurrently, grouped by connection, and their
+     * results are merged into either the network itself or a new network,
+     * skipping the nodes and edges already merged. Queries that no longer
+     * return anything are skipped. When merging into the network itself, the
+     * elements already in the network are then updated to their current
+     * revisions, and flagged if their documents no longer exist.
+     *
+     * @param networkView       the view of the network to replay
+     * @param connectionManager the connection manager executing the queries
+     * @param inPlace           true to merge the results into the network, false
+     *                          to build a new network from them
+     * @return the node and edge counts of the resulting network and the number
+     *         of queries whose result was truncated
+     * @throws ImportNetworkException if the network was not imported from
+     *                                ArangoDB or a query fails or returns
+     *                                neither edges nor paths
+     */
+    public NetworkImportResult replayNetwork(CyNetworkView networkView, ConnectionManager connectionManager,
+            boolean inPlace) throws ImportNetworkException {
+        CyNetwork network = networkView.getModel();
+        ArangoNetworkAdapter adapter = getAdapter(network);
+        if (adapter == null || adapter.getMetadata() == null) {
+            throw new ImportNetworkException("The network was not imported from ArangoDB.");
+        }
+        ArangoNetworkMetadata metadata = adapter.getMetadata().copy();
+
+        List<String> connectionIds = new ArrayList<>();
+        List<String> queries = new ArrayList<>();
+        connectionIds.add(metadata.getConnectionId());
+        queries.add(metadata.getQuery());
+        for (ArangoNetworkMetadata.NodeExpansionMetadata expansion : metadata.getNodeExpansions()) {
+            connectionIds.add(expansion.getConnectionId());
+            queries.add(expansion.getQuery());
+        }
+        for (ArangoNetworkMetadata.NetworkExpansionMetadata expansion : metadata.getNetworkExpansions()) {
+            connectionIds.add(expansion.getConnectionId());
+            queries.add(expansion.getQuery());
+        }
+        List<QueryResult> queryResults = executeQueries(connectionManager, connectionIds, queries);
+
+        List<List<RawJson>> results = new ArrayList<>();
+        List<QueryResultValidator> validators = new ArrayList<>();
+        int truncatedCount = 0;
+        for (int i = 0; i < queryResults.size(); i++) {
+            results.add(queryResults.get(i).getDocuments());
+            if (queryResults.get(i).isTruncated()) {
+                truncatedCount++;
+            }
+            QueryResultValidator validator = new QueryResultValidator(results.get(i));
+            if (!results.get(i).isEmpty() && !validator.isEdgeList() && !validator.isPathList()) {
+                throw new ImportNetworkException(String.format(
+                        "The result of the query '%1$s' must be either a list of edges or a list of paths.",
+                        queries.get(i)));
+            }
+            validators.add(validator);
+        }
+
+        ArangoDatabase database = connectionManager.getArangoDatabase(metadata.getConnectionId());
+        ArangoNetworkAdapter target;
+        CyNetwork targetNetwork;
+        if (inPlace) {
+            target = adapter;
+            targetNetwork = network;
+            if (target.getDatabase() == null) {
+                target.setDatabase(database);
+            }
+            mergeResult(target, results.get(0), validators.get(0));
+        } else {
+            target = new ArangoNetworkAdapter(database, networkFactory);
+            targetNetwork = validators.get(0).isPathList() ? target.importPaths(results.get(0), metadata)
+                    : target.importEdges(results.get(0), metadata);
+            String name = network.getDefaultNetworkTable().getRow(network.getSUID())
+                    .get(Constants.NetworkColumns.NAME, String.class);
+            targetNetwork.getDefaultNetworkTable().getRow(targetNetwork.getSUID())
+                    .set(Constants.NetworkColumns.NAME, String.format("%1$s (refreshed)", name));
+        }
+        for (int i = 1; i < results.size(); i++) {
+            mergeResult(target, results.get(i), validators.get(i));
+        }
+
+        if (inPlace) {
+            updateNetwork(networkView, connectionManager, false);
+            handleNetworkView(targetNetwork, networkView, null);
+        } else {
+            networkManager.addNetwork(targetNetwork);
+            addNetwork(targetNetwork, target);
+            handleNetworkView(targetNetwork, null, null);
+        }
+        return new NetworkImportResult(targetNetwork.getNodeCount(), targetNetwork.getEdgeCount(), truncatedCount);
+    }
+
+    /**
+     * Updates the nodes and edges of a network whose documents changed in the
+     * database since they were imported, comparing revisions instead of
+     * importing the network again.
+     *
+     * @param networkView       the view of the network to update
+     * @param connectionManager the connection manager providing the database
+     *                          of restored networks
+     * @param removeMissing     true to remove the elements whose documents no
+     *                          longer exist, false to flag them
+     * @return the number of elements checked, updated and missing
+     * @throws ImportNetworkException if the network was not imported from
+     *                                ArangoDB or the database cannot be queried
+     */
+    public NetworkRefreshResult updateNetwork(CyNetworkView networkView, ConnectionManager connectionManager,
+            boolean removeMissing) throws ImportNetworkException {
+        ArangoNetworkAdapter adapter = getAdapter(networkView.getModel());
+        if (adapter == null || adapter.getMetadata() == null) {
+            throw new ImportNetworkException("The network was not imported from ArangoDB.");
+        }
+        if (adapter.getDatabase() == null) {
+            adapter.setDatabase(connectionManager.getArangoDatabase(adapter.getMetadata().getConnectionId()));
+        }
+        NetworkRefreshResult result;
+        try {
+            result = adapter.refresh(removeMissing);
+        } catch (ArangoDBException e) {
+            throw new ImportNetworkException(String.format("Failed to update the network: %1$s", e.getMessage()));
+        }
+        networkView.updateView();
+        return result;
+    }
+
+    /**
+     * Starts following the write-ahead log of the database of a network, so
+     * that changes to its documents are applied to it as they happen.
+     *
+     * @param network           the network to keep in sync
+     * @param connectionManager the connection manager providing the connection
+     *                          of the network
+     * @param addNewEdges       true to also add new edges adjacent to the
+     *                          network
+     * @throws ImportNetworkException if the network was not imported from
+     *                                ArangoDB or the log cannot be read
+     */
+    public void startLiveSync(CyNetwork network, ConnectionManager connectionManager, boolean addNewEdges)
+            throws ImportNetworkException {
+        ArangoNetworkAdapter adapter = getAdapter(network);
+        if (adapter == null || adapter.getMetadata() == null) {
+            throw new ImportNetworkException("The network was not imported from ArangoDB.");
+        }
+        String id = getNetworkId(network);
+        ConnectionDetails connectionDetails = connectionManager.getConnection(adapter.getMetadata().getConnectionId());
+        if (connectionDetails == null) {
+            throw new ImportNetworkException(
+                    String.format("The connection '%1$s' used by the network no longer exists.",
+                            adapter.getMetadata().getConnectionId()));
+        }
+        if (adapter.getDatabase() == null) {
+            adapter.setDatabase(connectionManager.getArangoDatabase(connectionDetails));
+        }
+        LiveNetworkSync sync = new LiveNetworkSync(adapter, new WalTailClient(connectionDetails), addNewEdges);
+        try {
+            sync.start();
+        } catch (IOException e) {
+            sync.close();
+            throw new ImportNetworkException(
+                    String.format("Failed to read the write-ahead log of the database: %1$s", e.getMessage()));
+        }
+        LiveNetworkSync previous = liveSyncs.put(id, sync);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Stops following the write-ahead log of the database of a network.
+     *
+     * @param network the network
+     * @return true if the network was being kept in sync
+     */
+    public boolean stopLiveSync(CyNetwork network) {
+        LiveNetworkSync sync = getAdapter(network) == null ? null : liveSyncs.remove(getNetworkId(network));
+        if (sync == null) {
+            return false;
+        }
+        sync.close();
+        return true;
+    }
+
+    /**
+     * Checks whether a network follows the write-ahead log of its database.
+     *
+     * @param network the network
+     * @return true if the network is kept in sync
+     */
+    public boolean isLiveSyncing(CyNetwork network) {
+        return getAdapter(network) != null && liveSyncs.containsKey(getNetworkId(network));
+    }
+
+    /**
+     * Stops following the write-ahead logs of all networks, waiting for the
+     * polls in progress to finish.
+     */
+    public void close() {
+        for (String id : List.copyOf(liveSyncs.keySet())) {
+            LiveNetworkSync sync = liveSyncs.remove(id);
+            if (sync != null) {
+                sync.close();
+            }
+        }
+    }
+
+    /**
+     * Executes queries concurrently, each on its own connection, without
+     * recording them in the history.
+     *
+     * @param connectionManager the connection manager executing the queries
+     * @param connectionIds     the connection of each query
+     * @param queries           the queries to execute
+     * @return the result of each query, in the order of the queries
+     * @throws ImportNetworkException if a query fails
+     */
+    private List<QueryResult> executeQueries(ConnectionManager connectionManager, List<String> connectionIds,
+            List<String> queries) throws ImportNetworkException {
+        Map<String, List<Integer>> indicesByConnection = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            indicesByConnection.computeIfAbsent(connectionIds.get(i), id -> new ArrayList<>()).add(i);
+        }
+        List<QueryResult> results = new ArrayList<>(queries.size());
+        queries.forEach(query -> results.add(null));
+        for (Map.Entry<String, List<Integer>> entry : indicesByConnection.entrySet()) {
+            if (connectionManager.getConnection(entry.getKey()) == null) {
+                throw new ImportNetworkException(
+                        String.format("The connection '%1$s' used by the network no longer exists.", entry.getKey()));
+            }
+            List<String> connectionQueries = entry.getValue().stream().map(queries::get)
+                    .collect(Collectors.toList());
+            List<QueryResult> connectionResults;
+            try {
+                connectionResults = connectionManager.executeQueries(entry.getKey(), connectionQueries);
+            } catch (ArangoDBException e) {
+                throw new ImportNetworkException(String.format("Failed to execute a query: %1$s", e.getMessage()));
+            }
+            for (int i = 0; i < connectionResults.size(); i++) {
+                results.set(entry.getValue().get(i), connectionResults.get(i));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Merges the documents returned by a query into a network. Empty results
+     * are ignored.
+     *
+     * @param adapter   the adapter of the network
+     * @param docs      the documents returned by the query
+     * @param validator the validator of the documents
+     */
+    private void mergeResult(ArangoNetworkAdapter adapter, List<RawJson> docs, QueryResultValidator validator) {
+        if (docs.isEmpty()) {
+            return;
+        } else if (validator.isEdgeList()) {
+            adapter.mergeEdges(docs);
+        } else {
+            adapter.mergePaths(docs);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.hugowschneider.cyarangodb.internal.network;
+
+/**
+ * Represents the result of a network refresh operation, including the number of elements checked, updated and
+ * missing from the database.
+ */
+public class NetworkRefreshResult {
+    /**
+     * The number of nodes and edges whose revision was checked.
+     */
+    private int checkedCount;
+
+    /**
+     * The number of nodes and edges updated because their revision changed.
+     */
+    private int updatedCount;
+
+    /**
+     * The number of nodes and edges that no longer exist in the database.
+     */
+    private int missingCount;
+
+    /**
+     * Constructs a new NetworkRefreshResult.
+     *
+     * @param checkedCount the number of nodes and edges whose revision was checked
+     * @param updatedCount the number of nodes and edges updated
+     * @param missingCount the number of nodes and edges that no longer exist
+     */
+    public NetworkRefreshResult(int checkedCount, int updatedCount, int missingCount) {
+        this.checkedCount = checkedCount;
+        this.updatedCount = updatedCount;
+        this.missingCount = missingCount;
+    }
+
+    /**
+     * Gets the number of nodes and edges whose revision was checked.
+     *
+     * @return the number of elements checked
+     */
+    public int getCheckedCount() {
+        return checkedCount;
+    }
+
+    /**
+     * Gets the number of nodes and edges updated because their revision changed.
+     *
+     * @return the number of elements updated
+     */
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    /**
+     * Gets the number of nodes and edges that no longer exist in the database.
+     *
+     * @return the number of elements missing
+     */
+    public int getMissingCount() {
+        return missingCount;
+    }
+}
@@ -5,8 +5,10 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Validates the results of a query to determine if they represent edges or paths.
@@ -16,6 +18,7 @@ public class QueryResultValidator {
     private List<RawJson> docs;
     private Boolean isEdge;
     private Boolean isPath;
+    private Set<String> nodeEdgeIds;
 
     /**
      * Constructs a new QueryResultValidator instance.
@@ -100,12 +103,24 @@ public class QueryResultValidator {
      * @return true if the ID is present, false otherwise
      */
     public boolean isNodeEdgePresent(String id) {
+        return getNodeEdgeIds().contains(id);
+    }
+
+    /**
+     * Collects the IDs of the nodes connected by the edges in the documents,
+     * parsing the documents only once.
+     *
+     * @return the IDs of the nodes connected by the edges
+     */
+    public Set<String> getNodeEdgeIds() {
+        if (nodeEdgeIds != null) {
+            return nodeEdgeIds;
+        }
+        nodeEdgeIds = new HashSet<>();
         if (this.isEdgeList()) {
             for (RawJson doc : docs) {
                 Map<String, Object> jsonMap = gson.fromJson(doc.get(), new TypeToken<Map<String, Object>>() {}.getType());
-                if (jsonMap.get("_from").equals(id) || jsonMap.get("_to").equals(id)) {
-                    return true;
-                }
+                addEndpoints(jsonMap);
             }
         } else if (this.isPathList()) {
             for (RawJson doc : docs) {
@@ -117,18 +132,26 @@ public class QueryResultValidator {
                     if (edgesObj instanceof List && verticesObj instanceof List) {
                         @SuppressWarnings("unchecked")
                         List<Map<String, Object>> edges = (List<Map<String, Object>>) edgesObj;
-                        if (!edges.isEmpty()) {
-                            for (Map<String, Object> edge : edges) {
-                                if (edge.get("_from").equals(id) || edge.get("_to").equals(id)) {
-                                    return true;
-                                }
-                            }
-                        }
+                        edges.forEach(this::addEndpoints);
                     }
                 }
             }
         }
 
-        return false;
+        return nodeEdgeIds;
+    }
+
+    /**
+     * Adds the IDs of the nodes connected by an edge.
+     *
+     * @param edge the edge
+     */
+    private void addEndpoints(Map<String, Object> edge) {
+        if (edge.get("_from") instanceof String) {
+            nodeEdgeIds.add((String) edge.get("_from"));
+        }
+        if (edge.get("_to") instanceof String) {
+            nodeEdgeIds.add((String) edge.get("_to"));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,502 @@
+package com.github.hugowschneider.cyarangodb.internal.network;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionDetails;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Reads the changes made to the documents of a database from the write-ahead
+ * log tailing API of ArangoDB.
+ * <p>
+ * The log is read with plain HTTP requests, since its entries are returned
+ * as newline-delimited JSON and its positions in response headers, neither of
+ * which the driver exposes. Only document inserts, updates and removals are
+ * reported; the entries refer to collections by their globally unique id,
+ * which is resolved to the collection name with the collection list of the
+ * database. Reading the log requires a user with administrative access to the
+ * database.
+ */
+public class WalTailClient {
+    /**
+     * The log entry type of a document insert or update.
+     */
+    static final int DOCUMENT_MARKER = 2300;
+
+    /**
+     * The log entry type of a document removal.
+     */
+    static final int REMOVE_MARKER = 2302;
+
+    /**
+     * The maximum size in bytes of a single tailing response.
+     */
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * The header holding the tick of the last entry of a response.
+     */
+    static final String LAST_INCLUDED_HEADER = "x-arango-replication-lastincluded";
+
+    /**
+     * The header holding the last tick scanned by the server.
+     */
+    static final String LAST_SCANNED_HEADER = "x-arango-replication-lastscanned";
+
+    /**
+     * The header telling whether more entries are available.
+     */
+    static final String CHECK_MORE_HEADER = "x-arango-replication-checkmore";
+
+    /**
+     * The header telling whether the requested tick is still in the log.
+     */
+    static final String FROM_PRESENT_HEADER = "x-arango-replication-frompresent";
+
+    /**
+     * A document inserted, updated or removed in the database.
+     */
+    public static final class Change {
+        /**
+         * The id of the document.
+         */
+        private final String id;
+
+        /**
+         * The revision of the document after the change.
+         */
+        private final String revision;
+
+        /**
+         * The JSON of the document, or null if it was removed.
+         */
+        private final String document;
+
+        /**
+         * The id of the source vertex, or null if the document is not an edge.
+         */
+        private final String from;
+
+        /**
+         * The id of the target vertex, or null if the document is not an edge.
+         */
+        private final String to;
+
+        /**
+         * Constructs a new Change.
+         *
+         * @param id       the id of the document
+         * @param revision the revision of the document after the change
+         * @param document the JSON of the document, or null if it was removed
+         * @param from     the source vertex of an edge, or null
+         * @param to       the target vertex of an edge, or null
+         */
+        public Change(String id, String revision, String document, String from, String to) {
+            this.id = id;
+            this.revision = revision;
+            this.document = document;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Gets the id of the document.
+         *
+         * @return the document id
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the revision of the document after the change.
+         *
+         * @return the revision
+         */
+        public String getRevision() {
+            return revision;
+        }
+
+        /**
+         * Gets the JSON of the document, including its {@code _id}.
+         *
+         * @return the document, or null if it was removed
+         */
+        public String getDocument() {
+            return document;
+        }
+
+        /**
+         * Checks whether the document was removed.
+         *
+         * @return true if the document was removed
+         */
+        public boolean isRemoved() {
+            return document == null;
+        }
+
+        /**
+         * Checks whether the document is an edge. The type of removed documents
+         * is unknown, so they are never reported as edges.
+         *
+         * @return true if the document has {@code _from} and {@code _to}
+         */
+        public boolean isEdge() {
+            return from != null && to != null;
+        }
+
+        /**
+         * Gets the source vertex of an edge.
+         *
+         * @return the id of the source vertex, or null if the document is not
+         *         an edge
+         */
+        public String getFrom() {
+            return from;
+        }
+
+        /**
+         * Gets the target vertex of an edge.
+         *
+         * @return the id of the target vertex, or null if the document is not
+         *         an edge
+         */
+        public String getTo() {
+            return to;
+        }
+    }
+
+    /**
+     * The changes returned by a single tailing request.
+     */
+    public static final class Batch {
+        /**
+         * The changes, in log order.
+         */
+        private final List<Change> changes;
+
+        /**
+         * The tick of the last entry of the batch.
+         */
+        private final long lastIncluded;
+
+        /**
+         * The last tick scanned by the server.
+         */
+        private final long lastScanned;
+
+        /**
+         * Whether more entries are available.
+         */
+        private final boolean checkMore;
+
+        /**
+         * Whether the requested tick was still in the log.
+         */
+        private final boolean fromPresent;
+
+        /**
+         * Constructs a new Batch.
+         *
+         * @param changes      the changes, in log order
+         * @param lastIncluded the tick of the last entry, or 0 if there is none
+         * @param lastScanned  the last tick scanned by the server
+         * @param checkMore    whether more entries are available
+         * @param fromPresent  whether the requested tick was still in the log
+         */
+        Batch(List<Change> changes, long lastIncluded, long lastScanned, boolean checkMore, boolean fromPresent) {
+            this.changes = changes;
+            this.lastIncluded = lastIncluded;
+            this.lastScanned = lastScanned;
+            this.checkMore = checkMore;
+            this.fromPresent = fromPresent;
+        }
+
+        /**
+         * Gets the changes of the batch.
+         *
+         * @return the changes, in log order
+         */
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        /**
+         * Gets the tick of the last entry of the batch, from which the next
+         * request continues.
+         *
+         * @return the tick, or 0 if the batch has no entries
+         */
+        public long getLastIncluded() {
+            return lastIncluded;
+        }
+
+        /**
+         * Gets the last tick scanned by the server, which lets the next request
+         * skip the entries scanned without a match.
+         *
+         * @return the tick
+         */
+        public long getLastScanned() {
+            return lastScanned;
+        }
+
+        /**
+         * Checks whether more entries are available right away.
+         *
+         * @return true if the next request should be sent without waiting
+         */
+        public boolean isCheckMore() {
+            return checkMore;
+        }
+
+        /**
+         * Checks whether the requested tick was still in the log. If it was
+         * not, changes were missed and the documents must be read again.
+         *
+         * @return true if no changes were missed
+         */
+        public boolean isFromPresent() {
+            return fromPresent;
+        }
+    }
+
+    /**
+     * The HTTP client sending the requests.
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * The URI of the database, which the API paths are appended to.
+     */
+    private final String databaseUri;
+
+    /**
+     * The value of the authorization header.
+     */
+    private final String authorization;
+
+    /**
+     * The names of the collections of the database by their globally unique
+     * id.
+     */
+    private final Map<String, String> collectionNames = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new WalTailClient for the database of a connection.
+     *
+     * @param connectionDetails the connection details
+     */
+    public WalTailClient(ConnectionDetails connectionDetails) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        this.databaseUri = String.format("http://%1$s:%2$d/_db/%3$s", connectionDetails.getHost(),
+                connectionDetails.getPort(),
+                URLEncoder.encode(connectionDetails.getDatabase(), StandardCharsets.UTF_8));
+        String credentials = String.format("%1$s:%2$s", connectionDetails.getUser(),
+                connectionDetails.getPassword() == null ? "" : connectionDetails.getPassword());
+        this.authorization = "Basic "
+                + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the tick of the last entry written to the log, from which tailing
+     * starts.
+     *
+     * @return the tick
+     * @throws IOException if the request fails
+     */
+    public long getLastTick() throws IOException {
+        HttpResponse<String> response = send("/_api/wal/lastTick");
+        return parseObject(response.body()).get("tick").getAsLong();
+    }
+
+    /**
+     * Reads the changes written to the log after a tick.
+     *
+     * @param from        the tick after which changes are read
+     * @param lastScanned the last tick scanned by the previous request, or 0
+     * @return the changes and the position to continue from
+     * @throws IOException if the request fails
+     */
+    public Batch tail(long from, long lastScanned) throws IOException {
+        HttpResponse<String> response = send(String.format("/_api/wal/tail?from=%1$d&lastScanned=%2$d&chunkSize=%3$d",
+                from, lastScanned, CHUNK_SIZE));
+        List<Change> changes = new ArrayList<>();
+        if (response.statusCode() != 204) {
+            for (String line : response.body().split("\n")) {
+                if (!line.isBlank()) {
+                    Change change = parseChange(parseObject(line));
+                    if (change != null) {
+                        changes.add(change);
+                    }
+                }
+            }
+        }
+        return new Batch(changes, header(response, LAST_INCLUDED_HEADER), header(response, LAST_SCANNED_HEADER),
+                Boolean.parseBoolean(response.headers().firstValue(CHECK_MORE_HEADER).orElse("false")),
+                !"false".equals(response.headers().firstValue(FROM_PRESENT_HEADER).orElse("true")));
+    }
+
+    /**
+     * Converts a log entry to a change.
+     *
+     * @param entry the log entry
+     * @return the change, or null if the entry is not a document change or
+     *         belongs to an unknown collection
+     * @throws IOException if the collection list cannot be read
+     */
+    private Change parseChange(JsonObject entry) throws IOException {
+        int type = entry.has("type") ? entry.get("type").getAsInt() : 0;
+        if ((type != DOCUMENT_MARKER && type != REMOVE_MARKER) || !entry.has("data")) {
+            return null;
+        }
+        JsonObject data = entry.getAsJsonObject("data");
+        String collection = getCollectionName(entry);
+        if (collection == null || !data.has("_key")) {
+            return null;
+        }
+        String id = collection + "/" + data.get("_key").getAsString();
+        String revision = data.has("_rev") ? data.get("_rev").getAsString() : null;
+        if (type == REMOVE_MARKER) {
+            return new Change(id, revision, null, null, null);
+        }
+        data.addProperty("_id", id);
+        return new Change(id, revision, data.toString(), stringOrNull(data, "_from"), stringOrNull(data, "_to"));
+    }
+
+    /**
+     * Resolves the collection of a log entry, reading the collection list
+     * again if the collection was created since it was last read.
+     *
+     * @param entry the log entry
+     * @return the collection name, or null if it is unknown
+     * @throws IOException if the collection list cannot be read
+     */
+    private String getCollectionName(JsonObject entry) throws IOException {
+        if (entry.has("cname")) {
+            return entry.get("cname").getAsString();
+        }
+        if (!entry.has("cuid")) {
+            return null;
+        }
+        String cuid = entry.get("cuid").getAsString();
+        if (!collectionNames.containsKey(cuid)) {
+            loadCollectionNames();
+        }
+        return collectionNames.get(cuid);
+    }
+
+    /**
+     * Reads the names and globally unique ids of the collections of the
+     * database.
+     *
+     * @throws IOException if the request fails
+     */
+    void loadCollectionNames() throws IOException {
+        HttpResponse<String> response = send("/_api/collection?excludeSystem=true");
+        for (JsonElement element : parseObject(response.body()).getAsJsonArray("result")) {
+            JsonObject collection = element.getAsJsonObject();
+            if (collection.has("globallyUniqueId")) {
+                collectionNames.put(collection.get("globallyUniqueId").getAsString(),
+                        collection.get("name").getAsString());
+            }
+        }
+    }
+
+    /**
+     * Gets the names of the collections read so far by their globally unique
+     * id.
+     *
+     * @return the collection names
+     */
+    Map<String, String> getCollectionNames() {
+        return Collections.unmodifiableMap(collectionNames);
+    }
+
+    /**
+     * Sends a GET request to the database.
+     *
+     * @param path the API path and query string
+     * @return the response
+     * @throws IOException if the request fails or returns an error
+     */
+    private HttpResponse<String> send(String path) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(databaseUri + path))
+                .header("Authorization", authorization).timeout(Duration.ofSeconds(30)).GET().build();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading the write-ahead log", e);
+        }
+        if (response.statusCode() >= 300) {
+            String message = response.body();
+            try {
+                JsonObject error = parseObject(message);
+                if (error.has("errorMessage")) {
+                    message = error.get("errorMessage").getAsString();
+                }
+            } catch (IOException e) {
+                // keep the raw body as the message
+            }
+            throw new IOException(String.format("Request to %1$s failed with status %2$d: %3$s", path,
+                    response.statusCode(), message));
+        }
+        return response;
+    }
+
+    /**
+     * Parses a JSON object.
+     *
+     * @param json the JSON text
+     * @return the object
+     * @throws IOException if the text is not a JSON object
+     */
+    private static JsonObject parseObject(String json) throws IOException {
+        try {
+            return JsonParser.parseString(json).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Invalid response from the write-ahead log API", e);
+        }
+    }
+
+    /**
+     * Reads a string attribute of a document.
+     *
+     * @param data the document
+     * @param name the attribute name
+     * @return the value, or null if the attribute is missing or not a string
+     */
+    private static String stringOrNull(JsonObject data, String name) {
+        JsonElement value = data.get(name);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    /**
+     * Reads a tick from a response header.
+     *
+     * @param response the response
+     * @param name     the header name
+     * @return the tick, or 0 if the header is missing
+     */
+    private static long header(HttpResponse<String> response, String name) {
+        return Long.parseLong(response.headers().firstValue(name).orElse("0"));
+    }
+}
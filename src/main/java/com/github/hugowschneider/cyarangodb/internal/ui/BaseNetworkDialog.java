@@ -2,31 +2,34 @@ package com.github.hugowschneider.cyarangodb.internal.ui;
 
 import java.awt.BorderLayout;
 import java.awt.Component;
+import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTable;
+import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
-import javax.swing.SwingWorker;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import org.fife.ui.autocomplete.AutoCompletion;
 import org.fife.ui.rsyntaxtextarea.AbstractTokenMakerFactory;
@@ -38,18 +41,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.arangodb.ArangoDatabase;
-import com.arangodb.util.RawJson;
 import com.github.hugowschneider.cyarangodb.internal.aql.AQLCompletionProvider;
+import com.github.hugowschneider.cyarangodb.internal.aql.AqlParser;
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionDetails;
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryEstimate;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryGuardrails;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryHistoryStore;
+import com.github.hugowschneider.cyarangodb.internal.connection.SchemaCatalog;
 import com.github.hugowschneider.cyarangodb.internal.flex.AqlTokenMaker;
-import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata;
-import com.github.hugowschneider.cyarangodb.internal.network.ImportNetworkException;
 
 /**
  * An abstract base class for dialogs that interact with ArangoDB networks.
- * Provides common functionality for executing queries and managing query
- * history.
+ * Provides common functionality for entering queries and managing query
+ * history. Subclasses decide how the entered query and the queries of the
+ * history are executed; {@link QueryResultDialog} runs them one at a time.
  */
 public abstract class BaseNetworkDialog extends JDialog {
     /**
@@ -120,13 +126,52 @@ public abstract class BaseNetworkDialog extends JDialog {
     /**
      * The model for the history table.
      */
-    protected final DefaultTableModel historyTableModel;
+    protected final HistoryTableModel historyTableModel;
+
+    /**
+     * The dropdown for selecting the order of the history table.
+     */
+    private final JComboBox<QueryHistoryStore.Order> historyOrderDropdown;
+
+    /**
+     * The text field for searching the history table.
+     */
+    private final JTextField historySearchField;
 
     /**
      * The completion provider for AQL auto-completion.
      */
     private AQLCompletionProvider completionProvider;
 
+    /**
+     * The parser validating the query on the server while it is typed.
+     */
+    private AqlParser queryParser;
+
+    /**
+     * The schema catalog of the selected connection, null if none is selected.
+     */
+    private SchemaCatalog schemaCatalog;
+
+    /**
+     * Warns that auto-completion is limited when the schema of the selected
+     * connection cannot be loaded. The catalog reports a failure once until it
+     * loads the schema again, so the warning is not repeated while the server
+     * stays unreachable.
+     */
+    private final SchemaCatalog.Listener schemaErrorListener = new SchemaCatalog.Listener() {
+        @Override
+        public void catalogRefreshed(SchemaCatalog catalog, SchemaCatalog.Snapshot snapshot) {
+        }
+
+        @Override
+        public void catalogFailed(SchemaCatalog catalog, Exception error) {
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(BaseNetworkDialog.this,
+                    "Error connecting to database. Some auto-completion features may not work.",
+                    "Error connecting to database", JOptionPane.ERROR_MESSAGE));
+        }
+    };
+
     /**
      * The tabbed pane for switching between query and history views.
      */
@@ -184,10 +229,11 @@ public abstract class BaseNetworkDialog extends JDialog {
 
         setupCodeStyles(queryTextArea);
         setupAutoCompletion(queryTextArea);
+        setupValidation(queryTextArea);
 
         RTextScrollPane scrollPane = new RTextScrollPane(queryTextArea);
 
-        historyTableModel = new DefaultTableModel(new Object[] { "Executed At", "Query", "Run", "Copy", "Delete" }, 0);
+        historyTableModel = new HistoryTableModel(connectionManager);
         historyTable = new JTable(historyTableModel);
         historyTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         historyTable.getColumn("Run").setCellRenderer(new ButtonRenderer("Run"));
@@ -198,6 +244,37 @@ public abstract class BaseNetworkDialog extends JDialog {
         historyTable.getColumn("Delete")
                 .setCellEditor(new ButtonEditor(new JCheckBox(), "Delete", e -> deleteHistory()));
 
+        historyOrderDropdown = new JComboBox<>(QueryHistoryStore.Order.values());
+        historyOrderDropdown.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                String label = value == QueryHistoryStore.Order.FREQUENT ? "Most Frequent" : "Most Recent";
+                return super.getListCellRendererComponent(list, label, index, isSelected, cellHasFocus);
+            }
+        });
+        historyOrderDropdown.addActionListener(e -> updateHistoryList());
+
+        historySearchField = new JTextField(30);
+        historySearchField.setToolTipText(
+                "Search for identifiers, collection names or string literals, e.g. imdb_edges OUTBOUND");
+        historySearchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                updateHistoryList();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                updateHistoryList();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                updateHistoryList();
+            }
+        });
+
         // Setup UI
         JPanel topPanel = new JPanel(new BorderLayout());
         topPanel.add(connectionDropdown, BorderLayout.NORTH);
@@ -219,7 +296,20 @@ public abstract class BaseNetworkDialog extends JDialog {
         queryPanel.add(scrollPane, BorderLayout.CENTER);
         tabbedPane.addTab("Query", queryPanel);
 
+        JPanel historySearchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        historySearchPanel.add(new JLabel("Search:"));
+        historySearchPanel.add(historySearchField);
+
+        JPanel historyOrderPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        historyOrderPanel.add(new JLabel("Sort by:"));
+        historyOrderPanel.add(historyOrderDropdown);
+
+        JPanel historyToolbar = new JPanel(new BorderLayout());
+        historyToolbar.add(historySearchPanel, BorderLayout.CENTER);
+        historyToolbar.add(historyOrderPanel, BorderLayout.EAST);
+
         JPanel historyPanel = new JPanel(new BorderLayout());
+        historyPanel.add(historyToolbar, BorderLayout.NORTH);
         historyPanel.add(new JScrollPane(historyTable), BorderLayout.CENTER);
         tabbedPane.addTab("History", historyPanel);
 
@@ -274,59 +364,125 @@ public abstract class BaseNetworkDialog extends JDialog {
         AutoCompletion ac = new AutoCompletion(completionProvider);
 
         ac.install(textArea);
+        completionProvider.enableAsynchronousLookups(ac);
     }
 
     /**
-     * Processes the query result.
+     * Sets up the validation of the query on the server while it is typed.
      *
-     * @param docs     the list of RawJson documents
-     * @param database the ArangoDatabase instance
-     * @param metadata the metadata of the network
-     * @throws ImportNetworkException if an error occurs during network import
+     * @param textArea the query text area
      */
-    protected abstract void processQueryResult(List<RawJson> docs, ArangoDatabase database,
-            ArangoNetworkMetadata metadata)
-            throws ImportNetworkException;
+    protected void setupValidation(RSyntaxTextArea textArea) {
+        this.queryParser = new AqlParser();
+        queryParser.install(textArea);
+    }
 
     /**
-     * Executes the query entered in the query text area.
+     * Disposes the dialog, stops pending auto-completion lookups and query
+     * validations, and stops listening to the schema catalog.
+     */
+    @Override
+    public void dispose() {
+        if (schemaCatalog != null) {
+            schemaCatalog.removeListener(schemaErrorListener);
+        }
+        if (completionProvider != null) {
+            completionProvider.close();
+        }
+        if (queryParser != null) {
+            queryParser.close();
+        }
+        super.dispose();
+    }
+
+    /**
+     * Gets the id of the connection selected in the connection dropdown.
+     *
+     * @return the connection id, or null if no connection is selected
      */
-    protected void executeQuery() {
-        String query = queryTextArea.getText();
+    protected String getSelectedConnectionId() {
         ComboBoxItem item = (ComboBoxItem) connectionDropdown.getSelectedItem();
-        JDialog waitDialog = createWaitDialog();
+        return item == null ? null : item.getValue();
+    }
 
-        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                try {
-                    List<RawJson> docs = connectionManager.execute(item.getValue(), query);
-                    if (docs.isEmpty()) {
-                        throw new ImportNetworkException("No results found for query");
-                    }
-                    processQueryResult(docs, connectionManager.getArangoDatabase(item.getValue()),
-                            new ArangoNetworkMetadata(query, item.getValue()));
-                    updateHistoryList();
-                    BaseNetworkDialog.this.dispose();
-                } catch (ImportNetworkException e) {
-                    JOptionPane.showMessageDialog(BaseNetworkDialog.this, e.getMessage(), "Error Importing Network",
-                            JOptionPane.ERROR_MESSAGE);
-                } catch (Exception e) {
-                    LOGGER.error(e.getMessage(), e);
-                    JOptionPane.showMessageDialog(BaseNetworkDialog.this, e.getMessage(), "Error executing query",
-                            JOptionPane.ERROR_MESSAGE);
-                }
-                return null;
-            }
+    /**
+     * Executes the query entered in the query text area.
+     */
+    protected abstract void executeQuery();
 
-            @Override
-            protected void done() {
-                waitDialog.dispose();
-            }
-        };
+    /**
+     * Explains the query and checks its estimates against the guardrails of the
+     * connection. If the query is above the thresholds the user can run it
+     * anyway, where allowed, run a preview limited to a few documents or cancel.
+     * This runs on a background thread, so the choice is asked on the event
+     * dispatch thread.
+     *
+     * @param connectionId the connection id
+     * @param query        the query to check
+     * @return the query to run, or null if the user cancelled
+     * @throws InterruptedException      if interrupted while waiting for the
+     *                                   choice of the user
+     * @throws InvocationTargetException if asking the user fails
+     */
+    protected String checkGuardrails(String connectionId, String query)
+            throws InterruptedException, InvocationTargetException {
+        QueryGuardrails guardrails = connectionManager.getConnection(connectionId).getGuardrails();
+        if (!guardrails.isExplainBeforeRun()) {
+            return query;
+        }
+        QueryEstimate estimate = connectionManager.explain(connectionId, query);
+        QueryGuardrails.Verdict verdict = guardrails.evaluate(estimate);
+        if (verdict == QueryGuardrails.Verdict.ACCEPT) {
+            return query;
+        }
+
+        String preview = String.format("Preview %1$d Results", guardrails.getPreviewLimit());
+        String cancel = "Cancel";
+        String message;
+        Object[] options;
+        if (verdict == QueryGuardrails.Verdict.REFUSE) {
+            message = String.format(
+                    "The query is estimated to return %1$d items with a cost of %2$.0f, which is above the limits "
+                            + "configured for this connection.%nYou can run a preview limited to %3$d results instead.",
+                    estimate.getEstimatedNrItems(), estimate.getEstimatedCost(), guardrails.getPreviewLimit());
+            options = new Object[] { preview, cancel };
+        } else {
+            message = String.format(
+                    "The query is estimated to return %1$d items with a cost of %2$.0f.%n"
+                            + "Importing it may take a long time and use a lot of memory.",
+                    estimate.getEstimatedNrItems(), estimate.getEstimatedCost());
+            options = new Object[] { "Run Anyway", preview, cancel };
+        }
+        int choice = showOptionDialog(message, options, preview);
+        if (choice < 0 || options[choice] == cancel) {
+            return null;
+        }
+        return options[choice] == preview ? guardrails.toPreviewQuery(query) : query;
+    }
 
-        worker.execute();
-        waitDialog.setVisible(true);
+    /**
+     * Asks the user to choose how to run a large query, waiting on the event
+     * dispatch thread for the answer.
+     *
+     * @param message       the message describing the estimates
+     * @param options       the options to choose from
+     * @param initialOption the option selected by default
+     * @return the index of the chosen option, or a negative value if the
+     *         dialog was closed
+     * @throws InterruptedException      if interrupted while waiting for the
+     *                                   answer
+     * @throws InvocationTargetException if showing the dialog fails
+     */
+    private int showOptionDialog(String message, Object[] options, Object initialOption)
+            throws InterruptedException, InvocationTargetException {
+        if (SwingUtilities.isEventDispatchThread()) {
+            return JOptionPane.showOptionDialog(this, message, "Large Query", JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.WARNING_MESSAGE, null, options, initialOption);
+        }
+        AtomicInteger choice = new AtomicInteger(JOptionPane.CLOSED_OPTION);
+        SwingUtilities.invokeAndWait(() -> choice.set(JOptionPane.showOptionDialog(this, message, "Large Query",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null, options, initialOption)));
+        return choice.get();
     }
 
     /**
@@ -334,64 +490,35 @@ public abstract class BaseNetworkDialog extends JDialog {
      */
     protected void updateHistoryList() {
         ComboBoxItem item = (ComboBoxItem) connectionDropdown.getSelectedItem();
-        List<ConnectionDetails.QueryHistory> history = connectionManager.getQueryHistory(item.getValue());
-
-        Collections.sort(history, Comparator.comparing(ConnectionDetails.QueryHistory::getExecutedAt).reversed());
-
-        historyTableModel.setRowCount(0);
+        historyTableModel.load(item == null ? null : item.getValue(), getHistoryOrder(),
+                historySearchField.getText());
+    }
 
-        for (ConnectionDetails.QueryHistory entry : history) {
-            historyTableModel.addRow(new Object[] { entry.getExecutedAt(), entry.getQuery(), "Run", "Copy", "Delete" });
-        }
+    /**
+     * Gets the order selected for the history table.
+     *
+     * @return the selected order
+     */
+    private QueryHistoryStore.Order getHistoryOrder() {
+        QueryHistoryStore.Order order = (QueryHistoryStore.Order) historyOrderDropdown.getSelectedItem();
+        return order == null ? QueryHistoryStore.Order.RECENT : order;
     }
 
     /**
      * Runs the selected query from the history list.
      */
-    protected void runHistory() {
-
-        // Create and display the wait dialog
-        JDialog waitDialog = createWaitDialog();
-
-        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                int row = historyTable.getSelectedRow();
-                ComboBoxItem item = (ComboBoxItem) connectionDropdown.getSelectedItem();
-
-                try {
-                    List<RawJson> docs = connectionManager.runHistory(item.getValue(), row);
-
-                    ArangoDatabase database = connectionManager.getArangoDatabase(item.getValue());
-                    processQueryResult(docs, database,
-                            new ArangoNetworkMetadata(
-                                    connectionManager.getQueryHistory(item.getValue()).get(row).getQuery(),
-                                    item.getValue()));
-                } catch (Exception ex) {
-                    LOGGER.error(ex.getMessage(), ex);
-                    JOptionPane.showMessageDialog(BaseNetworkDialog.this, ex.getMessage());
-                }
-                return null;
-            }
-
-            @Override
-            protected void done() {
-                waitDialog.dispose();
-                BaseNetworkDialog.this.dispose();
-            }
-        };
-
-        worker.execute();
-        waitDialog.setVisible(true);
-    }
+    protected abstract void runHistory();
 
     /**
      * Copies the selected query from the history list to the query text area.
      */
     protected void copyQuery() {
         int row = historyTable.getSelectedRow();
-        String query = (String) historyTableModel.getValueAt(row, 1);
-        queryTextArea.setText(query);
+        ConnectionDetails.QueryHistory entry = historyTableModel.getEntry(row);
+        if (entry == null) {
+            return;
+        }
+        queryTextArea.setText(entry.getQuery());
         tabbedPane.setSelectedIndex(0);
 
     }
@@ -400,27 +527,29 @@ public abstract class BaseNetworkDialog extends JDialog {
      * Deletes the selected query from the history list.
      */
     protected void deleteHistory() {
-        int row = historyTable.getSelectedRow();
+        ConnectionDetails.QueryHistory entry = historyTableModel.getEntry(historyTable.getSelectedRow());
+        if (entry == null) {
+            return;
+        }
         ComboBoxItem item = (ComboBoxItem) connectionDropdown.getSelectedItem();
-        connectionManager.deleteQueryHistory(item.getValue(), row);
+        connectionManager.deleteQueryHistory(item.getValue(), entry);
         updateHistoryList();
     }
 
     private void updateCompletionProvider() {
-        ArangoDatabase database = connectionManager
-                .getArangoDatabase(((ComboBoxItem) connectionDropdown.getSelectedItem()).getValue());
-
-        SwingUtilities.invokeLater(() -> {
-            try {
-                database.getVersion();
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Error connecting to database",
-                        "Error connecting to database. Some auto-completion features may not work.",
-                        JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            this.completionProvider.setDatabase(database);
-        });
+        String connectionId = ((ComboBoxItem) connectionDropdown.getSelectedItem()).getValue();
+        ArangoDatabase database = connectionManager.getArangoDatabase(connectionId);
+        ConnectionDetails connection = connectionManager.getConnection(connectionId);
+
+        if (schemaCatalog != null) {
+            schemaCatalog.removeListener(schemaErrorListener);
+        }
+        schemaCatalog = connectionManager.getSchemaCatalog(connectionId);
+        schemaCatalog.addListener(schemaErrorListener);
+        this.completionProvider.setIdCompletion(connection.getIdCompletion());
+        this.completionProvider.setDatabase(database, schemaCatalog,
+                connectionManager.getNodeIdCache(connectionId));
+        this.queryParser.setDatabase(database);
     }
 
     /**
@@ -446,7 +575,7 @@ public abstract class BaseNetworkDialog extends JDialog {
      *
      * @return the wait dialog
      */
-    private JDialog createWaitDialog() {
+    protected JDialog createWaitDialog() {
         JDialog waitDialog = new JDialog(this, "Please Wait", true);
         waitDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
         waitDialog.setSize(300, 100);
@@ -11,6 +11,7 @@ import javax.swing.JDialog;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
 
 import org.cytoscape.model.CyEdge;
@@ -20,14 +21,124 @@ import org.cytoscape.model.CyRow;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
 import org.fife.ui.rtextarea.RTextScrollPane;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.arangodb.ArangoCollection;
+import com.arangodb.ArangoDatabase;
+import com.arangodb.model.DocumentReadOptions;
+import com.arangodb.util.RawJson;
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata;
 import com.github.hugowschneider.cyarangodb.internal.network.Constants;
+import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
+import com.google.gson.Gson;
 
 /**
  * A dialog that displays detailed information about a node or edge in a network.
  */
 public class DetailDialog extends JDialog {
+    /**
+     * The result of a conditional read of a document.
+     *
+     * @param <T> the type of the document
+     */
+    static final class FetchResult<T> {
+        /**
+         * The document, or null if it did not change or no longer exists.
+         */
+        private final T document;
+
+        /**
+         * Whether the document still exists.
+         */
+        private final boolean exists;
+
+        /**
+         * Constructs a new FetchResult.
+         *
+         * @param document the document, or null if it did not change or no
+         *                 longer exists
+         * @param exists   whether the document still exists
+         */
+        FetchResult(T document, boolean exists) {
+            this.document = document;
+            this.exists = exists;
+        }
+
+        /**
+         * Gets the document read because its revision changed.
+         *
+         * @return the document, or null if it did not change or no longer exists
+         */
+        T getDocument() {
+            return document;
+        }
+
+        /**
+         * Checks whether the document changed since the revision it was read
+         * against.
+         *
+         * @return true if the document was read
+         */
+        boolean isChanged() {
+            return document != null;
+        }
+
+        /**
+         * Checks whether the document still exists.
+         *
+         * @return true if the document exists
+         */
+        boolean exists() {
+            return exists;
+        }
+    }
+
+    /**
+     * The logger for the DetailDialog class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(DetailDialog.class);
+
+    /**
+     * The network manager holding the adapter of the network.
+     */
+    private final NetworkManager networkManager;
+
+    /**
+     * The connection manager providing the database of the network.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * The network containing the node or edge.
+     */
+    private final CyNetwork network;
+
+    /**
+     * The row of the node or edge, null until the dialog is filled.
+     */
+    private CyRow row;
+
+    /**
+     * Whether the dialog displays an edge.
+     */
+    private final boolean isEdge;
+
+    /**
+     * Label to display the revision.
+     */
+    private JLabel revisionLabel;
+
+    /**
+     * Label to display the outcome of the last refresh.
+     */
+    private JLabel statusLabel;
+
+    /**
+     * Button to read the document again from the database.
+     */
+    private JButton refreshButton;
     /**
      * Label to display the ID.
      */
@@ -66,18 +177,21 @@ public class DetailDialog extends JDialog {
     /**
      * Constructs a new DetailDialog for an edge.
      *
+     * @param networkManager    the network manager
      * @param connectionManager the connection manager
      * @param parent            the parent frame
      * @param edge              the edge to display details for
      * @param network           the network containing the edge
      */
-    public DetailDialog(ConnectionManager connectionManager, JFrame parent, CyEdge edge, CyNetwork network) {
-        this(connectionManager, parent, network, true);
+    public DetailDialog(NetworkManager networkManager, ConnectionManager connectionManager, JFrame parent,
+            CyEdge edge, CyNetwork network) {
+        this(networkManager, connectionManager, parent, network, true);
 
-        CyRow row = network.getDefaultEdgeTable().getRow(edge.getSUID());
+        row = network.getDefaultEdgeTable().getRow(edge.getSUID());
         idLabel.setText(row.get(Constants.EdgeColumns.ID, String.class));
         keyLabel.setText(row.get(Constants.EdgeColumns.KEY, String.class));
         collectionLabel.setText(row.get(Constants.EdgeColumns.COLLECTION, String.class));
+        revisionLabel.setText(row.get(Constants.EdgeColumns.REVISION, String.class));
         fromLabel.setText(row.get(Constants.EdgeColumns.FROM, String.class));
         toLabel.setText(row.get(Constants.EdgeColumns.TO, String.class));
         jsonTextArea.setText(row.get(Constants.EdgeColumns.DATA, String.class));
@@ -86,30 +200,39 @@ public class DetailDialog extends JDialog {
     /**
      * Constructs a new DetailDialog for a node.
      *
+     * @param networkManager    the network manager
      * @param connectionManager the connection manager
      * @param parent            the parent frame
      * @param node              the node to display details for
      * @param network           the network containing the node
      */
-    public DetailDialog(ConnectionManager connectionManager, JFrame parent, CyNode node, CyNetwork network) {
-        this(connectionManager, parent, network, false);
-        CyRow row = network.getDefaultNodeTable().getRow(node.getSUID());
+    public DetailDialog(NetworkManager networkManager, ConnectionManager connectionManager, JFrame parent,
+            CyNode node, CyNetwork network) {
+        this(networkManager, connectionManager, parent, network, false);
+        row = network.getDefaultNodeTable().getRow(node.getSUID());
         idLabel.setText(row.get(Constants.NodeColumns.ID, String.class));
         keyLabel.setText(row.get(Constants.NodeColumns.KEY, String.class));
         collectionLabel.setText(row.get(Constants.NodeColumns.COLLECTION, String.class));
+        revisionLabel.setText(row.get(Constants.NodeColumns.REVISION, String.class));
         jsonTextArea.setText(row.get(Constants.NodeColumns.DATA, String.class));
     }
 
     /**
      * Constructs a new DetailDialog.
      *
+     * @param networkManager    the network manager
      * @param connectionManager the connection manager
      * @param parent            the parent frame
      * @param network           the network containing the node or edge
      * @param isEdge            true if the dialog is for an edge, false if it is for a node
      */
-    private DetailDialog(ConnectionManager connectionManager, JFrame parent, CyNetwork network, boolean isEdge) {
+    private DetailDialog(NetworkManager networkManager, ConnectionManager connectionManager, JFrame parent,
+            CyNetwork network, boolean isEdge) {
         super(parent, "Detail Dialog", true);
+        this.networkManager = networkManager;
+        this.connectionManager = connectionManager;
+        this.network = network;
+        this.isEdge = isEdge;
         setLayout(new BorderLayout());
 
         // Header Panel
@@ -122,6 +245,8 @@ public class DetailDialog extends JDialog {
         headerPanel.add(createLabelPanel("ID: ", "", idLabel));
         headerPanel.add(createLabelPanel("Key: ", "", keyLabel));
         headerPanel.add(createLabelPanel("Collection: ", "", collectionLabel));
+        revisionLabel = new JLabel();
+        headerPanel.add(createLabelPanel("Revision: ", "", revisionLabel));
 
         if (isEdge) {
             fromLabel = new JLabel();
@@ -151,7 +276,7 @@ public class DetailDialog extends JDialog {
         });
 
         // Refresh Button
-        JButton refreshButton = new JButton("Refresh");
+        refreshButton = new JButton("Refresh");
         refreshButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -159,7 +284,9 @@ public class DetailDialog extends JDialog {
             }
         });
 
+        statusLabel = new JLabel();
         JPanel buttonPanel = new JPanel();
+        buttonPanel.add(statusLabel);
         buttonPanel.add(refreshButton);
         buttonPanel.add(closeButton);
         add(buttonPanel, BorderLayout.SOUTH);
@@ -169,10 +296,101 @@ public class DetailDialog extends JDialog {
     }
 
     /**
-     * Refreshes the dialog with updated information.
+     * Refreshes the dialog with updated information. The document is read
+     * in the background with its current revision as an If-None-Match
+     * condition, so its body is only transferred if it changed, in which case
+     * the row is updated through the adapter of the network, along with the
+     * documents it keeps for the nodes.
      */
     private void refresh() {
-        // Define refresh behavior here
+        String idColumn = isEdge ? Constants.EdgeColumns.ID : Constants.NodeColumns.ID;
+        String revisionColumn = isEdge ? Constants.EdgeColumns.REVISION : Constants.NodeColumns.REVISION;
+        String id = row.get(idColumn, String.class);
+        String revision = row.get(revisionColumn, String.class);
+        refreshButton.setEnabled(false);
+        statusLabel.setText("Checking for changes...");
+
+        SwingWorker<FetchResult<RawJson>, Void> worker = new SwingWorker<FetchResult<RawJson>, Void>() {
+            @Override
+            protected FetchResult<RawJson> doInBackground() throws Exception {
+                ArangoDatabase database = connectionManager.getArangoDatabase(getConnectionId());
+                return fetchIfChanged(database, id, revision, RawJson.class);
+            }
+
+            @Override
+            protected void done() {
+                refreshButton.setEnabled(true);
+                FetchResult<RawJson> result;
+                try {
+                    result = get();
+                } catch (Exception e) {
+                    LOGGER.error(e.getMessage(), e);
+                    statusLabel.setText(String.format("Refresh failed: %1$s", e.getMessage()));
+                    return;
+                }
+                if (!result.exists()) {
+                    statusLabel.setText("The document no longer exists");
+                } else if (!result.isChanged()) {
+                    statusLabel.setText("The document has not changed");
+                } else if (update(result.getDocument())) {
+                    statusLabel.setText("The document was updated");
+                } else {
+                    statusLabel.setText("The network is no longer linked to ArangoDB");
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * Writes a document read from the database to the row through the network
+     * manager, and shows the updated row in the dialog.
+     *
+     * @param document the document
+     * @return false if the network was not imported from ArangoDB
+     */
+    private boolean update(RawJson document) {
+        if (!networkManager.updateDocument(network, document.get())) {
+            return false;
+        }
+        revisionLabel.setText(row.get(isEdge ? Constants.EdgeColumns.REVISION : Constants.NodeColumns.REVISION,
+                String.class));
+        jsonTextArea.setText(row.get(isEdge ? Constants.EdgeColumns.DATA : Constants.NodeColumns.DATA, String.class));
+        return true;
+    }
+
+    /**
+     * Gets the connection the network was imported from.
+     *
+     * @return the connection uuid
+     */
+    private String getConnectionId() {
+        String metadata = network.getDefaultNetworkTable().getRow(network.getSUID())
+                .get(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, String.class);
+        return new Gson().fromJson(metadata, ArangoNetworkMetadata.class).getConnectionId();
+    }
+
+    /**
+     * Reads a document unless its revision is unchanged. The revision is sent as
+     * an If-None-Match condition, so the body is only transferred if the
+     * document changed. If the server answers without a document, a header-only
+     * request tells whether it is unchanged or gone.
+     *
+     * @param <T>      the type of the document
+     * @param database the database to read from
+     * @param id       the document id
+     * @param revision the known revision of the document
+     * @param type     the type of the document
+     * @return the result of the read
+     */
+    static <T> FetchResult<T> fetchIfChanged(ArangoDatabase database, String id, String revision, Class<T> type) {
+        String[] parts = id.split("/", 2);
+        ArangoCollection collection = database.collection(parts[0]);
+        T document = collection.getDocument(parts[1], type, new DocumentReadOptions().ifNoneMatch(revision));
+        if (document != null) {
+            return new FetchResult<>(document, true);
+        }
+        return new FetchResult<>(null, Boolean.TRUE.equals(collection.documentExists(parts[1])));
     }
 
     /**
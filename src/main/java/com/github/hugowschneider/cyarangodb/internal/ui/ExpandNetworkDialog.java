@@ -3,6 +3,7 @@ package com.github.hugowschneider.cyarangodb.internal.ui;
 import java.awt.Component;
 import java.util.List;
 
+import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 
@@ -12,14 +13,17 @@ import org.cytoscape.view.model.CyNetworkView;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.util.RawJson;
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryStatistics;
 import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata;
+import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata.NetworkExpansionMetadata;
+import com.github.hugowschneider.cyarangodb.internal.network.ExpansionFilter;
 import com.github.hugowschneider.cyarangodb.internal.network.ImportNetworkException;
 import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
 
 /**
  * A dialog for expanding a node in a network.
  */
-public class ExpandNetworkDialog extends BaseNetworkDialog {
+public class ExpandNetworkDialog extends QueryResultDialog {
 
     /**
      * The view of the network containing the node.
@@ -31,6 +35,12 @@ public class ExpandNetworkDialog extends BaseNetworkDialog {
      */
     private NetworkManager networkManager;
 
+    /**
+     * The check box choosing to only fetch elements not already in the
+     * network.
+     */
+    private JCheckBox newOnlyCheckBox;
+
     /**
      * Constructs a new ExpandNodeDialog.
      *
@@ -49,30 +59,48 @@ public class ExpandNetworkDialog extends BaseNetworkDialog {
     /**
      * Processes the query result and expands the network.
      *
-     * @param docs     the list of RawJson documents
-     * @param database the ArangoDatabase instance
-     * @param metadata the metadata of the network
+     * @param docs       the list of RawJson documents
+     * @param database   the ArangoDatabase instance
+     * @param metadata   the metadata of the network
+     * @param statistics the statistics of the query that produced the documents
      * @throws ImportNetworkException if an error occurs during network import
      */
     @Override
-    protected void processQueryResult(List<RawJson> docs, ArangoDatabase database, ArangoNetworkMetadata metadata)
-            throws ImportNetworkException {
+    protected void processQueryResult(List<RawJson> docs, ArangoDatabase database, ArangoNetworkMetadata metadata,
+            QueryStatistics statistics) throws ImportNetworkException {
 
-        List<CyNode> result = networkManager.expandNetwork(docs, networkView, database,
-                new ArangoNetworkMetadata.NetworkExpansionMetadata(metadata.getQuery(),
-                        metadata.getConnectionId()));
+        NetworkExpansionMetadata expansionMetadata = new NetworkExpansionMetadata(metadata.getQuery(),
+                metadata.getConnectionId());
+        expansionMetadata.setTruncation(metadata.getTruncation());
+        List<CyNode> result = networkManager.expandNetwork(docs, networkView, database, expansionMetadata,
+                statistics);
         JOptionPane.showMessageDialog(this,
                 String.format("Network was expanded with %1$d nodes", result.size()));
     }
 
     /**
-     * Renders the top component of the dialog.
+     * Renders the top component of the dialog, holding the choice to only
+     * fetch new elements.
      *
-     * @return the top component, or null if there is no top component
+     * @return the top component
      */
     @Override
     protected Component renderTopComponent() {
-        return null;
+        newOnlyCheckBox = new JCheckBox("Only fetch nodes and edges not already in the network", true);
+        newOnlyCheckBox.setToolTipText(
+                "Filters the query results on the server, so that elements already in the network are not transferred");
+        return newOnlyCheckBox;
+    }
+
+    /**
+     * Creates the filter leaving out the elements already in the network,
+     * unless the user chose to fetch all elements.
+     *
+     * @return the filter, or null to run the query as entered
+     */
+    @Override
+    protected ExpansionFilter createExpansionFilter() {
+        return newOnlyCheckBox.isSelected() ? networkManager.createExpansionFilter(networkView.getModel()) : null;
     }
 
     /**
@@ -8,6 +8,7 @@ import java.util.List;
 
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JEditorPane;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -20,8 +21,11 @@ import org.cytoscape.view.model.View;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.util.RawJson;
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryStatistics;
 import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata;
+import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata.NodeExpansionMetadata;
 import com.github.hugowschneider.cyarangodb.internal.network.Constants;
+import com.github.hugowschneider.cyarangodb.internal.network.ExpansionFilter;
 import com.github.hugowschneider.cyarangodb.internal.network.ImportNetworkException;
 import com.github.hugowschneider.cyarangodb.internal.network.NetworkImportResult;
 import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
@@ -29,7 +33,7 @@ import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
 /**
  * A dialog for expanding a node in a network.
  */
-public class ExpandNodeDialog extends BaseNetworkDialog {
+public class ExpandNodeDialog extends QueryResultDialog {
     /**
      * The view of the node to be expanded.
      */
@@ -50,6 +54,12 @@ public class ExpandNodeDialog extends BaseNetworkDialog {
      */
     private JEditorPane instructionText;
 
+    /**
+     * The check box choosing to only fetch elements not already in the
+     * network.
+     */
+    private JCheckBox newOnlyCheckBox;
+
     /**
      * Constructs a new ExpandNodeDialog.
      *
@@ -95,31 +105,49 @@ public class ExpandNodeDialog extends BaseNetworkDialog {
     /**
      * Processes the query result and expands the network.
      *
-     * @param docs     the list of RawJson documents
-     * @param database the ArangoDatabase instance
-     * @param metadata the metadata of the network
+     * @param docs       the list of RawJson documents
+     * @param database   the ArangoDatabase instance
+     * @param metadata   the metadata of the network
+     * @param statistics the statistics of the query that produced the documents
      * @throws ImportNetworkException if an error occurs during network import
      */
     @Override
-    protected void processQueryResult(List<RawJson> docs, ArangoDatabase database, ArangoNetworkMetadata metadata)
-            throws ImportNetworkException {
+    protected void processQueryResult(List<RawJson> docs, ArangoDatabase database, ArangoNetworkMetadata metadata,
+            QueryStatistics statistics) throws ImportNetworkException {
         String nodeId = networkView.getModel().getDefaultNodeTable().getRow(networkView.getModel().getSUID()).get(
                 Constants.NodeColumns.ID, String.class);
-        List<CyNode> result = networkManager.expandNetwork(docs, networkView, nodeView, database,
-                new ArangoNetworkMetadata.NodeExpansionMetadata(nodeId, metadata.getQuery(),
-                        metadata.getConnectionId()));
+        NodeExpansionMetadata expansionMetadata = new NodeExpansionMetadata(nodeId, metadata.getQuery(),
+                metadata.getConnectionId());
+        expansionMetadata.setTruncation(metadata.getTruncation());
+        List<CyNode> result = networkManager.expandNetwork(docs, networkView, nodeView, database, expansionMetadata,
+                statistics, newOnlyCheckBox.isSelected());
         JOptionPane.showMessageDialog(this,
                 String.format("Network was expanded with %1$d nodes", result.size()));
     }
 
     /**
-     * Renders the top component of the dialog.
+     * Renders the top component of the dialog, holding the choice to only
+     * fetch new elements.
      *
-     * @return the top component, or null if there is no top component
+     * @return the top component
      */
     @Override
     protected Component renderTopComponent() {
-        return null;
+        newOnlyCheckBox = new JCheckBox("Only fetch nodes and edges not already in the network", true);
+        newOnlyCheckBox.setToolTipText(
+                "Filters the query results on the server, so that elements already in the network are not transferred");
+        return newOnlyCheckBox;
+    }
+
+    /**
+     * Creates the filter leaving out the elements already in the network,
+     * unless the user chose to fetch all elements.
+     *
+     * @return the filter, or null to run the query as entered
+     */
+    @Override
+    protected ExpansionFilter createExpansionFilter() {
+        return newOnlyCheckBox.isSelected() ? networkManager.createExpansionFilter(networkView.getModel()) : null;
     }
 
     /**
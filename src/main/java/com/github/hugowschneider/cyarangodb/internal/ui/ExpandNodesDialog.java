@@ -0,0 +1,208 @@
+package com.github.hugowschneider.cyarangodb.internal.ui;
+
+import java.awt.Component;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JCheckBox;
+import javax.swing.JDialog;
+import javax.swing.JEditorPane;
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import org.cytoscape.view.model.CyNetworkView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.network.BatchExpansionResult;
+import com.github.hugowschneider.cyarangodb.internal.network.ImportNetworkException;
+import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
+
+/**
+ * A dialog for expanding several selected nodes of a network with a single
+ * parameterized query. The ids of the nodes are bound to the
+ * {@value NetworkManager#NODE_IDS} bind variable, in chunks executed
+ * concurrently, instead of opening one dialog and running one query per node.
+ */
+public class ExpandNodesDialog extends BaseNetworkDialog {
+    /**
+     * The logger for the dialog.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpandNodesDialog.class);
+
+    /**
+     * The ids of the nodes to be expanded.
+     */
+    private List<String> nodeIds;
+
+    /**
+     * The view of the network containing the nodes.
+     */
+    private CyNetworkView networkView;
+
+    /**
+     * The manager responsible for network operations.
+     */
+    private NetworkManager networkManager;
+
+    /**
+     * The text area for displaying instructions.
+     */
+    private JEditorPane instructionText;
+
+    /**
+     * The check box choosing to only fetch elements not already in the
+     * network.
+     */
+    private JCheckBox newOnlyCheckBox;
+
+    /**
+     * Constructs a new ExpandNodesDialog.
+     *
+     * @param connectionManager the connection manager
+     * @param networkManager    the network manager
+     * @param parentFrame       the parent frame
+     * @param nodeIds           the ids of the nodes to be expanded
+     * @param networkView       the view of the network containing the nodes
+     */
+    public ExpandNodesDialog(ConnectionManager connectionManager, NetworkManager networkManager, JFrame parentFrame,
+            List<String> nodeIds, CyNetworkView networkView) {
+        super(connectionManager, parentFrame, "Expand Selected Nodes");
+        this.nodeIds = nodeIds;
+        this.networkView = networkView;
+        this.networkManager = networkManager;
+        setupText();
+    }
+
+    /**
+     * Sets up the instruction text for the dialog.
+     */
+    private void setupText() {
+        String htmlContent = String.format(
+                "<html><body style=\"font-family:Verdana; font-size:14pt; margin: 10px;\">" +
+                        "To expand the <b>%1$d</b> selected nodes, read their ids from the " +
+                        "<code style=\"font-family:monospace;font-size:14pt;\"><b>@%2$s</b></code> " +
+                        "bind variable, e.g. " +
+                        "<code style=\"font-family:monospace;font-size:14pt;\">" +
+                        "FOR id IN @%2$s FOR v, e IN 1..1 ANY id edges RETURN e</code>. " +
+                        "The query runs once for every %3$d nodes." +
+                        "</body></html>",
+                nodeIds.size(), NetworkManager.NODE_IDS, NetworkManager.NODE_BATCH_SIZE);
+
+        instructionText.setText(htmlContent);
+    }
+
+    /**
+     * Executes the query entered in the query text area for all selected
+     * nodes and expands the network with the results. The guardrails of the
+     * connection are checked with the ids of the first chunk of nodes inlined
+     * into the query, as every chunk runs the same query; when the user
+     * chooses a preview, every chunk is limited to the preview size.
+     */
+    @Override
+    protected void executeQuery() {
+        String query = queryTextArea.getText();
+        String connectionId = getSelectedConnectionId();
+        JDialog waitDialog = createWaitDialog();
+
+        boolean newOnly = newOnlyCheckBox.isSelected();
+
+        SwingWorker<BatchExpansionResult, Void> worker = new SwingWorker<BatchExpansionResult, Void>() {
+            @Override
+            protected BatchExpansionResult doInBackground() throws Exception {
+                String boundQuery = NetworkManager.bindNodeIds(query,
+                        nodeIds.subList(0, Math.min(NetworkManager.NODE_BATCH_SIZE, nodeIds.size())));
+                String checkedQuery = checkGuardrails(connectionId, boundQuery);
+                if (checkedQuery == null) {
+                    return null;
+                }
+                String rewrittenQuery = checkedQuery.equals(boundQuery) ? query
+                        : connectionManager.getConnection(connectionId).getGuardrails().toPreviewQuery(query);
+                return networkManager.expandNodes(networkView, nodeIds, query, rewrittenQuery, connectionId,
+                        connectionManager,
+                        newOnly ? networkManager.createExpansionFilter(networkView.getModel()) : null);
+            }
+
+            @Override
+            protected void done() {
+                waitDialog.dispose();
+                BatchExpansionResult result;
+                try {
+                    result = get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof ImportNetworkException) {
+                        JOptionPane.showMessageDialog(ExpandNodesDialog.this, cause.getMessage(),
+                                "Error Importing Network", JOptionPane.ERROR_MESSAGE);
+                    } else {
+                        LOGGER.error(cause.getMessage(), cause);
+                        JOptionPane.showMessageDialog(ExpandNodesDialog.this, cause.getMessage(),
+                                "Error executing query", JOptionPane.ERROR_MESSAGE);
+                    }
+                    return;
+                }
+                if (result == null) {
+                    return;
+                }
+                updateHistoryList();
+                String message = String.format("%1$d nodes were expanded with %2$d new nodes",
+                        nodeIds.size(), result.getNewNodes().size());
+                if (result.getTruncatedCount() > 0) {
+                    JOptionPane.showMessageDialog(ExpandNodesDialog.this,
+                            String.format("%1$s.%nThe results of %2$d of %3$d queries were truncated.", message,
+                                    result.getTruncatedCount(), result.getChunkCount()),
+                            "Query Result Truncated", JOptionPane.WARNING_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(ExpandNodesDialog.this, message);
+                }
+                ExpandNodesDialog.this.dispose();
+            }
+        };
+
+        worker.execute();
+        waitDialog.setVisible(true);
+    }
+
+    /**
+     * Runs the selected query from the history list for all selected nodes.
+     * The queries of batch expansions need the node ids bound to them, so they
+     * cannot run on their own.
+     */
+    @Override
+    protected void runHistory() {
+        copyQuery();
+        executeQuery();
+    }
+
+    /**
+     * Renders the top component of the dialog, holding the choice to only
+     * fetch new elements.
+     *
+     * @return the top component
+     */
+    @Override
+    protected Component renderTopComponent() {
+        newOnlyCheckBox = new JCheckBox("Only fetch nodes and edges not already in the network", true);
+        newOnlyCheckBox.setToolTipText(
+                "Filters the query results on the server, so that elements already in the network are not transferred");
+        return newOnlyCheckBox;
+    }
+
+    /**
+     * Renders the center component of the dialog.
+     *
+     * @return the center component
+     */
+    @Override
+    protected Component renderCenterComponent() {
+        instructionText = new JEditorPane();
+        instructionText.setContentType("text/html");
+        instructionText.setEditable(false);
+        return instructionText;
+    }
+}
@@ -0,0 +1,265 @@
+package com.github.hugowschneider.cyarangodb.internal.ui;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.table.AbstractTableModel;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionDetails;
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryHistoryStore;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryStatistics;
+
+/**
+ * A table model showing the query history of a connection. Entries are not
+ * copied into the model up front: the table only asks for the rows it
+ * displays, and the model fetches them from the history store a page at a
+ * time, keeping a few recently used pages. Long queries are shortened to a
+ * single line for display. When a search text is set, only the matching
+ * entries found by the token index of the history are shown.
+ */
+public class HistoryTableModel extends AbstractTableModel {
+
+    /**
+     * The number of entries fetched at a time.
+     */
+    static final int PAGE_SIZE = 100;
+
+    /**
+     * The maximum number of pages kept in memory.
+     */
+    static final int MAX_CACHED_PAGES = 10;
+
+    /**
+     * The maximum number of characters of a query shown in the table.
+     */
+    static final int MAX_QUERY_LENGTH = 200;
+
+    /**
+     * The index of the column holding the Run button.
+     */
+    public static final int RUN_COLUMN = 7;
+
+    /**
+     * The column names.
+     */
+    private static final String[] COLUMNS = { "Last Run", "Runs", "Query", "Results", "Server (ms)", "Client (ms)",
+            "Details", "Run", "Copy", "Delete" };
+
+    /**
+     * The connection manager providing the history.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * The pages of entries fetched so far by page number, least recently used
+     * first.
+     */
+    private final Map<Integer, List<ConnectionDetails.QueryHistory>> pages = new LinkedHashMap<>(16, 0.75f,
+            true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<ConnectionDetails.QueryHistory>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    /**
+     * The uuid of the connection whose history is shown, null if none.
+     */
+    private String connectionId;
+
+    /**
+     * The order of the entries.
+     */
+    private QueryHistoryStore.Order order = QueryHistoryStore.Order.RECENT;
+
+    /**
+     * The search text, null or blank to show the whole history.
+     */
+    private String filter;
+
+    /**
+     * The entries matching the search text, null if the whole history is shown.
+     */
+    private List<ConnectionDetails.QueryHistory> matches;
+
+    /**
+     * The number of entries in the history when it was last loaded.
+     */
+    private int rowCount;
+
+    /**
+     * Constructs a new HistoryTableModel.
+     *
+     * @param connectionManager the connection manager providing the history
+     */
+    public HistoryTableModel(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * Shows the history of a connection in the given order.
+     *
+     * @param connectionId the connection uuid
+     * @param order        the order of the entries
+     */
+    public void load(String connectionId, QueryHistoryStore.Order order) {
+        load(connectionId, order, null);
+    }
+
+    /**
+     * Shows the entries of the history of a connection matching a search text
+     * in the given order.
+     *
+     * @param connectionId the connection uuid
+     * @param order        the order of the entries
+     * @param filter       the search text, null or blank to show the whole
+     *                     history
+     */
+    public void load(String connectionId, QueryHistoryStore.Order order, String filter) {
+        this.connectionId = connectionId;
+        this.order = order;
+        this.filter = filter;
+        refresh();
+    }
+
+    /**
+     * Discards the fetched pages and shows the current state of the history.
+     */
+    public void refresh() {
+        pages.clear();
+        matches = null;
+        if (connectionId == null) {
+            rowCount = 0;
+        } else if (filter == null || filter.isBlank()) {
+            rowCount = connectionManager.getQueryHistorySize(connectionId);
+        } else {
+            matches = connectionManager.searchQueryHistory(connectionId, filter, order);
+            rowCount = matches.size();
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Gets the history entry shown in a row, fetching its page if needed.
+     *
+     * @param row the row index
+     * @return the history entry, or null if the history shrank since it was
+     *         loaded
+     */
+    public ConnectionDetails.QueryHistory getEntry(int row) {
+        if (connectionId == null || row < 0 || row >= rowCount) {
+            return null;
+        }
+        if (matches != null) {
+            return matches.get(row);
+        }
+        int page = row / PAGE_SIZE;
+        List<ConnectionDetails.QueryHistory> entries = pages.get(page);
+        if (entries == null) {
+            entries = connectionManager.getQueryHistory(connectionId, order, page * PAGE_SIZE, PAGE_SIZE);
+            pages.put(page, entries);
+        }
+        int index = row % PAGE_SIZE;
+        return index < entries.size() ? entries.get(index) : null;
+    }
+
+    /**
+     * Gets the number of pages currently kept in memory.
+     *
+     * @return the number of cached pages
+     */
+    int getCachedPageCount() {
+        return pages.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column >= RUN_COLUMN;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column >= RUN_COLUMN) {
+            return COLUMNS[column];
+        }
+        ConnectionDetails.QueryHistory entry = getEntry(row);
+        if (entry == null) {
+            return null;
+        }
+        QueryStatistics statistics = entry.getStatistics();
+        switch (column) {
+            case 0:
+                return entry.getExecutedAt();
+            case 1:
+                return entry.getRunCount();
+            case 2:
+                return abbreviate(entry.getQuery());
+            case 3:
+                return statistics == null ? null : statistics.getResultCount();
+            case 4:
+                return statistics == null ? null : statistics.getServerTimeMillis();
+            case 5:
+                return statistics == null ? null : statistics.getClientTimeMillis();
+            case 6:
+                return statistics == null ? null : formatStatistics(statistics);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Shortens a query to a single line of at most {@link #MAX_QUERY_LENGTH}
+     * characters.
+     *
+     * @param query the query
+     * @return the shortened query
+     */
+    static String abbreviate(String query) {
+        String line = query.strip().replaceAll("\\s+", " ");
+        if (line.length() <= MAX_QUERY_LENGTH) {
+            return line;
+        }
+        return line.substring(0, MAX_QUERY_LENGTH - 3) + "...";
+    }
+
+    /**
+     * Formats the detailed statistics of a query.
+     *
+     * @param statistics the query statistics
+     * @return the formatted statistics
+     */
+    static String formatStatistics(QueryStatistics statistics) {
+        StringBuilder builder = new StringBuilder();
+        if (statistics.getScannedFull() != null || statistics.getScannedIndex() != null) {
+            builder.append(String.format("scanned %1$s full / %2$s index, ", statistics.getScannedFull(),
+                    statistics.getScannedIndex()));
+        }
+        if (statistics.getHttpRequests() != null) {
+            builder.append(String.format("%1$d HTTP requests, ", statistics.getHttpRequests()));
+        }
+        if (statistics.getPeakMemoryUsage() != null) {
+            builder.append(String.format("peak memory %1$d KB, ", statistics.getPeakMemoryUsage() / 1024));
+        }
+        builder.append(String.format("%1$d KB received, decode %2$s ms, build %3$s ms, layout %4$s ms",
+                statistics.getBytesReceived() / 1024, statistics.getDecodeTime(), statistics.getBuildTime(),
+                statistics.getLayoutTime()));
+        return builder.toString();
+    }
+}
@@ -13,6 +13,7 @@ import javax.swing.JTextField;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.util.RawJson;
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryStatistics;
 import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata;
 import com.github.hugowschneider.cyarangodb.internal.network.ImportNetworkException;
 import com.github.hugowschneider.cyarangodb.internal.network.NetworkImportResult;
@@ -21,7 +22,7 @@ import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
 /**
  * A dialog for importing a network from an ArangoDB database.
  */
-public class ImportNetworkDialog extends BaseNetworkDialog {
+public class ImportNetworkDialog extends QueryResultDialog {
 
     /**
      * The manager responsible for network operations.
@@ -69,17 +70,18 @@ public class ImportNetworkDialog extends BaseNetworkDialog {
     /**
      * Processes the query result and imports the network.
      *
-     * @param docs     the list of RawJson documents
-     * @param database the ArangoDatabase instance
-     * @param metadata the metadata of the network
+     * @param docs       the list of RawJson documents
+     * @param database   the ArangoDatabase instance
+     * @param metadata   the metadata of the network
+     * @param statistics the statistics of the query that produced the documents
      * @throws ImportNetworkException if an error occurs during network import
      */
     @Override
-    protected void processQueryResult(List<RawJson> docs, ArangoDatabase database, ArangoNetworkMetadata metadata)
-            throws ImportNetworkException {
+    protected void processQueryResult(List<RawJson> docs, ArangoDatabase database, ArangoNetworkMetadata metadata,
+            QueryStatistics statistics) throws ImportNetworkException {
 
         NetworkImportResult result = networkManager.importNetwork(docs, database, networkNameField.getText().trim(),
-                metadata);
+                metadata, statistics);
         JOptionPane.showMessageDialog(this,
                 String.format("Network imported with %1$d nodes and %2$d edges", result.getNodeCount(),
                         result.getEdgeCount()));
@@ -10,6 +10,7 @@ import java.util.Map;
 
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -30,6 +31,10 @@ import org.slf4j.LoggerFactory;
 
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionDetails;
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.IdCompletionSettings;
+import com.github.hugowschneider.cyarangodb.internal.connection.ImportBudget;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryGuardrails;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryHistoryStore;
 
 /**
  * Represents a dialog for managing connections to ArangoDB.
@@ -109,6 +114,60 @@ public class ManageConnectionsDialog extends JDialog {
      * Password field for entering the connection password.
      */
     private JPasswordField passwordField;
+    /**
+     * Check box for enabling the explain step before executing queries.
+     */
+    private JCheckBox explainCheckBox;
+    /**
+     * Text field for entering the estimated items above which a warning is shown.
+     */
+    private JTextField warnItemsField;
+    /**
+     * Text field for entering the estimated items above which a query is
+     * refused.
+     */
+    private JTextField maxItemsField;
+    /**
+     * Text field for entering the estimated cost above which a query is refused.
+     */
+    private JTextField maxCostField;
+    /**
+     * Text field for entering the number of documents returned by a preview.
+     */
+    private JTextField previewLimitField;
+    /**
+     * Text field for entering the maximum number of documents of a result.
+     */
+    private JTextField maxDocumentsField;
+    /**
+     * Text field for entering the maximum number of megabytes of a result.
+     */
+    private JTextField maxMegabytesField;
+    /**
+     * Text field for entering the maximum share of the heap a result may take.
+     */
+    private JTextField maxHeapPercentField;
+    /**
+     * Text field for entering the maximum number of queries kept in the history.
+     */
+    private JTextField historyLimitField;
+    /**
+     * Dropdown for selecting how node ids are looked up for auto-completion.
+     */
+    private JComboBox<IdCompletionSettings.Mode> idCompletionModeDropdown;
+    /**
+     * Text field for entering the ArangoSearch view used for id completion.
+     */
+    private JTextField completionViewField;
+    /**
+     * Text field for entering the analyzer the id completion view uses.
+     */
+    private JTextField completionAnalyzerField;
+    /**
+     * Text field for entering the lower-cased key attribute used for id
+     * completion.
+     */
+    private JTextField completionAttributeField;
     /**
      * Button for saving the connection details.
      */
@@ -250,6 +309,112 @@ public class ManageConnectionsDialog extends JDialog {
         gbc.gridx = 1;
         rightPanel.add(databaseField, gbc);
 
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Explain Before Run:"), gbc);
+        explainCheckBox = new JCheckBox();
+        gbc.gridx = 1;
+        rightPanel.add(explainCheckBox, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Warn Above Estimated Items:"), gbc);
+        warnItemsField = createNumericField();
+        gbc.gridx = 1;
+        rightPanel.add(warnItemsField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Refuse Above Estimated Items:"), gbc);
+        maxItemsField = createNumericField();
+        gbc.gridx = 1;
+        rightPanel.add(maxItemsField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Refuse Above Estimated Cost:"), gbc);
+        maxCostField = createNumericField();
+        gbc.gridx = 1;
+        rightPanel.add(maxCostField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Preview Limit:"), gbc);
+        previewLimitField = createNumericField();
+        gbc.gridx = 1;
+        rightPanel.add(previewLimitField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Max Result Documents:"), gbc);
+        maxDocumentsField = createNumericField();
+        maxDocumentsField.setToolTipText(
+                String.format("0 for no limit, e.g. %1$d", ImportBudget.SUGGESTED_MAX_DOCUMENTS));
+        gbc.gridx = 1;
+        rightPanel.add(maxDocumentsField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Max Result Size (MB):"), gbc);
+        maxMegabytesField = createNumericField();
+        maxMegabytesField.setToolTipText(
+                String.format("0 for no limit, e.g. %1$d", ImportBudget.SUGGESTED_MAX_MEGABYTES));
+        gbc.gridx = 1;
+        rightPanel.add(maxMegabytesField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Max Result Heap (%):"), gbc);
+        maxHeapPercentField = createNumericField();
+        maxHeapPercentField.setToolTipText(
+                String.format("0 for no limit, e.g. %1$d", ImportBudget.SUGGESTED_MAX_HEAP_PERCENT));
+        gbc.gridx = 1;
+        rightPanel.add(maxHeapPercentField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("History Limit:"), gbc);
+        historyLimitField = createNumericField();
+        gbc.gridx = 1;
+        rightPanel.add(historyLimitField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Id Completion:"), gbc);
+        idCompletionModeDropdown = new JComboBox<>(IdCompletionSettings.Mode.values());
+        idCompletionModeDropdown.setPreferredSize(new Dimension(200, 25));
+        gbc.gridx = 1;
+        rightPanel.add(idCompletionModeDropdown, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Completion View:"), gbc);
+        completionViewField = new JTextField();
+        completionViewField.setPreferredSize(new Dimension(200, 25));
+        gbc.gridx = 1;
+        rightPanel.add(completionViewField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Completion Analyzer:"), gbc);
+        completionAnalyzerField = new JTextField();
+        completionAnalyzerField.setPreferredSize(new Dimension(200, 25));
+        gbc.gridx = 1;
+        rightPanel.add(completionAnalyzerField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy++;
+        rightPanel.add(new JLabel("Completion Attribute:"), gbc);
+        completionAttributeField = new JTextField();
+        completionAttributeField.setPreferredSize(new Dimension(200, 25));
+        gbc.gridx = 1;
+        rightPanel.add(completionAttributeField, gbc);
+
+        setGuardrailFields(new QueryGuardrails());
+        setImportBudgetFields(new ImportBudget());
+        historyLimitField.setText(String.valueOf(QueryHistoryStore.DEFAULT_HISTORY_LIMIT));
+        setIdCompletionFields(new IdCompletionSettings());
+
         // Buttons Panel
         JPanel buttonPanel = new JPanel();
         saveButton = new JButton("Save");
@@ -268,6 +433,99 @@ public class ManageConnectionsDialog extends JDialog {
         return rightPanel;
     }
 
+    /**
+     * Creates a text field accepting only numeric input.
+     *
+     * @return the text field
+     */
+    private JTextField createNumericField() {
+        JTextField field = new JTextField();
+        field.setPreferredSize(new Dimension(200, 25));
+        ((AbstractDocument) field.getDocument()).setDocumentFilter(new NumericDocumentFilter());
+        return field;
+    }
+
+    /**
+     * Fills the guardrail fields with the given guardrails.
+     *
+     * @param guardrails the guardrails
+     */
+    private void setGuardrailFields(QueryGuardrails guardrails) {
+        explainCheckBox.setSelected(guardrails.isExplainBeforeRun());
+        warnItemsField.setText(String.valueOf(guardrails.getWarnEstimatedItems()));
+        maxItemsField.setText(String.valueOf(guardrails.getMaxEstimatedItems()));
+        maxCostField.setText(String.valueOf(Math.round(guardrails.getMaxEstimatedCost())));
+        previewLimitField.setText(String.valueOf(guardrails.getPreviewLimit()));
+    }
+
+    /**
+     * Reads the guardrails from the guardrail fields. Empty fields disable the
+     * corresponding threshold.
+     *
+     * @return the guardrails
+     */
+    private QueryGuardrails getGuardrailFields() {
+        return new QueryGuardrails(explainCheckBox.isSelected(), parseLong(warnItemsField.getText(), 0),
+                parseLong(maxItemsField.getText(), 0), parseLong(maxCostField.getText(), 0),
+                (int) parseLong(previewLimitField.getText(), QueryGuardrails.DEFAULT_PREVIEW_LIMIT));
+    }
+
+    /**
+     * Fills the import budget fields with the given budget.
+     *
+     * @param budget the import budget
+     */
+    private void setImportBudgetFields(ImportBudget budget) {
+        maxDocumentsField.setText(String.valueOf(budget.getMaxDocuments()));
+        maxMegabytesField.setText(String.valueOf(budget.getMaxMegabytes()));
+        maxHeapPercentField.setText(String.valueOf(budget.getMaxHeapPercent()));
+    }
+
+    /**
+     * Reads the import budget from the import budget fields. Empty fields
+     * disable the corresponding limit.
+     *
+     * @return the import budget
+     */
+    private ImportBudget getImportBudgetFields() {
+        return new ImportBudget(parseLong(maxDocumentsField.getText(), 0), parseLong(maxMegabytesField.getText(), 0),
+                (int) parseLong(maxHeapPercentField.getText(), 0));
+    }
+
+    /**
+     * Fills the id completion fields with the given settings.
+     *
+     * @param settings the id completion settings
+     */
+    private void setIdCompletionFields(IdCompletionSettings settings) {
+        idCompletionModeDropdown.setSelectedItem(settings.getMode());
+        completionViewField.setText(settings.getView() == null ? "" : settings.getView());
+        completionAnalyzerField.setText(settings.getAnalyzer() == null ? "" : settings.getAnalyzer());
+        completionAttributeField.setText(settings.getAttribute() == null ? "" : settings.getAttribute());
+    }
+
+    /**
+     * Reads the id completion settings from the id completion fields.
+     *
+     * @return the id completion settings
+     */
+    private IdCompletionSettings getIdCompletionFields() {
+        return new IdCompletionSettings((IdCompletionSettings.Mode) idCompletionModeDropdown.getSelectedItem(),
+                completionViewField.getText().trim(), completionAnalyzerField.getText().trim(),
+                completionAttributeField.getText().trim());
+    }
+
+    /**
+     * Parses a numeric field value.
+     *
+     * @param text         the field value
+     * @param defaultValue the value used if the field is empty
+     * @return the parsed value
+     */
+    private static long parseLong(String text, long defaultValue) {
+        return text.isEmpty() ? defaultValue : Long.parseLong(text);
+    }
+
     private void loadConnections() {
         Map<String, ConnectionDetails> connections = connectionManager.getAllConnections();
         for (Map.Entry<String, ConnectionDetails> entry : connections.entrySet()) {
@@ -288,6 +546,10 @@ public class ManageConnectionsDialog extends JDialog {
         String database = databaseField.getText();
 
         ConnectionDetails connectionDetails = new ConnectionDetails(name, host, port, username, password, database);
+        connectionDetails.setGuardrails(getGuardrailFields());
+        connectionDetails.setImportBudget(getImportBudgetFields());
+        connectionDetails.setHistoryLimit((int) parseLong(historyLimitField.getText(), 0));
+        connectionDetails.setIdCompletion(getIdCompletionFields());
         if (editedConnectionId == null) {
             editedConnectionId = connectionManager.addConnection(connectionDetails);
             tableModel.addRow(new Object[] { editedConnectionId, name, host, port, "Edit", "Delete", "Validate" });
@@ -314,6 +576,10 @@ public class ManageConnectionsDialog extends JDialog {
         usernameField.setText("");
         passwordField.setText("");
         databaseField.setText("");
+        setGuardrailFields(new QueryGuardrails());
+        setImportBudgetFields(new ImportBudget());
+        historyLimitField.setText(String.valueOf(QueryHistoryStore.DEFAULT_HISTORY_LIMIT));
+        setIdCompletionFields(new IdCompletionSettings());
         editedConnectionId = null;
         connectionTable.clearSelection();
     }
@@ -329,6 +595,10 @@ public class ManageConnectionsDialog extends JDialog {
             usernameField.setText(details.getUser());
             passwordField.setText(details.getPassword());
             databaseField.setText(details.getDatabase());
+            setGuardrailFields(details.getGuardrails());
+            setImportBudgetFields(details.getImportBudget());
+            historyLimitField.setText(String.valueOf(details.getHistoryLimit()));
+            setIdCompletionFields(details.getIdCompletion());
             editedConnectionId = id;
         }
     }
@@ -0,0 +1,227 @@
+package com.github.hugowschneider.cyarangodb.internal.ui;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.arangodb.ArangoDatabase;
+import com.arangodb.util.RawJson;
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionDetails;
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryResult;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryStatistics;
+import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata;
+import com.github.hugowschneider.cyarangodb.internal.network.ExpansionFilter;
+import com.github.hugowschneider.cyarangodb.internal.network.ImportNetworkException;
+
+/**
+ * An abstract base class for dialogs that run a single query, either entered
+ * or taken from the history, and build or expand a network from its result.
+ * The query is checked against the guardrails of the connection before it
+ * runs, and its statistics are stored in the history.
+ */
+public abstract class QueryResultDialog extends BaseNetworkDialog {
+    /**
+     * The logger for logging messages.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryResultDialog.class);
+
+    /**
+     * Constructs a new QueryResultDialog.
+     *
+     * @param connectionManager the connection manager
+     * @param parentFrame       the parent frame
+     * @param title             the title of the dialog
+     */
+    public QueryResultDialog(ConnectionManager connectionManager, JFrame parentFrame, String title) {
+        super(connectionManager, parentFrame, title);
+    }
+
+    /**
+     * Processes the query result.
+     *
+     * @param docs       the list of RawJson documents
+     * @param database   the ArangoDatabase instance
+     * @param metadata   the metadata of the network
+     * @param statistics the statistics of the query that produced the documents
+     * @throws ImportNetworkException if an error occurs during network import
+     */
+    protected abstract void processQueryResult(List<RawJson> docs, ArangoDatabase database,
+            ArangoNetworkMetadata metadata, QueryStatistics statistics)
+            throws ImportNetworkException;
+
+    /**
+     * Creates the filter rewriting the query so that it only returns elements
+     * not already in the network being expanded. Dialogs that do not expand a
+     * network run the query as entered.
+     *
+     * @return the filter, or null to run the query as entered
+     */
+    protected ExpansionFilter createExpansionFilter() {
+        return null;
+    }
+
+    /**
+     * Executes the query entered in the query text area. When the user chooses
+     * a preview, the limited query is executed, but the history records the
+     * query as entered.
+     */
+    @Override
+    protected void executeQuery() {
+        String query = queryTextArea.getText();
+        String connectionId = getSelectedConnectionId();
+        JDialog waitDialog = createWaitDialog();
+
+        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                try {
+                    String queryToRun = checkGuardrails(connectionId, query);
+                    if (queryToRun == null) {
+                        return null;
+                    }
+                    ExpansionFilter filter = createExpansionFilter();
+                    QueryResult result = filter == null
+                            ? connectionManager.executeQuery(connectionId, query, queryToRun, Map.of(), true)
+                            : connectionManager.executeQuery(connectionId, query, filter.wrap(queryToRun),
+                                    filter.getBindVars(), true);
+                    if (result.getDocuments().isEmpty()) {
+                        throw new ImportNetworkException(filter == null ? "No results found for query"
+                                : "The query found no nodes or edges that are not already in the network");
+                    }
+                    processQueryResult(result.getDocuments(), connectionManager.getArangoDatabase(connectionId),
+                            createMetadata(queryToRun, connectionId, result), result.getStatistics());
+                    persistStatistics(connectionId, result);
+                    showTruncationWarning(result);
+                    updateHistoryList();
+                    QueryResultDialog.this.dispose();
+                } catch (ImportNetworkException e) {
+                    JOptionPane.showMessageDialog(QueryResultDialog.this, e.getMessage(), "Error Importing Network",
+                            JOptionPane.ERROR_MESSAGE);
+                } catch (Exception e) {
+                    LOGGER.error(e.getMessage(), e);
+                    JOptionPane.showMessageDialog(QueryResultDialog.this, e.getMessage(), "Error executing query",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                waitDialog.dispose();
+            }
+        };
+
+        worker.execute();
+        waitDialog.setVisible(true);
+    }
+
+    /**
+     * Creates the metadata of a network built from a query result.
+     *
+     * @param query        the executed query
+     * @param connectionId the connection id
+     * @param result       the query result
+     * @return the network metadata
+     */
+    private ArangoNetworkMetadata createMetadata(String query, String connectionId, QueryResult result) {
+        ArangoNetworkMetadata metadata = new ArangoNetworkMetadata(query, connectionId);
+        metadata.setTruncation(result.getTruncation());
+        return metadata;
+    }
+
+    /**
+     * Stores the statistics measured while building the network in the history
+     * entry of a query. The layout is applied asynchronously, so the entry is
+     * stored again once its layout time is known.
+     *
+     * @param connectionId the connection id
+     * @param result       the query result
+     */
+    private void persistStatistics(String connectionId, QueryResult result) {
+        ConnectionDetails.QueryHistory entry = result.getHistoryEntry();
+        if (entry == null) {
+            return;
+        }
+        connectionManager.updateQueryHistory(connectionId, entry);
+        if (result.getStatistics() != null) {
+            result.getStatistics().setLayoutTimeListener(
+                    () -> connectionManager.updateQueryHistory(connectionId, entry));
+        }
+    }
+
+    /**
+     * Tells the user that the network was built from a truncated query result.
+     *
+     * @param result the query result
+     */
+    private void showTruncationWarning(QueryResult result) {
+        if (result.isTruncated()) {
+            JOptionPane.showMessageDialog(this,
+                    String.format("The query result was truncated because %1$s.%n"
+                            + "The network only contains the %2$d documents received up to that point.",
+                            result.getTruncation(), result.getDocuments().size()),
+                    "Query Result Truncated", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    /**
+     * Runs the selected query from the history list, checking it against the
+     * guardrails of the connection first. A preview is counted as a run of the
+     * selected entry.
+     */
+    @Override
+    protected void runHistory() {
+        ConnectionDetails.QueryHistory entry = historyTableModel.getEntry(historyTable.getSelectedRow());
+        if (entry == null) {
+            return;
+        }
+
+        // Create and display the wait dialog
+        JDialog waitDialog = createWaitDialog();
+
+        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                String connectionId = getSelectedConnectionId();
+
+                try {
+                    String queryToRun = checkGuardrails(connectionId, entry.getQuery());
+                    if (queryToRun == null) {
+                        return null;
+                    }
+                    QueryResult result = queryToRun.equals(entry.getQuery())
+                            ? connectionManager.runHistory(connectionId, entry)
+                            : connectionManager.executeQuery(connectionId, entry.getQuery(), queryToRun, Map.of(),
+                                    true);
+
+                    ArangoDatabase database = connectionManager.getArangoDatabase(connectionId);
+                    processQueryResult(result.getDocuments(), database,
+                            createMetadata(queryToRun, connectionId, result), result.getStatistics());
+                    persistStatistics(connectionId, result);
+                    showTruncationWarning(result);
+                } catch (Exception ex) {
+                    LOGGER.error(ex.getMessage(), ex);
+                    JOptionPane.showMessageDialog(QueryResultDialog.this, ex.getMessage());
+                }
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                waitDialog.dispose();
+                QueryResultDialog.this.dispose();
+            }
+        };
+
+        worker.execute();
+        waitDialog.setVisible(true);
+    }
+}
@@ -12,6 +12,7 @@ import org.cytoscape.view.model.CyNetworkView;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.util.RawJson;
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryStatistics;
 import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata;
 import com.github.hugowschneider.cyarangodb.internal.network.ImportNetworkException;
 import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
@@ -19,7 +20,7 @@ import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
 /**
  * A dialog for expanding a node in a network.
  */
-public class SelectNetworkOverlapDialog extends BaseNetworkDialog {
+public class SelectNetworkOverlapDialog extends QueryResultDialog {
 
     /**
      * The view of the network containing the node.
@@ -49,14 +50,15 @@ public class SelectNetworkOverlapDialog extends BaseNetworkDialog {
     /**
      * Processes the query result and expands the network.
      *
-     * @param docs     the list of RawJson documents
-     * @param database the ArangoDatabase instance
-     * @param metadata the metadata of the network
+     * @param docs       the list of RawJson documents
+     * @param database   the ArangoDatabase instance
+     * @param metadata   the metadata of the network
+     * @param statistics the statistics of the query that produced the documents
      * @throws ImportNetworkException if an error occurs during network import
      */
     @Override
-    protected void processQueryResult(List<RawJson> docs, ArangoDatabase database, ArangoNetworkMetadata metadata)
-            throws ImportNetworkException {
+    protected void processQueryResult(List<RawJson> docs, ArangoDatabase database, ArangoNetworkMetadata metadata,
+            QueryStatistics statistics) throws ImportNetworkException {
 
 
     }
@@ -12,6 +12,7 @@ import org.cytoscape.work.TaskIterator;
 import org.cytoscape.work.TaskMonitor;
 
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
 import com.github.hugowschneider.cyarangodb.internal.ui.DetailDialog;
 
 /**
@@ -19,6 +20,11 @@ import com.github.hugowschneider.cyarangodb.internal.ui.DetailDialog;
  */
 public class EdgeDetailContextMenuFactory extends AbstractEdgeViewTaskFactory {
 
+    /**
+     * The network manager holding the adapters of the networks.
+     */
+    private final NetworkManager networkManager;
+
     /**
      * The connection manager responsible for managing database connections.
      */
@@ -32,10 +38,13 @@ public class EdgeDetailContextMenuFactory extends AbstractEdgeViewTaskFactory {
     /**
      * Constructs a new EdgeDetailContextMenuFactory.
      *
+     * @param networkManager    the network manager
      * @param connectionManager the connection manager
      * @param parentFrame       the parent frame
      */
-    public EdgeDetailContextMenuFactory(ConnectionManager connectionManager, JFrame parentFrame) {
+    public EdgeDetailContextMenuFactory(NetworkManager networkManager, ConnectionManager connectionManager,
+            JFrame parentFrame) {
+        this.networkManager = networkManager;
         this.connectionManager = connectionManager;
         this.parentFrame = parentFrame;
     }
@@ -50,8 +59,8 @@ public class EdgeDetailContextMenuFactory extends AbstractEdgeViewTaskFactory {
     @Override
     public TaskIterator createTaskIterator(View<CyEdge> edgeView, CyNetworkView networkView) {
         SwingUtilities.invokeLater(() -> {
-            DetailDialog dialog = new DetailDialog(connectionManager, parentFrame, edgeView.getModel(),
-                    networkView.getModel());
+            DetailDialog dialog = new DetailDialog(networkManager, connectionManager, parentFrame,
+                    edgeView.getModel(), networkView.getModel());
             dialog.setVisible(true);
         });
         return new TaskIterator(new AbstractTask() {
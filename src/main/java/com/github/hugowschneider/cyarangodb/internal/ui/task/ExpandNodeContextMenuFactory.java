@@ -1,9 +1,13 @@
 package com.github.hugowschneider.cyarangodb.internal.ui.task;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 import org.cytoscape.view.model.View;
 import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.task.AbstractNodeViewTaskFactory;
 import org.cytoscape.work.AbstractTask;
@@ -12,10 +16,14 @@ import org.cytoscape.work.TaskMonitor;
 
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
 import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
+import com.github.hugowschneider.cyarangodb.internal.network.Constants;
 import com.github.hugowschneider.cyarangodb.internal.ui.ExpandNodeDialog;
+import com.github.hugowschneider.cyarangodb.internal.ui.ExpandNodesDialog;
 
 /**
  * A factory for creating context menu tasks that expand a node in a network.
+ * When the node is part of a selection of several nodes, all selected nodes
+ * are expanded with a single batch query.
  */
 public class ExpandNodeContextMenuFactory extends AbstractNodeViewTaskFactory {
 
@@ -50,7 +58,8 @@ public class ExpandNodeContextMenuFactory extends AbstractNodeViewTaskFactory {
     }
 
     /**
-     * Creates a task iterator for expanding a node.
+     * Creates a task iterator for expanding a node, or all selected nodes if
+     * the node is selected along with others.
      *
      * @param nodeView    the view of the node
      * @param networkView the view of the network containing the node
@@ -58,7 +67,14 @@ public class ExpandNodeContextMenuFactory extends AbstractNodeViewTaskFactory {
      */
     @Override
     public TaskIterator createTaskIterator(View<CyNode> nodeView, CyNetworkView networkView) {
+        List<String> selectedNodeIds = getSelectedNodeIds(nodeView, networkView);
         SwingUtilities.invokeLater(() -> {
+            if (selectedNodeIds.size() > 1) {
+                ExpandNodesDialog dialog = new ExpandNodesDialog(connectionManager, networkManager, parentFrame,
+                        selectedNodeIds, networkView);
+                dialog.setVisible(true);
+                return;
+            }
             ExpandNodeDialog dialog = new ExpandNodeDialog(connectionManager, networkManager, parentFrame, nodeView,
                     networkView);
             dialog.setVisible(true);
@@ -70,4 +86,29 @@ public class ExpandNodeContextMenuFactory extends AbstractNodeViewTaskFactory {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the ids of the selected nodes of a network, provided the node is
+     * one of them.
+     *
+     * @param nodeView    the view of the node
+     * @param networkView the view of the network containing the node
+     * @return the ids of the selected nodes, or an empty list if the node is
+     *         not selected
+     */
+    private List<String> getSelectedNodeIds(View<CyNode> nodeView, CyNetworkView networkView) {
+        if (nodeView == null || networkView == null) {
+            return List.of();
+        }
+        CyNetwork network = networkView.getModel();
+        if (!Boolean.TRUE.equals(network.getRow(nodeView.getModel()).get(CyNetwork.SELECTED, Boolean.class))) {
+            return List.of();
+        }
+        return network.getNodeList().stream()
+                .filter(node -> Boolean.TRUE.equals(network.getRow(node).get(CyNetwork.SELECTED, Boolean.class)))
+                .map(node -> network.getDefaultNodeTable().getRow(node.getSUID()).get(Constants.NodeColumns.ID,
+                        String.class))
+                .filter(id -> id != null)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.hugowschneider.cyarangodb.internal.ui.task;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import org.cytoscape.task.AbstractNetworkViewTaskFactory;
+import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.work.AbstractTask;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
+
+/**
+ * A factory for creating context menu tasks that start or stop following the
+ * changes made to the database of a network.
+ */
+public class LiveSyncContextMenuFactory extends AbstractNetworkViewTaskFactory {
+
+    /**
+     * The connection manager responsible for managing database connections.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * The network manager responsible for network operations.
+     */
+    private final NetworkManager networkManager;
+
+    /**
+     * The parent frame of the application.
+     */
+    private final JFrame parentFrame;
+
+    /**
+     * Whether the task starts following changes instead of stopping.
+     */
+    private final boolean follow;
+
+    /**
+     * Constructs a new LiveSyncContextMenuFactory.
+     *
+     * @param networkManager    the network manager
+     * @param connectionManager the connection manager
+     * @param parentFrame       the parent frame
+     * @param follow            true to start following changes, false to stop
+     */
+    public LiveSyncContextMenuFactory(NetworkManager networkManager, ConnectionManager connectionManager,
+            JFrame parentFrame, boolean follow) {
+        this.connectionManager = connectionManager;
+        this.networkManager = networkManager;
+        this.parentFrame = parentFrame;
+        this.follow = follow;
+    }
+
+    /**
+     * Checks whether the network of a view was imported from ArangoDB and
+     * whether it already follows changes.
+     *
+     * @param networkView the view of the network
+     * @return true if the task can start or stop following changes
+     */
+    @Override
+    public boolean isReady(CyNetworkView networkView) {
+        return super.isReady(networkView) && networkManager.isImported(networkView.getModel())
+                && networkManager.isLiveSyncing(networkView.getModel()) != follow;
+    }
+
+    /**
+     * Creates a task iterator for starting or stopping following changes.
+     *
+     * @param networkView the view of the network
+     * @return a TaskIterator for starting or stopping following changes
+     */
+    @Override
+    public TaskIterator createTaskIterator(CyNetworkView networkView) {
+        return new TaskIterator(new AbstractTask() {
+            @Override
+            public void run(TaskMonitor taskMonitor) throws Exception {
+                if (!follow) {
+                    taskMonitor.setTitle("Stopping following changes in ArangoDB");
+                    networkManager.stopLiveSync(networkView.getModel());
+                    return;
+                }
+                AtomicInteger answer = new AtomicInteger();
+                SwingUtilities.invokeAndWait(() -> answer.set(JOptionPane.showConfirmDialog(parentFrame,
+                        "Also add new edges connected to the nodes of the network?", "Follow Changes in ArangoDB",
+                        JOptionPane.YES_NO_CANCEL_OPTION)));
+                if (answer.get() != JOptionPane.YES_OPTION && answer.get() != JOptionPane.NO_OPTION) {
+                    return;
+                }
+                taskMonitor.setTitle("Following changes in ArangoDB");
+                taskMonitor.setStatusMessage("Reading the write-ahead log of the database...");
+                networkManager.startLiveSync(networkView.getModel(), connectionManager,
+                        answer.get() == JOptionPane.YES_OPTION);
+            }
+        });
+    }
+}
@@ -12,6 +12,7 @@ import org.cytoscape.work.TaskIterator;
 import org.cytoscape.work.TaskMonitor;
 
 import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
 import com.github.hugowschneider.cyarangodb.internal.ui.DetailDialog;
 
 /**
@@ -19,6 +20,11 @@ import com.github.hugowschneider.cyarangodb.internal.ui.DetailDialog;
  */
 public class NodeDetailContextMenuFactory extends AbstractNodeViewTaskFactory {
 
+    /**
+     * The network manager holding the adapters of the networks.
+     */
+    private final NetworkManager networkManager;
+
     /**
      * The connection manager responsible for managing database connections.
      */
@@ -32,10 +38,13 @@ public class NodeDetailContextMenuFactory extends AbstractNodeViewTaskFactory {
     /**
      * Constructs a new NodeDetailContextMenuFactory.
      *
+     * @param networkManager    the network manager
      * @param connectionManager the connection manager
      * @param parentFrame       the parent frame
      */
-    public NodeDetailContextMenuFactory(ConnectionManager connectionManager, JFrame parentFrame) {
+    public NodeDetailContextMenuFactory(NetworkManager networkManager, ConnectionManager connectionManager,
+            JFrame parentFrame) {
+        this.networkManager = networkManager;
         this.connectionManager = connectionManager;
         this.parentFrame = parentFrame;
     }
@@ -50,8 +59,8 @@ public class NodeDetailContextMenuFactory extends AbstractNodeViewTaskFactory {
     @Override
     public TaskIterator createTaskIterator(View<CyNode> nodeView, CyNetworkView networkView) {
         SwingUtilities.invokeLater(() -> {
-            DetailDialog dialog = new DetailDialog(connectionManager, parentFrame, nodeView.getModel(),
-                    networkView.getModel());
+            DetailDialog dialog = new DetailDialog(networkManager, connectionManager, parentFrame,
+                    nodeView.getModel(), networkView.getModel());
             dialog.setVisible(true);
         });
         return new TaskIterator(new AbstractTask() {
@@ -0,0 +1,101 @@
+package com.github.hugowschneider.cyarangodb.internal.ui.task;
+
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import org.cytoscape.task.AbstractNetworkViewTaskFactory;
+import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.work.AbstractTask;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.network.NetworkImportResult;
+import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
+
+/**
+ * A factory for creating context menu tasks that replay the import and
+ * expansion queries of a network against the current data of the database.
+ * Refreshing a network in place also updates the elements it already contains
+ * to their current revisions.
+ */
+public class ReplayNetworkContextMenuFactory extends AbstractNetworkViewTaskFactory {
+
+    /**
+     * The connection manager responsible for managing database connections.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * The network manager responsible for network operations.
+     */
+    private final NetworkManager networkManager;
+
+    /**
+     * The parent frame of the application.
+     */
+    private final JFrame parentFrame;
+
+    /**
+     * Whether the results are merged into the network instead of a new
+     * network.
+     */
+    private final boolean inPlace;
+
+    /**
+     * Constructs a new ReplayNetworkContextMenuFactory.
+     *
+     * @param networkManager    the network manager
+     * @param connectionManager the connection manager
+     * @param parentFrame       the parent frame
+     * @param inPlace           true to merge the results into the network,
+     *                          false to build a new network from them
+     */
+    public ReplayNetworkContextMenuFactory(NetworkManager networkManager, ConnectionManager connectionManager,
+            JFrame parentFrame, boolean inPlace) {
+        this.connectionManager = connectionManager;
+        this.networkManager = networkManager;
+        this.parentFrame = parentFrame;
+        this.inPlace = inPlace;
+    }
+
+    /**
+     * Checks whether the network of a view was imported from ArangoDB.
+     *
+     * @param networkView the view of the network
+     * @return true if the network can be replayed
+     */
+    @Override
+    public boolean isReady(CyNetworkView networkView) {
+        return super.isReady(networkView) && networkManager.isImported(networkView.getModel());
+    }
+
+    /**
+     * Creates a task iterator for replaying a network.
+     *
+     * @param networkView the view of the network to replay
+     * @return a TaskIterator for replaying the network
+     */
+    @Override
+    public TaskIterator createTaskIterator(CyNetworkView networkView) {
+        return new TaskIterator(new AbstractTask() {
+            @Override
+            public void run(TaskMonitor taskMonitor) throws Exception {
+                taskMonitor.setTitle(inPlace ? "Refreshing network from ArangoDB" : "Rebuilding network from ArangoDB");
+                taskMonitor.setStatusMessage("Executing the import and expansion queries...");
+                NetworkImportResult result = networkManager.replayNetwork(networkView, connectionManager, inPlace);
+                String message = String.format("Network has %1$d nodes and %2$d edges", result.getNodeCount(),
+                        result.getEdgeCount());
+                if (result.getTruncatedCount() > 0) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parentFrame,
+                            String.format("%1$s.%nThe results of %2$d queries were truncated, so the network may be "
+                                    + "incomplete.", message, result.getTruncatedCount()),
+                            "Query Result Truncated", JOptionPane.WARNING_MESSAGE));
+                } else {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parentFrame, message));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.hugowschneider.cyarangodb.internal.ui.task;
+
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import org.cytoscape.task.AbstractNetworkViewTaskFactory;
+import org.cytoscape.view.model.CyNetworkView;
+import org.cytoscape.work.AbstractTask;
+import org.cytoscape.work.TaskIterator;
+import org.cytoscape.work.TaskMonitor;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.network.NetworkManager;
+import com.github.hugowschneider.cyarangodb.internal.network.NetworkRefreshResult;
+
+/**
+ * A factory for creating context menu tasks that update the nodes and edges of
+ * a network whose documents changed in the database.
+ */
+public class UpdateNetworkContextMenuFactory extends AbstractNetworkViewTaskFactory {
+
+    /**
+     * The connection manager responsible for managing database connections.
+     */
+    private final ConnectionManager connectionManager;
+
+    /**
+     * The network manager responsible for network operations.
+     */
+    private final NetworkManager networkManager;
+
+    /**
+     * The parent frame of the application.
+     */
+    private final JFrame parentFrame;
+
+    /**
+     * Constructs a new UpdateNetworkContextMenuFactory.
+     *
+     * @param networkManager    the network manager
+     * @param connectionManager the connection manager
+     * @param parentFrame       the parent frame
+     */
+    public UpdateNetworkContextMenuFactory(NetworkManager networkManager, ConnectionManager connectionManager,
+            JFrame parentFrame) {
+        this.connectionManager = connectionManager;
+        this.networkManager = networkManager;
+        this.parentFrame = parentFrame;
+    }
+
+    /**
+     * Checks whether the network of a view was imported from ArangoDB.
+     *
+     * @param networkView the view of the network
+     * @return true if the network can be updated
+     */
+    @Override
+    public boolean isReady(CyNetworkView networkView) {
+        return super.isReady(networkView) && networkManager.isImported(networkView.getModel());
+    }
+
+    /**
+     * Creates a task iterator for updating a network. Elements whose documents
+     * no longer exist are flagged in the missing column.
+     *
+     * @param networkView the view of the network to update
+     * @return a TaskIterator for updating the network
+     */
+    @Override
+    public TaskIterator createTaskIterator(CyNetworkView networkView) {
+        return new TaskIterator(new AbstractTask() {
+            @Override
+            public void run(TaskMonitor taskMonitor) throws Exception {
+                taskMonitor.setTitle("Updating changed documents from ArangoDB");
+                taskMonitor.setStatusMessage("Comparing the revisions of the nodes and edges...");
+                NetworkRefreshResult result = networkManager.updateNetwork(networkView, connectionManager, false);
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parentFrame,
+                        String.format("%1$d of %2$d nodes and edges were updated, %3$d no longer exist",
+                                result.getUpdatedCount(), result.getCheckedCount(), result.getMissingCount())));
+            }
+        });
+    }
+}
@@ -329,4 +329,15 @@ public class AQLCompletionProviderTest {
 
     }
 
+    @Test
+    @DisplayName("AQLCompletionProvider::setDatabase should not clear the node id cache shared by the connection")
+    public void testSetDatabaseKeepsSharedNodeIdCache() {
+        NodeIdCache shared = connectionManager.getNodeIdCache(connectionId);
+        shared.put("imdb_vertices", "10", List.of("imdb_vertices/1000"));
+        completionProvider.setDatabase(connectionManager.getArangoDatabase(connectionId),
+                connectionManager.getSchemaCatalog(connectionId), shared);
+
+        completionProvider.setDatabase(connectionManager.getArangoDatabase(connectionId));
+        assertEquals(List.of("imdb_vertices/1000"), shared.get("imdb_vertices", "10"));
+    }
 }
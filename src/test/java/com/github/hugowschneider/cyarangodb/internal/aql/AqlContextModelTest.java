@@ -0,0 +1,75 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.JTextArea;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+import org.fife.ui.rsyntaxtextarea.Token;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AqlContextModelTest {
+
+    @Test
+    @DisplayName("AqlContextModel.Context::next tracks the previous word, clause and declared variables")
+    public void testContextTokens() {
+        AqlContextModel.Context context = AqlContextModel.Context.START;
+        assertEquals("", context.getPreviousWord());
+        assertNull(context.getClause());
+
+        context = context.next(Token.RESERVED_WORD, "for", 0)
+                .next(Token.WHITESPACE, " ", 3)
+                .next(Token.VARIABLE, "v", 4)
+                .next(Token.WHITESPACE, " ", 5)
+                .next(Token.RESERVED_WORD, "in", 6);
+        assertEquals("in", context.getPreviousWord());
+        assertEquals("IN", context.getClause());
+        assertEquals(Set.of("v"), context.getVariables());
+
+        context = context.next(Token.WHITESPACE, " ", 8)
+                .next(Token.LITERAL_STRING_DOUBLE_QUOTE, "'", 9)
+                .next(Token.LITERAL_STRING_DOUBLE_QUOTE, "imdb_vertices/1", 10)
+                .next(Token.LITERAL_STRING_DOUBLE_QUOTE, "'", 25)
+                .next(Token.COMMENT_EOL, "// IN", 27);
+        assertEquals("'imdb_vertices/1'", context.getPreviousWord());
+        assertEquals("IN", context.getClause());
+
+        context = context.next(Token.RESERVED_WORD, "LET", 40)
+                .next(Token.VARIABLE, "`total`", 44)
+                .next(Token.SEPARATOR, "=", 52);
+        assertEquals("`total`", context.getPreviousWord());
+        assertEquals("LET", context.getClause());
+        assertEquals(List.of("v", "total"), List.copyOf(context.getVariables()));
+    }
+
+    @Test
+    @DisplayName("AqlContextModel::getContext follows the clause context across lines and edits")
+    public void testDocumentContext() throws BadLocationException {
+        JTextArea textArea = new JTextArea("FOR v IN vertices\n  FILTER v.name == 'x'\n  RETURN ");
+        Document document = textArea.getDocument();
+        AqlContextModel model = AqlContextModel.forDocument(document);
+        assertSame(model, AqlContextModel.forDocument(document));
+
+        AqlContextModel.Context context = model.getContext(document.getLength());
+        assertEquals("RETURN", context.getPreviousWord());
+        assertEquals("RETURN", context.getClause());
+        assertEquals(Set.of("v"), context.getVariables());
+        assertSame(context, model.getContext(document.getLength()));
+
+        long revision = model.getRevision();
+        document.insertString(0, "LET limit = 10\n", null);
+        assertTrue(model.getRevision() > revision);
+
+        context = model.getContext(document.getLength());
+        assertEquals(List.of("limit", "v"), List.copyOf(context.getVariables()));
+        assertEquals("'x'", model.getContext(document.getLength() - "\n  RETURN ".length()).getPreviousWord());
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.text.BadLocationException;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.parser.ParseResult;
+import org.fife.ui.rsyntaxtextarea.parser.ParserNotice;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AqlParserTest {
+
+    private static final String ERROR = "syntax error, unexpected identifier near 'x' at position 2:8 (while parsing)";
+
+    @Test
+    @DisplayName("AqlParser::parse validates in the background and reports cached errors as notices")
+    public void testParse() throws BadLocationException, InterruptedException {
+        AtomicInteger validations = new AtomicInteger();
+        AqlParser parser = new AqlParser(query -> {
+            validations.incrementAndGet();
+            return query.contains(" x") ? AqlParser.Result.invalid(ERROR)
+                    : AqlParser.Result.valid(List.of("limit"), List.of("imdb_vertices"));
+        });
+        RSyntaxDocument document = new RSyntaxDocument("text/aql");
+        String query = "FOR v IN imdb_vertices\nRETURN x v";
+        document.insertString(0, query, null);
+        try {
+            CountDownLatch reparsed = new CountDownLatch(1);
+            parser.setReparse(reparsed::countDown);
+
+            assertTrue(parser.parse(document, "text/aql").getNotices().isEmpty());
+            assertTrue(reparsed.await(5, TimeUnit.SECONDS));
+
+            ParseResult result = parser.parse(document, "text/aql");
+            assertEquals(1, result.getNotices().size());
+            ParserNotice notice = result.getNotices().get(0);
+            assertEquals(ERROR, notice.getMessage());
+            assertEquals(1, notice.getLine());
+            assertEquals(query.indexOf("x v"), notice.getOffset());
+            assertEquals(1, notice.getLength());
+
+            parser.parse(document, "text/aql");
+            assertEquals(1, validations.get());
+            assertFalse(parser.getCachedResult(query).isValid());
+            assertNull(parser.getCachedResult("RETURN 1"));
+        } finally {
+            parser.close();
+        }
+    }
+
+    @Test
+    @DisplayName("AqlParser.Result keeps the position of errors and the names of valid queries")
+    public void testResult() {
+        AqlParser.Result invalid = AqlParser.Result.invalid(ERROR);
+        assertFalse(invalid.isValid());
+        assertEquals(2, invalid.getLine());
+        assertEquals(8, invalid.getColumn());
+        assertEquals(-1, AqlParser.errorOffset("RETURN 1", AqlParser.Result.invalid("unknown")));
+
+        AqlParser.Result valid = AqlParser.Result.valid(List.of("limit"), null);
+        assertTrue(valid.isValid());
+        assertEquals(List.of("limit"), valid.getBindVars());
+        assertEquals(List.of(), valid.getCollections());
+
+        assertEquals(AqlParser.hash("RETURN 1"), AqlParser.hash("RETURN 1"));
+        assertFalse(AqlParser.hash("RETURN 1").equals(AqlParser.hash("RETURN 2")));
+    }
+}
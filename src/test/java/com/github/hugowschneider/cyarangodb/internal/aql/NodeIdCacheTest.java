@@ -0,0 +1,81 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NodeIdCacheTest {
+
+    @Test
+    @DisplayName("NodeIdCache::get filters the complete result of a shorter prefix")
+    public void testLongerPrefix() {
+        NodeIdCache cache = new NodeIdCache(true);
+        cache.put("imdb_vertices", "1", List.of("imdb_vertices/1", "imdb_vertices/12", "imdb_vertices/123",
+                "imdb_vertices/13"));
+
+        assertEquals(List.of("imdb_vertices/12", "imdb_vertices/123"), cache.get("imdb_vertices", "12"));
+        assertEquals(List.of("imdb_vertices/123"), cache.get("imdb_vertices", "123"));
+        assertEquals(List.of(), cache.get("imdb_vertices", "14"));
+        assertNull(cache.get("imdb_vertices", ""));
+        assertNull(cache.get("imdb_edges", "12"));
+    }
+
+    @Test
+    @DisplayName("NodeIdCache::get does not filter a result cut off by the lookup limit")
+    public void testTruncatedResult() {
+        NodeIdCache cache = new NodeIdCache(true);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < NodeIdLookup.MAX_RESULTS; i++) {
+            ids.add("imdb_vertices/1" + i);
+        }
+        cache.put("imdb_vertices", "1", ids);
+
+        assertEquals(ids, cache.get("imdb_vertices", "1"));
+        assertNull(cache.get("imdb_vertices", "12"));
+    }
+
+    @Test
+    @DisplayName("NodeIdCache::get matches case-insensitively unless lookups are case-sensitive")
+    public void testCaseSensitivity() {
+        List<String> ids = List.of("movies/Matrix", "movies/matrix2", "movies/Memento");
+        NodeIdCache sensitive = new NodeIdCache(true);
+        sensitive.put("movies", "", ids);
+        NodeIdCache insensitive = new NodeIdCache(false);
+        insensitive.put("movies", "", ids);
+
+        assertEquals(List.of("movies/matrix2"), sensitive.get("movies", "ma"));
+        assertEquals(List.of("movies/Matrix", "movies/matrix2"), insensitive.get("movies", "MA"));
+    }
+
+    @Test
+    @DisplayName("NodeIdCache::put expires results by time and evicts them by size")
+    public void testExpiryAndEviction() {
+        AtomicLong now = new AtomicLong();
+        NodeIdCache cache = new NodeIdCache(true, 1000, 4, now::get);
+        cache.put("a", "1", List.of("a/1", "a/10"));
+        now.set(500);
+        cache.put("b", "1", List.of("b/1", "b/10"));
+        assertEquals(4, cache.size());
+
+        cache.get("a", "1");
+        cache.put("c", "1", List.of("c/1"));
+        assertEquals(List.of("a/1", "a/10"), cache.get("a", "1"));
+        assertNull(cache.get("b", "1"));
+        assertEquals(3, cache.size());
+
+        now.set(1000);
+        assertNull(cache.get("a", "1"));
+        assertEquals(List.of("c/1"), cache.get("c", "1"));
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertNull(cache.get("c", "1"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.IdCompletionSettings;
+
+public class NodeIdLookupTest {
+
+    @Test
+    @DisplayName("NodeIdLookup::request only looks up the last of a burst of requests")
+    public void testDebounce() throws InterruptedException {
+        AtomicInteger lookups = new AtomicInteger();
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicBoolean onEventDispatchThread = new AtomicBoolean();
+        NodeIdLookup lookup = new NodeIdLookup((collection, prefix) -> {
+            lookups.incrementAndGet();
+            return List.of(collection + "/" + prefix + "0");
+        }, 100, (collection, prefix, ids) -> {
+            onEventDispatchThread.set(SwingUtilities.isEventDispatchThread());
+            delivered.addAll(ids);
+            finished.countDown();
+        });
+
+        lookup.request("imdb_vertices", "1");
+        lookup.request("imdb_vertices", "12");
+        lookup.request("imdb_vertices", "123");
+        assertNull(lookup.getResult("imdb_vertices", "123"));
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(1, lookups.get());
+        assertTrue(onEventDispatchThread.get());
+        assertEquals(List.of("imdb_vertices/1230"), delivered);
+        assertEquals(List.of("imdb_vertices/1230"), lookup.getResult("imdb_vertices", "123"));
+        assertNull(lookup.getResult("imdb_vertices", "12"));
+        lookup.close();
+    }
+
+    @Test
+    @DisplayName("NodeIdLookup::request discards the result of a running stale lookup")
+    public void testCancelRunningLookup() throws InterruptedException {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        List<String> deliveredPrefixes = Collections.synchronizedList(new ArrayList<>());
+        NodeIdLookup lookup = new NodeIdLookup((collection, prefix) -> {
+            if (prefix.equals("1")) {
+                firstStarted.countDown();
+                try {
+                    releaseFirst.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return List.of(collection + "/" + prefix);
+        }, 0, (collection, prefix, ids) -> {
+            deliveredPrefixes.add(prefix);
+            finished.countDown();
+        });
+
+        lookup.request("imdb_vertices", "1");
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        lookup.request("imdb_vertices", "2");
+        releaseFirst.countDown();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(List.of("2"), deliveredPrefixes);
+        assertNull(lookup.getResult("imdb_vertices", "1"));
+        lookup.close();
+    }
+
+    @Test
+    @DisplayName("NodeIdLookup::buildQuery uses a primary index range on _key by default")
+    public void testBuildKeyRangeQuery() {
+        Map<String, Object> bindVars = new HashMap<>();
+        String query = NodeIdLookup.buildQuery(new IdCompletionSettings(), "imdb_vertices", "12", bindVars);
+
+        assertEquals("FOR n IN @@collection FILTER n._key >= @from AND n._key < @to SORT n._key ASC LIMIT 20"
+                + " RETURN n._id", query);
+        assertEquals("imdb_vertices", bindVars.get("@collection"));
+        assertEquals("12", bindVars.get("from"));
+        assertEquals("13", bindVars.get("to"));
+
+        bindVars.clear();
+        query = NodeIdLookup.buildQuery(new IdCompletionSettings(), "imdb_vertices", "", bindVars);
+        assertEquals("FOR n IN @@collection SORT n._key ASC LIMIT 20 RETURN n._id", query);
+    }
+
+    @Test
+    @DisplayName("NodeIdLookup::buildQuery searches a configured view or lower-cased key attribute")
+    public void testBuildCaseInsensitiveQueries() {
+        Map<String, Object> bindVars = new HashMap<>();
+        IdCompletionSettings view = new IdCompletionSettings(IdCompletionSettings.Mode.SEARCH_VIEW, "keys_view",
+                "lower_keys", null);
+        String query = NodeIdLookup.buildQuery(view, "imdb_vertices", "Movie", bindVars);
+
+        assertTrue(query.startsWith("FOR n IN @@view SEARCH ANALYZER(STARTS_WITH(n._key, @prefix), @analyzer)"));
+        assertEquals("keys_view", bindVars.get("@view"));
+        assertEquals("movie", bindVars.get("prefix"));
+        assertEquals(List.of("imdb_vertices"), bindVars.get("collections"));
+
+        bindVars.clear();
+        IdCompletionSettings index = new IdCompletionSettings(IdCompletionSettings.Mode.PERSISTENT_INDEX, null, null,
+                "key_lower");
+        query = NodeIdLookup.buildQuery(index, "imdb_vertices", "Movie", bindVars);
+
+        assertTrue(query.contains("FILTER n.@attribute >= @from AND n.@attribute < @to SORT n.@attribute ASC"));
+        assertEquals("key_lower", bindVars.get("attribute"));
+        assertEquals("movie", bindVars.get("from"));
+        assertEquals("movif", bindVars.get("to"));
+
+        bindVars.clear();
+        IdCompletionSettings incomplete = new IdCompletionSettings(IdCompletionSettings.Mode.SEARCH_VIEW, "keys_view",
+                "", null);
+        assertEquals(IdCompletionSettings.Mode.KEY_RANGE, incomplete.getEffectiveMode());
+        query = NodeIdLookup.buildQuery(incomplete, "imdb_vertices", "Movie", bindVars);
+        assertTrue(query.contains("n._key >= @from"));
+    }
+}
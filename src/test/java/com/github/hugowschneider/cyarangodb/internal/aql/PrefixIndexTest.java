@@ -0,0 +1,39 @@
+package com.github.hugowschneider.cyarangodb.internal.aql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PrefixIndexTest {
+
+    @Test
+    @DisplayName("PrefixIndex::find returns the names starting with a prefix ignoring case")
+    public void testFind() {
+        PrefixIndex index = new PrefixIndex(List.of("imdb_vertices", "IMDB_edges", "movies", "imdb", "Movies2"));
+
+        assertEquals(List.of("imdb", "IMDB_edges", "imdb_vertices"), index.find("imdb"));
+        assertEquals(List.of("IMDB_edges", "imdb_vertices"), index.find("Imdb_"));
+        assertEquals(List.of("movies", "Movies2"), index.find("MOV"));
+        assertEquals(List.of("imdb", "IMDB_edges", "imdb_vertices", "movies", "Movies2"), index.find(""));
+        assertEquals(List.of(), index.find("x"));
+        assertEquals(List.of(), PrefixIndex.EMPTY.find(""));
+    }
+
+    @Test
+    @DisplayName("PrefixIndex::find only visits the matching names of a large index")
+    public void testLargeIndex() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            names.add("collection_" + i);
+        }
+        PrefixIndex index = new PrefixIndex(names);
+
+        assertEquals(10_000, index.size());
+        assertEquals(List.of("collection_9999"), index.find("COLLECTION_9999"));
+        assertEquals(11, index.find("collection_999").size());
+    }
+}
@@ -1,7 +1,11 @@
 package com.github.hugowschneider.cyarangodb.internal.connection;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.time.LocalDateTime;
@@ -14,6 +18,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import com.github.hugowschneider.cyarangodb.internal.aql.NodeIdCache;
 import com.github.hugowschneider.cyarangodb.internal.network.ImportNetworkException;
 import com.github.hugowschneider.cyarangodb.internal.test.Helper;
 
@@ -35,6 +40,7 @@ public class ConnectionManagerTest {
     @AfterEach
     public void tearDown() {
         connectionManager.removeConnection(connectionId);
+        connectionManager.close();
         File file = new File(connectionManager.getFilePath());
         file.delete();
     }
@@ -50,6 +56,26 @@ public class ConnectionManagerTest {
 
     }
 
+    @Test
+    @DisplayName("ConnectionManager::addQueryToHistory folds repeated queries and applies the history limit")
+    public void testAddQueryToHistoryFoldsAndLimits() {
+        connectionManager.getConnection(connectionId).setHistoryLimit(2);
+        connectionManager.addQueryToHistory(connectionId, "RETURN 1");
+        connectionManager.addQueryToHistory(connectionId, "RETURN 2");
+        connectionManager.addQueryToHistory(connectionId, "RETURN 1");
+        connectionManager.addQueryToHistory(connectionId, "RETURN 3");
+
+        List<ConnectionDetails.QueryHistory> history = connectionManager.getQueryHistory(connectionId);
+        assertEquals(2, history.size());
+        assertEquals("RETURN 3", history.get(0).getQuery());
+        assertEquals("RETURN 1", history.get(1).getQuery());
+        assertEquals(2, history.get(1).getRunCount());
+
+        List<ConnectionDetails.QueryHistory> frequent = connectionManager.getQueryHistory(connectionId,
+                QueryHistoryStore.Order.FREQUENT);
+        assertEquals("RETURN 1", frequent.get(0).getQuery());
+    }
+
     @Test
     @DisplayName("ConnectionManager::runHistory")
     public void testRunHistory() throws ImportNetworkException {
@@ -61,12 +87,151 @@ public class ConnectionManagerTest {
         assertEquals(query, history.get(0).getQuery());
     }
 
+    @Test
+    @DisplayName("ConnectionManager::executeQuery stores the execution statistics in the history")
+    public void testExecuteQueryStatistics() {
+        String query = "FOR e IN imdb_edges LIMIT 2 RETURN e";
+        QueryResult result = connectionManager.executeQuery(connectionId, query, true);
+
+        QueryStatistics statistics = result.getStatistics();
+        assertEquals(2, result.getDocuments().size());
+        assertEquals(2, statistics.getResultCount());
+        assertTrue(statistics.getBytesReceived() > 0);
+        assertNotNull(statistics.getExecutionTime());
+        assertNotNull(statistics.getDecodeTime());
+        assertNull(statistics.getBuildTime());
+
+        List<ConnectionDetails.QueryHistory> history = connectionManager.getQueryHistory(connectionId);
+        assertEquals(1, history.size());
+        assertSame(statistics, history.get(0).getStatistics());
+
+        connectionManager.flush();
+
+        ConnectionManager newConnectionManager = new ConnectionManager(tempDir.getAbsolutePath());
+        QueryStatistics loaded = newConnectionManager.getQueryHistory(connectionId).get(0).getStatistics();
+        assertEquals(statistics.getResultCount(), loaded.getResultCount());
+        assertEquals(statistics.getBytesReceived(), loaded.getBytesReceived());
+    }
+
+    @Test
+    @DisplayName("ConnectionManager::runHistory updates the execution statistics of the history entry")
+    public void testRunHistoryStatistics() {
+        String query = "FOR e IN imdb_edges LIMIT 1 RETURN e";
+        connectionManager.addQueryToHistory(connectionId, query);
+        assertNull(connectionManager.getQueryHistory(connectionId).get(0).getStatistics());
+
+        QueryResult result = connectionManager.runHistory(connectionId, 0);
+        assertEquals(1, result.getStatistics().getResultCount());
+        assertSame(result.getStatistics(), connectionManager.getQueryHistory(connectionId).get(0).getStatistics());
+    }
+
+    @Test
+    @DisplayName("ConnectionManager::explain returns the optimizer estimates without executing the query")
+    public void testExplain() {
+        QueryEstimate full = connectionManager.explain(connectionId, "FOR e IN imdb_edges RETURN e");
+        QueryEstimate limited = connectionManager.explain(connectionId, "FOR e IN imdb_edges LIMIT 1 RETURN e");
+
+        assertTrue(full.getEstimatedNrItems() > limited.getEstimatedNrItems());
+        assertEquals(1, limited.getEstimatedNrItems());
+        assertTrue(full.getEstimatedCost() > 0);
+        assertEquals(0, connectionManager.getQueryHistory(connectionId).size());
+    }
+
+    @Test
+    @DisplayName("ConnectionManager::executeQuery runs preview queries of the guardrails")
+    public void testExecutePreviewQuery() {
+        QueryGuardrails guardrails = new QueryGuardrails(true, 0, 1, 0, 3);
+        connectionManager.getConnection(connectionId).setGuardrails(guardrails);
+        connectionManager.saveConnections();
+
+        String query = "FOR e IN imdb_edges RETURN e";
+        assertEquals(QueryGuardrails.Verdict.REFUSE,
+                guardrails.evaluate(connectionManager.explain(connectionId, query)));
+        QueryResult result = connectionManager.executeQuery(connectionId, guardrails.toPreviewQuery(query), false);
+        assertEquals(3, result.getDocuments().size());
+
+        connectionManager.flush();
+
+        ConnectionManager newConnectionManager = new ConnectionManager(tempDir.getAbsolutePath());
+        assertEquals(3, newConnectionManager.getConnection(connectionId).getGuardrails().getPreviewLimit());
+    }
+
+    @Test
+    @DisplayName("ConnectionManager::executeQuery truncates results exceeding the import budget")
+    public void testExecuteQueryTruncation() {
+        connectionManager.getConnection(connectionId).setImportBudget(new ImportBudget(5, 0, 0));
+
+        QueryResult truncated = connectionManager.executeQuery(connectionId, "FOR e IN imdb_edges LIMIT 10 RETURN e",
+                false);
+        assertTrue(truncated.isTruncated());
+        assertEquals(5, truncated.getDocuments().size());
+        assertEquals(5, truncated.getStatistics().getResultCount());
+
+        QueryResult complete = connectionManager.executeQuery(connectionId, "FOR e IN imdb_edges LIMIT 5 RETURN e",
+                false);
+        assertFalse(complete.isTruncated());
+        assertEquals(5, complete.getDocuments().size());
+    }
+
+    @Test
+    @DisplayName("ConnectionManager::executeQueries returns the results in the order of the queries without recording them")
+    public void testExecuteQueries() {
+        List<String> queries = List.of("FOR e IN imdb_edges LIMIT 1 RETURN e", "FOR e IN imdb_edges LIMIT 2 RETURN e",
+                "FOR e IN imdb_edges LIMIT 3 RETURN e", "FOR e IN imdb_edges LIMIT 4 RETURN e",
+                "FOR e IN imdb_edges LIMIT 5 RETURN e", "FOR e IN imdb_edges LIMIT 6 RETURN e");
+
+        List<QueryResult> results = connectionManager.executeQueries(connectionId, queries);
+
+        assertEquals(queries.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1, results.get(i).getDocuments().size());
+            assertNull(results.get(i).getHistoryEntry());
+        }
+        assertEquals(0, connectionManager.getQueryHistorySize(connectionId));
+    }
+
+    @Test
+    @DisplayName("ConnectionManager::executeQueries returns the results of a parameterized query in the order of its bind variables")
+    public void testExecuteQueriesWithBindVars() {
+        List<Map<String, Object>> bindVars = List.of(Map.of("limit", 3), Map.of("limit", 1), Map.of("limit", 2));
+
+        List<QueryResult> results = connectionManager.executeQueries(connectionId,
+                "FOR e IN imdb_edges LIMIT @limit RETURN e", bindVars);
+
+        assertEquals(bindVars.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(bindVars.get(i).get("limit"), results.get(i).getDocuments().size());
+            assertNull(results.get(i).getHistoryEntry());
+        }
+        assertEquals(0, connectionManager.getQueryHistorySize(connectionId));
+    }
+
+    @Test
+    @DisplayName("ConnectionManager::getNodeIdCache shares the node id cache of a connection until its settings change")
+    public void testGetNodeIdCache() {
+        NodeIdCache cache = connectionManager.getNodeIdCache(connectionId);
+        cache.put("imdb_vertices", "1", List.of("imdb_vertices/1000"));
+        assertSame(cache, connectionManager.getNodeIdCache(connectionId));
+        assertTrue(cache.isCaseSensitive());
+
+        connectionManager.getConnection(connectionId).setIdCompletion(new IdCompletionSettings(
+                IdCompletionSettings.Mode.PERSISTENT_INDEX, null, null, "name"));
+        NodeIdCache insensitive = connectionManager.getNodeIdCache(connectionId);
+        assertFalse(insensitive.isCaseSensitive());
+        assertSame(insensitive, connectionManager.getNodeIdCache(connectionId));
+
+        connectionManager.updateConnectionDetails(connectionId, connectionManager.getConnection(connectionId));
+        assertFalse(insensitive == connectionManager.getNodeIdCache(connectionId));
+    }
+
     @Test
     @DisplayName("ConnectionManager::save and load connections")
     public void testSaveAndLoadConnections() {
         String query = "FOR e IN imdb_edges LIMIT 1 RETURN e";
         LocalDateTime dateTime = connectionManager.addQueryToHistory(connectionId, query);
 
+        connectionManager.flush();
+
         ConnectionManager newConnectionManager = new ConnectionManager(tempDir.getAbsolutePath());
         Map<String, ConnectionDetails> loadedConnections = newConnectionManager.getAllConnections();
         assertEquals(1, loadedConnections.size());
@@ -77,6 +242,21 @@ public class ConnectionManagerTest {
         assertEquals(new ConnectionDetails.QueryHistory(query, dateTime), history.get(0));
     }
 
+    @Test
+    @DisplayName("ConnectionManager::saveConnections writes in the background and replaces the file atomically")
+    public void testSaveConnectionsInBackground() {
+        for (int i = 0; i < 100; i++) {
+            connectionManager.updateConnectionDetails(connectionId,
+                    new ConnectionDetails("name_" + i, "localhost", 8529, "root", "", "imdb"));
+        }
+        connectionManager.flush();
+
+        ConnectionManager reloaded = new ConnectionManager(tempDir.getAbsolutePath());
+        assertEquals("name_99", reloaded.getConnection(connectionId).getName());
+        assertFalse(new File(tempDir, ConnectionManager.ARANGODB_CONNECTION_JSON + ".tmp").exists());
+        reloaded.close();
+    }
+
     @Test
     @DisplayName("ConnectionManager::removeConnection removes the connection correctly")
     public void testRemoveConnection() {
@@ -87,6 +267,8 @@ public class ConnectionManagerTest {
         List<ConnectionDetails.QueryHistory> historyAfterRemoval = connectionManager.getQueryHistory(connectionId);
         assertEquals(0, historyAfterRemoval.size());
 
+        connectionManager.flush();
+
         ConnectionManager recreatedConnectionManager = new ConnectionManager(tempDir.getAbsolutePath());
         Map<String, ConnectionDetails> loadedConnectionsAfterRemoval = recreatedConnectionManager.getAllConnections();
         assertEquals(0, loadedConnectionsAfterRemoval.size());
@@ -102,6 +284,8 @@ public class ConnectionManagerTest {
         List<ConnectionDetails.QueryHistory> historyAfterDeletion = connectionManager.getQueryHistory(connectionId);
         assertEquals(0, historyAfterDeletion.size());
 
+        connectionManager.flush();
+
         ConnectionManager recreatedConnectionManager = new ConnectionManager(tempDir.getAbsolutePath());
 
         List<ConnectionDetails.QueryHistory> loadedHistoryAfterDeletion = recreatedConnectionManager
@@ -126,6 +310,8 @@ public class ConnectionManagerTest {
         assertEquals(updatedDetails.getDatabase(), retrievedDetails.getDatabase());
         assertEquals(updatedDetails, retrievedDetails);
 
+        connectionManager.flush();
+
         ConnectionManager recreatedConnectionManager = new ConnectionManager(tempDir.getAbsolutePath());
 
         ConnectionDetails reloadedDetails = recreatedConnectionManager.getConnection(connectionId);
@@ -0,0 +1,65 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ImportBudgetTest {
+
+    private static final long MAX_HEAP = 1024L * 1024 * 1024;
+
+    @Test
+    @DisplayName("ImportBudget::check allows results within the budget")
+    public void testCheckWithinBudget() {
+        ImportBudget budget = new ImportBudget(10, 1, 50);
+        assertNull(budget.check(9, 1024, MAX_HEAP));
+    }
+
+    @Test
+    @DisplayName("ImportBudget::check stops at the document limit")
+    public void testCheckDocumentLimit() {
+        ImportBudget budget = new ImportBudget(10, 1, 50);
+        String reason = budget.check(10, 1024, MAX_HEAP);
+        assertNotNull(reason);
+        assertTrue(reason.contains("10 documents"));
+    }
+
+    @Test
+    @DisplayName("ImportBudget::check stops at the size limit")
+    public void testCheckSizeLimit() {
+        ImportBudget budget = new ImportBudget(10, 1, 50);
+        String reason = budget.check(1, 1024 * 1024, MAX_HEAP);
+        assertNotNull(reason);
+        assertTrue(reason.contains("1 MB"));
+    }
+
+    @Test
+    @DisplayName("ImportBudget::check stops at the estimated heap limit")
+    public void testCheckHeapLimit() {
+        ImportBudget budget = new ImportBudget(0, 0, 10);
+        long bytes = MAX_HEAP / 10 / ImportBudget.HEAP_BYTES_PER_RECEIVED_BYTE;
+        assertNull(budget.check(1, bytes - 1024, MAX_HEAP));
+        String reason = budget.check(1, bytes, MAX_HEAP);
+        assertNotNull(reason);
+        assertTrue(reason.contains("10%"));
+    }
+
+    @Test
+    @DisplayName("ImportBudget::check ignores disabled limits")
+    public void testCheckDisabled() {
+        ImportBudget budget = new ImportBudget(0, 0, 0);
+        assertNull(budget.check(Long.MAX_VALUE, Long.MAX_VALUE, MAX_HEAP));
+    }
+
+    @Test
+    @DisplayName("ImportBudget::new Test if the default budget is unlimited and the suggested one is opt-in")
+    public void testDefaultBudget() {
+        assertNull(new ImportBudget().check(Long.MAX_VALUE, Long.MAX_VALUE, MAX_HEAP));
+        assertNull(new ConnectionDetails("name", "localhost", 8529, "root", "", "imdb").getImportBudget()
+                .check(Long.MAX_VALUE, Long.MAX_VALUE, MAX_HEAP));
+        assertNotNull(ImportBudget.suggested().check(ImportBudget.SUGGESTED_MAX_DOCUMENTS, 0, MAX_HEAP));
+    }
+}
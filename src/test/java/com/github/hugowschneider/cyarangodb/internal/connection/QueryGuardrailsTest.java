@@ -0,0 +1,72 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class QueryGuardrailsTest {
+
+    @Test
+    @DisplayName("QueryGuardrails::evaluate accepts queries below the thresholds")
+    public void testEvaluateAccept() {
+        QueryGuardrails guardrails = new QueryGuardrails(true, 100, 1000, 0, 10);
+        assertEquals(QueryGuardrails.Verdict.ACCEPT, guardrails.evaluate(new QueryEstimate(100, 1e9)));
+    }
+
+    @Test
+    @DisplayName("QueryGuardrails::evaluate warns above the warning threshold")
+    public void testEvaluateWarn() {
+        QueryGuardrails guardrails = new QueryGuardrails(true, 100, 1000, 0, 10);
+        assertEquals(QueryGuardrails.Verdict.WARN, guardrails.evaluate(new QueryEstimate(101, 1)));
+    }
+
+    @Test
+    @DisplayName("QueryGuardrails::evaluate refuses above the item or cost thresholds")
+    public void testEvaluateRefuse() {
+        QueryGuardrails guardrails = new QueryGuardrails(true, 100, 1000, 500, 10);
+        assertEquals(QueryGuardrails.Verdict.REFUSE, guardrails.evaluate(new QueryEstimate(1001, 1)));
+        assertEquals(QueryGuardrails.Verdict.REFUSE, guardrails.evaluate(new QueryEstimate(1, 501)));
+    }
+
+    @Test
+    @DisplayName("QueryGuardrails::evaluate ignores disabled thresholds")
+    public void testEvaluateDisabled() {
+        QueryGuardrails guardrails = new QueryGuardrails(true, 0, 0, 0, 10);
+        assertEquals(QueryGuardrails.Verdict.ACCEPT, guardrails.evaluate(new QueryEstimate(Long.MAX_VALUE, 1e12)));
+    }
+
+    @Test
+    @DisplayName("QueryGuardrails::toPreviewQuery wraps the query with a LIMIT")
+    public void testToPreviewQuery() {
+        QueryGuardrails guardrails = new QueryGuardrails(true, 100, 1000, 0, 10);
+        assertEquals("FOR preview IN (\nFOR e IN imdb_edges RETURN e\n) LIMIT 10 RETURN preview",
+                guardrails.toPreviewQuery("FOR e IN imdb_edges RETURN e"));
+    }
+
+    @Test
+    @DisplayName("QueryGuardrails::toPreviewQuery keeps a leading WITH clause outside of the subquery")
+    public void testToPreviewQueryWith() {
+        QueryGuardrails guardrails = new QueryGuardrails(true, 100, 1000, 0, 10);
+        assertEquals("WITH imdb_vertices, imdb_edges\nFOR preview IN (\n"
+                + "FOR v IN 1..3 ANY 'imdb_vertices/1000' imdb_edges RETURN v\n) LIMIT 10 RETURN preview",
+                guardrails.toPreviewQuery(
+                        "WITH imdb_vertices, imdb_edges\nFOR v IN 1..3 ANY 'imdb_vertices/1000' imdb_edges RETURN v"));
+    }
+
+    @Test
+    @DisplayName("ConnectionDetails::getGuardrails defaults to the default thresholds")
+    public void testDefaultGuardrails() {
+        ConnectionDetails details = new ConnectionDetails("name", "localhost", 8529, "root", "", "imdb");
+        QueryGuardrails guardrails = details.getGuardrails();
+        assertFalse(guardrails.isExplainBeforeRun());
+        assertEquals(QueryGuardrails.DEFAULT_MAX_ESTIMATED_ITEMS, guardrails.getMaxEstimatedItems());
+        assertEquals(QueryGuardrails.DEFAULT_WARN_ESTIMATED_ITEMS, guardrails.getWarnEstimatedItems());
+        assertEquals(QueryGuardrails.DEFAULT_PREVIEW_LIMIT, guardrails.getPreviewLimit());
+
+        details.setGuardrails(new QueryGuardrails(true, 0, 0, 0, 10));
+        assertTrue(details.getGuardrails().isExplainBeforeRun());
+    }
+}
@@ -0,0 +1,265 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+public class QueryHistoryStoreTest {
+
+    @TempDir
+    File tempDir;
+
+    private Gson gson;
+    private QueryHistoryStore store;
+
+    @BeforeEach
+    public void setUp() {
+        gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new ConnectionManager.LocalDateTimeAdapter())
+                .create();
+        store = new QueryHistoryStore(tempDir.getAbsolutePath(), gson);
+    }
+
+    private ConnectionDetails.QueryHistory entry(String query) {
+        return new ConnectionDetails.QueryHistory(query, LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore::getHistory returns entries most recent first and survives a reload")
+    public void testPutAndReload() {
+        ConnectionDetails.QueryHistory first = entry("RETURN 1");
+        ConnectionDetails.QueryHistory second = entry("RETURN 2");
+        store.put("connection", first);
+        store.put("connection", second);
+
+        assertEquals(List.of(second, first), store.getHistory("connection"));
+        assertEquals(0, store.getHistory("other").size());
+
+        QueryHistoryStore reloaded = new QueryHistoryStore(tempDir.getAbsolutePath(), gson);
+        assertEquals(List.of(second, first), reloaded.getHistory("connection"));
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore::put replaces entries with the same id")
+    public void testPutReplaces() {
+        ConnectionDetails.QueryHistory first = entry("RETURN 1");
+        store.put("connection", first);
+        first.setStatistics(new QueryStatistics());
+        store.put("connection", first);
+
+        QueryHistoryStore reloaded = new QueryHistoryStore(tempDir.getAbsolutePath(), gson);
+        List<ConnectionDetails.QueryHistory> history = reloaded.getHistory("connection");
+        assertEquals(1, history.size());
+        assertTrue(history.get(0).getStatistics() != null);
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore::delete and clear remove entries")
+    public void testDeleteAndClear() {
+        ConnectionDetails.QueryHistory first = entry("RETURN 1");
+        ConnectionDetails.QueryHistory second = entry("RETURN 2");
+        store.put("connection", first);
+        store.put("connection", second);
+        store.put("other", entry("RETURN 3"));
+
+        store.delete("connection", first.getId());
+        store.clear("other");
+
+        QueryHistoryStore reloaded = new QueryHistoryStore(tempDir.getAbsolutePath(), gson);
+        assertEquals(List.of(second), reloaded.getHistory("connection"));
+        assertEquals(0, reloaded.getHistory("other").size());
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore::compact rewrites the journal with one record per entry")
+    public void testCompact() throws IOException {
+        ConnectionDetails.QueryHistory kept = entry("RETURN 1");
+        store.put("connection", kept);
+        for (int i = 0; i < 10; i++) {
+            ConnectionDetails.QueryHistory removed = entry("RETURN " + (i + 2));
+            store.put("connection", removed);
+            store.delete("connection", removed.getId());
+        }
+        assertEquals(21, Files.readAllLines(store.getJournalPath()).size());
+
+        store.compact();
+
+        assertEquals(1, Files.readAllLines(store.getJournalPath()).size());
+        QueryHistoryStore reloaded = new QueryHistoryStore(tempDir.getAbsolutePath(), gson);
+        assertEquals(List.of(kept), reloaded.getHistory("connection"));
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore::record folds runs of the same query into one entry")
+    public void testRecordFoldsRuns() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        ConnectionDetails.QueryHistory first = store.record("connection", "RETURN 1", start, null, 0);
+        store.record("connection", "RETURN 2", start.plusMinutes(1), null, 0);
+        QueryStatistics statistics = new QueryStatistics();
+        ConnectionDetails.QueryHistory rerun = store.record("connection", " RETURN 1\n", start.plusMinutes(2),
+                statistics, 0);
+
+        assertEquals(first.getId(), rerun.getId());
+        assertEquals(2, rerun.getRunCount());
+        List<ConnectionDetails.QueryHistory> history = store.getHistory("connection");
+        assertEquals(2, history.size());
+        assertEquals(rerun, history.get(0));
+        assertSame(statistics, history.get(0).getStatistics());
+
+        QueryHistoryStore reloaded = new QueryHistoryStore(tempDir.getAbsolutePath(), gson);
+        List<ConnectionDetails.QueryHistory> reloadedHistory = reloaded.getHistory("connection");
+        assertEquals(history, reloadedHistory);
+        assertEquals(2, reloadedHistory.get(0).getRunCount());
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore::getHistory orders entries by run count")
+    public void testFrequencyOrder() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        store.record("connection", "RETURN 1", start, null, 0);
+        store.record("connection", "RETURN 1", start.plusMinutes(1), null, 0);
+        store.record("connection", "RETURN 1", start.plusMinutes(2), null, 0);
+        store.record("connection", "RETURN 2", start.plusMinutes(3), null, 0);
+        store.record("connection", "RETURN 2", start.plusMinutes(4), null, 0);
+        store.record("connection", "RETURN 3", start.plusMinutes(5), null, 0);
+        store.record("connection", "RETURN 4", start.plusMinutes(6), null, 0);
+
+        List<String> frequent = new ArrayList<>();
+        List<ConnectionDetails.QueryHistory> frequentHistory = store.getHistory("connection",
+                QueryHistoryStore.Order.FREQUENT);
+        for (ConnectionDetails.QueryHistory entry : frequentHistory) {
+            frequent.add(entry.getQuery());
+        }
+        assertEquals(List.of("RETURN 1", "RETURN 2", "RETURN 4", "RETURN 3"), frequent);
+
+        List<String> recent = new ArrayList<>();
+        List<ConnectionDetails.QueryHistory> recentHistory = store.getHistory("connection",
+                QueryHistoryStore.Order.RECENT);
+        for (ConnectionDetails.QueryHistory entry : recentHistory) {
+            recent.add(entry.getQuery());
+        }
+        assertEquals(List.of("RETURN 4", "RETURN 3", "RETURN 2", "RETURN 1"), recent);
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore::getHistory returns pages of the ordered history")
+    public void testHistoryPages() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (int i = 0; i < 25; i++) {
+            store.record("connection", "RETURN " + i, start.plusMinutes(i), null, 0);
+        }
+
+        assertEquals(25, store.getHistorySize("connection"));
+        assertEquals(0, store.getHistorySize("other"));
+        List<ConnectionDetails.QueryHistory> page = store.getHistory("connection", QueryHistoryStore.Order.RECENT,
+                10, 10);
+        assertEquals(10, page.size());
+        assertEquals("RETURN 14", page.get(0).getQuery());
+        assertEquals(5, store.getHistory("connection", QueryHistoryStore.Order.RECENT, 20, 10).size());
+        assertEquals(0, store.getHistory("connection", QueryHistoryStore.Order.RECENT, 25, 10).size());
+
+        store.record("connection", "RETURN 0", start.plusMinutes(30), null, 0);
+        assertEquals("RETURN 0",
+                store.getHistory("connection", QueryHistoryStore.Order.FREQUENT, 0, 1).get(0).getQuery());
+        assertEquals("RETURN 0",
+                store.getHistory("connection", QueryHistoryStore.Order.RECENT, 0, 1).get(0).getQuery());
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore::search finds entries through the token index")
+    public void testSearch() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        store.record("connection", "FOR e IN imdb_edges RETURN e", start, null, 0);
+        store.record("connection", "FOR v IN 1..2 OUTBOUND 'imdb_nodes/1' imdb_edges RETURN v", start.plusMinutes(1),
+                null, 0);
+        store.record("connection", "FOR n IN imdb_nodes RETURN n", start.plusMinutes(2), null, 0);
+
+        List<ConnectionDetails.QueryHistory> matches = store.search("connection", "IMDB_EDGES",
+                QueryHistoryStore.Order.RECENT);
+        assertEquals(2, matches.size());
+        assertEquals("FOR v IN 1..2 OUTBOUND 'imdb_nodes/1' imdb_edges RETURN v", matches.get(0).getQuery());
+        assertEquals(3, store.search("connection", " ", QueryHistoryStore.Order.RECENT).size());
+        assertEquals(0, store.search("other", "imdb_edges", QueryHistoryStore.Order.RECENT).size());
+
+        store.delete("connection", matches.get(0).getId());
+        assertEquals(1, store.search("connection", "imdb_edges", QueryHistoryStore.Order.RECENT).size());
+
+        QueryHistoryStore reloaded = new QueryHistoryStore(tempDir.getAbsolutePath(), gson);
+        assertEquals(1, reloaded.search("connection", "imdb_nodes", QueryHistoryStore.Order.RECENT).size());
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore::record removes the least recently run entries above the limit")
+    public void testRecordLimit() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        store.record("connection", "RETURN 1", start, null, 2);
+        store.record("connection", "RETURN 2", start.plusMinutes(1), null, 2);
+        store.record("connection", "RETURN 1", start.plusMinutes(2), null, 2);
+        store.record("connection", "RETURN 3", start.plusMinutes(3), null, 2);
+
+        List<ConnectionDetails.QueryHistory> history = store.getHistory("connection");
+        assertEquals(2, history.size());
+        assertEquals("RETURN 3", history.get(0).getQuery());
+        assertEquals("RETURN 1", history.get(1).getQuery());
+
+        QueryHistoryStore reloaded = new QueryHistoryStore(tempDir.getAbsolutePath(), gson);
+        assertEquals(history, reloaded.getHistory("connection"));
+    }
+
+    @Test
+    @DisplayName("QueryHistoryStore skips unreadable journal records")
+    public void testUnreadableRecord() throws IOException {
+        ConnectionDetails.QueryHistory first = entry("RETURN 1");
+        store.put("connection", first);
+        Files.write(store.getJournalPath(), "{\"op\":\"put\",\"conn".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        QueryHistoryStore reloaded = new QueryHistoryStore(tempDir.getAbsolutePath(), gson);
+        assertEquals(List.of(first), reloaded.getHistory("connection"));
+    }
+
+    @Test
+    @DisplayName("ConnectionManager migrates the history of legacy connection files into the store")
+    public void testLegacyMigration() throws IOException {
+        String legacy = "{\"legacy\":{\"host\":\"localhost\",\"port\":8529,\"user\":\"root\",\"password\":\"\","
+                + "\"database\":\"imdb\",\"name\":\"legacy\",\"history\":["
+                + "{\"query\":\"RETURN 1\",\"executedAt\":\"2024-01-01T10:00:00\"},"
+                + "{\"query\":\"RETURN 2\",\"executedAt\":\"2024-01-02T10:00:00\"},"
+                + "{\"query\":\"RETURN 1\",\"executedAt\":\"2024-01-03T10:00:00\"}]}}";
+        Files.write(new File(tempDir, ConnectionManager.ARANGODB_CONNECTION_JSON).toPath(),
+                legacy.getBytes(StandardCharsets.UTF_8));
+
+        ConnectionManager connectionManager = new ConnectionManager(tempDir.getAbsolutePath());
+        connectionManager.flush();
+        List<ConnectionDetails.QueryHistory> history = connectionManager.getQueryHistory("legacy");
+        assertEquals(2, history.size());
+        assertEquals("RETURN 1", history.get(0).getQuery());
+        assertEquals(2, history.get(0).getRunCount());
+
+        String connectionFile = new String(
+                Files.readAllBytes(new File(tempDir, ConnectionManager.ARANGODB_CONNECTION_JSON).toPath()),
+                StandardCharsets.UTF_8);
+        assertTrue(!connectionFile.contains("history"));
+
+        ConnectionManager reloaded = new ConnectionManager(tempDir.getAbsolutePath());
+        assertEquals(history, reloaded.getQueryHistory("legacy"));
+        assertEquals(2, reloaded.getQueryHistory("legacy").get(0).getRunCount());
+    }
+}
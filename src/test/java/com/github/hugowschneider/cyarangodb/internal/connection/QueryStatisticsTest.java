@@ -0,0 +1,41 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.arangodb.util.RawJson;
+
+public class QueryStatisticsTest {
+
+    @Test
+    @DisplayName("QueryStatistics::of Test if the received size counts the UTF-8 bytes of the documents")
+    public void testBytesReceived() {
+        String json = "{\"name\":\"Am\u00e9lie \u4e2d \ud83c\udfac\"}";
+        QueryStatistics statistics = QueryStatistics.of(null, List.of(RawJson.of(json), RawJson.of("{}")), 5);
+
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length + 2, statistics.getBytesReceived());
+        assertEquals(2, statistics.getResultCount());
+    }
+
+    @Test
+    @DisplayName("QueryStatistics::setLayoutTime Test if the listener is notified whether set before or after the layout time")
+    public void testLayoutTimeListener() {
+        AtomicInteger calls = new AtomicInteger();
+        QueryStatistics statistics = new QueryStatistics();
+        statistics.setLayoutTimeListener(calls::incrementAndGet);
+        assertEquals(0, calls.get());
+        statistics.setLayoutTime(12L);
+        assertEquals(1, calls.get());
+
+        QueryStatistics measured = new QueryStatistics();
+        measured.setLayoutTime(3L);
+        measured.setLayoutTimeListener(calls::incrementAndGet);
+        assertEquals(2, calls.get());
+    }
+}
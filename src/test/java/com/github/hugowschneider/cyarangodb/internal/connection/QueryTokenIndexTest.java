@@ -0,0 +1,57 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class QueryTokenIndexTest {
+
+    @Test
+    @DisplayName("QueryTokenIndex::tokenize extracts identifiers, collections and string literals")
+    public void testTokenize() {
+        Set<String> tokens = QueryTokenIndex
+                .tokenize("FOR v IN 1..2 OUTBOUND 'imdb_nodes/Matrix' imdb_edges FILTER v.title == \"The Matrix\""
+                        + " RETURN `my-collection`");
+
+        assertTrue(tokens.contains("for"));
+        assertTrue(tokens.contains("outbound"));
+        assertTrue(tokens.contains("imdb_edges"));
+        assertTrue(tokens.contains("title"));
+        assertTrue(tokens.contains("imdb_nodes/matrix"));
+        assertTrue(tokens.contains("imdb_nodes"));
+        assertTrue(tokens.contains("the matrix"));
+        assertTrue(tokens.contains("matrix"));
+        assertTrue(tokens.contains("my-collection"));
+        assertTrue(!tokens.contains("1"));
+    }
+
+    @Test
+    @DisplayName("QueryTokenIndex::search matches every search token by prefix")
+    public void testSearch() {
+        QueryTokenIndex index = new QueryTokenIndex();
+        index.add("traversal", "FOR v IN 1..3 OUTBOUND 'imdb_nodes/1' imdb_edges RETURN v");
+        index.add("scan", "FOR e IN imdb_edges LIMIT 10 RETURN e");
+        index.add("movies", "FOR m IN imdb_nodes FILTER m.type == 'Movie' RETURN m");
+
+        assertEquals(Set.of("traversal", "scan"), index.search("imdb_edges"));
+        assertEquals(Set.of("traversal"), index.search("imdb_ed outbound"));
+        assertEquals(Set.of("movies"), index.search("\"movie\""));
+        assertEquals(Set.of(), index.search("inbound"));
+        assertNull(index.search("  == "));
+
+        index.remove("traversal");
+        assertEquals(Set.of("scan"), index.search("imdb_edges"));
+        assertEquals(Set.of(), index.search("outbound"));
+
+        index.add("scan", "RETURN 1");
+        assertEquals(Set.of(), index.search("imdb_edges"));
+        index.remove("scan");
+        index.remove("movies");
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.hugowschneider.cyarangodb.internal.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SchemaCatalogTest {
+
+    private static SchemaCatalog.Snapshot snapshot(String collection) {
+        return new SchemaCatalog.Snapshot(List.of(collection), List.of("edges"),
+                Map.of("graph", Collections.emptyList()));
+    }
+
+    @Test
+    @DisplayName("SchemaCatalog::getSnapshot loads in the background and refreshes after the time to live")
+    public void testRefresh() {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicLong now = new AtomicLong(100);
+        List<Runnable> tasks = new ArrayList<>();
+        SchemaCatalog catalog = new SchemaCatalog(() -> snapshot("vertices" + loads.incrementAndGet()), tasks::add,
+                1000, 100, now::get);
+        List<SchemaCatalog.Snapshot> refreshed = new ArrayList<>();
+        catalog.addListener((source, loaded) -> refreshed.add(loaded));
+
+        assertSame(SchemaCatalog.Snapshot.EMPTY, catalog.getSnapshot());
+        assertSame(SchemaCatalog.Snapshot.EMPTY, catalog.getSnapshot());
+        assertEquals(1, tasks.size());
+        assertFalse(catalog.isLoaded());
+
+        tasks.remove(0).run();
+        assertTrue(catalog.isLoaded());
+        assertEquals(1, refreshed.size());
+        assertSame(refreshed.get(0), catalog.getSnapshot());
+        assertEquals(List.of("vertices1"), catalog.getSnapshot().getDocumentCollections());
+        assertEquals(List.of("graph"), catalog.getSnapshot().getGraphNames());
+        assertTrue(catalog.getSnapshot().hasCollection("edges"));
+        assertTrue(tasks.isEmpty());
+
+        now.set(1100);
+        assertEquals(List.of("vertices1"), catalog.getSnapshot().getDocumentCollections());
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(List.of("vertices2"), catalog.getSnapshot().getDocumentCollections());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("SchemaCatalog::refresh keeps the last schema when loading fails, backs off and reports each failure streak once")
+    public void testFailedRefresh() {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicLong now = new AtomicLong(100);
+        List<Runnable> tasks = new ArrayList<>();
+        SchemaCatalog catalog = new SchemaCatalog(() -> {
+            int load = loads.incrementAndGet();
+            if (load >= 2 && load <= 4) {
+                throw new IllegalStateException("unreachable");
+            }
+            return snapshot("vertices");
+        }, tasks::add, 1000, 100, now::get);
+        List<Exception> failures = new ArrayList<>();
+        catalog.addListener(new SchemaCatalog.Listener() {
+            @Override
+            public void catalogRefreshed(SchemaCatalog source, SchemaCatalog.Snapshot loaded) {
+            }
+
+            @Override
+            public void catalogFailed(SchemaCatalog source, Exception error) {
+                failures.add(error);
+            }
+        });
+
+        catalog.refresh();
+        tasks.remove(0).run();
+        assertNull(catalog.getError());
+
+        catalog.refresh();
+        tasks.remove(0).run();
+        assertNotNull(catalog.getError());
+        assertEquals(1, failures.size());
+        assertEquals(List.of("vertices"), catalog.getSnapshot().getDocumentCollections());
+        assertTrue(tasks.isEmpty());
+
+        now.set(200);
+        catalog.getSnapshot();
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertNotNull(catalog.getError());
+        assertEquals(1, failures.size());
+
+        now.set(399);
+        catalog.getSnapshot();
+        assertTrue(tasks.isEmpty());
+        now.set(400);
+        catalog.getSnapshot();
+        tasks.remove(0).run();
+        assertEquals(1, failures.size());
+
+        now.set(800);
+        catalog.getSnapshot();
+        tasks.remove(0).run();
+        assertNull(catalog.getError());
+        assertEquals(5, loads.get());
+    }
+}
@@ -1,7 +1,9 @@
 package com.github.hugowschneider.cyarangodb.internal.network;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.HashSet;
@@ -28,6 +30,7 @@ import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetada
 import com.github.hugowschneider.cyarangodb.internal.network.ArangoNetworkMetadata.NodeExpansionMetadata;
 import com.github.hugowschneider.cyarangodb.internal.test.DependsOnConnectionManager;
 import com.github.hugowschneider.cyarangodb.internal.test.Helper;
+import com.google.gson.Gson;
 
 @TestInstance(Lifecycle.PER_CLASS)
 public class ArangoNetworkAdapterTest extends DependsOnConnectionManager {
@@ -126,9 +129,16 @@ public class ArangoNetworkAdapterTest extends DependsOnConnectionManager {
                 "The number of new edges does not match the expected count.");
 
         CyRow row = network.getDefaultNetworkTable().getRow(network.getSUID());
+        ArangoNetworkMetadata stored = adapter.deserialArangoNetworkMetadata(
+                row.get("cyArangoDBMetadata", String.class));
+        assertTrue(stored.getNodeExpansions().isEmpty() && stored.getNetworkExpansions().isEmpty(),
+                "Expansions should only be written to the network table when the metadata is flushed");
+        adapter.flushMetadata();
+
         String pluginMetadata = row.get("cyArangoDBMetadata", String.class);
         assertNotNull(pluginMetadata);
         ArangoNetworkMetadata metadata = adapter.deserialArangoNetworkMetadata(pluginMetadata);
+        assertEquals(pluginMetadata, new Gson().toJson(adapter.getMetadata()));
         if (expandNodeId != null) {
             NodeExpansionMetadata nodeMetadata = metadata.getNodeExpansions().getFirst();
             assertEquals(expandNodeId, nodeMetadata.getNodeId());
@@ -217,4 +227,106 @@ public class ArangoNetworkAdapterTest extends DependsOnConnectionManager {
         assertExpansion(network, newNodes, Helper.EXPAND_EDGE_QUERY, connectionId, null);
     }
 
+    @Test
+    @DisplayName("ArangoNetworkAdapter::removeNodes Test if removed nodes and their edges are added again by a later expansion")
+    public void testRemoveNodes() throws ImportNetworkException {
+        List<RawJson> result = connectionManager.execute(connectionId, Helper.IMPORT_EDGE_QUERY);
+        CyNetwork network = adapter.importEdges(result,
+                new ArangoNetworkMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+
+        CyEdge edge = network.getEdgeList().get(0);
+        CyRow edgeRow = network.getDefaultEdgeTable().getRow(edge.getSUID());
+        String edgeId = edgeRow.get(Constants.EdgeColumns.ID, String.class);
+        CyNode node = edge.getSource();
+        String nodeId = network.getDefaultNodeTable().getRow(node.getSUID()).get(Constants.NodeColumns.ID,
+                String.class);
+        int adjacentEdges = network.getAdjacentEdgeList(node, CyEdge.Type.ANY).size();
+
+        adapter.removeNodes(List.of(node));
+        network.removeNodes(List.of(node));
+        assertFalse(adapter.containsNode(nodeId));
+        assertFalse(adapter.containsEdge(edgeId));
+
+        List<CyNode> newNodes = adapter.expandNetworkEdges(result,
+                new ArangoNetworkMetadata.NetworkExpansionMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+
+        assertEquals(1, newNodes.size());
+        assertEquals(nodeId, network.getDefaultNodeTable().getRow(newNodes.get(0).getSUID())
+                .get(Constants.NodeColumns.ID, String.class));
+        assertEquals(adjacentEdges, network.getAdjacentEdgeList(newNodes.get(0), CyEdge.Type.ANY).size());
+        assertTrue(adapter.containsEdge(edgeId));
+        assertEquals(Helper.EXISTING_EDGES.size(), network.getEdgeCount());
+    }
+
+    @Test
+    @DisplayName("ArangoNetworkAdapter::removeEdges Test if removed edges are added again by a later expansion")
+    public void testRemoveEdges() throws ImportNetworkException {
+        List<RawJson> result = connectionManager.execute(connectionId, Helper.IMPORT_EDGE_QUERY);
+        CyNetwork network = adapter.importEdges(result,
+                new ArangoNetworkMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+
+        CyEdge edge = network.getEdgeList().get(0);
+        String edgeId = network.getDefaultEdgeTable().getRow(edge.getSUID()).get(Constants.EdgeColumns.ID,
+                String.class);
+
+        adapter.removeEdges(List.of(edge));
+        network.removeEdges(List.of(edge));
+        assertFalse(adapter.containsEdge(edgeId));
+
+        List<CyNode> newNodes = adapter.expandNetworkEdges(result,
+                new ArangoNetworkMetadata.NetworkExpansionMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+
+        assertTrue(newNodes.isEmpty());
+        assertTrue(adapter.containsEdge(edgeId));
+        assertEquals(Helper.EXISTING_EDGES.size(), network.getEdgeCount());
+    }
+
+    @Test
+    @DisplayName("ArangoNetworkAdapter::refresh Test if only the elements with a changed revision are updated")
+    public void testRefresh() throws ImportNetworkException {
+        List<RawJson> result = connectionManager.execute(connectionId, Helper.IMPORT_EDGE_QUERY);
+        CyNetwork network = adapter.importEdges(result,
+                new ArangoNetworkMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+
+        NetworkRefreshResult unchanged = adapter.refresh(false);
+        assertEquals(network.getNodeCount() + network.getEdgeCount(), unchanged.getCheckedCount());
+        assertEquals(0, unchanged.getUpdatedCount());
+        assertEquals(0, unchanged.getMissingCount());
+
+        CyRow nodeRow = network.getDefaultNodeTable().getRow(network.getNodeList().get(0).getSUID());
+        CyRow edgeRow = network.getDefaultEdgeTable().getRow(network.getEdgeList().get(0).getSUID());
+        String nodeRevision = nodeRow.get(Constants.NodeColumns.REVISION, String.class);
+        String edgeRevision = edgeRow.get(Constants.EdgeColumns.REVISION, String.class);
+        nodeRow.set(Constants.NodeColumns.REVISION, "stale");
+        nodeRow.set(Constants.NodeColumns.DATA, "stale");
+        edgeRow.set(Constants.EdgeColumns.REVISION, "stale");
+
+        NetworkRefreshResult refreshed = adapter.refresh(false);
+        assertEquals(2, refreshed.getUpdatedCount());
+        assertEquals(0, refreshed.getMissingCount());
+        assertEquals(nodeRevision, nodeRow.get(Constants.NodeColumns.REVISION, String.class));
+        assertEquals(edgeRevision, edgeRow.get(Constants.EdgeColumns.REVISION, String.class));
+        assertTrue(nodeRow.get(Constants.NodeColumns.DATA, String.class).contains(nodeRevision));
+        assertNull(network.getDefaultNodeTable().getColumn(Constants.NodeColumns.MISSING));
+    }
+
+    @Test
+    @DisplayName("ArangoNetworkAdapter::updateDocument Test if the row and the kept document of a node are updated")
+    public void testUpdateDocument() throws ImportNetworkException {
+        List<RawJson> result = connectionManager.execute(connectionId, Helper.IMPORT_EDGE_QUERY);
+        CyNetwork network = adapter.importEdges(result,
+                new ArangoNetworkMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+
+        CyRow row = network.getDefaultNodeTable().getRow(network.getNodeList().get(0).getSUID());
+        String id = row.get(Constants.NodeColumns.ID, String.class);
+        String key = row.get(Constants.NodeColumns.KEY, String.class);
+        String collection = row.get(Constants.NodeColumns.COLLECTION, String.class);
+        adapter.updateDocument(new Gson().toJson(Map.of("_id", id, "_key", key, "_rev", "updated", "name", "Updated")));
+
+        assertEquals("updated", row.get(Constants.NodeColumns.REVISION, String.class));
+        assertEquals(String.format("Updated (%1$s)", collection), row.get(Constants.NodeColumns.NAME, String.class));
+        assertTrue(row.get(Constants.NodeColumns.DATA, String.class).contains("Updated"));
+        assertEquals("updated", adapter.getOrRetriveNode(id).getRevision());
+        assertEquals("Updated", adapter.getOrRetriveNode(id).getAttribute("name"));
+    }
 }
@@ -0,0 +1,121 @@
+package com.github.hugowschneider.cyarangodb.internal.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.cytoscape.ding.NetworkViewTestSupport;
+import org.cytoscape.model.CyNetworkFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import com.arangodb.util.RawJson;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryResult;
+import com.github.hugowschneider.cyarangodb.internal.test.DependsOnConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.test.Helper;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class ExpansionFilterTest extends DependsOnConnectionManager {
+
+    private CyNetworkFactory networkFactory;
+    private final Gson gson = new Gson();
+
+    @BeforeAll
+    public void setUpAll() {
+        super.setupConnection();
+        networkFactory = new NetworkViewTestSupport().getNetworkFactory();
+    }
+
+    @AfterAll
+    public void tearDownAll() {
+        super.tearConnection();
+    }
+
+    @Test
+    @DisplayName("ExpansionFilter::wrap Test if the query is wrapped in a subquery with a leading WITH clause kept outside")
+    public void testWrap() {
+        ExpansionFilter filter = new ExpansionFilter(List.of("v/1"), List.of("e/1", "e/2"));
+        assertEquals(Map.of(ExpansionFilter.KNOWN_NODES, List.of("v/1"), ExpansionFilter.KNOWN_EDGES,
+                List.of("e/1", "e/2")), filter.getBindVars());
+
+        String wrapped = filter.wrap("FOR e IN edges RETURN e // all edges");
+        assertTrue(wrapped.startsWith("FOR doc IN (\nFOR e IN edges RETURN e // all edges\n)\n"));
+        assertTrue(wrapped.contains("@" + ExpansionFilter.KNOWN_EDGES));
+        assertTrue(wrapped.contains("@" + ExpansionFilter.KNOWN_NODES));
+
+        wrapped = filter.wrap("  with imdb_vertices, imdb_edges\nFOR v, e, p IN 1..1 ANY 'v/1' imdb_edges RETURN p");
+        assertTrue(wrapped.startsWith("with imdb_vertices, imdb_edges\nFOR doc IN (\nFOR v, e, p IN 1..1"));
+    }
+
+    @Test
+    @DisplayName("ExpansionFilter::wrap Test if only edges not already in the network are returned")
+    public void testFilterEdges() throws ImportNetworkException {
+        ArangoNetworkAdapter adapter = new ArangoNetworkAdapter(connectionManager.getArangoDatabase(connectionId),
+                networkFactory);
+        adapter.importEdges(connectionManager.execute(connectionId, Helper.IMPORT_EDGE_QUERY),
+                new ArangoNetworkMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+        ExpansionFilter filter = new ExpansionFilter(adapter.getNodeIds(), adapter.getEdgeIds());
+
+        List<RawJson> all = connectionManager.execute(connectionId, Helper.EXPAND_EDGE_QUERY, false);
+        QueryResult result = connectionManager.executeQuery(connectionId, Helper.EXPAND_EDGE_QUERY,
+                filter.wrap(Helper.EXPAND_EDGE_QUERY), filter.getBindVars(), false);
+
+        long known = all.stream().filter(doc -> adapter.containsEdge(id(doc))).count();
+        assertTrue(known > 0);
+        assertEquals(all.size() - known, result.getDocuments().size());
+        for (RawJson doc : result.getDocuments()) {
+            assertFalse(adapter.containsEdge(id(doc)));
+        }
+    }
+
+    @Test
+    @DisplayName("ExpansionFilter::wrap Test if paths only keep the edges and vertices not already in the network")
+    public void testFilterPaths() throws ImportNetworkException {
+        ArangoNetworkAdapter adapter = new ArangoNetworkAdapter(connectionManager.getArangoDatabase(connectionId),
+                networkFactory);
+        adapter.importPaths(connectionManager.execute(connectionId, Helper.IMPORT_PATH_QUERY),
+                new ArangoNetworkMetadata(Helper.IMPORT_PATH_QUERY, connectionId));
+        ExpansionFilter filter = new ExpansionFilter(adapter.getNodeIds(), adapter.getEdgeIds());
+
+        List<RawJson> all = connectionManager.execute(connectionId, Helper.EXPAND_PATH_QUERY, false);
+        QueryResult result = connectionManager.executeQuery(connectionId, Helper.EXPAND_PATH_QUERY,
+                filter.wrap(Helper.EXPAND_PATH_QUERY), filter.getBindVars(), false);
+
+        assertFalse(result.getDocuments().isEmpty());
+        assertTrue(result.getDocuments().size() < all.size());
+        for (RawJson doc : result.getDocuments()) {
+            JsonObject path = gson.fromJson(doc.get(), JsonObject.class);
+            assertFalse(path.getAsJsonArray("edges").isEmpty());
+            for (JsonElement edge : path.getAsJsonArray("edges")) {
+                assertFalse(adapter.containsEdge(edge.getAsJsonObject().get("_id").getAsString()));
+            }
+            List<JsonElement> vertices = path.getAsJsonArray("vertices").asList();
+            assertEquals(Helper.EXPAND_NODE_ID, vertices.get(0).getAsJsonObject().get("_id").getAsString());
+            for (JsonElement vertex : vertices.subList(1, vertices.size())) {
+                assertFalse(adapter.containsNode(vertex.getAsJsonObject().get("_id").getAsString()));
+            }
+        }
+        assertTrue(new QueryResultValidator(result.getDocuments()).isPathList());
+
+        adapter.mergePaths(result.getDocuments());
+        for (RawJson doc : all) {
+            for (JsonElement edge : gson.fromJson(doc.get(), JsonObject.class).getAsJsonArray("edges")) {
+                assertTrue(adapter.containsEdge(edge.getAsJsonObject().get("_id").getAsString()));
+            }
+        }
+    }
+
+    private String id(RawJson doc) {
+        return gson.fromJson(doc.get(), JsonObject.class).get("_id").getAsString();
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.hugowschneider.cyarangodb.internal.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cytoscape.ding.NetworkViewTestSupport;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNetworkFactory;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import com.arangodb.util.RawJson;
+import com.github.hugowschneider.cyarangodb.internal.test.DependsOnConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.test.Helper;
+import com.github.hugowschneider.cyarangodb.internal.test.WalTailStandIn;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class LiveNetworkSyncTest extends DependsOnConnectionManager {
+
+    private CyNetworkFactory networkFactory;
+    private WalTailStandIn standIn;
+
+    @BeforeAll
+    public void setUpAll() {
+        super.setupConnection();
+        networkFactory = new NetworkViewTestSupport().getNetworkFactory();
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        standIn = new WalTailStandIn();
+        standIn.setCollections(Map.of("c1", "imdb_vertices", "c2", "imdb_edges"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        standIn.close();
+    }
+
+    @AfterAll
+    public void tearDownAll() {
+        super.tearConnection();
+    }
+
+    @Test
+    @DisplayName("LiveNetworkSync::poll Test if debounced changes from the log are applied to the network")
+    public void testPoll() throws IOException, ImportNetworkException {
+        ArangoNetworkAdapter adapter = new ArangoNetworkAdapter(connectionManager.getArangoDatabase(connectionId),
+                networkFactory);
+        List<RawJson> result = connectionManager.execute(connectionId, Helper.IMPORT_EDGE_QUERY);
+        CyNetwork network = adapter.importEdges(result,
+                new ArangoNetworkMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+        int edgeCount = network.getEdgeCount();
+        String nodeId = "imdb_vertices/1000";
+        String otherNodeId = Helper.EXISTING_NODE_IDS.stream().filter(id -> !id.equals(nodeId)).findFirst().get();
+        String edgeId = network.getDefaultEdgeTable().getRow(network.getEdgeList().get(0).getSUID())
+                .get(Constants.EdgeColumns.ID, String.class);
+
+        AtomicLong clock = new AtomicLong();
+        LiveNetworkSync sync = new LiveNetworkSync(adapter, new WalTailClient(standIn.getConnectionDetails()), true,
+                500, clock::get);
+        standIn.setLastTick(100);
+        sync.initialize();
+
+        standIn.addTail(List.of(
+                WalTailStandIn.document(101, "c1", "{\"_key\":\"1000\",\"_rev\":\"_live\",\"name\":\"Live\"}"),
+                WalTailStandIn.document(102, "c1", "{\"_key\":\"unrelated\",\"_rev\":\"_x\"}"),
+                WalTailStandIn.removal(103, "c2", edgeId.split("/")[1]),
+                WalTailStandIn.document(104, "c2", String.format(
+                        "{\"_key\":\"live-1\",\"_rev\":\"_y\",\"_from\":\"%1$s\",\"_to\":\"%2$s\"}", nodeId,
+                        otherNodeId))),
+                104, false, true);
+        assertEquals(0, sync.poll());
+        assertEquals(3, sync.getPendingCount());
+        assertTrue(standIn.getRequests().contains("/_db/standin/_api/wal/tail?from=100&lastScanned=0&chunkSize="
+                + WalTailClient.CHUNK_SIZE));
+
+        clock.set(600);
+        assertEquals(3, sync.poll());
+        assertEquals(0, sync.getPendingCount());
+        assertTrue(standIn.getRequests().contains("/_db/standin/_api/wal/tail?from=104&lastScanned=104&chunkSize="
+                + WalTailClient.CHUNK_SIZE));
+
+        CyNode node = network.getNodeList().stream()
+                .filter(n -> nodeId.equals(network.getDefaultNodeTable().getRow(n.getSUID())
+                        .get(Constants.NodeColumns.ID, String.class)))
+                .findFirst().get();
+        CyRow row = network.getDefaultNodeTable().getRow(node.getSUID());
+        assertEquals("_live", row.get(Constants.NodeColumns.REVISION, String.class));
+        assertEquals("Live (imdb_vertices)", row.get(Constants.NodeColumns.NAME, String.class));
+        assertFalse(adapter.containsEdge(edgeId));
+        assertTrue(adapter.containsEdge("imdb_edges/live-1"));
+        assertFalse(adapter.containsNode("imdb_vertices/unrelated"));
+        assertEquals(edgeCount, network.getEdgeCount());
+
+        standIn.addTail(List.of(), 0, false, false);
+        assertEquals(0, sync.poll());
+        assertFalse(adapter.containsEdge("imdb_edges/live-1"));
+        assertTrue(row.get(Constants.NodeColumns.REVISION, String.class).length() > 0);
+        assertFalse("_live".equals(row.get(Constants.NodeColumns.REVISION, String.class)));
+    }
+}
@@ -1,6 +1,9 @@
 package com.github.hugowschneider.cyarangodb.internal.network;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.AdditionalMatchers.or;
@@ -28,7 +31,16 @@ import org.cytoscape.ding.NetworkViewTestSupport;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.session.CySession;
+import org.cytoscape.session.CySessionManager;
+import org.cytoscape.session.events.SessionAboutToBeLoadedEvent;
+import org.cytoscape.session.events.SessionAboutToBeSavedEvent;
+import org.cytoscape.session.events.SessionLoadedEvent;
 import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.events.NetworkAboutToBeDestroyedEvent;
+import org.cytoscape.model.events.NetworkAddedEvent;
 import org.cytoscape.view.layout.CyLayoutAlgorithm;
 import org.cytoscape.view.layout.CyLayoutAlgorithmManager;
 import org.cytoscape.view.model.CyNetworkView;
@@ -366,4 +378,255 @@ public class NetworkManagerTest extends DependsOnConnectionManager {
 
         assertEquals(expectedNodeIds, actualNodeIds);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("NetworkManager::handleEvent should release the adapter of destroyed networks and closed sessions")
+    public void testReleaseAdapters() throws ImportNetworkException {
+        networkView = null;
+
+        doAnswer(invocation -> {
+            networkView = invocation.getArgument(0);
+            return null;
+        }).when(cyNetworkViewManager).addNetworkView(any(CyNetworkView.class));
+
+        List<RawJson> docs = connectionManager.execute(this.connectionId, Helper.IMPORT_PATH_QUERY);
+        ArangoDatabase database = connectionManager.getArangoDatabase(this.connectionId);
+
+        networkManager.importNetwork(docs, database, "imdb",
+                new ArangoNetworkMetadata(Helper.IMPORT_PATH_QUERY, connectionId));
+        CyNetwork first = networkView.getModel();
+        networkManager.importNetwork(docs, database, "imdb2",
+                new ArangoNetworkMetadata(Helper.IMPORT_PATH_QUERY, connectionId));
+        CyNetwork second = networkView.getModel();
+        assertNotNull(networkManager.getAdapter(first));
+        assertNotNull(networkManager.getAdapter(second));
+
+        networkManager.handleEvent(new NetworkAboutToBeDestroyedEvent(cyNetworkManager, first));
+        assertNull(networkManager.getAdapter(first));
+        assertNotNull(networkManager.getAdapter(second));
+
+        CyNetworkView firstView = networkViewTestSupport.getNetworkViewFactory().createNetworkView(first);
+        assertThrows(ImportNetworkException.class, () -> networkManager.expandNetwork(docs, firstView, database,
+                new ArangoNetworkMetadata.NetworkExpansionMetadata(Helper.EXPAND_PATH_QUERY, connectionId)));
+
+        networkManager.handleEvent(new SessionAboutToBeLoadedEvent(mock(CySessionManager.class)));
+        assertNull(networkManager.getAdapter(second));
+    }
+
+    @Test
+    @DisplayName("NetworkManager::handleEvent should rebuild the adapter of networks restored from a session")
+    public void testRestoreNetwork() throws ImportNetworkException {
+        networkView = null;
+
+        doAnswer(invocation -> {
+            networkView = invocation.getArgument(0);
+            return null;
+        }).when(cyNetworkViewManager).addNetworkView(any(CyNetworkView.class));
+
+        List<RawJson> importDocs = connectionManager.execute(this.connectionId, Helper.IMPORT_PATH_QUERY);
+        ArangoDatabase database = connectionManager.getArangoDatabase(this.connectionId);
+
+        networkManager.importNetwork(importDocs, database, "imdb",
+                new ArangoNetworkMetadata(Helper.IMPORT_PATH_QUERY, connectionId));
+        CyNetwork network = networkView.getModel();
+
+        networkManager.handleEvent(new SessionAboutToBeLoadedEvent(mock(CySessionManager.class)));
+        assertNull(networkManager.getAdapter(network));
+
+        CySession session = new CySession.Builder().networks(Set.of(network)).build();
+        networkManager.handleEvent(new SessionLoadedEvent(mock(CySessionManager.class), session, "imdb.cys"));
+        ArangoNetworkAdapter adapter = networkManager.getAdapter(network);
+        assertNotNull(adapter);
+        assertNull(adapter.getDatabase());
+        for (String id : Helper.EXISTING_NODE_IDS) {
+            assertTrue(adapter.containsNode(id));
+        }
+
+        List<RawJson> expandDocs = connectionManager.execute(this.connectionId, Helper.EXPAND_EDGE_QUERY);
+        List<CyNode> newNodes = networkManager.expandNetwork(expandDocs, networkView, database,
+                new ArangoNetworkMetadata.NetworkExpansionMetadata(Helper.EXPAND_EDGE_QUERY, connectionId));
+
+        assertEquals(Helper.EXPECTED_NEW_NODE_IDS.size(), newNodes.size());
+        assertEquals(Helper.EXISTING_EDGES.size() + Helper.EXPECTED_NEW_EDGES.size(), network.getEdgeCount());
+
+        networkManager.handleEvent(new SessionAboutToBeSavedEvent(mock(CySessionManager.class)));
+        ArangoNetworkMetadata metadata = adapter.deserialArangoNetworkMetadata(network.getDefaultNetworkTable()
+                .getRow(network.getSUID()).get(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, String.class));
+        assertEquals(Helper.IMPORT_PATH_QUERY, metadata.getQuery());
+        assertEquals(1, metadata.getNetworkExpansions().size());
+        assertEquals(Helper.EXPAND_EDGE_QUERY, metadata.getNetworkExpansions().get(0).getQuery());
+    }
+
+    @Test
+    @DisplayName("NetworkManager::handleEvent should give copies of a network their own adapter and expansions")
+    public void testCopyNetwork() throws ImportNetworkException {
+        networkView = null;
+
+        doAnswer(invocation -> {
+            networkView = invocation.getArgument(0);
+            return null;
+        }).when(cyNetworkViewManager).addNetworkView(any(CyNetworkView.class));
+
+        List<RawJson> docs = connectionManager.execute(this.connectionId, Helper.IMPORT_PATH_QUERY);
+        ArangoDatabase database = connectionManager.getArangoDatabase(this.connectionId);
+        networkManager.importNetwork(docs, database, "imdb",
+                new ArangoNetworkMetadata(Helper.IMPORT_PATH_QUERY, connectionId));
+        CyNetwork network = networkView.getModel();
+        List<RawJson> expandDocs = connectionManager.execute(this.connectionId, Helper.EXPAND_EDGE_QUERY);
+        networkManager.expandNetwork(expandDocs, networkView, database,
+                new ArangoNetworkMetadata.NetworkExpansionMetadata(Helper.EXPAND_EDGE_QUERY, connectionId));
+
+        CyNetwork copy = cyNetworkFactory.createNetwork();
+        CyTable table = copy.getDefaultNetworkTable();
+        table.createColumn(Constants.NetworkColumns.ID, String.class, true);
+        table.createColumn(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, String.class, true);
+        CyRow row = network.getDefaultNetworkTable().getRow(network.getSUID());
+        for (String column : List.of(Constants.NetworkColumns.ID, Constants.NetworkColumns.ARANGO_NETWORK_METADATA)) {
+            table.getRow(copy.getSUID()).set(column, row.get(column, String.class));
+        }
+        assertNull(networkManager.getAdapter(copy));
+
+        networkManager.handleEvent(new NetworkAddedEvent(cyNetworkManager, copy));
+        ArangoNetworkAdapter copyAdapter = networkManager.getAdapter(copy);
+        assertNotNull(copyAdapter);
+        assertNotEquals(row.get(Constants.NetworkColumns.ID, String.class),
+                table.getRow(copy.getSUID()).get(Constants.NetworkColumns.ID, String.class));
+        assertEquals(1, copyAdapter.getMetadata().getNetworkExpansions().size());
+        assertEquals(Helper.EXPAND_EDGE_QUERY, copyAdapter.getMetadata().getNetworkExpansions().get(0).getQuery());
+
+        copyAdapter.flushMetadata();
+        ArangoNetworkMetadata flushed = copyAdapter.deserialArangoNetworkMetadata(table.getRow(copy.getSUID())
+                .get(Constants.NetworkColumns.ARANGO_NETWORK_METADATA, String.class));
+        assertEquals(1, flushed.getNetworkExpansions().size());
+        assertEquals(1, networkManager.getAdapter(network).getMetadata().getNetworkExpansions().size());
+
+        networkManager.handleEvent(new NetworkAboutToBeDestroyedEvent(cyNetworkManager, copy));
+        assertNull(networkManager.getAdapter(copy));
+        assertNotNull(networkManager.getAdapter(network));
+    }
+
+    @Test
+    @DisplayName("NetworkManager::replayNetwork should rebuild the network from its import and expansion queries")
+    public void testReplayNetwork() throws ImportNetworkException {
+        networkView = null;
+
+        doAnswer(invocation -> {
+            networkView = invocation.getArgument(0);
+            return null;
+        }).when(cyNetworkViewManager).addNetworkView(any(CyNetworkView.class));
+
+        List<RawJson> importDocs = connectionManager.execute(this.connectionId, Helper.IMPORT_PATH_QUERY);
+        ArangoDatabase database = connectionManager.getArangoDatabase(this.connectionId);
+        networkManager.importNetwork(importDocs, database, "imdb",
+                new ArangoNetworkMetadata(Helper.IMPORT_PATH_QUERY, connectionId));
+        CyNetworkView importedView = networkView;
+        List<RawJson> expandDocs = connectionManager.execute(this.connectionId, Helper.EXPAND_EDGE_QUERY);
+        networkManager.expandNetwork(expandDocs, importedView, database,
+                new ArangoNetworkMetadata.NetworkExpansionMetadata(Helper.EXPAND_EDGE_QUERY, connectionId));
+        CyNetwork network = importedView.getModel();
+        int nodeCount = network.getNodeCount();
+        int edgeCount = network.getEdgeCount();
+        networkManager.getAdapter(network).recordExpansions(List.of(new ArangoNetworkMetadata.NodeExpansionMetadata(
+                Helper.EXISTING_NODE_IDS.get(0), "FOR e IN imdb_edges FILTER false RETURN e", connectionId)));
+
+        NetworkImportResult refreshed = networkManager.replayNetwork(importedView, connectionManager, true);
+        assertEquals(nodeCount, refreshed.getNodeCount());
+        assertEquals(edgeCount, refreshed.getEdgeCount());
+        assertEquals(0, refreshed.getTruncatedCount());
+        assertEquals(1, networkManager.getAllNetworkNames().size());
+
+        NetworkImportResult rebuilt = networkManager.replayNetwork(importedView, connectionManager, false);
+        assertEquals(nodeCount, rebuilt.getNodeCount());
+        assertEquals(edgeCount, rebuilt.getEdgeCount());
+        assertTrue(networkManager.getAllNetworkNames().contains("imdb (refreshed)"));
+        CyNetwork rebuiltNetwork = networkView.getModel();
+        assertTrue(networkManager.isImported(rebuiltNetwork));
+        ArangoNetworkMetadata metadata = networkManager.getAdapter(rebuiltNetwork).getMetadata();
+        assertEquals(Helper.IMPORT_PATH_QUERY, metadata.getQuery());
+        assertEquals(1, metadata.getNetworkExpansions().size());
+    }
+
+    @Test
+    @DisplayName("NetworkManager::expandNodes should expand all nodes in chunks and record the nodes with results")
+    public void testExpandNodes() throws ImportNetworkException {
+        networkView = null;
+
+        doAnswer(invocation -> {
+            networkView = invocation.getArgument(0);
+            return null;
+        }).when(cyNetworkViewManager).addNetworkView(any(CyNetworkView.class));
+
+        List<RawJson> importDocs = connectionManager.execute(this.connectionId, Helper.IMPORT_EDGE_QUERY);
+        ArangoDatabase database = connectionManager.getArangoDatabase(this.connectionId);
+        networkManager.importNetwork(importDocs, database, "imdb",
+                new ArangoNetworkMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+        CyNetwork network = networkView.getModel();
+        String query = "FOR id IN @nodeIds\nFOR e IN imdb_edges\nFILTER e._from == id OR e._to == id\nRETURN e";
+
+        assertThrows(ImportNetworkException.class, () -> networkManager.expandNodes(networkView,
+                Helper.EXISTING_NODE_IDS, Helper.EXPAND_EDGE_QUERY, connectionId, connectionManager, null));
+
+        BatchExpansionResult result = networkManager.expandNodes(networkView, Helper.EXISTING_NODE_IDS, query,
+                connectionId, connectionManager, networkManager.createExpansionFilter(network));
+        assertEquals((Helper.EXISTING_NODE_IDS.size() + NetworkManager.NODE_BATCH_SIZE - 1)
+                / NetworkManager.NODE_BATCH_SIZE, result.getChunkCount());
+        assertEquals(0, result.getTruncatedCount());
+        assertTrue(result.getNewNodes().size() > 0);
+
+        ArangoNetworkAdapter adapter = networkManager.getAdapter(network);
+        List<RawJson> expected = connectionManager.execute(this.connectionId,
+                NetworkManager.bindNodeIds(query, Helper.EXISTING_NODE_IDS), false);
+        assertEquals(expected.stream().map(doc -> doc.get()).distinct().count(), network.getEdgeCount());
+
+        List<ArangoNetworkMetadata.NodeExpansionMetadata> expansions = adapter.getMetadata().getNodeExpansions();
+        assertTrue(expansions.size() > 0);
+        assertTrue(expansions.size() <= Helper.EXISTING_NODE_IDS.size());
+        for (ArangoNetworkMetadata.NodeExpansionMetadata expansion : expansions) {
+            String nodeId = expansion.getNodeId();
+            assertTrue(Helper.EXISTING_NODE_IDS.contains(nodeId));
+            assertEquals(query.replace("@nodeIds", "[\"" + nodeId + "\"]"), expansion.getQuery());
+            assertTrue(network.getEdgeList().stream()
+                    .anyMatch(edge -> nodeId.equals(network.getRow(edge.getSource()).get(Constants.NodeColumns.ID,
+                            String.class))
+                            || nodeId.equals(network.getRow(edge.getTarget()).get(Constants.NodeColumns.ID,
+                                    String.class))));
+        }
+
+        int nodeCount = network.getNodeCount();
+        int edgeCount = network.getEdgeCount();
+        NetworkImportResult replayed = networkManager.replayNetwork(networkView, connectionManager, true);
+        assertEquals(nodeCount, replayed.getNodeCount());
+        assertEquals(edgeCount, replayed.getEdgeCount());
+    }
+
+    @Test
+    @DisplayName("NetworkManager::expandNodes should execute and record the rewritten query but keep the original in the history")
+    public void testExpandNodesRewritten() throws ImportNetworkException {
+        networkView = null;
+
+        doAnswer(invocation -> {
+            networkView = invocation.getArgument(0);
+            return null;
+        }).when(cyNetworkViewManager).addNetworkView(any(CyNetworkView.class));
+
+        List<RawJson> importDocs = connectionManager.execute(this.connectionId, Helper.IMPORT_EDGE_QUERY);
+        ArangoDatabase database = connectionManager.getArangoDatabase(this.connectionId);
+        networkManager.importNetwork(importDocs, database, "imdb",
+                new ArangoNetworkMetadata(Helper.IMPORT_EDGE_QUERY, connectionId));
+        CyNetwork network = networkView.getModel();
+        String query = "FOR id IN @nodeIds\nFOR e IN imdb_edges\nFILTER e._from == id OR e._to == id\nRETURN e";
+        String rewrittenQuery = "FOR x IN (" + query + ") LIMIT 1 RETURN x";
+
+        networkManager.expandNodes(networkView, Helper.EXISTING_NODE_IDS, query, rewrittenQuery, connectionId,
+                connectionManager, null);
+
+        List<ArangoNetworkMetadata.NodeExpansionMetadata> expansions = networkManager.getAdapter(network)
+                .getMetadata().getNodeExpansions();
+        assertTrue(expansions.size() > 0);
+        for (ArangoNetworkMetadata.NodeExpansionMetadata expansion : expansions) {
+            assertEquals(NetworkManager.bindNodeIds(rewrittenQuery, List.of(expansion.getNodeId())),
+                    expansion.getQuery());
+        }
+        assertEquals(query, connectionManager.getQueryHistory(connectionId).get(0).getQuery());
+    }
+}
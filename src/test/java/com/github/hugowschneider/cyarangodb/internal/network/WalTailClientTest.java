@@ -0,0 +1,104 @@
+package com.github.hugowschneider.cyarangodb.internal.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionDetails;
+import com.github.hugowschneider.cyarangodb.internal.test.WalTailStandIn;
+
+public class WalTailClientTest {
+
+    private WalTailStandIn standIn;
+    private WalTailClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        standIn = new WalTailStandIn();
+        standIn.setCollections(Map.of("c1", "imdb_vertices", "c2", "imdb_edges"));
+        client = new WalTailClient(standIn.getConnectionDetails());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        standIn.close();
+    }
+
+    @Test
+    @DisplayName("WalTailClient::tail Test if document changes are read with their collection and position")
+    public void testTail() throws IOException {
+        standIn.setLastTick(42);
+        assertEquals(42, client.getLastTick());
+
+        standIn.addTail(List.of(
+                WalTailStandIn.document(43, "c1", "{\"_key\":\"1\",\"_rev\":\"_a\",\"name\":\"Matrix\"}"),
+                "{\"tick\":\"44\",\"type\":2200,\"db\":\"standin\",\"tid\":\"7\"}",
+                WalTailStandIn.document(45, "c2",
+                        "{\"_key\":\"9\",\"_rev\":\"_b\",\"_from\":\"imdb_vertices/1\",\"_to\":\"imdb_vertices/2\"}"),
+                WalTailStandIn.removal(46, "c1", "3"),
+                WalTailStandIn.document(47, "unknown", "{\"_key\":\"1\",\"_rev\":\"_c\"}")), 47, true, true);
+
+        WalTailClient.Batch batch = client.tail(42, 0);
+        assertEquals(47, batch.getLastIncluded());
+        assertEquals(47, batch.getLastScanned());
+        assertTrue(batch.isCheckMore());
+        assertTrue(batch.isFromPresent());
+        assertEquals(3, batch.getChanges().size());
+
+        WalTailClient.Change vertex = batch.getChanges().get(0);
+        assertEquals("imdb_vertices/1", vertex.getId());
+        assertEquals("_a", vertex.getRevision());
+        assertTrue(vertex.getDocument().contains("\"_id\":\"imdb_vertices/1\""));
+        assertFalse(vertex.isEdge());
+        assertFalse(vertex.isRemoved());
+
+        WalTailClient.Change edge = batch.getChanges().get(1);
+        assertEquals("imdb_edges/9", edge.getId());
+        assertTrue(edge.isEdge());
+        assertEquals("imdb_vertices/1", edge.getFrom());
+        assertEquals("imdb_vertices/2", edge.getTo());
+
+        WalTailClient.Change removal = batch.getChanges().get(2);
+        assertEquals("imdb_vertices/3", removal.getId());
+        assertTrue(removal.isRemoved());
+        assertNull(removal.getDocument());
+
+        WalTailClient.Batch empty = client.tail(47, 47);
+        assertTrue(empty.getChanges().isEmpty());
+        assertEquals(0, empty.getLastIncluded());
+        assertFalse(empty.isCheckMore());
+
+        List<String> requests = standIn.getRequests();
+        assertTrue(requests.contains("/_db/standin/_api/wal/tail?from=42&lastScanned=0&chunkSize="
+                + WalTailClient.CHUNK_SIZE));
+        assertTrue(requests.contains("/_db/standin/_api/wal/tail?from=47&lastScanned=47&chunkSize="
+                + WalTailClient.CHUNK_SIZE));
+        String credentials = Base64.getEncoder().encodeToString("root:secret".getBytes(StandardCharsets.UTF_8));
+        assertTrue(standIn.getAuthorizations().stream().allMatch(("Basic " + credentials)::equals));
+    }
+
+    @Test
+    @DisplayName("WalTailClient::tail Test if a tick no longer in the log and failed requests are reported")
+    public void testTailErrors() throws IOException {
+        standIn.addTail(List.of(), 0, false, false);
+        assertFalse(client.tail(1, 0).isFromPresent());
+
+        ConnectionDetails unknownDatabase = new ConnectionDetails("StandIn", "localhost",
+                standIn.getConnectionDetails().getPort(), "root", "secret", "unknown");
+        IOException error = assertThrows(IOException.class, () -> new WalTailClient(unknownDatabase).getLastTick());
+        assertTrue(error.getMessage().contains("404"));
+    }
+}
@@ -27,6 +27,7 @@ public class DependsOnConnectionManager {
     }
 
     protected void tearConnection() {
+        connectionManager.close();
         File file = new File(connectionManager.getFilePath());
         file.delete();
     }
@@ -0,0 +1,127 @@
+package com.github.hugowschneider.cyarangodb.internal.test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionDetails;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local stand-in for the write-ahead log tailing API of ArangoDB, serving
+ * the last tick, the collection list and queued tailing responses.
+ */
+public class WalTailStandIn implements AutoCloseable {
+
+    public static final String DATABASE = "standin";
+
+    private final HttpServer server;
+    private final Deque<Object[]> tails = new ConcurrentLinkedDeque<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private volatile long lastTick = 100;
+    private volatile Map<String, String> collections = Map.of();
+
+    public WalTailStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/_db/" + DATABASE + "/_api/", this::handle);
+        server.start();
+    }
+
+    public ConnectionDetails getConnectionDetails() {
+        return new ConnectionDetails("StandIn", "localhost", server.getAddress().getPort(), "root", "secret",
+                DATABASE);
+    }
+
+    public void setLastTick(long lastTick) {
+        this.lastTick = lastTick;
+    }
+
+    public void setCollections(Map<String, String> collectionsByCuid) {
+        this.collections = collectionsByCuid;
+    }
+
+    /**
+     * Queues a tailing response with the given entries, served once.
+     */
+    public void addTail(List<String> entries, long lastIncluded, boolean checkMore, boolean fromPresent) {
+        tails.add(new Object[] { entries, lastIncluded, checkMore, fromPresent });
+    }
+
+    public static String document(long tick, String cuid, String data) {
+        return String.format("{\"tick\":\"%1$d\",\"type\":2300,\"db\":\"%2$s\",\"cuid\":\"%3$s\",\"data\":%4$s}",
+                tick, DATABASE, cuid, data);
+    }
+
+    public static String removal(long tick, String cuid, String key) {
+        return String.format(
+                "{\"tick\":\"%1$d\",\"type\":2302,\"db\":\"%2$s\",\"cuid\":\"%3$s\",\"data\":{\"_key\":\"%4$s\",\"_rev\":\"_r%1$d\"}}",
+                tick, DATABASE, cuid, key);
+    }
+
+    public List<String> getRequests() {
+        return new ArrayList<>(requests);
+    }
+
+    public List<String> getAuthorizations() {
+        return new ArrayList<>(authorizations);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getRawQuery();
+        requests.add(query == null ? path : path + "?" + query);
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+
+        if (path.endsWith("/_api/wal/lastTick")) {
+            respond(exchange, 200, String.format("{\"tick\":\"%1$d\",\"time\":\"2024-01-01T00:00:00Z\"}", lastTick));
+        } else if (path.endsWith("/_api/collection")) {
+            String result = collections.entrySet().stream()
+                    .map(e -> String.format("{\"globallyUniqueId\":\"%1$s\",\"name\":\"%2$s\"}", e.getKey(),
+                            e.getValue()))
+                    .collect(Collectors.joining(","));
+            respond(exchange, 200, "{\"error\":false,\"code\":200,\"result\":[" + result + "]}");
+        } else if (path.endsWith("/_api/wal/tail")) {
+            Object[] tail = tails.poll();
+            if (tail == null) {
+                exchange.getResponseHeaders().add("x-arango-replication-lastincluded", "0");
+                exchange.getResponseHeaders().add("x-arango-replication-checkmore", "false");
+                exchange.getResponseHeaders().add("x-arango-replication-frompresent", "true");
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            List<String> entries = (List<String>) tail[0];
+            exchange.getResponseHeaders().add("x-arango-replication-lastincluded", String.valueOf(tail[1]));
+            exchange.getResponseHeaders().add("x-arango-replication-lastscanned", String.valueOf(tail[1]));
+            exchange.getResponseHeaders().add("x-arango-replication-checkmore", String.valueOf(tail[2]));
+            exchange.getResponseHeaders().add("x-arango-replication-frompresent", String.valueOf(tail[3]));
+            respond(exchange, 200, String.join("\n", entries) + "\n");
+        } else {
+            respond(exchange, 404, "{\"error\":true,\"code\":404,\"errorMessage\":\"unknown path\"}");
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.hugowschneider.cyarangodb.internal.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import com.arangodb.ArangoDatabase;
+import com.arangodb.entity.BaseDocument;
+import com.github.hugowschneider.cyarangodb.internal.test.DependsOnConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.test.Helper;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class DetailDialogTest extends DependsOnConnectionManager {
+
+    @BeforeAll
+    public void setUpAll() {
+        super.setupConnection();
+    }
+
+    @AfterAll
+    public void tearDownAll() {
+        super.tearConnection();
+    }
+
+    @Test
+    @DisplayName("DetailDialog::fetchIfChanged Test if the document is only read when its revision changed")
+    public void testFetchIfChanged() {
+        ArangoDatabase database = connectionManager.getArangoDatabase(connectionId);
+        String id = Helper.EXISTING_NODE_IDS.get(0);
+        String[] parts = id.split("/");
+        String revision = database.collection(parts[0]).getDocument(parts[1], BaseDocument.class).getRevision();
+
+        DetailDialog.FetchResult<BaseDocument> unchanged = DetailDialog.fetchIfChanged(database, id, revision,
+                BaseDocument.class);
+        assertTrue(unchanged.exists());
+        assertFalse(unchanged.isChanged());
+        assertNull(unchanged.getDocument());
+
+        DetailDialog.FetchResult<BaseDocument> changed = DetailDialog.fetchIfChanged(database, id, "stale",
+                BaseDocument.class);
+        assertTrue(changed.exists());
+        assertTrue(changed.isChanged());
+        assertEquals(revision, changed.getDocument().getRevision());
+
+        DetailDialog.FetchResult<BaseDocument> missing = DetailDialog.fetchIfChanged(database,
+                "imdb_vertices/does-not-exist", revision, BaseDocument.class);
+        assertFalse(missing.exists());
+        assertFalse(missing.isChanged());
+    }
+}
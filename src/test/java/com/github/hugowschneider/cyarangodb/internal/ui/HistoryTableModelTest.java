@@ -0,0 +1,82 @@
+package com.github.hugowschneider.cyarangodb.internal.ui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.hugowschneider.cyarangodb.internal.connection.ConnectionManager;
+import com.github.hugowschneider.cyarangodb.internal.connection.QueryHistoryStore;
+import com.github.hugowschneider.cyarangodb.internal.test.Helper;
+
+public class HistoryTableModelTest {
+
+    @TempDir
+    File tempDir;
+
+    private ConnectionManager connectionManager;
+    private String connectionId;
+    private HistoryTableModel model;
+
+    @BeforeEach
+    public void setUp() {
+        connectionManager = new ConnectionManager(tempDir.getAbsolutePath());
+        connectionId = connectionManager.addConnection(Helper.createConnectionDetails());
+        connectionManager.getConnection(connectionId).setHistoryLimit(0);
+        model = new HistoryTableModel(connectionManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionManager.close();
+    }
+
+    @Test
+    @DisplayName("HistoryTableModel::getValueAt fetches only the pages of the requested rows")
+    public void testPaging() {
+        int entries = HistoryTableModel.PAGE_SIZE * (HistoryTableModel.MAX_CACHED_PAGES + 5);
+        for (int i = 0; i < entries; i++) {
+            connectionManager.addQueryToHistory(connectionId, "RETURN " + i);
+        }
+        model.load(connectionId, QueryHistoryStore.Order.RECENT);
+
+        assertEquals(entries, model.getRowCount());
+        assertEquals(0, model.getCachedPageCount());
+        assertEquals("RETURN " + (entries - 1), model.getValueAt(0, 2));
+        assertEquals("RETURN 0", model.getValueAt(entries - 1, 2));
+        assertEquals(2, model.getCachedPageCount());
+
+        for (int row = 0; row < entries; row += HistoryTableModel.PAGE_SIZE) {
+            model.getValueAt(row, 2);
+        }
+        assertEquals(HistoryTableModel.MAX_CACHED_PAGES, model.getCachedPageCount());
+
+        connectionManager.deleteQueryHistory(connectionId, 0);
+        model.refresh();
+        assertEquals(entries - 1, model.getRowCount());
+        assertEquals("RETURN " + (entries - 2), model.getValueAt(0, 2));
+        assertEquals("Run", model.getValueAt(0, HistoryTableModel.RUN_COLUMN));
+        assertNull(model.getEntry(entries));
+    }
+
+    @Test
+    @DisplayName("HistoryTableModel::abbreviate shortens queries to a single line")
+    public void testAbbreviate() {
+        assertEquals("FOR d IN docs RETURN d", HistoryTableModel.abbreviate("FOR d IN docs\n    RETURN d\n"));
+
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            query.append("RETURN ").append(i).append('\n');
+        }
+        String abbreviated = HistoryTableModel.abbreviate(query.toString());
+        assertEquals(HistoryTableModel.MAX_QUERY_LENGTH, abbreviated.length());
+        assertTrue(abbreviated.endsWith("..."));
+    }
+}